@@ -0,0 +1,109 @@
+package com.example.demo.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.example.demo.model.ApiObject;
+import com.example.demo.model.Post;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+/**
+ * Decoding and encoding the {@code List<Post>} and {@code List<ApiObject>} payloads as JSON, CBOR
+ * and Smile, the formats serviceclient.{name}.binary-format negotiates. The payload size of each
+ * format is printed once per fork.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BinaryFormatBenchmark {
+
+    private static final TypeReference<List<Post>> POSTS = new TypeReference<>() {};
+    private static final TypeReference<List<ApiObject>> API_OBJECTS = new TypeReference<>() {};
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param({"100"})
+    public int count;
+
+    private ObjectMapper mapper;
+    private List<Post> posts;
+    private byte[] postsBytes;
+    private byte[] apiObjectsBytes;
+
+    @Setup
+    public void setUp() {
+        JsonMapper json = JsonMapper.builder().build();
+        Post post = json.readValue(StubServer.POST_JSON, Post.class);
+        ApiObject apiObject = json.readValue(StubServer.API_OBJECT_JSON, ApiObject.class);
+        posts = new ArrayList<>(count);
+        List<ApiObject> apiObjects = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            posts.add(new Post(id, post.userId(), post.title(), post.body()));
+            apiObjects.add(
+                    new ApiObject(
+                            String.valueOf(id),
+                            apiObject.name(),
+                            apiObject.data(),
+                            apiObject.createdAt(),
+                            apiObject.updatedAt()));
+        }
+        mapper =
+                switch (format) {
+                    case "json" -> json;
+                    case "cbor" -> CBORMapper.builder().build();
+                    case "smile" -> SmileMapper.builder().build();
+                    default -> throw new IllegalArgumentException("Unknown format: " + format);
+                };
+        postsBytes = mapper.writeValueAsBytes(posts);
+        apiObjectsBytes = mapper.writeValueAsBytes(apiObjects);
+        System.out.println(
+                "=== "
+                        + format
+                        + ": "
+                        + count
+                        + " posts "
+                        + postsBytes.length
+                        + " bytes, "
+                        + count
+                        + " api objects "
+                        + apiObjectsBytes.length
+                        + " bytes ===");
+    }
+
+    @Benchmark
+    public List<Post> decodePosts() {
+        return mapper.readValue(postsBytes, POSTS);
+    }
+
+    @Benchmark
+    public List<ApiObject> decodeApiObjects() {
+        return mapper.readValue(apiObjectsBytes, API_OBJECTS);
+    }
+
+    @Benchmark
+    public byte[] encodePosts() {
+        return mapper.writeValueAsBytes(posts);
+    }
+}
@@ -0,0 +1,403 @@
+package com.example.demo.benchmark;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import com.example.demo.client.jph.JsonPlaceholderClient;
+import com.example.demo.metrics.LatencyHistogram;
+
+import org.eclipse.jetty.client.HttpClient;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.http.client.ClientHttpRequestFactoryBuilder;
+import org.springframework.boot.http.client.HttpClientSettings;
+import org.springframework.boot.http.client.JettyClientHttpRequestFactoryBuilder;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.web.client.ApiVersionInserter;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.support.RestClientAdapter;
+import org.springframework.web.service.invoker.HttpServiceProxyFactory;
+
+/**
+ * Load test of the {@code spring.http.clients.imperative.factory} options. Drives {@code
+ * JsonPlaceholderClient.getPostById} through an {@link HttpServiceProxyFactory} proxy, the way an
+ * {@code @ImportHttpServices} group does, against a {@link StubServer} with a fixed upstream
+ * latency and payload size. Every factory runs with default settings on platform and virtual
+ * threads at increasing concurrency, each worker sending requests back to back (closed loop).
+ *
+ * <p>Reported per run: throughput, latency percentiles, client sockets the upstream saw, peak heap
+ * used during the run and heap still used after a GC while the factory is open. Arguments are
+ * {@code key=value} pairs; see {@link Options} for the keys and defaults.
+ *
+ * <pre>
+ * mvn -Pjmh test-compile exec:exec@load -Dload.args="factories=jetty,jdk concurrency=1,64"
+ * </pre>
+ */
+public final class FactoryLoadBenchmark {
+
+    private static final Map<String, Supplier<ClientHttpRequestFactoryBuilder<?>>> FACTORIES =
+            new LinkedHashMap<>();
+
+    static {
+        FACTORIES.put("http-components", ClientHttpRequestFactoryBuilder::httpComponents);
+        FACTORIES.put("jetty", ClientHttpRequestFactoryBuilder::jetty);
+        FACTORIES.put("reactor", ClientHttpRequestFactoryBuilder::reactor);
+        FACTORIES.put("jdk", ClientHttpRequestFactoryBuilder::jdk);
+        FACTORIES.put("simple", ClientHttpRequestFactoryBuilder::simple);
+    }
+
+    private final Options options;
+    private final StubServer server;
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    private FactoryLoadBenchmark(Options options, StubServer server) {
+        this.options = options;
+        this.server = server;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        System.out.println("=== Factory load benchmark: " + options + " ===");
+        List<Result> results = new ArrayList<>();
+        try (StubServer server = StubServer.start(options.latency(), options.payloadBytes())) {
+            FactoryLoadBenchmark benchmark = new FactoryLoadBenchmark(options, server);
+            System.out.println(Result.HEADER);
+            for (String factory : options.factories()) {
+                for (String threads : options.threads()) {
+                    for (int concurrency : options.concurrency()) {
+                        Result result = benchmark.run(factory, threads, concurrency);
+                        System.out.println(result.toRow());
+                        results.add(result);
+                    }
+                }
+            }
+        }
+        if (options.report() != null) {
+            writeCsv(options.report(), results);
+            System.out.println("=== Report written to " + options.report() + " ===");
+        }
+    }
+
+    private Result run(String factory, String threads, int concurrency) throws Exception {
+        // Jetty's factory does not stop an HttpClient it was given, so the run has to
+        List<HttpClient> jettyClients = new ArrayList<>();
+        ClientHttpRequestFactoryBuilder<?> builder = FACTORIES.get(factory).get();
+        if (builder instanceof JettyClientHttpRequestFactoryBuilder jetty) {
+            builder = jetty.withHttpClientCustomizer(jettyClients::add);
+        }
+        ClientHttpRequestFactory requestFactory = builder.build(HttpClientSettings.defaults());
+        try {
+            JsonPlaceholderClient client = createClient(requestFactory);
+            drive(client, threads, concurrency, options.warmup(), null);
+
+            System.gc();
+            server.resetClientSockets();
+            Recorder recorder = new Recorder();
+            HeapSampler heap = HeapSampler.start(memory);
+            long start = System.nanoTime();
+            drive(client, threads, concurrency, options.duration(), recorder);
+            long elapsedNanos = System.nanoTime() - start;
+            long peakHeap = heap.stop();
+
+            System.gc();
+            long retainedHeap = memory.getHeapMemoryUsage().getUsed();
+            if (recorder.firstError.get() != null) {
+                System.out.println("    first error: " + recorder.firstError.get());
+            }
+            return new Result(
+                    factory,
+                    threads,
+                    concurrency,
+                    recorder.latencies.snapshot(),
+                    recorder.errors.get(),
+                    elapsedNanos,
+                    server.getClientSocketCount(),
+                    peakHeap,
+                    retainedHeap);
+        } finally {
+            close(requestFactory);
+            for (HttpClient httpClient : jettyClients) {
+                httpClient.stop();
+            }
+        }
+    }
+
+    private JsonPlaceholderClient createClient(ClientHttpRequestFactory requestFactory) {
+        RestClient restClient =
+                RestClient.builder()
+                        .baseUrl(server.baseUrl())
+                        .requestFactory(requestFactory)
+                        .apiVersionInserter(ApiVersionInserter.useHeader("X-API-VERSION"))
+                        .build();
+        return HttpServiceProxyFactory.builderFor(RestClientAdapter.create(restClient))
+                .build()
+                .createClient(JsonPlaceholderClient.class);
+    }
+
+    private static void drive(
+            JsonPlaceholderClient client,
+            String threads,
+            int concurrency,
+            Duration duration,
+            @Nullable Recorder recorder) {
+        long deadline = System.nanoTime() + duration.toNanos();
+        try (ExecutorService executor =
+                "virtual".equals(threads)
+                        ? Executors.newVirtualThreadPerTaskExecutor()
+                        : Executors.newFixedThreadPool(concurrency)) {
+            for (int i = 0; i < concurrency; i++) {
+                executor.execute(
+                        () -> {
+                            while (System.nanoTime() < deadline) {
+                                long start = System.nanoTime();
+                                try {
+                                    client.getPostById(1L);
+                                    if (recorder != null) {
+                                        recorder.latencies.recordNanos(System.nanoTime() - start);
+                                    }
+                                } catch (RuntimeException e) {
+                                    if (recorder != null) {
+                                        recorder.errors.incrementAndGet();
+                                        recorder.firstError.compareAndSet(null, e.toString());
+                                    }
+                                }
+                            }
+                        });
+            }
+        }
+    }
+
+    private static void close(ClientHttpRequestFactory requestFactory) throws Exception {
+        if (requestFactory instanceof DisposableBean disposable) {
+            disposable.destroy();
+        } else if (requestFactory instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    private static void writeCsv(Path report, List<Result> results) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add(Result.CSV_HEADER);
+        results.forEach(result -> lines.add(result.toCsv()));
+        Path parent = report.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.write(report, lines);
+    }
+
+    /** What the workers of the measured phase record. */
+    private static final class Recorder {
+
+        private final LatencyHistogram latencies = new LatencyHistogram();
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicReference<@Nullable String> firstError = new AtomicReference<>();
+    }
+
+    /** Polls the used heap so short-lived peaks between GCs are not missed. */
+    private static final class HeapSampler {
+
+        private final MemoryMXBean memory;
+        private final Thread thread;
+        private volatile boolean running = true;
+        private volatile long peak;
+
+        private HeapSampler(MemoryMXBean memory) {
+            this.memory = memory;
+            this.thread = Thread.ofPlatform().daemon().name("heap-sampler").unstarted(this::poll);
+        }
+
+        static HeapSampler start(MemoryMXBean memory) {
+            HeapSampler sampler = new HeapSampler(memory);
+            sampler.thread.start();
+            return sampler;
+        }
+
+        private void poll() {
+            while (running) {
+                peak = Math.max(peak, memory.getHeapMemoryUsage().getUsed());
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+        long stop() throws InterruptedException {
+            running = false;
+            thread.join();
+            return Math.max(peak, memory.getHeapMemoryUsage().getUsed());
+        }
+    }
+
+    /**
+     * @param factories the factories to run ({@code factories=}, default all five)
+     * @param threads platform and/or virtual worker threads ({@code threads=})
+     * @param concurrency the worker counts to step through ({@code concurrency=1,8,32,128})
+     * @param warmup unmeasured load before every run ({@code warmup=5s})
+     * @param duration the measured load per run ({@code duration=15s})
+     * @param latency the stub upstream's delay per response ({@code latency=20ms})
+     * @param payloadBytes the response body size ({@code payload=1024})
+     * @param report where to write the CSV report ({@code report=}, "none" to skip)
+     */
+    record Options(
+            List<String> factories,
+            List<String> threads,
+            List<Integer> concurrency,
+            Duration warmup,
+            Duration duration,
+            Duration latency,
+            int payloadBytes,
+            @Nullable Path report) {
+
+        static Options parse(String[] args) {
+            Map<String, String> values = new LinkedHashMap<>();
+            values.put("factories", String.join(",", FACTORIES.keySet()));
+            values.put("threads", "platform,virtual");
+            values.put("concurrency", "1,8,32,128");
+            values.put("warmup", "5s");
+            values.put("duration", "15s");
+            values.put("latency", "20ms");
+            values.put("payload", "1024");
+            values.put("report", "target/factory-load-benchmark.csv");
+            for (String arg : args) {
+                int separator = arg.indexOf('=');
+                if (separator < 0 || !values.containsKey(arg.substring(0, separator))) {
+                    throw new IllegalArgumentException(
+                            "Expected key=value with key in " + values.keySet() + ": " + arg);
+                }
+                values.put(arg.substring(0, separator), arg.substring(separator + 1));
+            }
+
+            List<String> factories = split(values.get("factories"));
+            for (String factory : factories) {
+                if (!FACTORIES.containsKey(factory)) {
+                    throw new IllegalArgumentException(
+                            "Unknown factory '" + factory + "', expected " + FACTORIES.keySet());
+                }
+            }
+            List<String> threads = split(values.get("threads"));
+            for (String kind : threads) {
+                if (!kind.equals("platform") && !kind.equals("virtual")) {
+                    throw new IllegalArgumentException(
+                            "Unknown threads '" + kind + "', expected platform or virtual");
+                }
+            }
+            String report = values.get("report");
+            return new Options(
+                    factories,
+                    threads,
+                    split(values.get("concurrency")).stream().map(Integer::valueOf).toList(),
+                    DurationStyle.detectAndParse(values.get("warmup")),
+                    DurationStyle.detectAndParse(values.get("duration")),
+                    DurationStyle.detectAndParse(values.get("latency")),
+                    Integer.parseInt(values.get("payload")),
+                    "none".equals(report) ? null : Path.of(report));
+        }
+
+        private static List<String> split(String value) {
+            return Arrays.stream(value.split(",")).map(String::trim).toList();
+        }
+    }
+
+    record Result(
+            String factory,
+            String threads,
+            int concurrency,
+            LatencyHistogram.Snapshot latencies,
+            long errors,
+            long elapsedNanos,
+            int sockets,
+            long peakHeapBytes,
+            long retainedHeapBytes) {
+
+        static final String HEADER =
+                String.format(
+                        "%-16s %-8s %6s %10s %8s %8s %8s %8s %8s %7s %7s %9s %9s",
+                        "factory",
+                        "threads",
+                        "conc",
+                        "req/s",
+                        "p50 ms",
+                        "p90 ms",
+                        "p99 ms",
+                        "p999 ms",
+                        "max ms",
+                        "errors",
+                        "sockets",
+                        "peak MB",
+                        "retain MB");
+
+        static final String CSV_HEADER =
+                "factory,threads,concurrency,requests,errors,throughput,p50_ms,p90_ms,p99_ms,"
+                        + "p999_ms,max_ms,sockets,peak_heap_mb,retained_heap_mb";
+
+        double throughput() {
+            return latencies.getCount() * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        String toRow() {
+            return String.format(
+                    Locale.ROOT,
+                    "%-16s %-8s %6d %10.1f %8.2f %8.2f %8.2f %8.2f %8.2f %7d %7d %9.1f %9.1f",
+                    factory,
+                    threads,
+                    concurrency,
+                    throughput(),
+                    millis(50),
+                    millis(90),
+                    millis(99),
+                    millis(99.9),
+                    latencies.getMaxMicros() / 1000.0,
+                    errors,
+                    sockets,
+                    megabytes(peakHeapBytes),
+                    megabytes(retainedHeapBytes));
+        }
+
+        String toCsv() {
+            return String.format(
+                    Locale.ROOT,
+                    "%s,%s,%d,%d,%d,%.1f,%.3f,%.3f,%.3f,%.3f,%.3f,%d,%.1f,%.1f",
+                    factory,
+                    threads,
+                    concurrency,
+                    latencies.getCount(),
+                    errors,
+                    throughput(),
+                    millis(50),
+                    millis(90),
+                    millis(99),
+                    millis(99.9),
+                    latencies.getMaxMicros() / 1000.0,
+                    sockets,
+                    megabytes(peakHeapBytes),
+                    megabytes(retainedHeapBytes));
+        }
+
+        private double millis(double percentile) {
+            return latencies.getValueAtPercentile(percentile) / 1000.0;
+        }
+
+        private static double megabytes(long bytes) {
+            return bytes / (1024.0 * 1024.0);
+        }
+    }
+}
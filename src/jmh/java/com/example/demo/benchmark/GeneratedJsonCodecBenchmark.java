@@ -0,0 +1,131 @@
+package com.example.demo.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.example.demo.model.ApiObject;
+import com.example.demo.model.GeneratedJsonCodecs;
+import com.example.demo.model.Post;
+import com.example.demo.model.User;
+import com.example.demo.model.UserContact;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Decoding and encoding lists of model records with Jackson's reflective record binding and with
+ * the compile-time codecs of {@code GeneratedJsonCodecs}, which generated-json-codecs.enabled
+ * registers with the service clients' JsonMapper, and decoding users into the {@link UserContact}
+ * projection.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeneratedJsonCodecBenchmark {
+
+    private static final TypeReference<List<Post>> POSTS = new TypeReference<>() {};
+    private static final TypeReference<List<User>> USERS = new TypeReference<>() {};
+    private static final TypeReference<List<UserContact>> USER_CONTACTS = new TypeReference<>() {};
+    private static final TypeReference<List<ApiObject>> API_OBJECTS = new TypeReference<>() {};
+
+    @Param({"reflective", "generated"})
+    public String binding;
+
+    @Param({"100"})
+    public int count;
+
+    private JsonMapper mapper;
+    private List<Post> posts;
+    private List<User> users;
+    private byte[] postsJson;
+    private byte[] usersJson;
+    private byte[] apiObjectsJson;
+
+    @Setup
+    public void setUp() {
+        JsonMapper reflective = JsonMapper.builder().build();
+        Post post = reflective.readValue(StubServer.POST_JSON, Post.class);
+        User user = reflective.readValue(StubServer.USER_JSON, User.class);
+        ApiObject apiObject = reflective.readValue(StubServer.API_OBJECT_JSON, ApiObject.class);
+        posts = new ArrayList<>(count);
+        users = new ArrayList<>(count);
+        List<ApiObject> apiObjects = new ArrayList<>(count);
+        for (long id = 1; id <= count; id++) {
+            posts.add(new Post(id, post.userId(), post.title(), post.body()));
+            users.add(
+                    new User(
+                            id,
+                            user.name(),
+                            user.username(),
+                            user.email(),
+                            user.address(),
+                            user.phone(),
+                            user.website(),
+                            user.company()));
+            apiObjects.add(
+                    new ApiObject(
+                            String.valueOf(id),
+                            apiObject.name(),
+                            apiObject.data(),
+                            apiObject.createdAt(),
+                            apiObject.updatedAt()));
+        }
+        mapper =
+                switch (binding) {
+                    case "reflective" -> reflective;
+                    case "generated" ->
+                            reflective.rebuild().addModule(GeneratedJsonCodecs.module()).build();
+                    default -> throw new IllegalArgumentException("Unknown binding: " + binding);
+                };
+        postsJson = reflective.writeValueAsBytes(posts);
+        usersJson = reflective.writeValueAsBytes(users);
+        apiObjectsJson = reflective.writeValueAsBytes(apiObjects);
+    }
+
+    @Benchmark
+    public List<Post> decodePosts() {
+        return mapper.readValue(postsJson, POSTS);
+    }
+
+    @Benchmark
+    public List<User> decodeUsers() {
+        return mapper.readValue(usersJson, USERS);
+    }
+
+    // The same payload as decodeUsers, bound to a projection that skips address and company
+    @Benchmark
+    public List<UserContact> decodeUserContacts() {
+        return mapper.readValue(usersJson, USER_CONTACTS);
+    }
+
+    @Benchmark
+    public List<ApiObject> decodeApiObjects() {
+        return mapper.readValue(apiObjectsJson, API_OBJECTS);
+    }
+
+    @Benchmark
+    public byte[] encodePosts() {
+        return mapper.writeValueAsBytes(posts);
+    }
+
+    @Benchmark
+    public byte[] encodeUsers() {
+        return mapper.writeValueAsBytes(users);
+    }
+}
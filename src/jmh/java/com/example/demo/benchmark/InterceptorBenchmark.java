@@ -0,0 +1,149 @@
+package com.example.demo.benchmark;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import com.example.demo.config.CustomErrorHandler;
+import com.example.demo.config.LoggingInterceptor;
+import com.example.demo.model.Post;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.web.client.OAuth2ClientHttpRequestInterceptor;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+
+/**
+ * The same GET through RestClients that differ only in one interceptor or error handler. Subtract
+ * {@code baseline} to get the cost of each. Console output of {@link LoggingInterceptor} and {@link
+ * CustomErrorHandler} goes to a null stream, so formatting is measured but terminal I/O is not.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InterceptorBenchmark {
+
+    private static final String REGISTRATION_ID = "stub";
+
+    private StubServer server;
+    private PrintStream out;
+    private PrintStream err;
+
+    private RestClient baseline;
+    private RestClient logging;
+    private RestClient customErrorHandler;
+    private RestClient oauth2;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        server = StubServer.start();
+        out = System.out;
+        err = System.err;
+        PrintStream nullStream = new PrintStream(OutputStream.nullOutputStream());
+        System.setOut(nullStream);
+        System.setErr(nullStream);
+
+        baseline = builder().build();
+        logging = builder().requestInterceptor(new LoggingInterceptor()).build();
+        customErrorHandler = builder().defaultStatusHandler(new CustomErrorHandler()).build();
+        oauth2 = builder().requestInterceptor(createOAuth2Interceptor()).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.setOut(out);
+        System.setErr(err);
+        server.close();
+    }
+
+    private RestClient.Builder builder() {
+        return RestClient.builder().baseUrl(server.baseUrl());
+    }
+
+    // Authorizes from a fixed client, so the token endpoint is not part of the measurement
+    private static OAuth2ClientHttpRequestInterceptor createOAuth2Interceptor() {
+        ClientRegistration registration =
+                ClientRegistration.withRegistrationId(REGISTRATION_ID)
+                        .clientId("benchmark")
+                        .clientSecret("secret")
+                        .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+                        .tokenUri("http://localhost/oauth2/token")
+                        .build();
+        Instant issuedAt = Instant.now();
+        OAuth2AccessToken token =
+                new OAuth2AccessToken(
+                        OAuth2AccessToken.TokenType.BEARER,
+                        "benchmark-token",
+                        issuedAt,
+                        issuedAt.plusSeconds(3600));
+        OAuth2AuthorizedClient authorizedClient =
+                new OAuth2AuthorizedClient(registration, "benchmark", token);
+        OAuth2AuthorizedClientManager manager = request -> authorizedClient;
+        OAuth2ClientHttpRequestInterceptor interceptor =
+                new OAuth2ClientHttpRequestInterceptor(manager);
+        interceptor.setClientRegistrationIdResolver(request -> REGISTRATION_ID);
+        return interceptor;
+    }
+
+    @Benchmark
+    public Post baseline() {
+        return getPost(baseline);
+    }
+
+    @Benchmark
+    public Post loggingInterceptor() {
+        return getPost(logging);
+    }
+
+    @Benchmark
+    public Post customErrorHandler() {
+        return getPost(customErrorHandler);
+    }
+
+    @Benchmark
+    public Post oauth2Interceptor() {
+        return getPost(oauth2);
+    }
+
+    @Benchmark
+    public Object baselineNotFound() {
+        return getMissing(baseline);
+    }
+
+    @Benchmark
+    public Object customErrorHandlerNotFound() {
+        return getMissing(customErrorHandler);
+    }
+
+    private static Post getPost(RestClient restClient) {
+        return restClient.get().uri("/posts/1").retrieve().body(Post.class);
+    }
+
+    private static Object getMissing(RestClient restClient) {
+        try {
+            return restClient.get().uri("/missing").retrieve().toBodilessEntity();
+        } catch (HttpClientErrorException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.demo.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import com.example.demo.model.ApiObject;
+import com.example.demo.model.User;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.JacksonJsonHttpMessageConverter;
+import org.springframework.mock.http.MockHttpInputMessage;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Jackson deserialization of the response models, on their own and through the message converter
+ * RestClient uses, which adds content type handling and the input message around the same mapper.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonDeserializationBenchmark {
+
+    private final byte[] userJson = StubServer.USER_JSON.getBytes(StandardCharsets.UTF_8);
+    private final byte[] apiObjectJson =
+            StubServer.API_OBJECT_JSON.getBytes(StandardCharsets.UTF_8);
+
+    private final JsonMapper mapper = JsonMapper.builder().build();
+    private final JacksonJsonHttpMessageConverter converter =
+            new JacksonJsonHttpMessageConverter(mapper);
+
+    @Benchmark
+    public User user() {
+        return mapper.readValue(userJson, User.class);
+    }
+
+    @Benchmark
+    public ApiObject apiObject() {
+        return mapper.readValue(apiObjectJson, ApiObject.class);
+    }
+
+    @Benchmark
+    public Object userThroughConverter() throws Exception {
+        MockHttpInputMessage message = new MockHttpInputMessage(userJson);
+        message.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return converter.read(User.class, message);
+    }
+}
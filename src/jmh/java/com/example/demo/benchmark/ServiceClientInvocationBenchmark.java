@@ -0,0 +1,83 @@
+package com.example.demo.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import com.example.demo.client.jph.JsonPlaceholderClient;
+import com.example.demo.config.restclient.HttpExchangeClients;
+import com.example.demo.model.Post;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.client.ApiVersionInserter;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.support.RestClientAdapter;
+import org.springframework.web.service.invoker.HttpServiceProxyFactory;
+
+/**
+ * {@code JsonPlaceholderClient.getPostById} through a hand-written RestClient call, an {@link
+ * HttpServiceProxyFactory} proxy and the compile-time implementation. All three share one
+ * RestClient and request factory, so the difference is the cost of the invocation layer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceClientInvocationBenchmark {
+
+    private StubServer server;
+    private RestClient restClient;
+    private JsonPlaceholderClient proxyClient;
+    private JsonPlaceholderClient generatedClient;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        server = StubServer.start();
+        restClient =
+                RestClient.builder()
+                        .baseUrl(server.baseUrl())
+                        .apiVersionInserter(ApiVersionInserter.useHeader("X-API-VERSION"))
+                        .build();
+        proxyClient =
+                HttpServiceProxyFactory.builderFor(RestClientAdapter.create(restClient))
+                        .build()
+                        .createClient(JsonPlaceholderClient.class);
+        generatedClient = HttpExchangeClients.create(restClient, JsonPlaceholderClient.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    public Post restClient() {
+        return restClient
+                .get()
+                .uri("/posts/{id}", 1L)
+                .apiVersion("2.0.0")
+                .retrieve()
+                .body(Post.class);
+    }
+
+    @Benchmark
+    public Post proxy() {
+        return proxyClient.getPostById(1L);
+    }
+
+    @Benchmark
+    public Post generated() {
+        return generatedClient.getPostById(1L);
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.demo.benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * In-process JSONPlaceholder stand-in, so the benchmarks measure the client stack rather than the
+ * network. Serves fixed JSON bodies on a loopback port; unknown paths return 404.
+ *
+ * <p>For load runs every response can be delayed by a fixed upstream latency, and {@code /posts/1}
+ * can be padded to a given payload size. The server also counts the client sockets it sees.
+ */
+final class StubServer implements AutoCloseable {
+
+    static final String POST_JSON =
+            """
+            {"id": 1, "userId": 1, "title": "sunt aut facere repellat provident", "body": "quia et suscipit suscipit recusandae consequuntur expedita et cum"}
+            """;
+
+    static final String USER_JSON =
+            """
+            {
+              "id": 1,
+              "name": "Leanne Graham",
+              "username": "Bret",
+              "email": "Sincere@april.biz",
+              "address": {
+                "street": "Kulas Light",
+                "suite": "Apt. 556",
+                "city": "Gwenborough",
+                "zipcode": "92998-3874",
+                "geo": {"lat": "-37.3159", "lng": "81.1496"}
+              },
+              "phone": "1-770-736-8031 x56442",
+              "website": "hildegard.org",
+              "company": {
+                "name": "Romaguera-Crona",
+                "catchPhrase": "Multi-layered client-server neural-net",
+                "bs": "harness real-time e-markets"
+              }
+            }
+            """;
+
+    static final String API_OBJECT_JSON =
+            """
+            {
+              "id": "7",
+              "name": "Apple MacBook Pro 16",
+              "data": {"year": 2019, "price": 1849.99, "CPU model": "Intel Core i9", "Hard disk size": "1 TB"},
+              "createdAt": "2022-11-21T20:06:23.986Z",
+              "updatedAt": "2022-11-21T20:06:23.986Z"
+            }
+            """;
+
+    static {
+        // Headers and body go out in separate writes; without TCP_NODELAY every response with a
+        // body waits for the client's delayed ACK (~40 ms)
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final HttpServer server;
+    private final long latencyMillis;
+    private final byte[] post;
+    private final byte[] user = USER_JSON.getBytes(StandardCharsets.UTF_8);
+    private final byte[] apiObject = API_OBJECT_JSON.getBytes(StandardCharsets.UTF_8);
+    private final Set<InetSocketAddress> clientSockets = ConcurrentHashMap.newKeySet();
+
+    private StubServer(HttpServer server, Duration latency, int payloadBytes) {
+        this.server = server;
+        this.latencyMillis = latency.toMillis();
+        this.post = createPost(payloadBytes);
+    }
+
+    static StubServer start() {
+        return start(Duration.ZERO, 0);
+    }
+
+    /**
+     * Start a server on a free loopback port.
+     *
+     * @param latency the delay before every response
+     * @param payloadBytes the minimum size of the {@code /posts/1} body; 0 for the plain fixture
+     * @return the started server
+     */
+    static StubServer start(Duration latency, int payloadBytes) {
+        try {
+            HttpServer httpServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            httpServer.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+            StubServer server = new StubServer(httpServer, latency, payloadBytes);
+            httpServer.createContext("/", server::handle);
+            httpServer.start();
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start stub server", e);
+        }
+    }
+
+    private static byte[] createPost(int payloadBytes) {
+        int padding = payloadBytes - POST_JSON.length();
+        if (padding <= 0) {
+            return POST_JSON.getBytes(StandardCharsets.UTF_8);
+        }
+        return """
+                {"id": 1, "userId": 1, "title": "sunt aut facere repellat provident", "body": "%s"}
+                """
+                .formatted("x".repeat(padding))
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        clientSockets.add(exchange.getRemoteAddress());
+        byte[] body =
+                switch (exchange.getRequestURI().getPath()) {
+                    case "/posts/1" -> post;
+                    case "/users/1" -> user;
+                    case "/objects/7" -> apiObject;
+                    default -> null;
+                };
+        exchange.getRequestBody().readAllBytes();
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (body == null) {
+            exchange.sendResponseHeaders(404, -1);
+        } else {
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+        }
+        exchange.close();
+    }
+
+    /**
+     * Get the number of distinct client sockets that sent a request since the last reset.
+     *
+     * @return the socket count
+     */
+    int getClientSocketCount() {
+        return clientSockets.size();
+    }
+
+    void resetClientSockets() {
+        clientSockets.clear();
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.demo.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a record for a compile-time Jackson serializer and deserializer.
+ *
+ * <p>{@link com.example.demo.processor.JsonCodecProcessor} writes {@code Generated<Name>JsonCodec}
+ * next to the record and a {@code GeneratedJsonCodecs} class per package whose {@code module()}
+ * registers all codecs of the package with a {@code JsonMapper}.
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface JsonCodec {}
@@ -0,0 +1,36 @@
+package com.example.demo.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the response fields an HTTP service method needs, for upstreams that return partial
+ * responses.
+ *
+ * <p>Without a value, the fields are the JSON property names of the method's projection type: the
+ * record the method returns, directly or as the element of a list, array, {@code Optional} or
+ * {@code ResponseEntity}. Jackson skips every other property of the response at the token level, so
+ * a projection such as {@code UserContact(id, name, username, email)} never binds a user's address
+ * or company, whether or not the upstream trims them.
+ *
+ * <p>Both the generated clients and the runtime proxies set the field list, comma-separated, as the
+ * {@link com.example.demo.config.restclient.HttpExchangeClients#RESPONSE_FIELDS_ATTRIBUTE} request
+ * attribute. A service client with {@code serviceclient.<name>.fields-parameter} sends it as that
+ * query parameter.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ResponseFields {
+
+    /**
+     * The field names to ask for, in the upstream's syntax, instead of the projection type's
+     * properties.
+     *
+     * @return the field names, or none to use the projection type's
+     */
+    String[] value() default {};
+}
@@ -1,9 +1,17 @@
 package com.example.demo.client.httpbin;
 
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+
 import com.example.demo.model.BasicAuthResponse;
 
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.service.annotation.GetExchange;
+import org.springframework.web.service.annotation.PostExchange;
 
 public interface HttpBinClient {
 
@@ -23,4 +31,26 @@ public interface HttpBinClient {
      */
     @GetExchange("/uuid")
     String getUuid();
+
+    /**
+     * Download n bytes to a file without holding them in memory. A partial file left by an
+     * interrupted download is resumed with a Range and If-Range request, which /range answers.
+     */
+    @GetExchange("/range/{n}")
+    ResponseEntity<Void> downloadRange(@PathVariable int n, Path target);
+
+    /** Stream n random bytes to a channel, e.g. a socket or a digest. */
+    @GetExchange("/bytes/{n}")
+    void streamBytes(@PathVariable int n, WritableByteChannel target);
+
+    /**
+     * Upload a file as the request body. With serviceclient.httpbin.streaming-uploads it goes from
+     * the file to the connection without being buffered on the heap.
+     */
+    @PostExchange(url = "/anything", contentType = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    ResponseEntity<Void> upload(@RequestBody Path file);
+
+    /** Upload a multipart form, e.g. with a FileSystemResource part, streamed the same way. */
+    @PostExchange(url = "/anything", contentType = MediaType.MULTIPART_FORM_DATA_VALUE)
+    ResponseEntity<Void> uploadForm(@RequestBody MultiValueMap<String, Object> parts);
 }
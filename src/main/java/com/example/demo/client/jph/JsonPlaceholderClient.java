@@ -2,9 +2,12 @@ package com.example.demo.client.jph;
 
 import java.util.List;
 
+import com.example.demo.annotation.ResponseFields;
 import com.example.demo.model.Comment;
 import com.example.demo.model.Post;
+import com.example.demo.model.PostSummary;
 import com.example.demo.model.User;
+import com.example.demo.model.UserContact;
 
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -18,6 +21,10 @@ public interface JsonPlaceholderClient {
     @GetExchange("/posts")
     List<Post> getAllPosts();
 
+    @ResponseFields
+    @GetExchange("/posts")
+    List<PostSummary> getPostSummaries();
+
     @GetExchange(url = "/posts/{id}", version = "2.0.0")
     Post getPostById(@PathVariable Long id);
 
@@ -36,6 +43,10 @@ public interface JsonPlaceholderClient {
     @GetExchange("/users")
     List<User> getAllUsers();
 
+    @ResponseFields
+    @GetExchange("/users")
+    List<UserContact> getUserContacts();
+
     @GetExchange("/users/{id}")
     User getUserById(@PathVariable Long id);
 
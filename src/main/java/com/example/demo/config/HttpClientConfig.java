@@ -1,22 +1,21 @@
 package com.example.demo.config;
 
 import com.example.demo.client.jph.JsonPlaceholderClient;
+import com.example.demo.config.restclient.ServiceClientJsonMapperCustomizer;
+import com.example.demo.model.GeneratedJsonCodecs;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.web.client.support.RestClientHttpServiceGroupConfigurer;
-import org.springframework.web.service.registry.ImportHttpServices;
 
 @Configuration
-@ImportHttpServices(
-        group = "jph",
-        types = {JsonPlaceholderClient.class})
-@ImportHttpServices(group = "github", basePackages = "com.example.demo.client.github")
-@ImportHttpServices(group = "otc", basePackages = "com.example.demo.client.otc")
-@ImportHttpServices(group = "httpbin", basePackages = "com.example.demo.client.httpbin")
+// The HTTP service groups are registered from the build-time index
 @Import(MyHttpServiceRegistrar.class)
+@ImportRuntimeHints(HttpServiceClientRuntimeHints.class)
 public class HttpClientConfig {
 
     @Value("${httpbin.auth.username}")
@@ -25,6 +24,21 @@ public class HttpClientConfig {
     @Value("${httpbin.auth.password}")
     private String httpbinPassword;
 
+    // Prints every exchange; the loadgen profile turns it off
+    @Value("${logging-interceptor.enabled:true}")
+    private boolean loggingInterceptorEnabled;
+
+    /**
+     * Registers the compile-time JSON codecs of the model records with the JsonMapper of the HTTP
+     * service and container clients only; the server side keeps reflective binding. Disable with
+     * generated-json-codecs.enabled=false to fall back to reflective binding.
+     */
+    @Bean
+    @ConditionalOnBooleanProperty(name = "generated-json-codecs.enabled", matchIfMissing = true)
+    public ServiceClientJsonMapperCustomizer generatedJsonCodecs() {
+        return builder -> builder.addModule(GeneratedJsonCodecs.module());
+    }
+
     @Bean
     public RestClientHttpServiceGroupConfigurer groupConfigurer() {
         return groups -> {
@@ -39,7 +53,9 @@ public class HttpClientConfig {
                             (group, clientBuilder) -> {
                                 clientBuilder.defaultStatusHandler(new CustomErrorHandler());
 
-                                clientBuilder.requestInterceptor(new LoggingInterceptor());
+                                if (loggingInterceptorEnabled) {
+                                    clientBuilder.requestInterceptor(new LoggingInterceptor());
+                                }
                                 // custom restclient builder
                                 // clientBuilder.apply((builder) -> {});
                             });
@@ -47,7 +63,9 @@ public class HttpClientConfig {
             groups.filterByName("ara")
                     .forEachClient(
                             (group, clientBuilder) -> {
-                                clientBuilder.requestInterceptor(new LoggingInterceptor());
+                                if (loggingInterceptorEnabled) {
+                                    clientBuilder.requestInterceptor(new LoggingInterceptor());
+                                }
                             });
 
             groups.filterByName("httpbin")
@@ -0,0 +1,110 @@
+package com.example.demo.config;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.demo.config.restclient.HttpExchangeClients;
+import com.example.demo.model.LazyJsonObject;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.service.annotation.HttpExchange;
+
+/**
+ * Native image hints for the HTTP service clients under {@code com.example.demo.client}.
+ *
+ * <p>Spring AOT already covers the {@code @ImportHttpServices} group beans. This registrar adds
+ * what only the {@code RestClientContainer} needs at runtime: the compile-time implementations that
+ * {@link HttpExchangeClients} looks up by name, JDK proxies for interfaces without one, and Jackson
+ * binding hints for the model records used as request and response bodies and the lazily decoded
+ * {@link LazyJsonObject}. The interfaces come from the {@link HttpServiceIndex}, or from a
+ * build-time classpath scan if there is none.
+ */
+public class HttpServiceClientRuntimeHints implements RuntimeHintsRegistrar {
+
+    static final String CLIENT_PACKAGE = "com.example.demo.client";
+
+    private final BindingReflectionHintsRegistrar bindingRegistrar =
+            new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, @Nullable ClassLoader classLoader) {
+        for (String typeName : findClientTypeNames(classLoader)) {
+            registerClientHints(hints, ClassUtils.resolveClassName(typeName, classLoader));
+        }
+        // Declared on the runtime type of ApiObject.data, which binding hints do not reach
+        bindingRegistrar.registerReflectionHints(hints.reflection(), LazyJsonObject.class);
+    }
+
+    private static List<String> findClientTypeNames(@Nullable ClassLoader classLoader) {
+        HttpServiceIndex index = HttpServiceIndex.load(classLoader);
+        List<String> indexed =
+                (index != null) ? index.getPresentTypeNames(CLIENT_PACKAGE, classLoader) : null;
+        if (indexed != null) {
+            return indexed;
+        }
+        List<String> typeNames = new ArrayList<>();
+        for (BeanDefinition candidate : createScanner().findCandidateComponents(CLIENT_PACKAGE)) {
+            typeNames.add(candidate.getBeanClassName());
+        }
+        return typeNames;
+    }
+
+    private void registerClientHints(RuntimeHints hints, Class<?> clientType) {
+        hints.proxies().registerJdkProxy(AopProxyUtils.completeJdkProxyInterfaces(clientType));
+
+        String generatedClassName = HttpExchangeClients.generatedClassName(clientType);
+        if (ClassUtils.isPresent(generatedClassName, clientType.getClassLoader())) {
+            hints.reflection()
+                    .registerType(
+                            TypeReference.of(generatedClassName),
+                            MemberCategory.INVOKE_PUBLIC_METHODS);
+        }
+
+        for (Method method : clientType.getMethods()) {
+            if (!AnnotatedElementUtils.hasAnnotation(method, HttpExchange.class)) {
+                continue;
+            }
+            bindingRegistrar.registerReflectionHints(
+                    hints.reflection(), method.getGenericReturnType());
+            for (Parameter parameter : method.getParameters()) {
+                if (parameter.isAnnotationPresent(RequestBody.class)) {
+                    bindingRegistrar.registerReflectionHints(
+                            hints.reflection(), parameter.getParameterizedType());
+                }
+            }
+        }
+    }
+
+    private static ClassPathScanningCandidateComponentProvider createScanner() {
+        ClassPathScanningCandidateComponentProvider scanner =
+                new ClassPathScanningCandidateComponentProvider(false) {
+                    @Override
+                    protected boolean isCandidateComponent(AnnotatedBeanDefinition definition) {
+                        return definition.getMetadata().isInterface();
+                    }
+                };
+        scanner.addIncludeFilter(
+                (reader, factory) ->
+                        reader.getClassMetadata().isInterface()
+                                && (reader.getAnnotationMetadata()
+                                                .hasAnnotation(HttpExchange.class.getName())
+                                        || reader.getAnnotationMetadata()
+                                                .hasAnnotatedMethods(
+                                                        HttpExchange.class.getName())));
+        return scanner;
+    }
+}
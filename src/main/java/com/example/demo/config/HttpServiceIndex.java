@@ -0,0 +1,121 @@
+package com.example.demo.config;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ * The {@code @HttpExchange} interfaces recorded at compile time by {@code
+ * HttpExchangeClientProcessor}. Looking up the interfaces of a package in the index replaces
+ * classpath scanning: no directory or jar walk, no class file parsing.
+ *
+ * <p>An index is only as current as the last build that wrote it, so {@link
+ * #getPresentTypeNames(String, ClassLoader)} tells callers when to scan a package instead.
+ */
+public final class HttpServiceIndex {
+
+    /** Classpath location of the index. */
+    public static final String INDEX_LOCATION = "META-INF/http-services.index";
+
+    private final Set<String> typeNames;
+
+    private HttpServiceIndex(Set<String> typeNames) {
+        this.typeNames = typeNames;
+    }
+
+    /**
+     * Load the index from every {@code META-INF/http-services.index} on the classpath.
+     *
+     * @param classLoader the class loader to search
+     * @return the merged index, or null if no index exists
+     */
+    public static @Nullable HttpServiceIndex load(@Nullable ClassLoader classLoader) {
+        ClassLoader loader =
+                (classLoader != null) ? classLoader : HttpServiceIndex.class.getClassLoader();
+        Set<String> typeNames = new TreeSet<>();
+        boolean found = false;
+        try {
+            Enumeration<URL> resources = loader.getResources(INDEX_LOCATION);
+            while (resources.hasMoreElements()) {
+                found = true;
+                read(resources.nextElement(), typeNames);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + INDEX_LOCATION, e);
+        }
+        return found ? new HttpServiceIndex(typeNames) : null;
+    }
+
+    private static void read(URL resource, Set<String> typeNames) throws IOException {
+        try (BufferedReader reader =
+                new BufferedReader(
+                        new InputStreamReader(resource.openStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    typeNames.add(line);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the indexed interfaces in a package and its sub-packages, like a scan of that package.
+     *
+     * @param basePackage the base package (e.g., "com.example.demo.client.ara")
+     * @return the binary names of the interfaces
+     */
+    public List<String> getTypeNames(String basePackage) {
+        String prefix = basePackage + ".";
+        List<String> result = new ArrayList<>();
+        for (String typeName : typeNames) {
+            if (typeName.startsWith(prefix)) {
+                result.add(typeName);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the indexed interfaces in a package like {@link #getTypeNames(String)}, if the index can
+     * stand in for a scan of it: it lists at least one interface there, and each one is still on
+     * the classpath.
+     *
+     * @param basePackage the base package (e.g., "com.example.demo.client.ara")
+     * @param classLoader the class loader the interfaces are loaded from
+     * @return the binary names of the interfaces, or null if the package should be scanned
+     */
+    public @Nullable List<String> getPresentTypeNames(
+            String basePackage, @Nullable ClassLoader classLoader) {
+        ClassLoader loader =
+                (classLoader != null) ? classLoader : HttpServiceIndex.class.getClassLoader();
+        List<String> result = getTypeNames(basePackage);
+        for (String typeName : result) {
+            // Checks the class file without loading the class
+            if (loader.getResource(typeName.replace('.', '/') + ".class") == null) {
+                return null;
+            }
+        }
+        return result.isEmpty() ? null : result;
+    }
+
+    /**
+     * Get all indexed interfaces.
+     *
+     * @return the binary names of the interfaces
+     */
+    public Set<String> getTypeNames() {
+        return typeNames;
+    }
+}
@@ -1,15 +1,92 @@
 package com.example.demo.config;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 import com.example.demo.client.ara.RestfulApiClient;
+import com.example.demo.client.github.GithubUserService;
+import com.example.demo.client.httpbin.HttpBinClient;
+import com.example.demo.client.jph.JsonPlaceholderClient;
+import com.example.demo.client.otc.SecondGithubUserService;
 
+import org.jspecify.annotations.Nullable;
+import org.springframework.core.env.Environment;
 import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.web.service.registry.AbstractHttpServiceRegistrar;
 
+/**
+ * Registers the application's HTTP service groups (ara, github, httpbin, jph and otc), each with
+ * the interfaces of one package.
+ *
+ * <p>By default the interfaces come from the build-time {@link HttpServiceIndex}. A package is
+ * scanned instead when the index is missing (e.g. the annotation processor did not run), has no
+ * entry for it or lists an interface that is no longer on the classpath, or when the index is
+ * disabled with {@code restclient-container.service-index.enabled=false}. Groups declared with
+ * {@code @ImportHttpServices(basePackages = ...)} are always scanned by Spring's own registrar, so
+ * the application declares none.
+ */
 public class MyHttpServiceRegistrar extends AbstractHttpServiceRegistrar {
 
+    static final String INDEX_ENABLED_PROPERTY = "restclient-container.service-index.enabled";
+
+    private final Map<String, String> groupBasePackages;
+
+    private @Nullable Environment environment;
+    private @Nullable ClassLoader classLoader;
+
+    public MyHttpServiceRegistrar() {
+        this(defaultGroupBasePackages());
+    }
+
+    MyHttpServiceRegistrar(Map<String, String> groupBasePackages) {
+        this.groupBasePackages = groupBasePackages;
+    }
+
+    private static Map<String, String> defaultGroupBasePackages() {
+        Map<String, String> groups = new LinkedHashMap<>();
+        groups.put("ara", RestfulApiClient.class.getPackageName());
+        groups.put("github", GithubUserService.class.getPackageName());
+        groups.put("httpbin", HttpBinClient.class.getPackageName());
+        groups.put("jph", JsonPlaceholderClient.class.getPackageName());
+        groups.put("otc", SecondGithubUserService.class.getPackageName());
+        return groups;
+    }
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        super.setEnvironment(environment);
+        this.environment = environment;
+    }
+
+    @Override
+    public void setBeanClassLoader(ClassLoader beanClassLoader) {
+        super.setBeanClassLoader(beanClassLoader);
+        this.classLoader = beanClassLoader;
+    }
+
     @Override
     protected void registerHttpServices(GroupRegistry registry, AnnotationMetadata metadata) {
         // registry.forGroup("echo").register(EchoServiceA.class, EchoServiceB.class);
-        registry.forGroup("ara").detectInBasePackages(RestfulApiClient.class);
+        HttpServiceIndex index = isIndexEnabled() ? HttpServiceIndex.load(classLoader) : null;
+
+        groupBasePackages.forEach(
+                (group, basePackage) -> {
+                    List<String> typeNames =
+                            (index != null)
+                                    ? index.getPresentTypeNames(basePackage, classLoader)
+                                    : null;
+                    if (typeNames != null) {
+                        registry.forGroup(group)
+                                .registerTypeNames(typeNames.toArray(String[]::new));
+                    } else {
+                        registry.forGroup(group).detectInBasePackages(basePackage);
+                    }
+                });
+    }
+
+    private boolean isIndexEnabled() {
+        return environment == null
+                || environment.getProperty(INDEX_ENABLED_PROPERTY, Boolean.class, true);
     }
 }
@@ -0,0 +1,133 @@
+package com.example.demo.config.restclient;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverters;
+import org.springframework.http.converter.cbor.JacksonCborHttpMessageConverter;
+import org.springframework.http.converter.smile.JacksonSmileHttpMessageConverter;
+import org.springframework.web.client.RestClient;
+
+import tools.jackson.databind.JacksonModule;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+/**
+ * Asks upstreams for a binary JSON format, for clients with {@code
+ * serviceclient.<name>.binary-format} set to {@code cbor} or {@code smile}. The client registers
+ * the format's Jackson converter and sends {@code Accept: <format>, application/json;q=0.9} on
+ * every request that has no {@code Accept} of its own. An upstream that speaks the format answers
+ * in it, one that does not answers in JSON, and the converter matching the response's {@code
+ * Content-Type} reads either.
+ *
+ * <p>Request bodies are still written as JSON, since nothing tells whether an upstream reads the
+ * binary format before it has answered in it.
+ *
+ * <p>A client with a string cache (see {@link ServiceClientStringCaches}) reads the binary format
+ * through the cache too.
+ */
+final class BinaryFormatNegotiation implements ClientHttpRequestInterceptor {
+
+    private final Format format;
+    private final String accept;
+
+    BinaryFormatNegotiation(Format format) {
+        this.format = format;
+        this.accept = format.mediaType + ", " + MediaType.APPLICATION_JSON_VALUE + ";q=0.9";
+    }
+
+    /**
+     * Create the negotiation for a service client.
+     *
+     * @param name the service client name
+     * @param authProps the client's serviceclient.{name} properties, if any
+     * @return the negotiation, or null if the client sticks to JSON
+     * @throws IllegalStateException if the configured format is not supported
+     */
+    static @Nullable BinaryFormatNegotiation forClient(
+            String name, @Nullable ClientAuthProperties authProps) {
+        if (authProps == null || authProps.getBinaryFormat() == null) {
+            return null;
+        }
+        return switch (authProps.getBinaryFormat().toLowerCase(Locale.ROOT)) {
+            case "cbor" -> new BinaryFormatNegotiation(Format.CBOR);
+            case "smile" -> new BinaryFormatNegotiation(Format.SMILE);
+            default ->
+                    throw new IllegalStateException(
+                            "Unsupported binary format '"
+                                    + authProps.getBinaryFormat()
+                                    + "' for service client: "
+                                    + name);
+        };
+    }
+
+    /**
+     * Register the format's converter and the {@code Accept} header on a client builder.
+     *
+     * @param builder the RestClient builder of the service client
+     * @param stringCache the client's string cache, if it has one
+     */
+    void apply(RestClient.Builder builder, @Nullable StringCanonicalizer stringCache) {
+        HttpMessageConverter<?> converter =
+                format.converter.apply((stringCache != null) ? stringCache.module() : null);
+        builder.configureMessageConverters(
+                        converters ->
+                                format.register.accept(converters.registerDefaults(), converter))
+                .requestInterceptor(this);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(
+            HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        HttpHeaders headers = request.getHeaders();
+        if (!headers.containsHeader(HttpHeaders.ACCEPT)) {
+            headers.set(HttpHeaders.ACCEPT, accept);
+        }
+        return execution.execute(request, body);
+    }
+
+    enum Format {
+        CBOR(
+                MediaType.APPLICATION_CBOR_VALUE,
+                module ->
+                        (module != null)
+                                ? new JacksonCborHttpMessageConverter(
+                                        CBORMapper.builder().addModule(module))
+                                : new JacksonCborHttpMessageConverter(),
+                HttpMessageConverters.ClientBuilder::withCborConverter),
+        SMILE(
+                "application/x-jackson-smile",
+                module ->
+                        (module != null)
+                                ? new JacksonSmileHttpMessageConverter(
+                                        SmileMapper.builder().addModule(module))
+                                : new JacksonSmileHttpMessageConverter(),
+                HttpMessageConverters.ClientBuilder::withSmileConverter);
+
+        private final String mediaType;
+        // Creates the converter, with an extra module if not null
+        private final Function<@Nullable JacksonModule, HttpMessageConverter<?>> converter;
+        private final BiConsumer<HttpMessageConverters.ClientBuilder, HttpMessageConverter<?>>
+                register;
+
+        Format(
+                String mediaType,
+                Function<@Nullable JacksonModule, HttpMessageConverter<?>> converter,
+                BiConsumer<HttpMessageConverters.ClientBuilder, HttpMessageConverter<?>> register) {
+            this.mediaType = mediaType;
+            this.converter = converter;
+            this.register = register;
+        }
+    }
+}
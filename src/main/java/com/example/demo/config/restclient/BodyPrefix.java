@@ -0,0 +1,73 @@
+package com.example.demo.config.restclient;
+
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestClient;
+
+/**
+ * The first bytes of a response body, for diagnostics that show a response without trusting its
+ * size. {@link #read(int)} reads at most the given number of bytes and closes the response, which
+ * aborts the rest of the exchange instead of reading it (see {@link ResponseAbort} for
+ * http-components):
+ *
+ * <pre class="code">
+ * BodyPrefix prefix = restClients.get("jph").get().uri(path).exchange(BodyPrefix.read(500));
+ * </pre>
+ *
+ * <p>Unlike {@code retrieve()}, error statuses do not throw; check {@link #status()}.
+ *
+ * @param status the response status
+ * @param contentType the response content type, if any
+ * @param text the bytes read, decoded with the content type's charset or UTF-8
+ * @param truncated whether the body had more bytes than were read
+ */
+public record BodyPrefix(
+        HttpStatusCode status, @Nullable MediaType contentType, String text, boolean truncated) {
+
+    /**
+     * Create an exchange function that reads at most {@code maxBytes} of the body.
+     *
+     * @param maxBytes the most body bytes to read, 0 for the status only
+     * @return the function to pass to {@code RestClient.RequestHeadersSpec.exchange}
+     */
+    public static RestClient.RequestHeadersSpec.ExchangeFunction<BodyPrefix> read(int maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("maxBytes must not be negative: " + maxBytes);
+        }
+        // readNBytes needs room for the extra byte; no array holds more anyway
+        int limit = Math.min(maxBytes, Integer.MAX_VALUE - 1);
+        return (request, response) -> {
+            MediaType contentType = response.getHeaders().getContentType();
+            // One byte past the limit tells whether the body was cut
+            InputStream body = response.getBody();
+            byte[] bytes;
+            try {
+                bytes = body.readNBytes(limit + 1);
+            } finally {
+                ResponseAbort.close(body);
+            }
+            boolean truncated = bytes.length > limit;
+            int length = Math.min(bytes.length, limit);
+            return new BodyPrefix(
+                    response.getStatusCode(),
+                    contentType,
+                    new String(bytes, 0, length, charset(contentType)),
+                    truncated);
+        };
+    }
+
+    private static Charset charset(@Nullable MediaType contentType) {
+        Charset charset = (contentType != null) ? contentType.getCharset() : null;
+        return (charset != null) ? charset : StandardCharsets.UTF_8;
+    }
+
+    /** The text, followed by {@code ...} if the body was truncated. */
+    public String getAbbreviatedText() {
+        return truncated ? text + "..." : text;
+    }
+}
@@ -1,11 +1,28 @@
 package com.example.demo.config.restclient;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.util.unit.DataSize;
+
 public class ClientAuthProperties {
 
     private Authentication authentication;
     private String apiVersionDefault; // Workaround for Spring Boot binding issue with
 
     // apiversion.defaultVersion
+    private Http2 http2;
+    private Warmup warmup;
+    private Probe probe;
+    private Compression compression;
+    private StringCache stringCache;
+    private String binaryFormat; // "cbor", "smile" or null (JSON only); JSON stays the fallback
+    private String fieldsParameter; // e.g. "fields"; sends @ResponseFields for partial responses
+    private boolean
+            streamingUploads; // sends file, stream and multipart bodies after the interceptors
+    private DataSize maxResponseBytes; // e.g. 10MB; larger responses are aborted, null = no limit
+    private Map<String, DataSize> maxResponseBytesPerMethod =
+            new LinkedHashMap<>(); // by "<Interface>.<method>", overrides maxResponseBytes
 
     public String getApiVersionDefault() {
         return apiVersionDefault;
@@ -23,6 +40,86 @@ public class ClientAuthProperties {
         this.authentication = authentication;
     }
 
+    public Http2 getHttp2() {
+        return http2;
+    }
+
+    public void setHttp2(Http2 http2) {
+        this.http2 = http2;
+    }
+
+    public Warmup getWarmup() {
+        return warmup;
+    }
+
+    public void setWarmup(Warmup warmup) {
+        this.warmup = warmup;
+    }
+
+    public Probe getProbe() {
+        return probe;
+    }
+
+    public void setProbe(Probe probe) {
+        this.probe = probe;
+    }
+
+    public Compression getCompression() {
+        return compression;
+    }
+
+    public void setCompression(Compression compression) {
+        this.compression = compression;
+    }
+
+    public StringCache getStringCache() {
+        return stringCache;
+    }
+
+    public void setStringCache(StringCache stringCache) {
+        this.stringCache = stringCache;
+    }
+
+    public String getBinaryFormat() {
+        return binaryFormat;
+    }
+
+    public void setBinaryFormat(String binaryFormat) {
+        this.binaryFormat = binaryFormat;
+    }
+
+    public String getFieldsParameter() {
+        return fieldsParameter;
+    }
+
+    public void setFieldsParameter(String fieldsParameter) {
+        this.fieldsParameter = fieldsParameter;
+    }
+
+    public boolean isStreamingUploads() {
+        return streamingUploads;
+    }
+
+    public void setStreamingUploads(boolean streamingUploads) {
+        this.streamingUploads = streamingUploads;
+    }
+
+    public DataSize getMaxResponseBytes() {
+        return maxResponseBytes;
+    }
+
+    public void setMaxResponseBytes(DataSize maxResponseBytes) {
+        this.maxResponseBytes = maxResponseBytes;
+    }
+
+    public Map<String, DataSize> getMaxResponseBytesPerMethod() {
+        return maxResponseBytesPerMethod;
+    }
+
+    public void setMaxResponseBytesPerMethod(Map<String, DataSize> maxResponseBytesPerMethod) {
+        this.maxResponseBytesPerMethod = maxResponseBytesPerMethod;
+    }
+
     public static class Authentication {
         private String type; // "basic", "oauth2", "bearer", or null (no auth)
         private BasicAuth basic;
@@ -106,4 +203,172 @@ public class ClientAuthProperties {
             this.token = token;
         }
     }
+
+    /**
+     * HTTP/2 transport settings. When enabled, the client is served by a multiplexing transport
+     * instead of the globally configured {@code spring.http.clients.imperative.factory}, so many
+     * concurrent exchanges share a few connections.
+     */
+    public static class Http2 {
+        private boolean enabled;
+        private String transport = "reactor"; // "reactor" (reactor-netty) or "jdk"
+        private Integer maxConcurrentStreams; // streams per connection before opening another
+        private Integer initialWindowSize; // per-stream flow-control window in bytes
+        private Integer maxConnections; // connections per upstream
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getTransport() {
+            return transport;
+        }
+
+        public void setTransport(String transport) {
+            this.transport = transport;
+        }
+
+        public Integer getMaxConcurrentStreams() {
+            return maxConcurrentStreams;
+        }
+
+        public void setMaxConcurrentStreams(Integer maxConcurrentStreams) {
+            this.maxConcurrentStreams = maxConcurrentStreams;
+        }
+
+        public Integer getInitialWindowSize() {
+            return initialWindowSize;
+        }
+
+        public void setInitialWindowSize(Integer initialWindowSize) {
+            this.initialWindowSize = initialWindowSize;
+        }
+
+        public Integer getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(Integer maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+    }
+
+    /**
+     * Startup warm-up settings. Each warm-up exchange resolves DNS, connects and completes the TLS
+     * handshake, then returns its connection to the pool for the first real requests.
+     */
+    public static class Warmup {
+        private int connections; // connections to open before the app reports ready
+        private String probePath = "/"; // path of the cheap probe request
+        private String probeMethod = "HEAD"; // HTTP method of the probe request
+
+        public int getConnections() {
+            return connections;
+        }
+
+        public void setConnections(int connections) {
+            this.connections = connections;
+        }
+
+        public String getProbePath() {
+            return probePath;
+        }
+
+        public void setProbePath(String probePath) {
+            this.probePath = probePath;
+        }
+
+        public String getProbeMethod() {
+            return probeMethod;
+        }
+
+        public void setProbeMethod(String probeMethod) {
+            this.probeMethod = probeMethod;
+        }
+    }
+
+    public static class Probe {
+        private String path = "/"; // path checked by /restclient-container/probe
+        private String method = "GET"; // HTTP method of the probe request
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public void setMethod(String method) {
+            this.method = method;
+        }
+    }
+
+    /**
+     * Content-coding settings. When enabled, responses are negotiated and decoded by the client
+     * instead of the transport, so the compression ratio and decoding time can be measured, and
+     * request bodies of at least {@code requestThreshold} are sent gzip-encoded.
+     */
+    public static class Compression {
+        private boolean enabled;
+        private DataSize requestThreshold; // e.g. 4KB; smaller bodies are sent as is, null = never
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public DataSize getRequestThreshold() {
+            return requestThreshold;
+        }
+
+        public void setRequestThreshold(DataSize requestThreshold) {
+            this.requestThreshold = requestThreshold;
+        }
+    }
+
+    /**
+     * String canonicalization settings. When enabled, the client's JSON converter reads string
+     * values through a bounded cache, so equal values in large responses share one instance.
+     */
+    public static class StringCache {
+        private boolean enabled;
+        private int maxEntries = 4096; // slots of the cache, rounded up to a power of two
+        private int maxLength = 64; // longer values are not cached
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public int getMaxLength() {
+            return maxLength;
+        }
+
+        public void setMaxLength(int maxLength) {
+            this.maxLength = maxLength;
+        }
+    }
 }
@@ -0,0 +1,378 @@
+package com.example.demo.config.restclient;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import com.example.demo.metrics.CompressionMetrics;
+import com.example.demo.metrics.ExchangeTimings;
+import com.example.demo.metrics.RestClientMetrics;
+
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.eclipse.jetty.util.component.LifeCycle;
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.http.client.ClientHttpRequestFactoryBuilder;
+import org.springframework.boot.http.client.HttpComponentsClientHttpRequestFactoryBuilder;
+import org.springframework.boot.http.client.JdkClientHttpRequestFactoryBuilder;
+import org.springframework.boot.http.client.JettyClientHttpRequestFactoryBuilder;
+import org.springframework.boot.http.client.ReactorClientHttpRequestFactoryBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Negotiates and decodes a service client's response content coding, and gzip-compresses request
+ * bodies of at least {@code serviceclient.<name>.compression.request-threshold}.
+ *
+ * <p>Every transport already sends {@code Accept-Encoding} and decodes gzip on its own, but out of
+ * sight: nothing tells how many bytes were saved or what decoding cost. With {@code
+ * serviceclient.<name>.compression.enabled=true} the transport's decoding is switched off (see
+ * {@link #disableTransportDecoding}) and this interceptor decodes instead. A {@code gzip} or {@code
+ * deflate} body is inflated as the caller reads it, through a small fixed window, never into an
+ * intermediate buffer. Added after the {@link ResponseSizeLimitInterceptor}, so the size limit
+ * applies to the decoded bytes.
+ *
+ * <p>Compressed bodies, wire bytes and CPU time are counted in the client's {@link
+ * CompressionMetrics}. A streamed upload (see {@link StreamingRequestInterceptor}) is compressed as
+ * it is written if its {@code Content-Length} reaches the threshold, and is sent chunked; it is not
+ * counted, since nothing holds it to compare.
+ */
+class CompressionInterceptor implements StreamingRequestInterceptor {
+
+    static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    private final long requestThreshold;
+    private final @Nullable CompressionMetrics metrics;
+
+    CompressionInterceptor(
+            @Nullable DataSize requestThreshold, @Nullable CompressionMetrics metrics) {
+        this.requestThreshold = (requestThreshold != null) ? requestThreshold.toBytes() : -1;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Create the interceptor for a service client.
+     *
+     * @param name the service client name
+     * @param authProps the client's serviceclient.{name} properties, if any
+     * @param metrics the metrics to count compressed bodies in, if enabled
+     * @return the interceptor, or null if compression is not enabled for the client
+     */
+    static @Nullable CompressionInterceptor forClient(
+            String name,
+            @Nullable ClientAuthProperties authProps,
+            @Nullable RestClientMetrics metrics) {
+        if (!isEnabled(authProps)) {
+            return null;
+        }
+        return new CompressionInterceptor(
+                authProps.getCompression().getRequestThreshold(),
+                (metrics != null) ? metrics.forClient(name).compression() : null);
+    }
+
+    static boolean isEnabled(@Nullable ClientAuthProperties authProps) {
+        return authProps != null
+                && authProps.getCompression() != null
+                && authProps.getCompression().isEnabled();
+    }
+
+    /**
+     * Switch off the transport's own content decoding, so responses reach the interceptor encoded.
+     *
+     * @param builder the request factory builder
+     * @return the builder without content decoding
+     */
+    static ClientHttpRequestFactoryBuilder<?> disableTransportDecoding(
+            ClientHttpRequestFactoryBuilder<?> builder) {
+        return switch (builder) {
+            case HttpComponentsClientHttpRequestFactoryBuilder httpComponents ->
+                    httpComponents.withHttpClientCustomizer(
+                            HttpClientBuilder::disableContentCompression);
+            case JdkClientHttpRequestFactoryBuilder jdk ->
+                    jdk.withCustomizer(factory -> factory.enableCompression(false));
+            case JettyClientHttpRequestFactoryBuilder jetty ->
+                    jetty.withHttpClientCustomizer(
+                            client ->
+                                    // Jetty adds the available decoders on start if there are none
+                                    client.addEventListener(
+                                            new LifeCycle.Listener() {
+                                                @Override
+                                                public void lifeCycleStarted(LifeCycle event) {
+                                                    client.getContentDecoderFactories().clear();
+                                                }
+                                            }));
+            case ReactorClientHttpRequestFactoryBuilder reactor ->
+                    reactor.withHttpClientCustomizer(client -> client.compress(false));
+            default -> builder;
+        };
+    }
+
+    @Override
+    public ClientHttpResponse intercept(
+            HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        if (StreamingRequestInterceptor.isStreamed(request)) {
+            return StreamingRequestInterceptor.super.intercept(request, body, execution);
+        }
+        HttpHeaders headers = request.getHeaders();
+        if (!headers.containsHeader(HttpHeaders.ACCEPT_ENCODING)) {
+            headers.set(HttpHeaders.ACCEPT_ENCODING, ACCEPT_ENCODING);
+        }
+        if (requestThreshold >= 0
+                && body.length >= requestThreshold
+                && !headers.containsHeader(HttpHeaders.CONTENT_ENCODING)) {
+            byte[] compressed = compress(body);
+            if (compressed != null) {
+                headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+                headers.setContentLength(compressed.length);
+                body = compressed;
+            }
+        }
+        return decode(execution.execute(request, body));
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, Execution execution)
+            throws IOException {
+        HttpHeaders headers = request.getHeaders();
+        if (!headers.containsHeader(HttpHeaders.ACCEPT_ENCODING)) {
+            headers.set(HttpHeaders.ACCEPT_ENCODING, ACCEPT_ENCODING);
+        }
+        if (requestThreshold >= 0
+                && headers.getContentLength() >= requestThreshold
+                && !headers.containsHeader(HttpHeaders.CONTENT_ENCODING)) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            headers.remove(HttpHeaders.CONTENT_LENGTH);
+            return decode(execution.execute(request, GZIPOutputStream::new));
+        }
+        return decode(execution.execute(request));
+    }
+
+    private ClientHttpResponse decode(ClientHttpResponse response) throws IOException {
+        String coding = response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+        if (coding == null) {
+            if (metrics != null) {
+                metrics.recordIdentityResponse();
+            }
+            return response;
+        }
+        return switch (coding.trim().toLowerCase(Locale.ROOT)) {
+            case "gzip", "x-gzip", "deflate" -> new DecodingResponse(response, coding);
+            default -> response; // Not accepted, so left to the caller
+        };
+    }
+
+    // The compressed body, or null if compressing does not make it smaller
+    private byte @Nullable [] compress(byte[] body) throws IOException {
+        long start = System.nanoTime();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 2 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        }
+        if (out.size() >= body.length) {
+            return null;
+        }
+        if (metrics != null) {
+            metrics.recordRequest(body.length, out.size(), System.nanoTime() - start);
+        }
+        return out.toByteArray();
+    }
+
+    private final class DecodingResponse implements ClientHttpResponse, ExchangeTimings.Source {
+
+        private final ClientHttpResponse delegate;
+        private final String coding;
+        private final HttpHeaders headers;
+
+        private @Nullable InputStream body;
+
+        DecodingResponse(ClientHttpResponse delegate, String coding) {
+            this.delegate = delegate;
+            this.coding = coding;
+            // The decoded body has neither the coding nor the encoded length
+            this.headers = new HttpHeaders();
+            this.headers.putAll(delegate.getHeaders());
+            this.headers.remove(HttpHeaders.CONTENT_ENCODING);
+            this.headers.remove(HttpHeaders.CONTENT_LENGTH);
+        }
+
+        @Override
+        public @Nullable ExchangeTimings exchangeTimings() {
+            return ExchangeTimings.of(delegate);
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            InputStream current = body;
+            if (current == null) {
+                current = new DecodingInputStream(new WireInputStream(delegate.getBody()));
+                body = current;
+            }
+            return current;
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+
+        /** Counts the encoded bytes and the time spent waiting for them. */
+        private static final class WireInputStream extends FilterInputStream {
+
+            private long count;
+            private long nanos;
+
+            WireInputStream(InputStream in) {
+                super(in);
+            }
+
+            @Override
+            public int read() throws IOException {
+                long start = System.nanoTime();
+                int read = super.read();
+                nanos += System.nanoTime() - start;
+                if (read >= 0) {
+                    count++;
+                }
+                return read;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                long start = System.nanoTime();
+                int read = super.read(b, off, len);
+                nanos += System.nanoTime() - start;
+                if (read > 0) {
+                    count += read;
+                }
+                return read;
+            }
+        }
+
+        /**
+         * Inflates the wire stream as it is read. The decoder is created on the first read, since
+         * an empty body (e.g. of a 204 or 304) has no gzip header to read.
+         */
+        private final class DecodingInputStream extends InputStream
+                implements ExchangeTimings.Source {
+
+            private final WireInputStream wire;
+            private final PushbackInputStream source;
+            private final byte[] single = new byte[1];
+
+            private @Nullable InputStream decoder;
+            private long count;
+            private long nanos;
+            private boolean eof;
+            private boolean recorded;
+
+            DecodingInputStream(WireInputStream wire) {
+                this.wire = wire;
+                this.source = new PushbackInputStream(wire, 1);
+            }
+
+            @Override
+            public @Nullable ExchangeTimings exchangeTimings() {
+                return DecodingResponse.this.exchangeTimings();
+            }
+
+            @Override
+            public int read() throws IOException {
+                int read = read(single, 0, 1);
+                return (read > 0) ? (single[0] & 0xFF) : -1;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (eof) {
+                    return -1;
+                }
+                if (len == 0) {
+                    return 0;
+                }
+                long start = System.nanoTime();
+                int read;
+                try {
+                    InputStream current = decoder();
+                    read = (current != null) ? current.read(b, off, len) : -1;
+                } finally {
+                    nanos += System.nanoTime() - start;
+                }
+                if (read > 0) {
+                    count += read;
+                } else if (read < 0) {
+                    eof = true;
+                    record();
+                }
+                return read;
+            }
+
+            private @Nullable InputStream decoder() throws IOException {
+                InputStream current = decoder;
+                if (current == null) {
+                    int first = source.read();
+                    if (first < 0) {
+                        return null;
+                    }
+                    source.unread(first);
+                    current =
+                            coding.equalsIgnoreCase("deflate")
+                                    ? new InflaterInputStream(source)
+                                    : new GZIPInputStream(source);
+                    decoder = current;
+                }
+                return current;
+            }
+
+            @Override
+            public int available() throws IOException {
+                InputStream current = decoder;
+                return (current != null && !eof) ? current.available() : 0;
+            }
+
+            @Override
+            public void close() throws IOException {
+                record();
+                InputStream current = decoder;
+                // Closes the wire stream, which ResponseAbort may be aborting
+                if (current != null) {
+                    current.close();
+                } else {
+                    source.close();
+                }
+            }
+
+            private void record() {
+                if (recorded || metrics == null || count == 0) {
+                    return;
+                }
+                recorded = true;
+                metrics.recordResponse(wire.count, count, Math.max(nanos - wire.nanos, 0));
+            }
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package com.example.demo.config.restclient;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.example.demo.metrics.ConnectionPoolStats;
+import com.example.demo.metrics.ExchangeTimings;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.eclipse.jetty.client.AbstractConnectionPool;
+import org.eclipse.jetty.client.Destination;
+import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.client.transport.HttpDestination;
+import org.eclipse.jetty.io.Connection;
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.http.client.ClientHttpRequestFactoryBuilder;
+import org.springframework.boot.http.client.HttpComponentsClientHttpRequestFactoryBuilder;
+import org.springframework.boot.http.client.JdkClientHttpRequestFactoryBuilder;
+import org.springframework.boot.http.client.JettyClientHttpRequestFactoryBuilder;
+import org.springframework.boot.http.client.ReactorClientHttpRequestFactoryBuilder;
+
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Reads the connection pool of one transport instance. A probe hooks into the request factory
+ * builder before the transport is built and reports {@link ConnectionPoolStats} for as long as the
+ * transport is open.
+ *
+ * <ul>
+ *   <li>http-components: the totals of the pooling connection manager, built from the builder
+ *       Spring Boot configured. Opened connections are counted by a delegating connection manager;
+ *       closed ones are those opened and no longer in the pool.
+ *   <li>jetty: active and idle connections and queued requests of every destination.
+ *   <li>reactor: only pools the container creates itself (HTTP/2 clients) report their gauges; the
+ *       default builder uses reactor-netty's shared pool, which reports opened and closed
+ *       connections only. For HTTP/2, leased counts active streams.
+ *   <li>jdk: the JDK {@code HttpClient} does not expose its pool.
+ * </ul>
+ */
+abstract class ConnectionPoolProbe {
+
+    /**
+     * Create the probe matching the builder's transport.
+     *
+     * @param builder the request factory builder
+     * @return the probe; call {@link #instrument} with the same builder
+     */
+    static ConnectionPoolProbe forBuilder(ClientHttpRequestFactoryBuilder<?> builder) {
+        if (builder instanceof HttpComponentsClientHttpRequestFactoryBuilder) {
+            return new HttpComponentsProbe();
+        }
+        if (builder instanceof JettyClientHttpRequestFactoryBuilder) {
+            return new JettyProbe();
+        }
+        if (builder instanceof ReactorClientHttpRequestFactoryBuilder) {
+            return new ReactorProbe(false);
+        }
+        return new UnsupportedProbe(
+                (builder instanceof JdkClientHttpRequestFactoryBuilder)
+                        ? "jdk"
+                        : builder.getClass().getSimpleName());
+    }
+
+    /**
+     * Create a probe for a reactor-netty transport whose connection provider the container builds.
+     *
+     * @param providerBuilder the connection provider builder; pool metrics are enabled on it
+     * @return the probe; call {@link #instrument} with the reactor request factory builder
+     */
+    static ConnectionPoolProbe forReactor(ConnectionProvider.Builder providerBuilder) {
+        ReactorProbe probe = new ReactorProbe(true);
+        providerBuilder.metrics(true, () -> probe);
+        return probe;
+    }
+
+    /**
+     * Add the hooks the probe needs to the builder.
+     *
+     * @param builder the request factory builder the probe was created for
+     * @return the instrumented builder
+     */
+    abstract ClientHttpRequestFactoryBuilder<?> instrument(
+            ClientHttpRequestFactoryBuilder<?> builder);
+
+    /**
+     * Read the current state of the pool.
+     *
+     * @return the stats, with unknown values if the transport has not been built yet
+     */
+    abstract ConnectionPoolStats sample();
+
+    private static final class HttpComponentsProbe extends ConnectionPoolProbe {
+
+        private static final String TRANSPORT = "http-components";
+
+        private final AtomicLong opened = new AtomicLong();
+        private final AtomicReference<@Nullable PoolingHttpClientConnectionManagerBuilder>
+                connectionManagerBuilder = new AtomicReference<>();
+        private volatile @Nullable PoolingHttpClientConnectionManager manager;
+
+        @Override
+        ClientHttpRequestFactoryBuilder<?> instrument(ClientHttpRequestFactoryBuilder<?> builder) {
+            // Spring Boot builds its connection manager after the connection manager customizers
+            // and sets it on the client builder, which has no getter. Build the manager again from
+            // the same, fully customized builder and set that one instead; Boot's is never used
+            // and holds no connections.
+            return ((HttpComponentsClientHttpRequestFactoryBuilder) builder)
+                    .withConnectionManagerCustomizer(connectionManagerBuilder::set)
+                    .withHttpClientCustomizer(
+                            client -> {
+                                PoolingHttpClientConnectionManagerBuilder customized =
+                                        connectionManagerBuilder.getAndSet(null);
+                                if (customized != null) {
+                                    PoolingHttpClientConnectionManager pool = customized.build();
+                                    manager = pool;
+                                    client.setConnectionManager(
+                                            new OpeningConnectionManager(pool, opened));
+                                }
+                            });
+        }
+
+        @Override
+        ConnectionPoolStats sample() {
+            PoolingHttpClientConnectionManager current = manager;
+            if (current == null) {
+                return ConnectionPoolStats.unknown(TRANSPORT);
+            }
+            PoolStats total = current.getTotalStats();
+            long openedCount = opened.get();
+            long open = total.getLeased() + total.getAvailable();
+            return new ConnectionPoolStats(
+                    TRANSPORT,
+                    total.getLeased(),
+                    total.getAvailable(),
+                    total.getPending(),
+                    current.getDefaultMaxPerRoute(),
+                    openedCount,
+                    Math.max(0, openedCount - open));
+        }
+    }
+
+    /**
+     * Counts the connections the manager opens and marks them in the calling thread's {@link
+     * ExchangeTimings}. The client only calls {@code connect} for a leased endpoint that is not
+     * connected yet.
+     */
+    private record OpeningConnectionManager(HttpClientConnectionManager delegate, AtomicLong opened)
+            implements HttpClientConnectionManager {
+
+        @Override
+        public LeaseRequest lease(
+                String id, HttpRoute route, Timeout requestTimeout, @Nullable Object state) {
+            return delegate.lease(id, route, requestTimeout, state);
+        }
+
+        @Override
+        public void release(
+                ConnectionEndpoint endpoint, @Nullable Object newState, TimeValue validDuration) {
+            delegate.release(endpoint, newState, validDuration);
+        }
+
+        @Override
+        public void connect(
+                ConnectionEndpoint endpoint,
+                @Nullable TimeValue connectTimeout,
+                HttpContext context)
+                throws IOException {
+            ExchangeTimings timings = ExchangeTimings.current();
+            if (timings != null) {
+                timings.connectionOpening();
+            }
+            delegate.connect(endpoint, connectTimeout, context);
+            opened.incrementAndGet();
+        }
+
+        @Override
+        public void upgrade(ConnectionEndpoint endpoint, HttpContext context) throws IOException {
+            delegate.upgrade(endpoint, context);
+        }
+
+        @Override
+        public void close(CloseMode closeMode) {
+            delegate.close(closeMode);
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+
+    private static final class JettyProbe extends ConnectionPoolProbe
+            implements Connection.Listener {
+
+        private static final String TRANSPORT = "jetty";
+
+        private final AtomicLong opened = new AtomicLong();
+        private final AtomicLong closed = new AtomicLong();
+        private volatile @Nullable HttpClient client;
+
+        @Override
+        ClientHttpRequestFactoryBuilder<?> instrument(ClientHttpRequestFactoryBuilder<?> builder) {
+            return ((JettyClientHttpRequestFactoryBuilder) builder)
+                    .withHttpClientCustomizer(
+                            httpClient -> {
+                                // Connection listener beans are added to every new connection
+                                httpClient.addBean(this);
+                                client = httpClient;
+                            });
+        }
+
+        @Override
+        public void onOpened(Connection connection) {
+            opened.incrementAndGet();
+        }
+
+        @Override
+        public void onClosed(Connection connection) {
+            closed.incrementAndGet();
+        }
+
+        @Override
+        ConnectionPoolStats sample() {
+            HttpClient current = client;
+            if (current == null) {
+                return ConnectionPoolStats.unknown(TRANSPORT);
+            }
+            int leased = 0;
+            int available = 0;
+            int pending = 0;
+            for (Destination destination : current.getDestinations()) {
+                if (destination.getConnectionPool() instanceof AbstractConnectionPool pool) {
+                    leased += pool.getActiveConnectionCount();
+                    available += pool.getIdleConnectionCount();
+                }
+                if (destination instanceof HttpDestination httpDestination) {
+                    pending += httpDestination.getQueuedRequestCount();
+                }
+            }
+            return new ConnectionPoolStats(
+                    TRANSPORT,
+                    leased,
+                    available,
+                    pending,
+                    current.getMaxConnectionsPerDestination(),
+                    opened.get(),
+                    closed.get());
+        }
+    }
+
+    private static final class ReactorProbe extends ConnectionPoolProbe
+            implements ConnectionProvider.MeterRegistrar {
+
+        private static final String TRANSPORT = "reactor";
+
+        private final boolean ownsPool;
+        private final AtomicLong opened = new AtomicLong();
+        private final AtomicLong closed = new AtomicLong();
+        private final Map<String, ConnectionPoolMetrics> pools = new ConcurrentHashMap<>();
+
+        ReactorProbe(boolean ownsPool) {
+            this.ownsPool = ownsPool;
+        }
+
+        @Override
+        ClientHttpRequestFactoryBuilder<?> instrument(ClientHttpRequestFactoryBuilder<?> builder) {
+            return ((ReactorClientHttpRequestFactoryBuilder) builder)
+                    .withHttpClientCustomizer(
+                            client ->
+                                    client.doOnChannelInit(
+                                            (observer, channel, remoteAddress) -> {
+                                                opened.incrementAndGet();
+                                                channel.closeFuture()
+                                                        .addListener(
+                                                                future -> closed.incrementAndGet());
+                                            }));
+        }
+
+        // One pool per remote address
+        @Override
+        public void registerMetrics(
+                String poolName,
+                String id,
+                SocketAddress remoteAddress,
+                ConnectionPoolMetrics metrics) {
+            pools.put(id, metrics);
+        }
+
+        @Override
+        public void deRegisterMetrics(String poolName, String id, SocketAddress remoteAddress) {
+            pools.remove(id);
+        }
+
+        @Override
+        ConnectionPoolStats sample() {
+            if (!ownsPool) {
+                return new ConnectionPoolStats(
+                        TRANSPORT,
+                        ConnectionPoolStats.UNKNOWN,
+                        ConnectionPoolStats.UNKNOWN,
+                        ConnectionPoolStats.UNKNOWN,
+                        ConnectionPoolStats.UNKNOWN,
+                        opened.get(),
+                        closed.get());
+            }
+            int leased = 0;
+            int available = 0;
+            int pending = 0;
+            int maxPerRoute = ConnectionPoolStats.UNKNOWN;
+            for (ConnectionPoolMetrics pool : pools.values()) {
+                leased += pool.acquiredSize();
+                available += pool.idleSize();
+                pending += pool.pendingAcquireSize();
+                maxPerRoute = Math.max(maxPerRoute, pool.maxAllocatedSize());
+            }
+            return new ConnectionPoolStats(
+                    TRANSPORT, leased, available, pending, maxPerRoute, opened.get(), closed.get());
+        }
+    }
+
+    private static final class UnsupportedProbe extends ConnectionPoolProbe {
+
+        private final String transport;
+
+        UnsupportedProbe(String transport) {
+            this.transport = transport;
+        }
+
+        @Override
+        ClientHttpRequestFactoryBuilder<?> instrument(ClientHttpRequestFactoryBuilder<?> builder) {
+            return builder;
+        }
+
+        @Override
+        ConnectionPoolStats sample() {
+            return ConnectionPoolStats.unknown(transport);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.demo.config.restclient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs tasks concurrently on virtual threads, one per task, until a deadline. Tasks still running
+ * at the deadline are cancelled. Used by {@link ServiceClientWarmup} and {@link
+ * ServiceClientProber}, whose checks take as long as the slowest client rather than the sum of all
+ * of them.
+ */
+final class DeadlineInvoker {
+
+    private DeadlineInvoker() {}
+
+    /**
+     * Run the tasks and wait for all of them, or the deadline.
+     *
+     * @param tasks the tasks
+     * @param timeout the deadline for all tasks together
+     * @return the outcome of every task, in task order
+     * @throws InterruptedException if interrupted while waiting
+     */
+    static <T> List<Outcome<T>> invokeAll(List<? extends Callable<T>> tasks, Duration timeout)
+            throws InterruptedException {
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        List<Future<T>> futures;
+        try {
+            futures = executor.invokeAll(tasks, timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        List<Outcome<T>> outcomes = new ArrayList<>(futures.size());
+        for (Future<T> future : futures) {
+            Outcome<T> outcome;
+            try {
+                outcome = new Outcome.Completed<>(future.get());
+            } catch (CancellationException e) {
+                outcome = new Outcome.TimedOut<>();
+            } catch (ExecutionException e) {
+                outcome = new Outcome.Failed<>(e.getCause());
+            }
+            outcomes.add(outcome);
+        }
+        return outcomes;
+    }
+
+    /** How one task ended. */
+    sealed interface Outcome<T> {
+
+        /** The task returned a value. */
+        record Completed<T>(T value) implements Outcome<T> {}
+
+        /** The task was still running at the deadline and was cancelled. */
+        record TimedOut<T>() implements Outcome<T> {}
+
+        /** The task threw. */
+        record Failed<T>(Throwable error) implements Outcome<T> {}
+    }
+}
@@ -7,14 +7,13 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 
 import org.springframework.web.client.RestClient;
-import org.springframework.web.client.support.RestClientAdapter;
-import org.springframework.web.service.invoker.HttpServiceProxyFactory;
 
 public class DefaultRestClientContainer implements RestClientContainer {
 
     private final Map<String, RestClient> clients = new ConcurrentHashMap<>();
     private final Map<String, Supplier<RestClient.Builder>> builderSuppliers =
             new ConcurrentHashMap<>();
+    private final Map<String, Map<Class<?>, Object>> exchangeClients = new ConcurrentHashMap<>();
 
     @Override
     public RestClient get(String name) {
@@ -36,9 +35,13 @@ public class DefaultRestClientContainer implements RestClientContainer {
 
     @Override
     public <T> T getHttpExchangeClient(String name, Class<T> exchangeClientClass) {
-        return HttpServiceProxyFactory.builderFor(RestClientAdapter.create(get(name)))
-                .build()
-                .createClient(exchangeClientClass);
+        RestClient client = get(name);
+        Map<Class<?>, Object> byType =
+                exchangeClients.computeIfAbsent(name, n -> new ConcurrentHashMap<>());
+        // Clients are stateless, so one instance per name and interface is enough
+        return exchangeClientClass.cast(
+                byType.computeIfAbsent(
+                        exchangeClientClass, type -> HttpExchangeClients.create(client, type)));
     }
 
     @Override
@@ -59,6 +62,7 @@ public class DefaultRestClientContainer implements RestClientContainer {
      */
     public void register(String name, RestClient client) {
         clients.put(name, client);
+        exchangeClients.remove(name);
     }
 
     /**
@@ -0,0 +1,82 @@
+package com.example.demo.config.restclient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.util.StreamUtils;
+
+/**
+ * A request body held back from the buffering interceptor chain, stored in the request attributes
+ * by a {@link DeferredBodyHttpMessageConverter} and written by the {@link
+ * StreamingUploadRequestFactory} once the interceptors have run, through the {@link
+ * StreamingRequestInterceptor.BodyFilter}s they added.
+ */
+final class DeferredBody {
+
+    static final String ATTRIBUTE = DeferredBody.class.getName();
+
+    private final StreamingHttpOutputMessage.Body body;
+    private final long contentLength;
+
+    // In chain order, so the first interceptor's filter sees the body first
+    private final List<StreamingRequestInterceptor.BodyFilter> filters = new ArrayList<>();
+
+    DeferredBody(StreamingHttpOutputMessage.Body body, long contentLength) {
+        this.body = body;
+        this.contentLength = contentLength;
+    }
+
+    static @Nullable DeferredBody get(HttpRequest request) {
+        return (request.getAttributes().get(ATTRIBUTE) instanceof DeferredBody deferred)
+                ? deferred
+                : null;
+    }
+
+    /**
+     * The length the converter set, as the buffering request sets a {@code Content-Length} of 0 on
+     * a body without one.
+     *
+     * @return the body's length, or -1 if unknown
+     */
+    long contentLength() {
+        return contentLength;
+    }
+
+    void addFilter(StreamingRequestInterceptor.BodyFilter filter) {
+        filters.add(filter);
+    }
+
+    /**
+     * The body as the connection gets it.
+     *
+     * @return the body written through the filters
+     */
+    StreamingHttpOutputMessage.Body filtered() {
+        if (filters.isEmpty()) {
+            return body;
+        }
+        List<StreamingRequestInterceptor.BodyFilter> filters = List.copyOf(this.filters);
+        return new StreamingHttpOutputMessage.Body() {
+            @Override
+            public void writeTo(OutputStream outputStream) throws IOException {
+                OutputStream out = StreamUtils.nonClosing(outputStream);
+                for (StreamingRequestInterceptor.BodyFilter filter : filters.reversed()) {
+                    out = filter.apply(out);
+                }
+                try (OutputStream filtered = out) {
+                    body.writeTo(filtered);
+                }
+            }
+
+            @Override
+            public boolean repeatable() {
+                return body.repeatable();
+            }
+        };
+    }
+}
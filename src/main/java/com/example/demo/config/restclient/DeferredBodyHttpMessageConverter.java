@@ -0,0 +1,102 @@
+package com.example.demo.config.restclient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.converter.HttpMessageConverter;
+
+/**
+ * Writes request bodies with another converter, but holds the body back from a request that buffers
+ * it for the interceptors: the headers go to the request as usual, and the body the converter
+ * passes to {@link StreamingHttpOutputMessage#setBody} becomes a {@link DeferredBody}. A request
+ * that streams already, i.e. one without interceptors, gets the body directly. Write only, so
+ * responses are read by the client's other converters.
+ *
+ * @param <T> the body type
+ */
+final class DeferredBodyHttpMessageConverter<T> implements HttpMessageConverter<T> {
+
+    private final HttpMessageConverter<T> delegate;
+
+    DeferredBodyHttpMessageConverter(HttpMessageConverter<T> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, @Nullable MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, @Nullable MediaType mediaType) {
+        return delegate.canWrite(clazz, mediaType);
+    }
+
+    @Override
+    public List<MediaType> getSupportedMediaTypes() {
+        return delegate.getSupportedMediaTypes();
+    }
+
+    @Override
+    public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+        return delegate.getSupportedMediaTypes(clazz);
+    }
+
+    @Override
+    public T read(Class<? extends T> clazz, HttpInputMessage inputMessage) throws IOException {
+        return delegate.read(clazz, inputMessage);
+    }
+
+    @Override
+    public void write(T body, @Nullable MediaType contentType, HttpOutputMessage outputMessage)
+            throws IOException {
+        if (!(outputMessage instanceof ClientHttpRequest request)
+                || outputMessage instanceof StreamingHttpOutputMessage) {
+            delegate.write(body, contentType, outputMessage);
+            return;
+        }
+        CapturingOutputMessage capture = new CapturingOutputMessage(outputMessage);
+        delegate.write(body, contentType, capture);
+        if (capture.body != null) {
+            request.getAttributes()
+                    .put(
+                            DeferredBody.ATTRIBUTE,
+                            new DeferredBody(
+                                    capture.body, outputMessage.getHeaders().getContentLength()));
+        }
+    }
+
+    private static final class CapturingOutputMessage implements StreamingHttpOutputMessage {
+
+        private final HttpOutputMessage target;
+
+        private @Nullable Body body;
+
+        CapturingOutputMessage(HttpOutputMessage target) {
+            this.target = target;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return target.getHeaders();
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            return target.getBody();
+        }
+
+        @Override
+        public void setBody(Body body) {
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.demo.config.restclient;
+
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.core.MethodParameter;
+import org.springframework.util.Assert;
+import org.springframework.web.service.invoker.HttpRequestValues;
+import org.springframework.web.service.invoker.HttpServiceArgumentResolver;
+
+/**
+ * Resolves a {@link Path} or {@link WritableByteChannel} argument of an HTTP service proxy to the
+ * {@link HttpExchangeClients#DOWNLOAD_TARGET_ATTRIBUTE} request attribute, as the generated clients
+ * do, so {@link FileDownloadInterceptor} writes the response body to it.
+ */
+public final class DownloadTargetArgumentResolver implements HttpServiceArgumentResolver {
+
+    /** The shared instance. */
+    public static final DownloadTargetArgumentResolver INSTANCE =
+            new DownloadTargetArgumentResolver();
+
+    private DownloadTargetArgumentResolver() {}
+
+    @Override
+    public boolean resolve(
+            @Nullable Object argument,
+            MethodParameter parameter,
+            HttpRequestValues.Builder requestValues) {
+        Class<?> type = parameter.getParameterType();
+        if (!Path.class.isAssignableFrom(type)
+                && !WritableByteChannel.class.isAssignableFrom(type)) {
+            return false;
+        }
+        Assert.notNull(argument, "Missing download target '" + parameter.getParameterName() + "'");
+        requestValues.addAttribute(HttpExchangeClients.DOWNLOAD_TARGET_ATTRIBUTE, argument);
+        return true;
+    }
+}
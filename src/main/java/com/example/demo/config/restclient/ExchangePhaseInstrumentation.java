@@ -0,0 +1,257 @@
+package com.example.demo.config.restclient;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import com.example.demo.metrics.ClientMetrics;
+import com.example.demo.metrics.ExchangePhase;
+import com.example.demo.metrics.ExchangeTimings;
+
+import org.apache.hc.client5.http.classic.ExecChainHandler;
+import org.apache.hc.client5.http.impl.ChainElement;
+import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.client.Request;
+import org.eclipse.jetty.util.Promise;
+import org.eclipse.jetty.util.SocketAddressResolver;
+import org.jspecify.annotations.Nullable;
+import org.springframework.boot.http.client.ClientHttpRequestFactoryBuilder;
+import org.springframework.boot.http.client.HttpComponentsClientHttpRequestFactoryBuilder;
+import org.springframework.boot.http.client.JettyClientHttpRequestFactoryBuilder;
+import org.springframework.boot.http.client.ReactorClientHttpRequestFactoryBuilder;
+
+import reactor.netty.http.client.HttpClientMetricsRecorder;
+
+/**
+ * Adds {@link ExchangePhase} hooks to the transports a service client can use.
+ *
+ * <ul>
+ *   <li>http-components: exec chain hooks around connection acquisition, on the calling thread; the
+ *       connection manager {@link ConnectionPoolProbe} installs marks new connections. DNS and TLS
+ *       are part of CONNECT: the builders do not expose the configured resolver and TLS strategy,
+ *       and replacing them would drop a custom resolver or an SSL bundle.
+ *   <li>jetty: the configured address resolver, timed, plus request listeners ({@code onQueued} to
+ *       {@code onBegin}) for CONNECT, which includes the TLS handshake and any wait for a pooled
+ *       connection. {@link ExchangeTimings#current()} is per thread, and Jetty only resolves on the
+ *       calling thread when that thread opens the connection itself; when a Jetty thread opens it
+ *       (e.g. for a request queued behind a busy pool), DNS is missing from the exchange's timings.
+ *   <li>reactor: a channel metrics recorder. Netty resolves, connects and handshakes on its event
+ *       loop, so these phases go to the client's phase histograms only and remain part of TTFB in
+ *       the exchange's own timings.
+ *   <li>jdk: the JDK {@code HttpClient} has no such hooks; only TTFB and BODY are measured.
+ * </ul>
+ */
+final class ExchangePhaseInstrumentation {
+
+    private static final String TIMINGS_ATTRIBUTE = ExchangeTimings.class.getName();
+
+    private ExchangePhaseInstrumentation() {}
+
+    /**
+     * Add the phase hooks supported by the builder's transport.
+     *
+     * @param builder the request factory builder
+     * @param metrics the metrics of the service client the factory is built for
+     * @return the instrumented builder, or the given one if the transport has no hooks
+     */
+    static ClientHttpRequestFactoryBuilder<?> instrument(
+            ClientHttpRequestFactoryBuilder<?> builder, ClientMetrics metrics) {
+        if (builder instanceof HttpComponentsClientHttpRequestFactoryBuilder httpComponents) {
+            return instrumentHttpComponents(httpComponents);
+        }
+        if (builder instanceof JettyClientHttpRequestFactoryBuilder jetty) {
+            return jetty.withHttpClientCustomizer(ExchangePhaseInstrumentation::instrumentJetty);
+        }
+        if (builder instanceof ReactorClientHttpRequestFactoryBuilder reactor) {
+            ReactorPhaseRecorder recorder = new ReactorPhaseRecorder(metrics);
+            return reactor.withHttpClientCustomizer(client -> client.metrics(true, () -> recorder));
+        }
+        return builder;
+    }
+
+    private static ClientHttpRequestFactoryBuilder<?> instrumentHttpComponents(
+            HttpComponentsClientHttpRequestFactoryBuilder builder) {
+        ExecChainHandler connectStarted =
+                (request, scope, chain) -> {
+                    ExchangeTimings timings = ExchangeTimings.current();
+                    if (timings != null) {
+                        timings.connectStarted();
+                    }
+                    return chain.proceed(request, scope);
+                };
+        ExecChainHandler connectFinished =
+                (request, scope, chain) -> {
+                    ExchangeTimings timings = ExchangeTimings.current();
+                    if (timings != null) {
+                        timings.connectFinished();
+                    }
+                    return chain.proceed(request, scope);
+                };
+        return builder.withHttpClientCustomizer(
+                client ->
+                        client.addExecInterceptorBefore(
+                                        ChainElement.CONNECT.name(),
+                                        "exchange-timings-connect-started",
+                                        connectStarted)
+                                .addExecInterceptorAfter(
+                                        ChainElement.CONNECT.name(),
+                                        "exchange-timings-connect-finished",
+                                        connectFinished));
+    }
+
+    private static void instrumentJetty(HttpClient client) {
+        client.setSocketAddressResolver(
+                new TimedSocketAddressResolver(client, client.getSocketAddressResolver()));
+        client.getRequestListeners()
+                .addListener(
+                        new Request.Listener() {
+                            @Override
+                            public void onQueued(Request request) {
+                                ExchangeTimings timings = ExchangeTimings.current();
+                                if (timings != null) {
+                                    request.attribute(TIMINGS_ATTRIBUTE, timings);
+                                    timings.connectStarted();
+                                }
+                            }
+
+                            @Override
+                            public void onBegin(Request request) {
+                                if (request.getAttributes().get(TIMINGS_ATTRIBUTE)
+                                        instanceof ExchangeTimings timings) {
+                                    timings.connectFinished();
+                                }
+                            }
+                        });
+    }
+
+    /**
+     * Times the resolver configured on the client. Jetty only creates its default resolver on start
+     * when none is configured, so without one the same default is created on first use, once the
+     * client's executor and scheduler exist.
+     */
+    private static final class TimedSocketAddressResolver implements SocketAddressResolver {
+
+        private final HttpClient client;
+        private volatile @Nullable SocketAddressResolver delegate;
+
+        TimedSocketAddressResolver(HttpClient client, @Nullable SocketAddressResolver configured) {
+            this.client = client;
+            this.delegate = configured;
+        }
+
+        @Override
+        public void resolve(
+                String host,
+                int port,
+                Map<String, Object> context,
+                Promise<List<InetSocketAddress>> promise) {
+            ExchangeTimings timings = ExchangeTimings.current();
+            if (timings == null) {
+                delegate().resolve(host, port, context, promise);
+                return;
+            }
+            long start = System.nanoTime();
+            delegate()
+                    .resolve(
+                            host,
+                            port,
+                            context,
+                            new Promise<>() {
+                                @Override
+                                public void succeeded(List<InetSocketAddress> result) {
+                                    timings.add(ExchangePhase.DNS, System.nanoTime() - start);
+                                    promise.succeeded(result);
+                                }
+
+                                @Override
+                                public void failed(Throwable failure) {
+                                    promise.failed(failure);
+                                }
+                            });
+        }
+
+        private SocketAddressResolver delegate() {
+            SocketAddressResolver current = delegate;
+            if (current == null) {
+                // What HttpClient.doStart() would have set
+                current =
+                        new SocketAddressResolver.Async(
+                                client.getExecutor(),
+                                client.getScheduler(),
+                                client.getAddressResolutionTimeout());
+                delegate = current;
+            }
+            return current;
+        }
+    }
+
+    /** Records the connection phases reactor-netty reports; ignores everything else. */
+    private record ReactorPhaseRecorder(ClientMetrics metrics)
+            implements HttpClientMetricsRecorder {
+
+        private static final String SUCCESS = "SUCCESS";
+
+        @Override
+        public void recordResolveAddressTime(
+                SocketAddress remoteAddress, Duration time, String status) {
+            if (SUCCESS.equals(status)) {
+                metrics.recordPhase(ExchangePhase.DNS, time.toNanos());
+            }
+        }
+
+        @Override
+        public void recordConnectTime(SocketAddress remoteAddress, Duration time, String status) {
+            if (SUCCESS.equals(status)) {
+                metrics.recordPhase(ExchangePhase.CONNECT, time.toNanos());
+            }
+        }
+
+        @Override
+        public void recordTlsHandshakeTime(
+                SocketAddress remoteAddress, Duration time, String status) {
+            if (SUCCESS.equals(status)) {
+                metrics.recordPhase(ExchangePhase.TLS, time.toNanos());
+            }
+        }
+
+        @Override
+        public void recordDataReceivedTime(
+                SocketAddress remoteAddress,
+                String uri,
+                String method,
+                String status,
+                Duration time) {}
+
+        @Override
+        public void recordDataSentTime(
+                SocketAddress remoteAddress, String uri, String method, Duration time) {}
+
+        @Override
+        public void recordResponseTime(
+                SocketAddress remoteAddress,
+                String uri,
+                String method,
+                String status,
+                Duration time) {}
+
+        @Override
+        public void recordDataReceived(SocketAddress remoteAddress, String uri, long bytes) {}
+
+        @Override
+        public void recordDataSent(SocketAddress remoteAddress, String uri, long bytes) {}
+
+        @Override
+        public void incrementErrorsCount(SocketAddress remoteAddress, String uri) {}
+
+        @Override
+        public void recordDataReceived(SocketAddress remoteAddress, long bytes) {}
+
+        @Override
+        public void recordDataSent(SocketAddress remoteAddress, long bytes) {}
+
+        @Override
+        public void incrementErrorsCount(SocketAddress remoteAddress) {}
+    }
+}
@@ -0,0 +1,292 @@
+package com.example.demo.config.restclient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.example.demo.metrics.DownloadMetrics;
+import com.example.demo.metrics.RestClientMetrics;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Writes the body of a request made through an exchange method with a {@link Path} or {@link
+ * WritableByteChannel} argument (see {@link HttpExchangeClients#DOWNLOAD_TARGET_ATTRIBUTE})
+ * straight to that file or channel, and hands the caller the response without its body. Such a
+ * method returns {@code void}, {@code ResponseEntity<Void>} or {@code HttpHeaders}.
+ *
+ * <p>The body streams through a buffer of at most 64 KiB at a time, into a file with {@link
+ * FileChannel#transferFrom}, so an artifact of any size is never held in memory whole. A {@code
+ * 200} response to a file download stores its validator, a strong {@code ETag} or else its {@code
+ * Last-Modified}, in a {@code <file>.validator} file next to it. If both exist, the next request
+ * asks for the rest with {@code Range: bytes=<size>-} and {@code If-Range: <validator>}: a {@code
+ * 206 Partial Content} response is written from where its {@code Content-Range} starts, a {@code
+ * 200}, also sent when the upstream's copy changed, replaces the file, and a {@code 416} whose
+ * {@code Content-Range} reports the file's size means the file is complete and is passed on as
+ * {@code 200 OK}. A file without a validator is downloaded again. A seekable channel resumes the
+ * same way from its size if the caller sets {@code If-Range}; other channels get the whole body.
+ * Downloads ask for the identity content coding, since byte ranges of a compressed response would
+ * refer to the compressed bytes.
+ *
+ * <p>Added before the {@link ResponseSizeLimitInterceptor}, so large downloads need their own
+ * {@code max-response-bytes-per-method}. Progress and throughput are recorded in the client's
+ * {@link DownloadMetrics}.
+ */
+class FileDownloadInterceptor implements ClientHttpRequestInterceptor {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String VALIDATOR_SUFFIX = ".validator";
+
+    private static final Pattern CONTENT_RANGE = Pattern.compile("bytes (\\d+)-\\d+/(?:\\d+|\\*)");
+
+    private static final Pattern UNSATISFIED_RANGE = Pattern.compile("bytes \\*/(\\d+)");
+
+    private final @Nullable DownloadMetrics metrics;
+
+    FileDownloadInterceptor(@Nullable DownloadMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Create the interceptor for a service client.
+     *
+     * @param name the service client name
+     * @param metrics the metrics to record downloads in, if enabled
+     * @return the interceptor
+     */
+    static FileDownloadInterceptor forClient(String name, @Nullable RestClientMetrics metrics) {
+        return new FileDownloadInterceptor(
+                (metrics != null) ? metrics.forClient(name).downloads() : null);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(
+            HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        Object target = request.getAttributes().get(HttpExchangeClients.DOWNLOAD_TARGET_ATTRIBUTE);
+        if (!(target instanceof Path) && !(target instanceof WritableByteChannel)) {
+            return execution.execute(request, body);
+        }
+        HttpHeaders headers = request.getHeaders();
+        // Resume only with a validator, so a changed upstream copy is not appended to the old one
+        String validator =
+                switch (target) {
+                    case Path path -> Files.isRegularFile(path) ? readValidator(path) : null;
+                    default -> headers.getFirst(HttpHeaders.IF_RANGE);
+                };
+        long offset = 0;
+        if (validator != null) {
+            offset =
+                    switch (target) {
+                        case Path path -> Files.size(path);
+                        case SeekableByteChannel seekable -> seekable.size();
+                        default -> 0;
+                    };
+        }
+        if (offset > 0 && !headers.containsHeader(HttpHeaders.RANGE)) {
+            headers.set(HttpHeaders.RANGE, "bytes=" + offset + "-");
+            headers.set(HttpHeaders.IF_RANGE, validator);
+        }
+        if (!headers.containsHeader(HttpHeaders.ACCEPT_ENCODING)) {
+            headers.set(HttpHeaders.ACCEPT_ENCODING, "identity");
+        }
+
+        ClientHttpResponse response = execution.execute(request, body);
+        HttpStatusCode status = response.getStatusCode();
+        if (status.value() == HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value()
+                && offset > 0
+                && rangeEnd(response) == offset) {
+            return new DownloadedResponse(response, HttpStatus.OK);
+        }
+        if (!status.is2xxSuccessful()) {
+            return response;
+        }
+        long position = 0;
+        if (status.value() == HttpStatus.PARTIAL_CONTENT.value()) {
+            position = rangeStart(response);
+            if (position > offset) {
+                response.close();
+                throw new IOException(
+                        "Partial response starts at byte "
+                                + position
+                                + " of a "
+                                + offset
+                                + " byte download");
+            }
+        } else if (target instanceof Path path) {
+            // A new copy; keep its validator before the body, so an interrupted download resumes
+            writeValidator(path, response);
+        }
+
+        // The file is opened only now, so an error response leaves no empty file behind
+        if (target instanceof Path path) {
+            try (FileChannel file =
+                    FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                write(response, file, position, path.toString());
+            }
+        } else {
+            WritableByteChannel channel = (WritableByteChannel) target;
+            write(response, channel, position, channel.getClass().getSimpleName());
+        }
+        return new DownloadedResponse(response, status);
+    }
+
+    private void write(
+            ClientHttpResponse response,
+            WritableByteChannel channel,
+            long position,
+            String description)
+            throws IOException {
+        long expectedBytes = response.getHeaders().getContentLength();
+        DownloadMetrics.Progress progress =
+                (metrics != null) ? metrics.start(description, position, expectedBytes) : null;
+        long written = 0;
+        try {
+            if (channel instanceof SeekableByteChannel seekable) {
+                seekable.truncate(position).position(position);
+            }
+            if (channel instanceof FileChannel file) {
+                ReadableByteChannel source = Channels.newChannel(response.getBody());
+                long count;
+                while ((count = file.transferFrom(source, position + written, BUFFER_SIZE)) > 0) {
+                    written += count;
+                    if (progress != null) {
+                        progress.advance(count);
+                    }
+                }
+            } else {
+                InputStream source = response.getBody();
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int count;
+                while ((count = source.read(buffer)) >= 0) {
+                    ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, count);
+                    while (bytes.hasRemaining()) {
+                        channel.write(bytes);
+                    }
+                    written += count;
+                    if (progress != null) {
+                        progress.advance(count);
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            response.close();
+            throw e;
+        } finally {
+            if (progress != null) {
+                progress.finish(expectedBytes < 0 || written == expectedBytes);
+            }
+        }
+    }
+
+    /**
+     * The file that keeps the validator of a downloaded file.
+     *
+     * @param path the downloaded file
+     * @return the {@code <file>.validator} file next to it
+     */
+    static Path validatorFile(Path path) {
+        return path.resolveSibling(path.getFileName() + VALIDATOR_SUFFIX);
+    }
+
+    private static @Nullable String readValidator(Path path) throws IOException {
+        Path validatorFile = validatorFile(path);
+        if (!Files.isRegularFile(validatorFile)) {
+            return null;
+        }
+        String validator = Files.readString(validatorFile).strip();
+        return validator.isEmpty() ? null : validator;
+    }
+
+    private static void writeValidator(Path path, ClientHttpResponse response) throws IOException {
+        HttpHeaders headers = response.getHeaders();
+        String validator = headers.getETag();
+        // If-Range takes strong entity tags only
+        if (validator == null || validator.startsWith("W/")) {
+            validator = headers.getFirst(HttpHeaders.LAST_MODIFIED);
+        }
+        try {
+            if (validator != null) {
+                Files.writeString(validatorFile(path), validator);
+            } else {
+                Files.deleteIfExists(validatorFile(path));
+            }
+        } catch (IOException e) {
+            response.close();
+            throw e;
+        }
+    }
+
+    private static long rangeStart(ClientHttpResponse response) throws IOException {
+        String contentRange = response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE);
+        Matcher matcher = CONTENT_RANGE.matcher((contentRange != null) ? contentRange : "");
+        if (!matcher.matches()) {
+            response.close();
+            throw new IOException("Partial response without a byte Content-Range: " + contentRange);
+        }
+        return Long.parseLong(matcher.group(1));
+    }
+
+    private static long rangeEnd(ClientHttpResponse response) {
+        String contentRange = response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE);
+        Matcher matcher = UNSATISFIED_RANGE.matcher((contentRange != null) ? contentRange : "");
+        return matcher.matches() ? Long.parseLong(matcher.group(1)) : -1;
+    }
+
+    /** The response of a download, its body already written to the target. */
+    private static final class DownloadedResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final HttpStatusCode status;
+
+        DownloadedResponse(ClientHttpResponse delegate, HttpStatusCode status) {
+            this.delegate = delegate;
+            this.status = status;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() {
+            return status;
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return status.equals(delegate.getStatusCode())
+                    ? delegate.getStatusText()
+                    : ((HttpStatus) status).getReasonPhrase();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() {
+            return InputStream.nullInputStream();
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.demo.config.restclient;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.core.Ordered;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.support.RestClientHttpServiceGroupConfigurer;
+import org.springframework.web.service.registry.AbstractHttpServiceRegistrar;
+import org.springframework.web.service.registry.HttpServiceGroupConfigurer;
+import org.springframework.web.service.registry.HttpServiceProxyRegistry;
+
+/**
+ * Makes the {@code @ImportHttpServices} beans of interfaces with a compile-time implementation (see
+ * {@link HttpExchangeClients}) that implementation instead of a proxy, so injected clients skip the
+ * proxy too.
+ *
+ * <p>Each such bean definition gets an instance supplier that creates the generated client with the
+ * RestClient of its group. That client is built from the group's RestClient.Builder once every
+ * group configurer has run, this one last, so it has the same base URL, request factory,
+ * interceptors and converters as the client behind the group's proxies. Interfaces without a
+ * generated implementation keep Spring's proxy.
+ *
+ * <p>Like other bean factory post-processors, this one does not run in an AOT-processed
+ * application, which keeps the proxies.
+ */
+public final class GeneratedHttpServiceClients
+        implements BeanFactoryPostProcessor, RestClientHttpServiceGroupConfigurer, Ordered {
+
+    // Set by AbstractHttpServiceRegistrar on every HTTP service bean definition
+    private static final String GROUP_NAME_ATTRIBUTE = "httpServiceGroupName";
+
+    private final Map<String, RestClient.Builder> builders = new ConcurrentHashMap<>();
+    private final Map<String, RestClient> clients = new ConcurrentHashMap<>();
+
+    private ConfigurableListableBeanFactory beanFactory;
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+        this.beanFactory = beanFactory;
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition definition = beanFactory.getBeanDefinition(beanName);
+            if (definition.getAttribute(GROUP_NAME_ATTRIBUTE) instanceof String group
+                    && definition instanceof AbstractBeanDefinition serviceDefinition
+                    && definition.getBeanClassName() != null) {
+                Class<?> type =
+                        ClassUtils.resolveClassName(
+                                definition.getBeanClassName(), beanFactory.getBeanClassLoader());
+                if (HttpExchangeClients.isGenerated(type)) {
+                    serviceDefinition.setInstanceSupplier(() -> create(group, type));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void configureGroups(HttpServiceGroupConfigurer.Groups<RestClient.Builder> groups) {
+        groups.forEachClient((group, clientBuilder) -> builders.put(group.name(), clientBuilder));
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    private Object create(String group, Class<?> type) {
+        // The registry runs the group configurers when it is created
+        HttpServiceProxyRegistry registry =
+                beanFactory.getBean(
+                        AbstractHttpServiceRegistrar.HTTP_SERVICE_PROXY_REGISTRY_BEAN_NAME,
+                        HttpServiceProxyRegistry.class);
+        RestClient.Builder builder = builders.get(group);
+        if (builder == null) {
+            return registry.getClient(group, type);
+        }
+        return HttpExchangeClients.create(
+                clients.computeIfAbsent(group, name -> builder.build()), type);
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.demo.config.restclient;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import com.example.demo.annotation.ResponseFields;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.support.RestClientAdapter;
+import org.springframework.web.service.invoker.HttpServiceProxyFactory;
+
+/**
+ * Creates {@code @HttpExchange} clients backed by the implementations that {@code
+ * HttpExchangeClientProcessor} generates at compile time. Interfaces without a generated
+ * implementation fall back to a {@link HttpServiceProxyFactory} proxy, so callers never need to
+ * know which one they got.
+ */
+public final class HttpExchangeClients {
+
+    /** Request attribute with the called method, e.g. "JsonPlaceholderClient.getPostById". */
+    public static final String SERVICE_METHOD_ATTRIBUTE = "com.example.demo.httpServiceMethod";
+
+    /** Request attribute with the fields of a {@link ResponseFields} method, e.g. "id,title". */
+    public static final String RESPONSE_FIELDS_ATTRIBUTE = "com.example.demo.responseFields";
+
+    /** Request attribute with the Path or WritableByteChannel argument a body is downloaded to. */
+    public static final String DOWNLOAD_TARGET_ATTRIBUTE = "com.example.demo.downloadTarget";
+
+    // Prefix of the generated class name, e.g. GeneratedJsonPlaceholderClient
+    private static final String GENERATED_PREFIX = "Generated";
+
+    private static final Map<Class<?>, Function<RestClient, ?>> factories =
+            new ConcurrentHashMap<>();
+
+    private HttpExchangeClients() {}
+
+    /**
+     * Create a client for the given interface.
+     *
+     * @param restClient the RestClient that executes the requests
+     * @param exchangeClientClass the {@code @HttpExchange} interface
+     * @return the generated implementation, or a proxy if none was generated
+     */
+    public static <T> T create(RestClient restClient, Class<T> exchangeClientClass) {
+        return exchangeClientClass.cast(factoryFor(exchangeClientClass).apply(restClient));
+    }
+
+    /**
+     * Check if a compile-time implementation exists for the given interface.
+     *
+     * @param exchangeClientClass the {@code @HttpExchange} interface
+     * @return true if {@link #create} returns a generated implementation
+     */
+    public static boolean isGenerated(Class<?> exchangeClientClass) {
+        return findFactoryMethod(exchangeClientClass) != null;
+    }
+
+    private static Function<RestClient, ?> factoryFor(Class<?> exchangeClientClass) {
+        return factories.computeIfAbsent(
+                exchangeClientClass,
+                type -> {
+                    MethodHandle factoryMethod = findFactoryMethod(type);
+                    if (factoryMethod == null) {
+                        return restClient ->
+                                HttpServiceProxyFactory.builderFor(
+                                                RestClientAdapter.create(restClient))
+                                        .httpRequestValuesProcessor(ServiceMethodProcessor.INSTANCE)
+                                        .customArgumentResolver(
+                                                DownloadTargetArgumentResolver.INSTANCE)
+                                        .build()
+                                        .createClient(type);
+                    }
+                    return restClient -> invoke(factoryMethod, restClient);
+                });
+    }
+
+    private static Object invoke(MethodHandle factoryMethod, RestClient restClient) {
+        try {
+            return factoryMethod.invoke(restClient);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to create generated HTTP service client", e);
+        }
+    }
+
+    /**
+     * Return the name of the class generated for the given interface, whether or not it exists.
+     *
+     * @param exchangeClientClass the {@code @HttpExchange} interface
+     * @return the fully qualified name of the generated class
+     */
+    public static String generatedClassName(Class<?> exchangeClientClass) {
+        // Nested interfaces are generated as Generated<Outer>_<Inner> in the same package
+        String packageName = exchangeClientClass.getPackageName();
+        String simpleName =
+                exchangeClientClass.getName().substring(packageName.length() + 1).replace('$', '_');
+        return packageName + "." + GENERATED_PREFIX + simpleName;
+    }
+
+    private static @Nullable MethodHandle findFactoryMethod(Class<?> exchangeClientClass) {
+        String className = generatedClassName(exchangeClientClass);
+        ClassLoader classLoader = exchangeClientClass.getClassLoader();
+        if (!ClassUtils.isPresent(className, classLoader)) {
+            return null;
+        }
+        try {
+            return MethodHandles.publicLookup()
+                    .findStatic(
+                            ClassUtils.resolveClassName(className, classLoader),
+                            "create",
+                            MethodType.methodType(exchangeClientClass, RestClient.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.demo.config.restclient;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+import com.example.demo.annotation.ResponseFields;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.support.HttpRequestWrapper;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+
+/**
+ * Asks a service client's upstream for partial responses: a request made through a {@link
+ * ResponseFields} method gets its fields as the {@code serviceclient.<name>.fields-parameter} query
+ * parameter, e.g. {@code ?fields=id,name,email}, so the upstream leaves out what the projection
+ * would skip anyway. A request that sets the parameter itself is sent unchanged.
+ *
+ * <p>Only configure the parameter for upstreams that support it: others may ignore it, or treat it
+ * as a filter.
+ */
+class PartialResponseInterceptor implements ClientHttpRequestInterceptor {
+
+    private final String parameter;
+
+    PartialResponseInterceptor(String parameter) {
+        this.parameter = parameter;
+    }
+
+    /**
+     * Create the interceptor for a service client.
+     *
+     * @param authProps the client's serviceclient.{name} properties, if any
+     * @return the interceptor, or null if the client has no fields parameter
+     */
+    static @Nullable PartialResponseInterceptor forClient(
+            @Nullable ClientAuthProperties authProps) {
+        if (authProps == null
+                || authProps.getFieldsParameter() == null
+                || authProps.getFieldsParameter().isBlank()) {
+            return null;
+        }
+        return new PartialResponseInterceptor(authProps.getFieldsParameter());
+    }
+
+    @Override
+    public ClientHttpResponse intercept(
+            HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        String fields = ServiceMethodProcessor.getResponseFields(request);
+        if (fields == null) {
+            return execution.execute(request, body);
+        }
+        UriComponentsBuilder uri = UriComponentsBuilder.fromUri(request.getURI());
+        if (uri.build().getQueryParams().containsKey(parameter)) {
+            return execution.execute(request, body);
+        }
+        // The request URI is encoded already, so only the added parameter needs encoding
+        URI partial =
+                uri.queryParam(
+                                UriUtils.encodeQueryParam(parameter, StandardCharsets.UTF_8),
+                                UriUtils.encodeQueryParam(fields, StandardCharsets.UTF_8))
+                        .build(true)
+                        .toUri();
+        return execution.execute(
+                new HttpRequestWrapper(request) {
+                    @Override
+                    public URI getURI() {
+                        return partial;
+                    }
+                },
+                body);
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.demo.config.restclient;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.hc.client5.http.classic.ExecChainHandler;
+import org.apache.hc.client5.http.classic.ExecRuntime;
+import org.apache.hc.client5.http.impl.ChainElement;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.io.entity.HttpEntityWrapper;
+import org.springframework.boot.http.client.ClientHttpRequestFactoryBuilder;
+import org.springframework.boot.http.client.HttpComponentsClientHttpRequestFactoryBuilder;
+
+/**
+ * Lets a reader give up on a response body without reading the rest of it. jetty, reactor and the
+ * JDK client abort the exchange when a response is closed before its body was read to the end.
+ * http-components instead reads the rest of the body to keep the connection in the pool, however
+ * large or slow it is. {@link #close(InputStream)} makes it discard the connection instead.
+ *
+ * <p>Closing a body any other way keeps the usual behavior of each transport.
+ */
+final class ResponseAbort {
+
+    // Set while a body is closed through close(InputStream); closing runs on the caller's thread
+    private static final ThreadLocal<Boolean> ABORTING = new ThreadLocal<>();
+
+    private ResponseAbort() {}
+
+    /**
+     * Add the abort hook to the builder's transport.
+     *
+     * @param builder the request factory builder
+     * @return the builder with the hook, or the given one if its transport aborts on close anyway
+     */
+    static ClientHttpRequestFactoryBuilder<?> apply(ClientHttpRequestFactoryBuilder<?> builder) {
+        if (builder instanceof HttpComponentsClientHttpRequestFactoryBuilder httpComponents) {
+            ExecChainHandler abortable =
+                    (request, scope, chain) -> {
+                        ClassicHttpResponse response = chain.proceed(request, scope);
+                        HttpEntity entity = response.getEntity();
+                        if (entity != null && entity.isStreaming()) {
+                            response.setEntity(new AbortableEntity(entity, scope.execRuntime));
+                        }
+                        return response;
+                    };
+            // Right after the main transport, which hands out the pooled connection's stream
+            return httpComponents.withHttpClientCustomizer(
+                    client ->
+                            client.addExecInterceptorBefore(
+                                    ChainElement.MAIN_TRANSPORT.name(),
+                                    "response-abort",
+                                    abortable));
+        }
+        return builder;
+    }
+
+    /**
+     * Close a response body, aborting the exchange if the body was not read to the end.
+     *
+     * @param body the body as returned by the response, also wrapped by interceptors
+     */
+    static void close(InputStream body) throws IOException {
+        ABORTING.set(Boolean.TRUE);
+        try {
+            body.close();
+        } finally {
+            ABORTING.remove();
+        }
+    }
+
+    private static final class AbortableEntity extends HttpEntityWrapper {
+
+        private final ExecRuntime execRuntime;
+        private volatile boolean discarded;
+
+        AbortableEntity(HttpEntity entity, ExecRuntime execRuntime) {
+            super(entity);
+            this.execRuntime = execRuntime;
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            return new AbortableInputStream(super.getContent());
+        }
+
+        private final class AbortableInputStream extends FilterInputStream {
+
+            private boolean eof;
+
+            AbortableInputStream(InputStream in) {
+                super(in);
+            }
+
+            @Override
+            public int read() throws IOException {
+                int read = super.read();
+                eof |= read < 0;
+                return read;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int read = super.read(b, off, len);
+                eof |= read < 0;
+                return read;
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (discarded) {
+                    // The connection is gone, e.g. when Spring closes the response afterwards
+                    return;
+                }
+                if (!eof && ABORTING.get() != null) {
+                    discarded = true;
+                    execRuntime.discardEndpoint();
+                    return;
+                }
+                super.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.demo.config.restclient;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+import com.example.demo.metrics.ClientMetrics;
+import com.example.demo.metrics.ExchangeTimings;
+import com.example.demo.metrics.MeteredClientHttpRequest;
+import com.example.demo.metrics.RestClientMetrics;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Limits the size of a service client's responses to {@code
+ * serviceclient.<name>.max-response-bytes}, or to {@code
+ * max-response-bytes-per-method[<Interface>.<method>]} for requests made through that HTTP service
+ * method. A response whose {@code Content-Length} exceeds the limit is rejected before its body is
+ * read; a body without one is counted as it is read and rejected once it passes the limit. Either
+ * way the exchange is aborted, so the rest of the body is neither buffered nor drained, and a
+ * {@link ResponseTooLargeException} is thrown.
+ *
+ * <p>Rejected responses are counted as {@code responsesTooLarge} in the client's {@link
+ * RestClientMetrics}, by HTTP method and URI template.
+ */
+class ResponseSizeLimitInterceptor implements ClientHttpRequestInterceptor {
+
+    private final long maxResponseBytes;
+    private final Map<String, DataSize> perMethod;
+    private final @Nullable ClientMetrics metrics;
+
+    ResponseSizeLimitInterceptor(
+            @Nullable DataSize maxResponseBytes,
+            Map<String, DataSize> perMethod,
+            @Nullable ClientMetrics metrics) {
+        this.maxResponseBytes = (maxResponseBytes != null) ? maxResponseBytes.toBytes() : -1;
+        this.perMethod = Map.copyOf(perMethod);
+        this.metrics = metrics;
+    }
+
+    /**
+     * Create the interceptor for a service client.
+     *
+     * @param name the service client name
+     * @param authProps the client's serviceclient.{name} properties, if any
+     * @param metrics the metrics to count rejected responses in, if enabled
+     * @return the interceptor, or null if the client has no limit
+     */
+    static @Nullable ResponseSizeLimitInterceptor forClient(
+            String name,
+            @Nullable ClientAuthProperties authProps,
+            @Nullable RestClientMetrics metrics) {
+        if (authProps == null
+                || (authProps.getMaxResponseBytes() == null
+                        && authProps.getMaxResponseBytesPerMethod().isEmpty())) {
+            return null;
+        }
+        return new ResponseSizeLimitInterceptor(
+                authProps.getMaxResponseBytes(),
+                authProps.getMaxResponseBytesPerMethod(),
+                (metrics != null) ? metrics.forClient(name) : null);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(
+            HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        long limit = limitFor(request);
+        ClientHttpResponse response = execution.execute(request, body);
+        if (limit < 0 || request.getMethod() == HttpMethod.HEAD) {
+            return response;
+        }
+        long contentLength = response.getHeaders().getContentLength();
+        if (contentLength > limit) {
+            throw reject(request, response, response.getBody(), limit, contentLength);
+        }
+        return new SizeLimitedResponse(request, response, limit);
+    }
+
+    private long limitFor(HttpRequest request) {
+        String serviceMethod = ServiceMethodProcessor.get(request);
+        DataSize override = (serviceMethod != null) ? perMethod.get(serviceMethod) : null;
+        return (override != null) ? override.toBytes() : maxResponseBytes;
+    }
+
+    private ResponseTooLargeException reject(
+            HttpRequest request,
+            ClientHttpResponse response,
+            InputStream body,
+            long limit,
+            long contentLength) {
+        try {
+            ResponseAbort.close(body);
+        } catch (IOException e) {
+            // Aborting anyway
+        }
+        response.close();
+        if (metrics != null) {
+            metrics.recordResponseTooLarge(
+                    request.getMethod(),
+                    (request.getAttributes().get(MeteredClientHttpRequest.URI_TEMPLATE_ATTRIBUTE)
+                                    instanceof String template)
+                            ? template
+                            : null);
+        }
+        String exchange = "Response to " + request.getMethod() + " " + request.getURI();
+        return new ResponseTooLargeException(
+                (contentLength >= 0)
+                        ? exchange
+                                + " has Content-Length "
+                                + contentLength
+                                + ", more than the maximum of "
+                                + limit
+                                + " bytes"
+                        : exchange + " exceeds the maximum of " + limit + " bytes",
+                limit);
+    }
+
+    private final class SizeLimitedResponse implements ClientHttpResponse, ExchangeTimings.Source {
+
+        private final HttpRequest request;
+        private final ClientHttpResponse delegate;
+        private final long limit;
+
+        private @Nullable InputStream body;
+
+        SizeLimitedResponse(HttpRequest request, ClientHttpResponse delegate, long limit) {
+            this.request = request;
+            this.delegate = delegate;
+            this.limit = limit;
+        }
+
+        @Override
+        public @Nullable ExchangeTimings exchangeTimings() {
+            return ExchangeTimings.of(delegate);
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            InputStream current = body;
+            if (current == null) {
+                current = new CountingInputStream(delegate.getBody());
+                body = current;
+            }
+            return current;
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+
+        private final class CountingInputStream extends FilterInputStream
+                implements ExchangeTimings.Source {
+
+            private long count;
+            private @Nullable ResponseTooLargeException rejected;
+
+            CountingInputStream(InputStream in) {
+                super(in);
+            }
+
+            @Override
+            public @Nullable ExchangeTimings exchangeTimings() {
+                return SizeLimitedResponse.this.exchangeTimings();
+            }
+
+            @Override
+            public int read() throws IOException {
+                int read = super.read();
+                if (read >= 0) {
+                    count(1);
+                }
+                return read;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int read = super.read(b, off, len);
+                if (read > 0) {
+                    count(read);
+                }
+                return read;
+            }
+
+            private void count(int read) throws IOException {
+                count += read;
+                if (count > limit) {
+                    if (rejected == null) {
+                        rejected = reject(request, delegate, in, limit, -1);
+                    }
+                    throw rejected;
+                }
+            }
+        }
+    }
+}
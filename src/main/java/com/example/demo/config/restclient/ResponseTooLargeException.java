@@ -0,0 +1,24 @@
+package com.example.demo.config.restclient;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a response exceeds {@code serviceclient.<name>.max-response-bytes}, either by its
+ * {@code Content-Length} or while its body is read. The exchange is aborted before it is thrown.
+ * {@code RestClient} reports it as the cause of a {@code ResourceAccessException} or, while
+ * converting the body, of a {@code RestClientException}.
+ */
+public class ResponseTooLargeException extends IOException {
+
+    private final long limit;
+
+    public ResponseTooLargeException(String message, long limit) {
+        super(message);
+        this.limit = limit;
+    }
+
+    /** The maximum response size in bytes that was exceeded. */
+    public long getLimit() {
+        return limit;
+    }
+}
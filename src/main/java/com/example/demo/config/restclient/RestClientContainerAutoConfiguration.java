@@ -1,33 +1,226 @@
 package com.example.demo.config.restclient;
 
-import java.time.Duration;
+import com.example.demo.metrics.ConnectionPoolSampler;
+import com.example.demo.metrics.HttpExchangeEventInterceptor;
+import com.example.demo.metrics.RestClientMetrics;
 
 import org.jspecify.annotations.Nullable;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBooleanProperty;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.BindableRuntimeHintsRegistrar;
 import org.springframework.boot.http.client.ClientHttpRequestFactoryBuilder;
 import org.springframework.boot.http.client.HttpClientSettings;
 import org.springframework.boot.http.client.autoconfigure.ApiversionProperties;
 import org.springframework.boot.http.client.autoconfigure.HttpClientProperties;
 import org.springframework.boot.http.client.autoconfigure.service.HttpServiceClientProperties;
+import org.springframework.boot.ssl.SslBundles;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
 import org.springframework.security.oauth2.client.web.client.OAuth2ClientHttpRequestInterceptor;
 import org.springframework.web.client.ApiVersionInserter;
 import org.springframework.web.client.RestClient;
+import org.springframework.web.client.support.RestClientHttpServiceGroupConfigurer;
+
+import tools.jackson.databind.json.JsonMapper;
 
 @Configuration
-@EnableConfigurationProperties(ServiceClientAuthProperties.class)
+@EnableConfigurationProperties({
+    ServiceClientAuthProperties.class,
+    RestClientContainerProperties.class
+})
+@ImportRuntimeHints(RestClientContainerAutoConfiguration.RestClientContainerRuntimeHints.class)
 public class RestClientContainerAutoConfiguration {
 
+    @Bean
+    @ConditionalOnMissingBean
+    public ServiceClientRequestFactories serviceClientRequestFactories(
+            ClientHttpRequestFactoryBuilder<?> requestFactoryBuilder,
+            HttpClientSettings httpClientSettings,
+            HttpServiceClientProperties httpServiceClientProperties,
+            ServiceClientAuthProperties authProperties,
+            ObjectProvider<RestClientMetrics> metrics,
+            ObjectProvider<SslBundles> sslBundles) {
+        return new ServiceClientRequestFactories(
+                requestFactoryBuilder,
+                httpClientSettings,
+                httpServiceClientProperties,
+                authProperties,
+                metrics.getIfAvailable(),
+                sslBundles.getIfAvailable());
+    }
+
+    /**
+     * The string caches of clients with serviceclient.{name}.string-cache.enabled=true, reported at
+     * /restclient-container/metrics/strings.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public ServiceClientStringCaches serviceClientStringCaches(
+            ServiceClientAuthProperties authProperties) {
+        return new ServiceClientStringCaches(authProperties);
+    }
+
+    /**
+     * The JsonMapper of every service client: the application's, plus the {@link
+     * ServiceClientJsonMapperCustomizer} beans and the client's string cache.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public ServiceClientJsonMappers serviceClientJsonMappers(
+            ObjectProvider<JsonMapper> jsonMapper,
+            ObjectProvider<ServiceClientJsonMapperCustomizer> customizers,
+            ServiceClientStringCaches stringCaches) {
+        return new ServiceClientJsonMappers(
+                jsonMapper::getObject, customizers.orderedStream().toList(), stringCaches);
+    }
+
+    /**
+     * Latency and status metrics for every service client, exposed at
+     * /restclient-container/metrics. Disable with restclient-container.metrics.enabled=false.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnBooleanProperty(
+            name = "restclient-container.metrics.enabled",
+            matchIfMissing = true)
+    public RestClientMetrics restClientMetrics() {
+        return new RestClientMetrics();
+    }
+
+    /**
+     * Samples the connection pool of every service client as gauges, exposed at
+     * /restclient-container/metrics/pools/gauges. Disabled with the other metrics.
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnBooleanProperty(
+            name = "restclient-container.metrics.enabled",
+            matchIfMissing = true)
+    public ConnectionPoolSampler connectionPoolSampler(
+            ServiceClientRequestFactories requestFactories,
+            RestClientContainerProperties containerProperties) {
+        return new ConnectionPoolSampler(
+                requestFactories::getConnectionPoolStats,
+                containerProperties.getMetrics().getPoolSampleInterval());
+    }
+
+    /**
+     * Points every {@code @ImportHttpServices} group that has a matching
+     * spring.http.serviceclient.{name} entry at the same request factory as the container client,
+     * so a group and its container client share one connection pool (and HTTP/2 settings). Groups
+     * also get the client's response size limit (serviceclient.{name}.max-response-bytes), content
+     * coding (serviceclient.{name}.compression.*), JsonMapper and string cache
+     * (serviceclient.{name}.string-cache.*), binary format (serviceclient.{name}.binary-format),
+     * fields parameter (serviceclient.{name}.fields-parameter) and streaming uploads
+     * (serviceclient.{name}.streaming-uploads), and proxy requests are marked with their service
+     * method and response fields for per-method limits, partial responses and JFR events. Every
+     * group client writes the body of a method with a Path or WritableByteChannel argument to it.
+     */
+    @Bean
+    public RestClientHttpServiceGroupConfigurer groupConfigurerForRequestFactories(
+            ServiceClientRequestFactories requestFactories,
+            ServiceClientJsonMappers jsonMappers,
+            ServiceClientAuthProperties authProperties,
+            ObjectProvider<RestClientMetrics> metrics) {
+        return groups -> {
+            groups.forEachClient(
+                    (group, clientBuilder) -> {
+                        if (requestFactories.contains(group.name())) {
+                            clientBuilder.requestFactory(requestFactories.get(group.name()));
+                        }
+                        clientBuilder.requestInterceptor(
+                                FileDownloadInterceptor.forClient(
+                                        group.name(), metrics.getIfAvailable()));
+                        ResponseSizeLimitInterceptor sizeLimit =
+                                ResponseSizeLimitInterceptor.forClient(
+                                        group.name(),
+                                        authProperties.get(group.name()),
+                                        metrics.getIfAvailable());
+                        if (sizeLimit != null) {
+                            clientBuilder.requestInterceptor(sizeLimit);
+                        }
+                        CompressionInterceptor compression =
+                                CompressionInterceptor.forClient(
+                                        group.name(),
+                                        authProperties.get(group.name()),
+                                        metrics.getIfAvailable());
+                        if (compression != null) {
+                            clientBuilder.requestInterceptor(compression);
+                        }
+                        jsonMappers.apply(group.name(), clientBuilder);
+                        BinaryFormatNegotiation binaryFormat =
+                                BinaryFormatNegotiation.forClient(
+                                        group.name(), authProperties.get(group.name()));
+                        if (binaryFormat != null) {
+                            binaryFormat.apply(
+                                    clientBuilder, jsonMappers.getStringCache(group.name()));
+                        }
+                        PartialResponseInterceptor partialResponse =
+                                PartialResponseInterceptor.forClient(
+                                        authProperties.get(group.name()));
+                        if (partialResponse != null) {
+                            clientBuilder.requestInterceptor(partialResponse);
+                        }
+                        ClientAuthProperties authProps = authProperties.get(group.name());
+                        if (authProps != null
+                                && authProps.isStreamingUploads()
+                                && requestFactories.contains(group.name())) {
+                            StreamingUploadRequestFactory.apply(
+                                    clientBuilder, requestFactories.get(group.name()));
+                        }
+                    });
+            groups.forEachProxyFactory(
+                    (group, factoryBuilder) ->
+                            factoryBuilder
+                                    .httpRequestValuesProcessor(ServiceMethodProcessor.INSTANCE)
+                                    .customArgumentResolver(
+                                            DownloadTargetArgumentResolver.INSTANCE));
+        };
+    }
+
+    /**
+     * Adds the {@link HttpExchangeEventInterceptor} to every {@code @ImportHttpServices} group.
+     * Disable with restclient-container.jfr.enabled=false.
+     */
+    @Bean
+    @ConditionalOnBooleanProperty(name = "restclient-container.jfr.enabled", matchIfMissing = true)
+    public RestClientHttpServiceGroupConfigurer groupConfigurerForJfrEvents() {
+        return groups ->
+                groups.forEachClient(
+                        (group, clientBuilder) ->
+                                clientBuilder.requestInterceptors(
+                                        interceptors ->
+                                                interceptors.add(
+                                                        0,
+                                                        new HttpExchangeEventInterceptor(
+                                                                group.name()))));
+    }
+
+    /**
+     * Makes the {@code @ImportHttpServices} beans of interfaces with a compile-time implementation
+     * that implementation, built on the group's RestClient, instead of a proxy.
+     */
+    @Bean
+    public static GeneratedHttpServiceClients generatedHttpServiceClients() {
+        return new GeneratedHttpServiceClients();
+    }
+
     @Bean
     @ConditionalOnMissingBean
     public RestClientContainer restClientContainer(
             RestClient.Builder restClientBuilder,
-            ClientHttpRequestFactoryBuilder<?> requestFactoryBuilder,
+            ServiceClientRequestFactories requestFactories,
+            ServiceClientJsonMappers jsonMappers,
             HttpServiceClientProperties httpServiceClientProperties,
             ServiceClientAuthProperties authProperties,
+            RestClientContainerProperties containerProperties,
+            @Nullable RestClientMetrics metrics,
             @Nullable OAuth2AuthorizedClientManager authorizedClientManager) {
 
         DefaultRestClientContainer container = new DefaultRestClientContainer();
@@ -44,9 +237,12 @@ public class RestClientContainerAutoConfiguration {
                                     configureBuilder(
                                             name,
                                             restClientBuilder.clone(),
-                                            requestFactoryBuilder,
+                                            requestFactories,
+                                            jsonMappers,
                                             clientProps,
                                             authProps,
+                                            containerProperties,
+                                            metrics,
                                             authorizedClientManager));
 
                     // Register pre-built RestClient
@@ -54,9 +250,12 @@ public class RestClientContainerAutoConfiguration {
                             configureBuilder(
                                             name,
                                             restClientBuilder.clone(),
-                                            requestFactoryBuilder,
+                                            requestFactories,
+                                            jsonMappers,
                                             clientProps,
                                             authProps,
+                                            containerProperties,
+                                            metrics,
                                             authorizedClientManager)
                                     .build();
                     container.register(name, client);
@@ -65,12 +264,31 @@ public class RestClientContainerAutoConfiguration {
         return container;
     }
 
+    @Bean
+    public ServiceClientWarmup serviceClientWarmup(
+            RestClientContainer restClientContainer,
+            ServiceClientAuthProperties authProperties,
+            RestClientContainerProperties containerProperties) {
+        return new ServiceClientWarmup(restClientContainer, authProperties, containerProperties);
+    }
+
+    @Bean
+    public ServiceClientProber serviceClientProber(
+            RestClientContainer restClientContainer,
+            ServiceClientAuthProperties authProperties,
+            RestClientContainerProperties containerProperties) {
+        return new ServiceClientProber(restClientContainer, authProperties, containerProperties);
+    }
+
     private RestClient.Builder configureBuilder(
             String name,
             RestClient.Builder builder,
-            ClientHttpRequestFactoryBuilder<?> requestFactoryBuilder,
+            ServiceClientRequestFactories requestFactories,
+            ServiceClientJsonMappers jsonMappers,
             HttpClientProperties clientProps,
             @Nullable ClientAuthProperties authProps,
+            RestClientContainerProperties containerProperties,
+            @Nullable RestClientMetrics metrics,
             @Nullable OAuth2AuthorizedClientManager authorizedClientManager) {
 
         // 1. Set base URL
@@ -94,15 +312,56 @@ public class RestClientContainerAutoConfiguration {
         // 3. Configure API versioning using ApiVersionInserter
         configureApiVersion(builder, clientProps, authProps);
 
-        // 4. Build ClientHttpRequestFactory with timeouts
-        HttpClientSettings settings = buildHttpClientSettings(clientProps);
-        if (settings != null) {
-            builder.requestFactory(requestFactoryBuilder.build(settings));
-        }
+        // 4. Use the shared ClientHttpRequestFactory (timeouts, HTTP/2, one pool per client)
+        builder.requestFactory(requestFactories.get(name));
 
         // 5. Add authentication
         configureAuthentication(name, builder, authProps, authorizedClientManager);
 
+        // 6. Write Path and WritableByteChannel downloads, outside the size limit and decoding
+        builder.requestInterceptor(FileDownloadInterceptor.forClient(name, metrics));
+
+        // 7. Abort responses larger than serviceclient.{name}.max-response-bytes
+        ResponseSizeLimitInterceptor sizeLimit =
+                ResponseSizeLimitInterceptor.forClient(name, authProps, metrics);
+        if (sizeLimit != null) {
+            builder.requestInterceptor(sizeLimit);
+        }
+
+        // 8. Decode responses and compress large request bodies, inside the size limit
+        CompressionInterceptor compression =
+                CompressionInterceptor.forClient(name, authProps, metrics);
+        if (compression != null) {
+            builder.requestInterceptor(compression);
+        }
+
+        // 9. Read and write JSON with the client's mapper (generated codecs, string cache)
+        jsonMappers.apply(name, builder);
+
+        // 10. Ask for CBOR or Smile, falling back to JSON
+        BinaryFormatNegotiation binaryFormat = BinaryFormatNegotiation.forClient(name, authProps);
+        if (binaryFormat != null) {
+            binaryFormat.apply(builder, jsonMappers.getStringCache(name));
+        }
+
+        // 11. Ask for the fields of @ResponseFields methods only
+        PartialResponseInterceptor partialResponse =
+                PartialResponseInterceptor.forClient(authProps);
+        if (partialResponse != null) {
+            builder.requestInterceptor(partialResponse);
+        }
+
+        // 12. Emit JFR events, first so they include the authentication interceptors
+        if (containerProperties.getJfr().isEnabled()) {
+            builder.requestInterceptors(
+                    interceptors -> interceptors.add(0, new HttpExchangeEventInterceptor(name)));
+        }
+
+        // 13. Send file, stream and multipart bodies after the interceptors, without buffering
+        if (authProps != null && authProps.isStreamingUploads()) {
+            StreamingUploadRequestFactory.apply(builder, requestFactories.get(name));
+        }
+
         return builder;
     }
 
@@ -163,25 +422,6 @@ public class RestClientContainerAutoConfiguration {
         return null;
     }
 
-    @Nullable
-    private HttpClientSettings buildHttpClientSettings(HttpClientProperties clientProps) {
-        Duration connectTimeout = clientProps.getConnectTimeout();
-        Duration readTimeout = clientProps.getReadTimeout();
-
-        if (connectTimeout == null && readTimeout == null) {
-            return null;
-        }
-
-        HttpClientSettings settings = HttpClientSettings.defaults();
-        if (connectTimeout != null) {
-            settings = settings.withConnectTimeout(connectTimeout);
-        }
-        if (readTimeout != null) {
-            settings = settings.withReadTimeout(readTimeout);
-        }
-        return settings;
-    }
-
     private void configureAuthentication(
             String name,
             RestClient.Builder builder,
@@ -264,4 +504,16 @@ public class RestClientContainerAutoConfiguration {
                     });
         }
     }
+
+    /**
+     * Binding hints for the serviceclient.{name} values. AOT only sees the map type of {@link
+     * ServiceClientAuthProperties}, not the {@link ClientAuthProperties} bound into it.
+     */
+    static class RestClientContainerRuntimeHints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, @Nullable ClassLoader classLoader) {
+            BindableRuntimeHintsRegistrar.forTypes(ClientAuthProperties.class).registerHints(hints);
+        }
+    }
 }
@@ -0,0 +1,126 @@
+package com.example.demo.config.restclient;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings that apply to the {@link RestClientContainer} as a whole rather than to one service
+ * client. They live outside the {@code serviceclient.*} prefix because every key under that prefix
+ * is bound as a service client name.
+ */
+@ConfigurationProperties(prefix = "restclient-container")
+public class RestClientContainerProperties {
+
+    private Warmup warmup = new Warmup();
+    private Metrics metrics = new Metrics();
+    private Jfr jfr = new Jfr();
+    private Probe probe = new Probe();
+
+    public Warmup getWarmup() {
+        return warmup;
+    }
+
+    public void setWarmup(Warmup warmup) {
+        this.warmup = warmup;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public Jfr getJfr() {
+        return jfr;
+    }
+
+    public void setJfr(Jfr jfr) {
+        this.jfr = jfr;
+    }
+
+    public Probe getProbe() {
+        return probe;
+    }
+
+    public void setProbe(Probe probe) {
+        this.probe = probe;
+    }
+
+    public static class Warmup {
+        private boolean enabled = true;
+        private Duration timeout = Duration.ofSeconds(10); // upper bound for the whole phase
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+    }
+
+    public static class Metrics {
+        private boolean enabled = true; // latency histograms and phase timings per client
+        private Duration poolSampleInterval = Duration.ofSeconds(5); // connection pool gauges
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Duration getPoolSampleInterval() {
+            return poolSampleInterval;
+        }
+
+        public void setPoolSampleInterval(Duration poolSampleInterval) {
+            this.poolSampleInterval = poolSampleInterval;
+        }
+    }
+
+    public static class Jfr {
+        private boolean enabled = true; // HttpExchange JFR events, only emitted while recording
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    public static class Probe {
+        private Duration timeout = Duration.ofSeconds(3); // deadline for all clients together
+        private int maxBodyBytes = 512; // body bytes read and reported per client
+
+        public Duration getTimeout() {
+            return timeout;
+        }
+
+        public void setTimeout(Duration timeout) {
+            this.timeout = timeout;
+        }
+
+        public int getMaxBodyBytes() {
+            return maxBodyBytes;
+        }
+
+        public void setMaxBodyBytes(int maxBodyBytes) {
+            this.maxBodyBytes = maxBodyBytes;
+        }
+    }
+}
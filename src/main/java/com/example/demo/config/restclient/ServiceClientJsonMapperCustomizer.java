@@ -0,0 +1,19 @@
+package com.example.demo.config.restclient;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Customizes the JsonMapper of the service clients (see {@link ServiceClientJsonMappers}). Unlike
+ * Spring Boot's {@code JsonMapperBuilderCustomizer} and {@code JacksonModule} beans, it leaves the
+ * application's JsonMapper, and with it the server side, unchanged.
+ */
+@FunctionalInterface
+public interface ServiceClientJsonMapperCustomizer {
+
+    /**
+     * Customize the JsonMapper of the service clients.
+     *
+     * @param builder a builder started from the application's JsonMapper
+     */
+    void customize(JsonMapper.Builder builder);
+}
@@ -0,0 +1,94 @@
+package com.example.demo.config.restclient;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import com.example.demo.model.LazyJsonObject;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.http.converter.json.JacksonJsonHttpMessageConverter;
+import org.springframework.web.client.RestClient;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * The JsonMapper of each service client, shared by the container client, its builders and the
+ * {@code @ImportHttpServices} group client of that name, like their request factory.
+ *
+ * <p>It is a copy of the application's JsonMapper with every {@link
+ * ServiceClientJsonMapperCustomizer} applied and, for a client with a string cache (see {@link
+ * ServiceClientStringCaches}), the cache's module registered. The {@link LazyJsonObject}s it reads
+ * decode their values with it too. The rest of the application, including the server side, keeps
+ * reading and writing JSON as before.
+ */
+public class ServiceClientJsonMappers {
+
+    private final Supplier<JsonMapper> jsonMapper;
+    private final List<ServiceClientJsonMapperCustomizer> customizers;
+    private final ServiceClientStringCaches stringCaches;
+
+    private final Map<String, JsonMapper> mappers = new ConcurrentHashMap<>();
+
+    /**
+     * Create the mappers.
+     *
+     * @param jsonMapper the application's JsonMapper, asked for once a client's mapper is used
+     * @param customizers the customizers of every client's mapper
+     * @param stringCaches the string caches of the clients
+     */
+    public ServiceClientJsonMappers(
+            Supplier<JsonMapper> jsonMapper,
+            List<ServiceClientJsonMapperCustomizer> customizers,
+            ServiceClientStringCaches stringCaches) {
+        this.jsonMapper = jsonMapper;
+        this.customizers = customizers;
+        this.stringCaches = stringCaches;
+    }
+
+    /**
+     * Get the JsonMapper of a service client, creating it on first use.
+     *
+     * @param name the service client name
+     * @return the client's mapper
+     */
+    public JsonMapper get(String name) {
+        return mappers.computeIfAbsent(
+                name,
+                n -> {
+                    JsonMapper.Builder builder = jsonMapper.get().rebuild();
+                    customizers.forEach(customizer -> customizer.customize(builder));
+                    StringCanonicalizer cache = stringCaches.get(n);
+                    if (cache != null) {
+                        builder.addModule(cache.module());
+                    }
+                    return LazyJsonObject.decodeWith(builder.build());
+                });
+    }
+
+    /**
+     * Get the string cache of a service client.
+     *
+     * @param name the service client name
+     * @return the cache, or null if the client has none
+     */
+    @Nullable StringCanonicalizer getStringCache(String name) {
+        return stringCaches.get(name);
+    }
+
+    /**
+     * Make a client builder read and write JSON with the client's mapper.
+     *
+     * @param name the service client name
+     * @param builder the RestClient builder of the service client
+     */
+    void apply(String name, RestClient.Builder builder) {
+        JsonMapper mapper = get(name);
+        builder.configureMessageConverters(
+                converters ->
+                        converters
+                                .registerDefaults()
+                                .withJsonConverter(new JacksonJsonHttpMessageConverter(mapper)));
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.demo.config.restclient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.http.HttpMethod;
+
+/**
+ * Checks every client in the {@link RestClientContainer} with one probe request ({@code
+ * serviceclient.<name>.probe.method}, {@code probe.path}, GET {@code /} by default). All probes run
+ * concurrently on virtual threads ({@link DeadlineInvoker}), so a full check takes as long as the
+ * slowest client rather than the sum of all of them, and is bounded by {@code
+ * restclient-container.probe.timeout}: probes still running at the deadline are cancelled and
+ * reported as {@code timeout}.
+ *
+ * <p>At most {@code restclient-container.probe.max-body-bytes} of each response body are read with
+ * {@link BodyPrefix}; the rest is never buffered. A client is up when it answers with a status
+ * below 500.
+ */
+public class ServiceClientProber {
+
+    private final RestClientContainer restClients;
+    private final ServiceClientAuthProperties authProperties;
+    private final RestClientContainerProperties containerProperties;
+
+    public ServiceClientProber(
+            RestClientContainer restClients,
+            ServiceClientAuthProperties authProperties,
+            RestClientContainerProperties containerProperties) {
+        this.restClients = restClients;
+        this.authProperties = authProperties;
+        this.containerProperties = containerProperties;
+    }
+
+    /** Probe all clients with the configured deadline and body limit. */
+    public ProbeReport probeAll() throws InterruptedException {
+        RestClientContainerProperties.Probe settings = containerProperties.getProbe();
+        return probeAll(settings.getTimeout(), settings.getMaxBodyBytes());
+    }
+
+    /**
+     * Probe all clients with a caller's deadline and body limit, capped at the configured ones, so
+     * a request cannot make the probes wait or buffer more than {@code
+     * restclient-container.probe.*} allows.
+     *
+     * @param timeout the requested deadline, or null for the configured one
+     * @param maxBodyBytes the requested body limit, or null for the configured one
+     * @return the result per client, in container order
+     */
+    public ProbeReport probeAllWithin(@Nullable Duration timeout, @Nullable Integer maxBodyBytes)
+            throws InterruptedException {
+        RestClientContainerProperties.Probe settings = containerProperties.getProbe();
+        Duration limit = settings.getTimeout();
+        return probeAll(
+                (timeout != null && timeout.compareTo(limit) < 0) ? timeout : limit,
+                (maxBodyBytes != null)
+                        ? Math.min(maxBodyBytes, settings.getMaxBodyBytes())
+                        : settings.getMaxBodyBytes());
+    }
+
+    /**
+     * Probe all clients.
+     *
+     * @param timeout the deadline for all probes together
+     * @param maxBodyBytes the most body bytes read per client
+     * @return the result per client, in container order
+     */
+    public ProbeReport probeAll(Duration timeout, int maxBodyBytes) throws InterruptedException {
+        if (maxBodyBytes < 0) {
+            throw new IllegalArgumentException(
+                    "maxBodyBytes must not be negative: " + maxBodyBytes);
+        }
+
+        List<String> names = new ArrayList<>(restClients.getNames());
+        List<ClientAuthProperties.Probe> probes = new ArrayList<>();
+        List<Callable<ProbeResult>> tasks = new ArrayList<>();
+        for (String name : names) {
+            ClientAuthProperties.Probe probe = probeFor(name);
+            probes.add(probe);
+            tasks.add(() -> probe(name, probe, maxBodyBytes));
+        }
+
+        long start = System.nanoTime();
+        List<DeadlineInvoker.Outcome<ProbeResult>> outcomes =
+                DeadlineInvoker.invokeAll(tasks, timeout);
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        Map<String, ProbeResult> results = new LinkedHashMap<>();
+        for (int i = 0; i < outcomes.size(); i++) {
+            String name = names.get(i);
+            ClientAuthProperties.Probe probe = probes.get(i);
+            ProbeResult result =
+                    switch (outcomes.get(i)) {
+                        case DeadlineInvoker.Outcome.Completed<ProbeResult> completed ->
+                                completed.value();
+                        case DeadlineInvoker.Outcome.TimedOut<ProbeResult> timedOut ->
+                                new ProbeResult(
+                                        name,
+                                        probe.getMethod(),
+                                        probe.getPath(),
+                                        "timeout",
+                                        null,
+                                        timeout.toMillis(),
+                                        null,
+                                        false,
+                                        "No response within " + timeout.toMillis() + " ms");
+                        // probe() reports its own failures, so this is unexpected
+                        case DeadlineInvoker.Outcome.Failed<ProbeResult> failed ->
+                                new ProbeResult(
+                                        name,
+                                        probe.getMethod(),
+                                        probe.getPath(),
+                                        "down",
+                                        null,
+                                        elapsedMillis,
+                                        null,
+                                        false,
+                                        String.valueOf(failed.error()));
+                    };
+            results.put(name, result);
+        }
+
+        boolean up = results.values().stream().allMatch(ProbeResult::isUp);
+        return new ProbeReport(up, elapsedMillis, timeout.toMillis(), results);
+    }
+
+    private ClientAuthProperties.Probe probeFor(String name) {
+        ClientAuthProperties authProps = authProperties.get(name);
+        if (authProps == null || authProps.getProbe() == null) {
+            return new ClientAuthProperties.Probe();
+        }
+        return authProps.getProbe();
+    }
+
+    private ProbeResult probe(String name, ClientAuthProperties.Probe probe, int maxBodyBytes) {
+        long start = System.nanoTime();
+        try {
+            BodyPrefix prefix =
+                    restClients
+                            .get(name)
+                            .method(HttpMethod.valueOf(probe.getMethod().toUpperCase()))
+                            .uri(probe.getPath())
+                            .exchange(BodyPrefix.read(maxBodyBytes));
+            int status = prefix.status().value();
+            return new ProbeResult(
+                    name,
+                    probe.getMethod(),
+                    probe.getPath(),
+                    (status < 500) ? "up" : "down",
+                    status,
+                    millisSince(start),
+                    prefix.text(),
+                    prefix.truncated(),
+                    null);
+        } catch (RuntimeException e) {
+            return new ProbeResult(
+                    name,
+                    probe.getMethod(),
+                    probe.getPath(),
+                    "down",
+                    null,
+                    millisSince(start),
+                    null,
+                    false,
+                    e.getMessage());
+        }
+    }
+
+    private static long millisSince(long startNanos) {
+        return Duration.ofNanos(System.nanoTime() - startNanos).toMillis();
+    }
+
+    /**
+     * The probe of one client.
+     *
+     * @param client the client name
+     * @param method the HTTP method sent
+     * @param path the path requested
+     * @param outcome {@code up}, {@code down} or {@code timeout}
+     * @param status the response status, or {@code null} without a response
+     * @param latencyMillis the time until the body prefix was read, or the deadline on timeout
+     * @param body the first {@code maxBodyBytes} of the body as text
+     * @param truncated whether the body was longer than {@code maxBodyBytes}
+     * @param error why there was no response
+     */
+    public record ProbeResult(
+            String client,
+            String method,
+            String path,
+            String outcome,
+            @Nullable Integer status,
+            long latencyMillis,
+            @Nullable String body,
+            boolean truncated,
+            @Nullable String error) {
+
+        public boolean isUp() {
+            return "up".equals(outcome);
+        }
+    }
+
+    /**
+     * The probes of all clients.
+     *
+     * @param up whether every client is up
+     * @param elapsedMillis the time the whole check took
+     * @param timeoutMillis the deadline it ran under
+     * @param clients the result per client
+     */
+    public record ProbeReport(
+            boolean up, long elapsedMillis, long timeoutMillis, Map<String, ProbeResult> clients) {}
+}
@@ -0,0 +1,404 @@
+package com.example.demo.config.restclient;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient.Version;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.example.demo.metrics.ClientMetrics;
+import com.example.demo.metrics.ConnectionPoolStats;
+import com.example.demo.metrics.MeteredClientHttpRequest;
+import com.example.demo.metrics.RestClientMetrics;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.jspecify.annotations.Nullable;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.http.client.ClientHttpRequestFactoryBuilder;
+import org.springframework.boot.http.client.HttpClientSettings;
+import org.springframework.boot.http.client.autoconfigure.HttpClientProperties;
+import org.springframework.boot.http.client.autoconfigure.HttpClientSettingsPropertyMapper;
+import org.springframework.boot.http.client.autoconfigure.service.HttpServiceClientProperties;
+import org.springframework.boot.ssl.SslBundles;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+
+import reactor.core.Disposable;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Creates one {@link ClientHttpRequestFactory} per service client name and hands out the same
+ * instance on every call. The container clients, the builders returned by {@link
+ * RestClientContainer#getBuilder(String)} and the {@code @ImportHttpServices} group clients
+ * therefore share a single connection pool per upstream.
+ *
+ * <p>Clients with {@code serviceclient.<name>.http2.enabled=true} get a multiplexing HTTP/2
+ * transport instead of the globally configured one:
+ *
+ * <ul>
+ *   <li>{@code reactor} (default): reactor-netty with ALPN negotiation ({@code h2}, falling back to
+ *       HTTP/1.1) and per-client stream, window and connection limits.
+ *   <li>{@code jdk}: the JDK {@code HttpClient}. It negotiates HTTP/2 but its stream and window
+ *       limits are JVM-wide system properties ({@code jdk.httpclient.maxstreams}, {@code
+ *       jdk.httpclient.windowsize}), so the per-client limits are ignored.
+ * </ul>
+ *
+ * <p>The factories handed out are stable handles around the transport. As a {@link SmartLifecycle}
+ * this class closes every pool on {@link #stop()} and reopens it on {@link #start()}, which is what
+ * a CRaC checkpoint and restore do: no socket stays open in the snapshot, and RestClients built
+ * before the checkpoint keep working after the restore. Pools stop after the web server, so
+ * in-flight server requests can still call upstreams during graceful shutdown.
+ *
+ * <p>When a {@link RestClientMetrics} is given, every request is timed and counted under its client
+ * name, HTTP method and URI template, and the transport is instrumented to break each exchange down
+ * into DNS, connect, TLS, TTFB and body phases (see {@link ExchangePhaseInstrumentation}).
+ *
+ * <p>Every transport is built with a {@link ConnectionPoolProbe}, so {@link
+ * #getConnectionPoolStats()} shows leased, idle and pending connections and connection churn per
+ * client. {@link BodyPrefix} can abort an exchange after reading part of the body on every
+ * transport (see {@link ResponseAbort}). Clients with {@code
+ * serviceclient.<name>.compression.enabled=true} get a transport without content decoding, which
+ * the {@link CompressionInterceptor} takes over.
+ */
+public class ServiceClientRequestFactories implements SmartLifecycle, DisposableBean {
+
+    private static final Log logger = LogFactory.getLog(ServiceClientRequestFactories.class);
+
+    // Stop after (and start before) the web server lifecycle beans
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    private final ClientHttpRequestFactoryBuilder<?> defaultBuilder;
+    private final HttpClientSettings globalSettings;
+    private final HttpServiceClientProperties httpServiceClientProperties;
+    private final ServiceClientAuthProperties authProperties;
+    private final @Nullable RestClientMetrics metrics;
+    private final @Nullable SslBundles sslBundles;
+
+    private final Map<String, ServiceClientRequestFactory> factories = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+    private volatile boolean stopped;
+
+    public ServiceClientRequestFactories(
+            ClientHttpRequestFactoryBuilder<?> defaultBuilder,
+            HttpClientSettings globalSettings,
+            HttpServiceClientProperties httpServiceClientProperties,
+            ServiceClientAuthProperties authProperties) {
+        this(defaultBuilder, globalSettings, httpServiceClientProperties, authProperties, null);
+    }
+
+    public ServiceClientRequestFactories(
+            ClientHttpRequestFactoryBuilder<?> defaultBuilder,
+            HttpClientSettings globalSettings,
+            HttpServiceClientProperties httpServiceClientProperties,
+            ServiceClientAuthProperties authProperties,
+            @Nullable RestClientMetrics metrics) {
+        this(
+                defaultBuilder,
+                globalSettings,
+                httpServiceClientProperties,
+                authProperties,
+                metrics,
+                null);
+    }
+
+    public ServiceClientRequestFactories(
+            ClientHttpRequestFactoryBuilder<?> defaultBuilder,
+            HttpClientSettings globalSettings,
+            HttpServiceClientProperties httpServiceClientProperties,
+            ServiceClientAuthProperties authProperties,
+            @Nullable RestClientMetrics metrics,
+            @Nullable SslBundles sslBundles) {
+        this.defaultBuilder = defaultBuilder;
+        this.globalSettings = globalSettings;
+        this.httpServiceClientProperties = httpServiceClientProperties;
+        this.authProperties = authProperties;
+        this.metrics = metrics;
+        this.sslBundles = sslBundles;
+    }
+
+    /**
+     * Get the shared request factory for a service client, creating it on first use.
+     *
+     * @param name the service client name (e.g., "jph", "ara")
+     * @return the request factory used by every client with that name
+     * @throws IllegalArgumentException if no spring.http.serviceclient.{name} entry exists
+     */
+    public ClientHttpRequestFactory get(String name) {
+        return factories.computeIfAbsent(
+                name,
+                n -> {
+                    if (!contains(n)) {
+                        throw new IllegalArgumentException(
+                                "No service client configured with name: " + n);
+                    }
+                    ServiceClientRequestFactory factory = new ServiceClientRequestFactory(n);
+                    // Fail fast on invalid transport settings
+                    factory.open();
+                    return factory;
+                });
+    }
+
+    /**
+     * Check if a service client with the given name is configured.
+     *
+     * @param name the service client name
+     * @return true if spring.http.serviceclient.{name} exists
+     */
+    public boolean contains(String name) {
+        return httpServiceClientProperties.containsKey(name);
+    }
+
+    /**
+     * Get the connection pool stats of every service client whose transport is open.
+     *
+     * @return the stats by service client name
+     */
+    public Map<String, ConnectionPoolStats> getConnectionPoolStats() {
+        Map<String, ConnectionPoolStats> stats = new TreeMap<>();
+        factories.forEach(
+                (name, factory) -> {
+                    Transport transport = factory.transport;
+                    if (transport != null) {
+                        stats.put(name, transport.probe().sample());
+                    }
+                });
+        return stats;
+    }
+
+    @Override
+    public void start() {
+        if (stopped) {
+            // Restarted, e.g. after a CRaC restore: open the pools again right away
+            factories.values().forEach(ServiceClientRequestFactory::open);
+            if (logger.isDebugEnabled()) {
+                logger.debug(
+                        "Reopened connection pools of " + factories.size() + " service clients");
+            }
+        }
+        stopped = false;
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        stopped = true;
+        factories.values().forEach(ServiceClientRequestFactory::close);
+        if (logger.isDebugEnabled()) {
+            logger.debug("Closed connection pools of " + factories.size() + " service clients");
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private Transport create(String name) {
+        HttpClientProperties clientProps = httpServiceClientProperties.get(name);
+        HttpClientSettings settings = buildHttpClientSettings(clientProps);
+        ClientAuthProperties authProps = authProperties.get(name);
+        ClientAuthProperties.Http2 http2 = (authProps != null) ? authProps.getHttp2() : null;
+
+        if (http2 != null && http2.isEnabled()) {
+            return createHttp2Transport(name, clientProps.getBaseUrl(), http2, settings);
+        }
+        return build(
+                name, defaultBuilder, ConnectionPoolProbe.forBuilder(defaultBuilder), settings);
+    }
+
+    // Leaves content decoding to the CompressionInterceptor when the client has compression on
+    private ClientHttpRequestFactoryBuilder<?> decoding(
+            ClientHttpRequestFactoryBuilder<?> builder, String name) {
+        return CompressionInterceptor.isEnabled(authProperties.get(name))
+                ? CompressionInterceptor.disableTransportDecoding(builder)
+                : builder;
+    }
+
+    private Transport build(
+            String name,
+            ClientHttpRequestFactoryBuilder<?> builder,
+            ConnectionPoolProbe probe,
+            HttpClientSettings settings) {
+        return new Transport(
+                probe.instrument(ResponseAbort.apply(instrument(decoding(builder, name), name)))
+                        .build(settings),
+                null,
+                probe);
+    }
+
+    private ClientHttpRequestFactoryBuilder<?> instrument(
+            ClientHttpRequestFactoryBuilder<?> builder, String name) {
+        return (metrics != null)
+                ? ExchangePhaseInstrumentation.instrument(builder, metrics.forClient(name))
+                : builder;
+    }
+
+    // Maps the timeouts, redirects and ssl.bundle of spring.http.serviceclient.{name} the way Boot
+    // does for its own group clients; anything not set per client falls back to
+    // spring.http.clients.*
+    private HttpClientSettings buildHttpClientSettings(HttpClientProperties clientProps) {
+        return new HttpClientSettingsPropertyMapper(sslBundles, globalSettings).map(clientProps);
+    }
+
+    private Transport createHttp2Transport(
+            String name,
+            @Nullable String baseUrl,
+            ClientAuthProperties.Http2 http2,
+            HttpClientSettings settings) {
+        String transport = (http2.getTransport() != null) ? http2.getTransport() : "reactor";
+
+        return switch (transport.toLowerCase()) {
+            case "reactor" -> createReactorHttp2Transport(name, baseUrl, http2, settings);
+            case "jdk" -> {
+                ClientHttpRequestFactoryBuilder<?> builder =
+                        ClientHttpRequestFactoryBuilder.jdk()
+                                .withHttpClientCustomizer(client -> client.version(Version.HTTP_2));
+                yield build(name, builder, ConnectionPoolProbe.forBuilder(builder), settings);
+            }
+            default ->
+                    throw new IllegalStateException(
+                            "Unsupported HTTP/2 transport '"
+                                    + transport
+                                    + "' for service client: "
+                                    + name);
+        };
+    }
+
+    private Transport createReactorHttp2Transport(
+            String name,
+            @Nullable String baseUrl,
+            ClientAuthProperties.Http2 http2,
+            HttpClientSettings settings) {
+        ConnectionProvider.Builder providerBuilder =
+                ConnectionProvider.builder("serviceclient-" + name);
+        if (http2.getMaxConnections() != null) {
+            providerBuilder.maxConnections(http2.getMaxConnections());
+        }
+        ConnectionPoolProbe probe = ConnectionPoolProbe.forReactor(providerBuilder);
+        ConnectionProvider provider = providerBuilder.build();
+
+        // h2 is negotiated through ALPN on https; plain http upgrades via h2c
+        boolean secure = baseUrl == null || baseUrl.startsWith("https");
+        HttpProtocol[] protocols =
+                secure
+                        ? new HttpProtocol[] {HttpProtocol.H2, HttpProtocol.HTTP11}
+                        : new HttpProtocol[] {HttpProtocol.H2C, HttpProtocol.HTTP11};
+
+        ClientHttpRequestFactoryBuilder<?> builder =
+                ClientHttpRequestFactoryBuilder.reactor()
+                        .withHttpClientFactory(() -> HttpClient.create(provider))
+                        .withHttpClientCustomizer(
+                                client ->
+                                        client.protocol(protocols)
+                                                .http2Settings(
+                                                        spec -> {
+                                                            if (http2.getMaxConcurrentStreams()
+                                                                    != null) {
+                                                                spec.maxStreams(
+                                                                        http2
+                                                                                .getMaxConcurrentStreams());
+                                                            }
+                                                            if (http2.getInitialWindowSize()
+                                                                    != null) {
+                                                                spec.initialWindowSize(
+                                                                        http2
+                                                                                .getInitialWindowSize());
+                                                            }
+                                                        }));
+        return new Transport(
+                probe.instrument(instrument(decoding(builder, name), name)).build(settings),
+                provider,
+                probe);
+    }
+
+    @Override
+    public void destroy() {
+        running = false;
+        factories.values().forEach(ServiceClientRequestFactory::close);
+        factories.clear();
+    }
+
+    /**
+     * A transport instance: the request factory, resources it does not close itself and the probe
+     * of its connection pool.
+     */
+    private record Transport(
+            ClientHttpRequestFactory factory,
+            @Nullable Disposable resource,
+            ConnectionPoolProbe probe) {
+
+        void close() {
+            try {
+                if (factory instanceof DisposableBean disposable) {
+                    disposable.destroy();
+                } else if (factory instanceof AutoCloseable closeable) {
+                    closeable.close();
+                }
+            } catch (Exception e) {
+                logger.warn("Failed to close request factory", e);
+            }
+            if (resource != null) {
+                resource.dispose();
+            }
+        }
+    }
+
+    /**
+     * The factory handed out for one service client. It opens its transport on first use and can
+     * close and reopen it without the RestClients that hold it noticing.
+     */
+    private final class ServiceClientRequestFactory implements ClientHttpRequestFactory {
+
+        private final String name;
+        private final @Nullable ClientMetrics clientMetrics;
+        private volatile @Nullable Transport transport;
+
+        ServiceClientRequestFactory(String name) {
+            this.name = name;
+            this.clientMetrics = (metrics != null) ? metrics.forClient(name) : null;
+        }
+
+        @Override
+        public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+            ClientHttpRequest request = open().factory().createRequest(uri, httpMethod);
+            return (clientMetrics != null)
+                    ? new MeteredClientHttpRequest(request, clientMetrics)
+                    : request;
+        }
+
+        Transport open() {
+            Transport current = transport;
+            if (current == null) {
+                synchronized (this) {
+                    current = transport;
+                    if (current == null) {
+                        current = create(name);
+                        transport = current;
+                    }
+                }
+            }
+            return current;
+        }
+
+        synchronized void close() {
+            Transport current = transport;
+            transport = null;
+            if (current != null) {
+                current.close();
+            }
+        }
+    }
+}
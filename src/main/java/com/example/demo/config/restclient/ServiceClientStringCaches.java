@@ -0,0 +1,63 @@
+package com.example.demo.config.restclient;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ * One {@link StringCanonicalizer} per service client with {@code
+ * serviceclient.<name>.string-cache.enabled=true}, shared by the container client, its builders and
+ * the {@code @ImportHttpServices} group client of that name, like their request factory.
+ *
+ * <p>A client with a cache reads JSON with its own mapper that has the cache's module registered
+ * (see {@link ServiceClientJsonMappers}), so the rest of the application, including the server
+ * side, keeps reading strings as before. With a binary format (see {@link BinaryFormatNegotiation})
+ * the CBOR or Smile converter registers the module too.
+ */
+public class ServiceClientStringCaches {
+
+    private final ServiceClientAuthProperties authProperties;
+
+    private final Map<String, StringCanonicalizer> caches = new ConcurrentHashMap<>();
+
+    /**
+     * Create the caches.
+     *
+     * @param authProperties the serviceclient.{name} properties
+     */
+    public ServiceClientStringCaches(ServiceClientAuthProperties authProperties) {
+        this.authProperties = authProperties;
+    }
+
+    /**
+     * Get the cache of a service client, creating it on first use.
+     *
+     * @param name the service client name
+     * @return the cache, or null if the client has none
+     */
+    public @Nullable StringCanonicalizer get(String name) {
+        ClientAuthProperties authProps = authProperties.get(name);
+        if (authProps == null
+                || authProps.getStringCache() == null
+                || !authProps.getStringCache().isEnabled()) {
+            return null;
+        }
+        ClientAuthProperties.StringCache settings = authProps.getStringCache();
+        return caches.computeIfAbsent(
+                name,
+                n -> new StringCanonicalizer(settings.getMaxEntries(), settings.getMaxLength()));
+    }
+
+    /**
+     * Summarize the cache of every client that has read through one.
+     *
+     * @return the summaries by client name
+     */
+    public Map<String, StringCanonicalizer.Summary> summarize() {
+        Map<String, StringCanonicalizer.Summary> result = new TreeMap<>();
+        caches.forEach((name, cache) -> result.put(name, cache.summarize()));
+        return result;
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.demo.config.restclient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpMethod;
+
+/**
+ * Opens {@code serviceclient.<name>.warmup.connections} pooled connections per service client
+ * before the application reports ready. Application runners complete before Spring Boot publishes
+ * the {@code ACCEPTING_TRAFFIC} readiness state, so the first real requests after a rollout find
+ * DNS resolved, TLS sessions established and connections idle in the pool.
+ *
+ * <p>Every connection is opened by a cheap probe request ({@code probe-method}, {@code
+ * probe-path}); the response status is ignored because any response proves the connection is up.
+ * All probes of all clients run concurrently on virtual threads ({@link DeadlineInvoker}), bounded
+ * by {@code restclient-container.warmup.timeout}. Probes still running at the deadline are
+ * cancelled and startup continues.
+ *
+ * <p>Nothing is opened unless a client sets {@code warmup.connections} (none does by default), and
+ * {@code restclient-container.warmup.enabled=false} turns the whole phase off.
+ *
+ * <p>Connections beyond the transport's per-route pool limit queue instead of opening, and HTTP/2
+ * clients multiplex the probes over as few connections as the server allows.
+ */
+public class ServiceClientWarmup implements ApplicationRunner, Ordered {
+
+    private static final Log logger = LogFactory.getLog(ServiceClientWarmup.class);
+
+    private final RestClientContainer restClients;
+    private final ServiceClientAuthProperties authProperties;
+    private final RestClientContainerProperties containerProperties;
+
+    public ServiceClientWarmup(
+            RestClientContainer restClients,
+            ServiceClientAuthProperties authProperties,
+            RestClientContainerProperties containerProperties) {
+        this.restClients = restClients;
+        this.authProperties = authProperties;
+        this.containerProperties = containerProperties;
+    }
+
+    @Override
+    public int getOrder() {
+        // Run before the demo runners so they already benefit from warm pools
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws InterruptedException {
+        RestClientContainerProperties.Warmup settings = containerProperties.getWarmup();
+        if (!settings.isEnabled()) {
+            return;
+        }
+
+        List<String> names = new ArrayList<>();
+        List<Callable<Long>> probes = new ArrayList<>();
+        authProperties.forEach(
+                (name, authProps) -> {
+                    ClientAuthProperties.Warmup warmup = authProps.getWarmup();
+                    if (warmup == null
+                            || warmup.getConnections() <= 0
+                            || !restClients.contains(name)) {
+                        return;
+                    }
+                    for (int i = 0; i < warmup.getConnections(); i++) {
+                        names.add(name);
+                        probes.add(() -> probe(name, warmup));
+                    }
+                });
+
+        if (probes.isEmpty()) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        Duration timeout = settings.getTimeout();
+
+        List<DeadlineInvoker.Outcome<Long>> outcomes = DeadlineInvoker.invokeAll(probes, timeout);
+
+        Map<String, WarmupResult> results = new LinkedHashMap<>();
+        for (int i = 0; i < outcomes.size(); i++) {
+            WarmupResult result = results.computeIfAbsent(names.get(i), n -> new WarmupResult());
+            switch (outcomes.get(i)) {
+                case DeadlineInvoker.Outcome.Completed<Long> completed ->
+                        result.succeeded(completed.value());
+                case DeadlineInvoker.Outcome.TimedOut<Long> timedOut -> result.timedOut++;
+                case DeadlineInvoker.Outcome.Failed<Long> failed -> result.failed(failed.error());
+            }
+        }
+
+        if (logger.isInfoEnabled()) {
+            results.forEach((name, result) -> logger.info("Warm-up of " + name + ": " + result));
+            logger.info(
+                    "Warm-up finished in "
+                            + Duration.ofNanos(System.nanoTime() - start).toMillis()
+                            + " ms (limit "
+                            + timeout.toMillis()
+                            + " ms)");
+        }
+    }
+
+    private long probe(String name, ClientAuthProperties.Warmup warmup) {
+        long start = System.nanoTime();
+        restClients
+                .get(name)
+                .method(HttpMethod.valueOf(warmup.getProbeMethod().toUpperCase()))
+                .uri(warmup.getProbePath())
+                .retrieve()
+                // Any status proves DNS, connect and TLS succeeded
+                .onStatus(status -> true, (request, response) -> {})
+                .toBodilessEntity();
+        return System.nanoTime() - start;
+    }
+
+    private static class WarmupResult {
+        private int opened;
+        private int failed;
+        private int timedOut;
+        private long slowestNanos;
+        private String lastError;
+
+        void succeeded(long nanos) {
+            opened++;
+            slowestNanos = Math.max(slowestNanos, nanos);
+        }
+
+        void failed(Throwable error) {
+            failed++;
+            lastError = error.getMessage();
+        }
+
+        @Override
+        public String toString() {
+            String summary =
+                    "opened="
+                            + opened
+                            + ", failed="
+                            + failed
+                            + ", timedOut="
+                            + timedOut
+                            + ", slowest="
+                            + Duration.ofNanos(slowestNanos).toMillis()
+                            + " ms";
+            return (lastError != null) ? summary + ", lastError=" + lastError : summary;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.demo.config.restclient;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.example.demo.annotation.ResponseFields;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.service.invoker.HttpRequestValues;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Sets the {@link HttpExchangeClients#SERVICE_METHOD_ATTRIBUTE} request attribute for HTTP service
+ * proxies, as the generated clients do, so interceptors can tell which interface method a request
+ * came from, and the {@link HttpExchangeClients#RESPONSE_FIELDS_ATTRIBUTE} of {@link
+ * ResponseFields} methods, resolved once per method as the processor does at compile time.
+ */
+public final class ServiceMethodProcessor implements HttpRequestValues.Processor {
+
+    /** The shared instance. */
+    public static final ServiceMethodProcessor INSTANCE = new ServiceMethodProcessor();
+
+    private final Map<Method, String> names = new ConcurrentHashMap<>();
+    private final Map<Method, String> fields = new ConcurrentHashMap<>();
+
+    private ServiceMethodProcessor() {}
+
+    @Override
+    public void process(
+            Method method,
+            MethodParameter[] parameters,
+            @Nullable Object[] arguments,
+            HttpRequestValues.Builder builder) {
+        String name = names.get(method);
+        if (name == null) {
+            name =
+                    names.computeIfAbsent(
+                            method, m -> m.getDeclaringClass().getSimpleName() + "." + m.getName());
+        }
+        builder.addAttribute(HttpExchangeClients.SERVICE_METHOD_ATTRIBUTE, name);
+        String responseFields = fields.get(method);
+        if (responseFields == null) {
+            responseFields =
+                    fields.computeIfAbsent(method, ServiceMethodProcessor::resolveResponseFields);
+        }
+        if (!responseFields.isEmpty()) {
+            builder.addAttribute(HttpExchangeClients.RESPONSE_FIELDS_ATTRIBUTE, responseFields);
+        }
+    }
+
+    private static String resolveResponseFields(Method method) {
+        ResponseFields annotation = method.getAnnotation(ResponseFields.class);
+        if (annotation == null) {
+            return "";
+        }
+        if (annotation.value().length > 0) {
+            return String.join(",", annotation.value());
+        }
+        Class<?> projection = projectionType(ResolvableType.forMethodReturnType(method));
+        if (projection == null) {
+            throw new IllegalStateException(
+                    "@ResponseFields without fields needs a record return type: " + method);
+        }
+        StringJoiner joiner = new StringJoiner(",");
+        for (RecordComponent component : projection.getRecordComponents()) {
+            JsonProperty property = component.getAccessor().getAnnotation(JsonProperty.class);
+            joiner.add(
+                    (property != null && !property.value().isEmpty())
+                            ? property.value()
+                            : component.getName());
+        }
+        return joiner.toString();
+    }
+
+    private static @Nullable Class<?> projectionType(ResolvableType type) {
+        if (type.isArray()) {
+            return projectionType(type.getComponentType());
+        }
+        if (type.asCollection() != ResolvableType.NONE
+                || type.toClass() == Optional.class
+                || type.toClass() == ResponseEntity.class) {
+            return projectionType(type.getGeneric(0));
+        }
+        Class<?> resolved = type.resolve();
+        return (resolved != null && resolved.isRecord()) ? resolved : null;
+    }
+
+    /**
+     * Get the service method a request came from.
+     *
+     * @param request the request
+     * @return the "{Interface}.{method}" name, or null for a request not made through an HTTP
+     *     service client
+     */
+    public static @Nullable String get(HttpRequest request) {
+        return (request.getAttributes().get(HttpExchangeClients.SERVICE_METHOD_ATTRIBUTE)
+                        instanceof String name)
+                ? name
+                : null;
+    }
+
+    /**
+     * Get the fields a request asks for.
+     *
+     * @param request the request
+     * @return the comma-separated fields, or null for a request not made through a {@link
+     *     ResponseFields} method
+     */
+    public static @Nullable String getResponseFields(HttpRequest request) {
+        return (request.getAttributes().get(HttpExchangeClients.RESPONSE_FIELDS_ATTRIBUTE)
+                        instanceof String responseFields)
+                ? responseFields
+                : null;
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.demo.config.restclient;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * A {@link ClientHttpRequestInterceptor} that works on a request's headers, URI and attributes, and
+ * reaches the body only through a {@link BodyFilter} applied as it is written.
+ *
+ * <p>In a client with {@code serviceclient.<name>.streaming-uploads} (see {@link
+ * StreamingUploadRequestFactory}), a {@code Path}, {@code InputStream}, {@code Resource} or
+ * multipart body is not written until the interceptors have run: every interceptor gets an empty
+ * {@code byte[]}, and the body then goes from its source to the connection in constant memory.
+ * Plain interceptors that only set headers, such as OAuth2 or logging, work unchanged; this one can
+ * still encode or count the streamed bytes. For any other body the default {@link
+ * #intercept(HttpRequest, byte[], ClientHttpRequestExecution)} applies the filter to the buffered
+ * body, so one implementation serves both.
+ */
+public interface StreamingRequestInterceptor extends ClientHttpRequestInterceptor {
+
+    /**
+     * Intercept the request before its body is written.
+     *
+     * @param request the request, whose headers may be changed
+     * @param execution the rest of the chain
+     * @return the response
+     * @throws IOException in case of I/O errors
+     */
+    ClientHttpResponse intercept(HttpRequest request, Execution execution) throws IOException;
+
+    @Override
+    default ClientHttpResponse intercept(
+            HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        return intercept(
+                request,
+                (next, filter) -> {
+                    if (filter == null) {
+                        return execution.execute(next, body);
+                    }
+                    DeferredBody deferred = DeferredBody.get(next);
+                    if (deferred != null) {
+                        deferred.addFilter(filter);
+                        return execution.execute(next, body);
+                    }
+                    return execution.execute(next, filter(body, filter));
+                });
+    }
+
+    /**
+     * Whether the body of a request is streamed after the interceptors have run, in which case the
+     * {@code byte[]} they get is empty.
+     *
+     * @param request the intercepted request
+     * @return whether the body is streamed
+     */
+    static boolean isStreamed(HttpRequest request) {
+        return DeferredBody.get(request) != null;
+    }
+
+    private static byte[] filter(byte[] body, BodyFilter filter) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length);
+        try (OutputStream filtered = filter.apply(out)) {
+            filtered.write(body);
+        }
+        return out.toByteArray();
+    }
+
+    /** The rest of the interceptor chain. */
+    @FunctionalInterface
+    interface Execution {
+
+        /**
+         * Execute the request with its body unchanged.
+         *
+         * @param request the request
+         * @return the response
+         * @throws IOException in case of I/O errors
+         */
+        default ClientHttpResponse execute(HttpRequest request) throws IOException {
+            return execute(request, null);
+        }
+
+        /**
+         * Execute the request, writing its body through a filter.
+         *
+         * @param request the request
+         * @param filter the filter the body is written through, if any
+         * @return the response
+         * @throws IOException in case of I/O errors
+         */
+        ClientHttpResponse execute(HttpRequest request, @Nullable BodyFilter filter)
+                throws IOException;
+    }
+
+    /** Wraps the stream a request body is written to, e.g. to encode or count it. */
+    @FunctionalInterface
+    interface BodyFilter {
+
+        /**
+         * Wrap the body stream. The returned stream is closed once the body is written, and closes
+         * the given one in turn, as a {@code FilterOutputStream} does.
+         *
+         * @param body the stream the filtered body goes to
+         * @return the stream the body is written to
+         * @throws IOException in case of I/O errors
+         */
+        OutputStream apply(OutputStream body) throws IOException;
+    }
+}
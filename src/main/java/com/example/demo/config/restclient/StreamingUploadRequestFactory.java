@@ -0,0 +1,147 @@
+package com.example.demo.config.restclient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.Map;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.AbstractClientHttpRequestFactoryWrapper;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.converter.FormHttpMessageConverter;
+import org.springframework.http.converter.ResourceHttpMessageConverter;
+import org.springframework.http.converter.support.AllEncompassingFormHttpMessageConverter;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Streams large request bodies past a client's interceptors, for {@code
+ * serviceclient.<name>.streaming-uploads}.
+ *
+ * <p>{@code RestClient} runs interceptors on a {@code byte[]} copy of the body, so without this an
+ * upload sits on the heap as a whole before the first byte is sent. With it, the client writes
+ * {@code Path}, {@code InputStream} and {@code Resource} bodies and multipart forms through a
+ * {@link DeferredBodyHttpMessageConverter}: the interceptors see the headers the converter set and
+ * an empty body, and the request this factory creates writes the body to the connection once they
+ * are done, from its source and through any {@link StreamingRequestInterceptor.BodyFilter}. An
+ * interceptor that replaces the empty body of such a request fails it with an {@link
+ * IllegalStateException}, since what it wrote would not be sent. Other bodies, e.g. JSON, are
+ * buffered as before.
+ */
+final class StreamingUploadRequestFactory extends AbstractClientHttpRequestFactoryWrapper {
+
+    StreamingUploadRequestFactory(ClientHttpRequestFactory requestFactory) {
+        super(requestFactory);
+    }
+
+    /**
+     * Register the deferring converters and this factory on a client builder.
+     *
+     * @param builder the RestClient builder of the service client
+     * @param requestFactory the client's request factory
+     */
+    static void apply(RestClient.Builder builder, ClientHttpRequestFactory requestFactory) {
+        FormHttpMessageConverter form = new AllEncompassingFormHttpMessageConverter();
+        builder.requestFactory(new StreamingUploadRequestFactory(requestFactory))
+                .configureMessageConverters(
+                        converters ->
+                                converters
+                                        .registerDefaults()
+                                        .addCustomConverter(
+                                                new DeferredBodyHttpMessageConverter<>(
+                                                        new UploadBodyHttpMessageConverter()))
+                                        .addCustomConverter(
+                                                new DeferredBodyHttpMessageConverter<>(
+                                                        new ResourceHttpMessageConverter()))
+                                        .addCustomConverter(
+                                                new DeferredBodyHttpMessageConverter<>(form)));
+    }
+
+    @Override
+    protected ClientHttpRequest createRequest(
+            URI uri, HttpMethod httpMethod, ClientHttpRequestFactory requestFactory)
+            throws IOException {
+        return new StreamingUploadRequest(requestFactory.createRequest(uri, httpMethod));
+    }
+
+    private static final class StreamingUploadRequest
+            implements ClientHttpRequest, StreamingHttpOutputMessage {
+
+        private final ClientHttpRequest delegate;
+
+        private boolean bodyWritten;
+
+        StreamingUploadRequest(ClientHttpRequest delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public ClientHttpResponse execute() throws IOException {
+            DeferredBody deferred = DeferredBody.get(this);
+            if (deferred != null) {
+                if (bodyWritten) {
+                    throw new IllegalStateException(
+                            "An interceptor replaced the streamed body of "
+                                    + getMethod()
+                                    + " "
+                                    + getURI()
+                                    + "; disable streaming-uploads for this client");
+                }
+                if (deferred.contentLength() < 0) {
+                    delegate.getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+                }
+                Body body = deferred.filtered();
+                if (delegate instanceof StreamingHttpOutputMessage streaming) {
+                    streaming.setBody(body);
+                } else {
+                    body.writeTo(delegate.getBody());
+                }
+            }
+            return delegate.execute();
+        }
+
+        @Override
+        public void setBody(Body body) {
+            bodyWritten = true;
+            if (delegate instanceof StreamingHttpOutputMessage streaming) {
+                streaming.setBody(body);
+                return;
+            }
+            try {
+                body.writeTo(delegate.getBody());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public OutputStream getBody() throws IOException {
+            bodyWritten = true;
+            return delegate.getBody();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return delegate.getMethod();
+        }
+
+        @Override
+        public URI getURI() {
+            return delegate.getURI();
+        }
+
+        @Override
+        public Map<String, Object> getAttributes() {
+            return delegate.getAttributes();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.demo.config.restclient;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.DeserializationContext;
+import tools.jackson.databind.JacksonModule;
+import tools.jackson.databind.deser.jdk.StringDeserializer;
+import tools.jackson.databind.module.SimpleModule;
+
+/**
+ * A bounded cache that lets equal string values read by Jackson share one instance, so large cached
+ * result sets that repeat the same company names, cities or product names retain each value once.
+ *
+ * <p>The cache is a direct-mapped table: a value's hash picks one slot, and a different value with
+ * the same slot replaces it. Lookups take no lock and compare the parser's character buffer with
+ * the cached value, so a hit allocates nothing. Values longer than {@code maxLength} are not
+ * cached, since they rarely repeat.
+ *
+ * <p>Saved bytes are estimated from the length of each string returned from the cache instead of a
+ * new copy, assuming compact (Latin-1) strings and compressed object pointers.
+ */
+public final class StringCanonicalizer {
+
+    private final String[] table;
+    private final int maxLength;
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder savedBytes = new LongAdder();
+
+    /**
+     * Create a canonicalizer.
+     *
+     * @param maxEntries the number of cached values, rounded up to a power of two
+     * @param maxLength the length of the longest value to cache
+     */
+    public StringCanonicalizer(int maxEntries, int maxLength) {
+        if (maxEntries < 1 || maxLength < 0) {
+            throw new IllegalArgumentException(
+                    "maxEntries must be positive and maxLength not negative");
+        }
+        int slots = 1;
+        while (slots < maxEntries) {
+            slots <<= 1;
+        }
+        this.table = new String[slots];
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Return the cached instance of a value, or a new string that is cached from now on.
+     *
+     * @param chars the buffer holding the value
+     * @param offset the offset of the value in the buffer
+     * @param length the length of the value
+     * @return a string equal to the value
+     */
+    public String canonicalize(char[] chars, int offset, int length) {
+        if (length > maxLength) {
+            return new String(chars, offset, length);
+        }
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        int slot = (hash ^ (hash >>> 16)) & (table.length - 1);
+        lookups.increment();
+        // A racy read is safe: strings are immutable and published through final fields
+        String cached = table[slot];
+        if (cached != null && matches(cached, chars, offset, length)) {
+            hits.increment();
+            savedBytes.add(retainedSize(length));
+            return cached;
+        }
+        String value = new String(chars, offset, length);
+        table[slot] = value;
+        return value;
+    }
+
+    private static boolean matches(String cached, char[] chars, int offset, int length) {
+        if (cached.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (cached.charAt(i) != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // String (24 bytes) plus its byte[] (16 bytes header), each aligned to 8 bytes
+    private static long retainedSize(int length) {
+        return 24 + ((16 + length + 7) & ~7);
+    }
+
+    /**
+     * A module that reads every string value through this cache, including the values of untyped
+     * maps and lists, those of the {@code LazyJsonObject}s a service client's mapper reads, and the
+     * string components of the generated JSON codecs. Property names are shared already, by the
+     * parser's symbol table.
+     *
+     * @return the module to register with a mapper
+     */
+    public JacksonModule module() {
+        return new SimpleModule(StringCanonicalizer.class.getName() + "@" + hashCode())
+                .addDeserializer(String.class, new Deserializer(this));
+    }
+
+    /**
+     * Summarize the lookups so far.
+     *
+     * @return the summary
+     */
+    public Summary summarize() {
+        long lookups = this.lookups.sum();
+        long hits = this.hits.sum();
+        int size = 0;
+        for (String value : table) {
+            if (value != null) {
+                size++;
+            }
+        }
+        return new Summary(
+                table.length,
+                size,
+                lookups,
+                hits,
+                (lookups > 0) ? Math.round(1000.0 * hits / lookups) / 1000.0 : 0,
+                savedBytes.sum());
+    }
+
+    /**
+     * A point-in-time summary of a canonicalizer.
+     *
+     * @param maxEntries the number of slots
+     * @param entries the number of slots holding a value
+     * @param lookups the values looked up, not counting those longer than the maximum length
+     * @param hits the lookups that returned a cached instance
+     * @param hitRatio {@code hits} over {@code lookups}
+     * @param savedBytes the estimated heap not taken by duplicate strings
+     */
+    public record Summary(
+            int maxEntries,
+            int entries,
+            long lookups,
+            long hits,
+            double hitRatio,
+            long savedBytes) {}
+
+    /** Jackson's string deserializer, with string tokens read through the cache. */
+    private static final class Deserializer extends StringDeserializer {
+
+        private final StringCanonicalizer canonicalizer;
+
+        Deserializer(StringCanonicalizer canonicalizer) {
+            this.canonicalizer = canonicalizer;
+        }
+
+        @Override
+        public String deserialize(JsonParser p, DeserializationContext ctxt) {
+            if (p.hasToken(JsonToken.VALUE_STRING)) {
+                return canonicalizer.canonicalize(
+                        p.getStringCharacters(), p.getStringOffset(), p.getStringLength());
+            }
+            return super.deserialize(p, ctxt);
+        }
+    }
+}
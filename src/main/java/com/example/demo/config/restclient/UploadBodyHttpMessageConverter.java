@@ -0,0 +1,75 @@
+package com.example.demo.config.restclient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+/**
+ * Writes a {@link Path} or {@link InputStream} request body, e.g. {@code @RequestBody Path file},
+ * as it is read. Registered for the clients with {@code serviceclient.<name>.streaming-uploads},
+ * where it goes from the file or stream to the connection through a small buffer. A file is sent
+ * with its length and a media type guessed from its name; a stream is sent chunked and closed once
+ * written. Multipart parts are {@code Resource}s, e.g. {@code FileSystemResource}, so they keep
+ * their file names. Write only.
+ */
+final class UploadBodyHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    UploadBodyHttpMessageConverter() {
+        super(MediaType.ALL);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Path.class.isAssignableFrom(clazz) || InputStream.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, @Nullable MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException(
+                "Request bodies only: " + clazz.getName(), inputMessage);
+    }
+
+    @Override
+    protected MediaType getDefaultContentType(Object body) {
+        return (body instanceof Path path)
+                ? MediaTypeFactory.getMediaType(path.getFileName().toString())
+                        .orElse(MediaType.APPLICATION_OCTET_STREAM)
+                : MediaType.APPLICATION_OCTET_STREAM;
+    }
+
+    @Override
+    protected @Nullable Long getContentLength(Object body, @Nullable MediaType contentType)
+            throws IOException {
+        return (body instanceof Path path) ? Files.size(path) : null;
+    }
+
+    @Override
+    protected boolean supportsRepeatableWrites(Object body) {
+        return body instanceof Path;
+    }
+
+    @Override
+    protected void writeInternal(Object body, HttpOutputMessage outputMessage) throws IOException {
+        if (body instanceof Path path) {
+            Files.copy(path, outputMessage.getBody());
+            return;
+        }
+        try (InputStream in = (InputStream) body) {
+            in.transferTo(outputMessage.getBody());
+        }
+    }
+}
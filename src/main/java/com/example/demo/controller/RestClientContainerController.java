@@ -1,15 +1,22 @@
 package com.example.demo.controller;
 
+import java.time.Duration;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
 import com.example.demo.client.jph.JsonPlaceholderClient;
+import com.example.demo.config.restclient.BodyPrefix;
 import com.example.demo.config.restclient.RestClientContainer;
+import com.example.demo.config.restclient.ServiceClientProber;
 import com.example.demo.model.Post;
 
+import org.jspecify.annotations.Nullable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.client.ApiVersionInserter;
 import org.springframework.web.client.RestClient;
@@ -24,10 +31,15 @@ import org.springframework.web.service.invoker.HttpServiceProxyFactory;
 @RequestMapping("/restclient-container")
 public class RestClientContainerController {
 
+    private static final int MAX_BODY_BYTES = 500;
+
     private final RestClientContainer restClients;
+    private final ServiceClientProber prober;
 
-    public RestClientContainerController(RestClientContainer restClients) {
+    public RestClientContainerController(
+            RestClientContainer restClients, ServiceClientProber prober) {
         this.restClients = restClients;
+        this.prober = prober;
     }
 
     /** Lists all registered RestClient names in the container. */
@@ -39,23 +51,30 @@ public class RestClientContainerController {
     }
 
     /**
-     * Tests all configured RestClients (jph, ara, httpbin) with their default paths. Validates
-     * authentication configuration: bearer (jph), none (ara), basic (httpbin).
+     * Probes every client in the container concurrently (serviceclient.<name>.probe.*) and reports
+     * status, latency and the start of the body per client. Responds 503 unless all clients are up.
+     * The deadline and body limit default to, and are capped at, restclient-container.probe.*.
+     */
+    @GetMapping("/probe")
+    public ResponseEntity<ServiceClientProber.ProbeReport> probe(
+            @RequestParam(required = false) @Nullable Duration timeout,
+            @RequestParam(required = false) @Nullable Integer maxBodyBytes)
+            throws InterruptedException {
+        ServiceClientProber.ProbeReport report = prober.probeAllWithin(timeout, maxBodyBytes);
+        return ResponseEntity.status(report.up() ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE)
+                .body(report);
+    }
+
+    /**
+     * Tests all configured RestClients (jph, ara, httpbin) with their probe paths. Validates
+     * authentication configuration: bearer (jph), none (ara), basic (httpbin). The clients are
+     * called concurrently, see {@link #probe}.
      */
     @GetMapping("/test-all-restclients")
-    public Map<String, Object> testAll() {
+    public Map<String, Object> testAll() throws InterruptedException {
         Map<String, Object> results = new LinkedHashMap<>();
         results.put("availableClients", restClients.getNames());
-
-        // Test JPH (bearer auth)
-        results.put("jph", testClient("jph", "/posts/1"));
-
-        // Test ARA (no auth)
-        results.put("ara", testClient("ara", "/objects"));
-
-        // Test HTTPBin (basic auth)
-        results.put("httpbin", testClient("httpbin", "/get"));
-
+        results.putAll(prober.probeAll().clients());
         return results;
     }
 
@@ -85,10 +104,9 @@ public class RestClientContainerController {
             }
 
             RestClient client = restClients.get(name);
-            String response = client.get().uri(path).retrieve().body(String.class);
+            BodyPrefix response = client.get().uri(path).exchange(BodyPrefix.read(MAX_BODY_BYTES));
 
-            result.put("status", "success");
-            result.put("response", truncate(response, 500));
+            putResponse(result, "response", response);
         } catch (Exception e) {
             result.put("status", "error");
             result.put("message", e.getMessage());
@@ -122,8 +140,11 @@ public class RestClientContainerController {
             // Approach 1: Use pre-built RestClient (has pre-configured ApiVersionInserter)
             // Set version per-request using .apiVersion()
             RestClient client = restClients.get(name);
-            String response =
-                    client.get().uri(path).apiVersion(version).retrieve().body(String.class);
+            BodyPrefix response =
+                    client.get()
+                            .uri(path)
+                            .apiVersion(version)
+                            .exchange(BodyPrefix.read(MAX_BODY_BYTES));
 
             // Approach 2: Use RestClient.Builder to override ApiVersionInserter
             // Then set version per-request using .apiVersion()
@@ -132,18 +153,16 @@ public class RestClientContainerController {
                             .getBuilder(name)
                             .apiVersionInserter(
                                     ApiVersionInserter.useHeader("override-api-versioning-header"));
-            String response2 =
+            BodyPrefix response2 =
                     restClientBuilder
                             .build()
                             .get()
                             .uri(path)
                             .apiVersion(version)
-                            .retrieve()
-                            .body(String.class);
+                            .exchange(BodyPrefix.read(MAX_BODY_BYTES));
 
-            result.put("status", "success");
-            result.put("response", truncate(response, 500));
-            result.put("response2", truncate(response2, 500));
+            putResponse(result, "response", response);
+            putResponse(result, "response2", response2);
         } catch (Exception e) {
             result.put("status", "error");
             result.put("message", e.getMessage());
@@ -174,11 +193,11 @@ public class RestClientContainerController {
             RestClient customClient =
                     builder.defaultHeader("X-Custom-Test", "from-builder-endpoint").build();
 
-            String response = customClient.get().uri("/").retrieve().body(String.class);
+            BodyPrefix response =
+                    customClient.get().uri("/").exchange(BodyPrefix.read(MAX_BODY_BYTES));
 
-            result.put("status", "success");
             result.put("customHeader", "X-Custom-Test: from-builder-endpoint");
-            result.put("response", truncate(response, 500));
+            putResponse(result, "response", response);
         } catch (Exception e) {
             result.put("status", "error");
             result.put("message", e.getMessage());
@@ -187,14 +206,15 @@ public class RestClientContainerController {
         return result;
     }
 
-    private String truncate(String str, int maxLength) {
-        if (str == null) {
-            return null;
-        }
-        if (str.length() <= maxLength) {
-            return str;
+    // Only the first bytes are read; an unexpectedly large body is never buffered
+    private void putResponse(Map<String, Object> result, String key, BodyPrefix response) {
+        if (response.status().isError()) {
+            result.put("status", "error");
+            result.put("message", response.status() + " " + response.getAbbreviatedText());
+            return;
         }
-        return str.substring(0, maxLength) + "...";
+        result.putIfAbsent("status", "success");
+        result.put(key, response.getAbbreviatedText());
     }
 
     /**
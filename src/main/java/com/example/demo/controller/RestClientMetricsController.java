@@ -0,0 +1,107 @@
+package com.example.demo.controller;
+
+import java.util.Map;
+
+import com.example.demo.config.restclient.ServiceClientRequestFactories;
+import com.example.demo.config.restclient.ServiceClientStringCaches;
+import com.example.demo.config.restclient.StringCanonicalizer;
+import com.example.demo.metrics.ClientMetrics;
+import com.example.demo.metrics.CompressionMetrics;
+import com.example.demo.metrics.ConnectionPoolSampler;
+import com.example.demo.metrics.ConnectionPoolStats;
+import com.example.demo.metrics.DownloadMetrics;
+import com.example.demo.metrics.RequestMetrics;
+import com.example.demo.metrics.RestClientMetrics;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Exposes the request metrics of every service client: latency percentiles (p50, p90, p99, p99.9),
+ * request rate, error rate and status class counts per client, HTTP method and URI template, plus
+ * the state of each client's connection pool.
+ */
+@RestController
+@RequestMapping("/restclient-container")
+public class RestClientMetricsController {
+
+    private final ObjectProvider<RestClientMetrics> metrics;
+    private final ServiceClientRequestFactories requestFactories;
+    private final ObjectProvider<ConnectionPoolSampler> poolSampler;
+    private final ServiceClientStringCaches stringCaches;
+
+    public RestClientMetricsController(
+            ObjectProvider<RestClientMetrics> metrics,
+            ServiceClientRequestFactories requestFactories,
+            ObjectProvider<ConnectionPoolSampler> poolSampler,
+            ServiceClientStringCaches stringCaches) {
+        this.metrics = metrics;
+        this.requestFactories = requestFactories;
+        this.poolSampler = poolSampler;
+        this.stringCaches = stringCaches;
+    }
+
+    /** Summarizes the metrics recorded so far. Empty when metrics are disabled. */
+    @GetMapping("/metrics")
+    public Map<String, Map<String, RequestMetrics.Summary>> getMetrics() {
+        RestClientMetrics restClientMetrics = metrics.getIfAvailable();
+        return (restClientMetrics != null) ? restClientMetrics.summarize() : Map.of();
+    }
+
+    /**
+     * Summarizes where the time of each client's exchanges goes: DNS, connect, TLS, time to first
+     * byte and body. Empty when metrics are disabled.
+     */
+    @GetMapping("/metrics/phases")
+    public Map<String, Map<String, ClientMetrics.PhaseSummary>> getPhaseMetrics() {
+        RestClientMetrics restClientMetrics = metrics.getIfAvailable();
+        return (restClientMetrics != null) ? restClientMetrics.summarizePhases() : Map.of();
+    }
+
+    /**
+     * Summarizes each client's content coding: compression ratio of request and response bodies and
+     * the CPU time spent per kilobyte saved on the wire. Empty when metrics are disabled.
+     */
+    @GetMapping("/metrics/compression")
+    public Map<String, CompressionMetrics.Summary> getCompressionMetrics() {
+        RestClientMetrics restClientMetrics = metrics.getIfAvailable();
+        return (restClientMetrics != null) ? restClientMetrics.summarizeCompression() : Map.of();
+    }
+
+    /**
+     * Summarizes each client's file downloads: bytes written, resumed downloads, throughput and the
+     * progress of the downloads still running. Empty when metrics are disabled.
+     */
+    @GetMapping("/metrics/downloads")
+    public Map<String, DownloadMetrics.Summary> getDownloadMetrics() {
+        RestClientMetrics restClientMetrics = metrics.getIfAvailable();
+        return (restClientMetrics != null) ? restClientMetrics.summarizeDownloads() : Map.of();
+    }
+
+    /**
+     * Summarizes the string cache of each client with serviceclient.{name}.string-cache.enabled:
+     * hit ratio and the estimated heap saved by sharing repeated values. Empty for other clients.
+     */
+    @GetMapping("/metrics/strings")
+    public Map<String, StringCanonicalizer.Summary> getStringCacheMetrics() {
+        return stringCaches.summarize();
+    }
+
+    /**
+     * Reads the connection pool of every open service client transport: leased, available and
+     * pending connections plus connections opened and closed. -1 where the transport cannot tell.
+     */
+    @GetMapping("/metrics/pools")
+    public Map<String, ConnectionPoolStats> getConnectionPools() {
+        return requestFactories.getConnectionPoolStats();
+    }
+
+    /** Summarizes the sampled pool gauges (peaks, pending ratio, churn). Empty when disabled. */
+    @GetMapping("/metrics/pools/gauges")
+    public Map<String, ConnectionPoolSampler.Summary> getConnectionPoolGauges() {
+        ConnectionPoolSampler sampler = poolSampler.getIfAvailable();
+        return (sampler != null) ? sampler.summarize() : Map.of();
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.demo.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.http.HttpMethod;
+
+/**
+ * The {@link RequestMetrics} of one service client, by HTTP method and URI template.
+ *
+ * <p>Lookups go through nested maps keyed by the method and the template string the caller already
+ * holds, so recording a request with a known method and template allocates nothing.
+ *
+ * <p>A request built from a caller-supplied path, e.g. {@code uri("/items/" + id)}, has that path
+ * as its template. To keep such paths from growing the maps without bound, a client keeps at most
+ * {@value #MAX_URI_TEMPLATES} templates and records any further ones under {@link
+ * #NO_URI_TEMPLATE}.
+ */
+public class ClientMetrics {
+
+    /** The template key used when a request was built from a full URI rather than a template. */
+    public static final String NO_URI_TEMPLATE = "none";
+
+    /** The number of distinct method and template pairs a client records separately. */
+    public static final int MAX_URI_TEMPLATES = 128;
+
+    private static final ExchangePhase[] PHASES = ExchangePhase.values();
+
+    private final Map<HttpMethod, Map<String, RequestMetrics>> metrics = new ConcurrentHashMap<>();
+    private final AtomicInteger templates = new AtomicInteger();
+    private final LatencyHistogram[] phases = new LatencyHistogram[PHASES.length];
+    private final CompressionMetrics compression = new CompressionMetrics();
+    private final DownloadMetrics downloads = new DownloadMetrics();
+
+    public ClientMetrics() {
+        for (int i = 0; i < phases.length; i++) {
+            phases[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Record one request.
+     *
+     * @param method the HTTP method
+     * @param uriTemplate the URI template, or null if none was used
+     * @param nanos the time from sending the request to receiving the response status
+     * @param statusCode the response status code, or 0 for an I/O error
+     */
+    public void record(
+            HttpMethod method, @Nullable String uriTemplate, long nanos, int statusCode) {
+        get(method, (uriTemplate != null) ? uriTemplate : NO_URI_TEMPLATE)
+                .record(nanos, statusCode);
+    }
+
+    /**
+     * Record a request that failed before a response status arrived.
+     *
+     * @param method the HTTP method
+     * @param uriTemplate the URI template, or null if none was used
+     * @param nanos the time until the failure
+     */
+    public void recordError(HttpMethod method, @Nullable String uriTemplate, long nanos) {
+        record(method, uriTemplate, nanos, RequestMetrics.IO_ERROR);
+    }
+
+    /**
+     * Record a response aborted because it exceeded the maximum response size.
+     *
+     * @param method the HTTP method
+     * @param uriTemplate the URI template, or null if none was used
+     */
+    public void recordResponseTooLarge(HttpMethod method, @Nullable String uriTemplate) {
+        get(method, (uriTemplate != null) ? uriTemplate : NO_URI_TEMPLATE).recordResponseTooLarge();
+    }
+
+    /**
+     * Record the time spent in one phase of an exchange.
+     *
+     * @param phase the phase
+     * @param nanos the time spent
+     */
+    public void recordPhase(ExchangePhase phase, long nanos) {
+        phases[phase.ordinal()].recordNanos(nanos);
+    }
+
+    /**
+     * Get the content-coding counters of this client.
+     *
+     * @return the compression metrics
+     */
+    public CompressionMetrics compression() {
+        return compression;
+    }
+
+    /**
+     * Get the file download counters of this client.
+     *
+     * @return the download metrics
+     */
+    public DownloadMetrics downloads() {
+        return downloads;
+    }
+
+    RequestMetrics get(HttpMethod method, String uriTemplate) {
+        Map<String, RequestMetrics> byTemplate = metrics.get(method);
+        if (byTemplate == null) {
+            byTemplate = metrics.computeIfAbsent(method, m -> new ConcurrentHashMap<>());
+        }
+        RequestMetrics requestMetrics = byTemplate.get(uriTemplate);
+        if (requestMetrics == null) {
+            if (templates.get() >= MAX_URI_TEMPLATES && !uriTemplate.equals(NO_URI_TEMPLATE)) {
+                return get(method, NO_URI_TEMPLATE);
+            }
+            requestMetrics =
+                    byTemplate.computeIfAbsent(
+                            uriTemplate,
+                            t -> {
+                                templates.incrementAndGet();
+                                return new RequestMetrics();
+                            });
+        }
+        return requestMetrics;
+    }
+
+    /**
+     * Summarize every method and URI template seen so far.
+     *
+     * @return the summaries keyed by "{method} {uriTemplate}", without the base URL
+     */
+    public Map<String, RequestMetrics.Summary> summarize() {
+        Map<String, RequestMetrics.Summary> result = new TreeMap<>();
+        metrics.forEach(
+                (method, byTemplate) ->
+                        byTemplate.forEach(
+                                (template, requestMetrics) ->
+                                        result.put(
+                                                method.name() + " " + stripBaseUrl(template),
+                                                requestMetrics.summarize())));
+        return result;
+    }
+
+    // RestClient prepends the base URL to the template; it is only stripped for reporting so
+    // that recording stays allocation-free
+    private static String stripBaseUrl(String uriTemplate) {
+        int scheme = uriTemplate.indexOf("://");
+        if (scheme < 0) {
+            return uriTemplate;
+        }
+        int path = uriTemplate.indexOf('/', scheme + 3);
+        return (path >= 0) ? uriTemplate.substring(path) : "/";
+    }
+
+    /**
+     * Summarize the phase timings of all exchanges.
+     *
+     * @return the summaries by lower-case phase name, in phase order
+     */
+    public Map<String, PhaseSummary> summarizePhases() {
+        Map<String, PhaseSummary> result = new LinkedHashMap<>();
+        for (ExchangePhase phase : PHASES) {
+            LatencyHistogram.Snapshot snapshot = phases[phase.ordinal()].snapshot();
+            result.put(
+                    phase.name().toLowerCase(Locale.ROOT),
+                    new PhaseSummary(
+                            snapshot.getCount(),
+                            RequestMetrics.millis(snapshot.getValueAtPercentile(50)),
+                            RequestMetrics.millis(snapshot.getValueAtPercentile(90)),
+                            RequestMetrics.millis(snapshot.getValueAtPercentile(99)),
+                            RequestMetrics.millis(snapshot.getValueAtPercentile(99.9)),
+                            RequestMetrics.millis(snapshot.getMaxMicros()),
+                            RequestMetrics.round(snapshot.getMeanMicros() / 1000)));
+        }
+        return result;
+    }
+
+    /**
+     * A point-in-time summary of one phase, in milliseconds.
+     *
+     * @param count the number of exchanges in which the phase occurred
+     */
+    public record PhaseSummary(
+            long count,
+            double p50Ms,
+            double p90Ms,
+            double p99Ms,
+            double p999Ms,
+            double maxMs,
+            double meanMs) {}
+}
@@ -0,0 +1,115 @@
+package com.example.demo.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Content-coding counters for one service client: how much compressing request bodies and decoding
+ * responses saved on the wire, and how much CPU time it cost.
+ *
+ * <p>The CPU time of a response is the time spent reading its decoded body minus the time spent
+ * waiting for the encoded bytes, so a slow upstream does not count as decoding time. {@code
+ * cpuMicrosPerKbSaved} puts both sides of the tradeoff into one number: compare it with the time a
+ * kilobyte takes on the link to the upstream.
+ */
+public class CompressionMetrics {
+
+    private final Coding requests = new Coding();
+    private final Coding responses = new Coding();
+    private final LongAdder identityResponses = new LongAdder();
+
+    /**
+     * Record a compressed request body.
+     *
+     * @param bytes the size of the body before compression
+     * @param wireBytes the size of the compressed body
+     * @param nanos the time spent compressing
+     */
+    public void recordRequest(long bytes, long wireBytes, long nanos) {
+        requests.record(bytes, wireBytes, nanos);
+    }
+
+    /**
+     * Record a decoded response body.
+     *
+     * @param wireBytes the encoded bytes read from the transport
+     * @param bytes the decoded bytes handed to the caller
+     * @param nanos the time spent decoding, without the time spent waiting for encoded bytes
+     */
+    public void recordResponse(long wireBytes, long bytes, long nanos) {
+        responses.record(bytes, wireBytes, nanos);
+    }
+
+    /** Record a response that arrived without a content coding although one was accepted. */
+    public void recordIdentityResponse() {
+        identityResponses.increment();
+    }
+
+    /**
+     * Summarize the recorded bodies.
+     *
+     * @return the summary
+     */
+    public Summary summarize() {
+        return new Summary(requests.summarize(), responses.summarize(), identityResponses.sum());
+    }
+
+    private static final class Coding {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder wireBytes = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+
+        void record(long bytes, long wireBytes, long nanos) {
+            count.increment();
+            this.bytes.add(bytes);
+            this.wireBytes.add(wireBytes);
+            this.nanos.add(nanos);
+        }
+
+        CodingSummary summarize() {
+            long bytes = this.bytes.sum();
+            long wireBytes = this.wireBytes.sum();
+            long nanos = this.nanos.sum();
+            long saved = bytes - wireBytes;
+            return new CodingSummary(
+                    count.sum(),
+                    bytes,
+                    wireBytes,
+                    (wireBytes > 0) ? RequestMetrics.round((double) bytes / wireBytes) : 0,
+                    saved,
+                    RequestMetrics.round(nanos / 1e6),
+                    (saved > 0) ? RequestMetrics.round(nanos / 1e3 / (saved / 1024.0)) : 0);
+        }
+    }
+
+    /**
+     * A point-in-time summary of a client's request and response compression.
+     *
+     * @param requests the compressed request bodies
+     * @param responses the decoded response bodies
+     * @param identityResponses responses that were not encoded although the client accepted it
+     */
+    public record Summary(
+            CodingSummary requests, CodingSummary responses, long identityResponses) {}
+
+    /**
+     * Totals of the bodies compressed or decoded in one direction.
+     *
+     * @param count the number of bodies
+     * @param bytes the size of the bodies before compression (or after decoding)
+     * @param wireBytes the size on the wire
+     * @param ratio {@code bytes} over {@code wireBytes}
+     * @param savedBytes {@code bytes} minus {@code wireBytes}
+     * @param cpuMs the CPU time spent compressing or decoding, in milliseconds
+     * @param cpuMicrosPerKbSaved the CPU time spent per kilobyte saved on the wire
+     */
+    public record CodingSummary(
+            long count,
+            long bytes,
+            long wireBytes,
+            double ratio,
+            long savedBytes,
+            double cpuMs,
+            double cpuMicrosPerKbSaved) {}
+}
@@ -0,0 +1,166 @@
+package com.example.demo.metrics;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.jspecify.annotations.Nullable;
+import org.springframework.context.SmartLifecycle;
+
+/**
+ * Samples the connection pools of every service client at a fixed interval and keeps them as
+ * gauges: the latest value, peaks since startup, how often exchanges had to wait for a connection
+ * and the rate at which connections were opened over the last interval.
+ *
+ * <p>Point-in-time pool stats easily miss a short exhaustion; a non-zero {@code pendingRatio} or
+ * {@code peakPending} is what tells read timeouts caused by a full pool apart from a slow upstream.
+ */
+public class ConnectionPoolSampler implements SmartLifecycle {
+
+    private static final Log logger = LogFactory.getLog(ConnectionPoolSampler.class);
+
+    private final Supplier<Map<String, ConnectionPoolStats>> source;
+    private final Duration interval;
+
+    private final Map<String, Gauges> gauges = new ConcurrentHashMap<>();
+
+    private volatile @Nullable ScheduledExecutorService executor;
+
+    /**
+     * @param source reads the current stats of every pool, by service client name
+     * @param interval the sampling interval
+     */
+    public ConnectionPoolSampler(
+            Supplier<Map<String, ConnectionPoolStats>> source, Duration interval) {
+        this.source = source;
+        this.interval = interval;
+    }
+
+    /** Take one sample of every pool. */
+    public void sample() {
+        long now = System.nanoTime();
+        source.get()
+                .forEach(
+                        (name, stats) ->
+                                gauges.computeIfAbsent(name, n -> new Gauges()).record(stats, now));
+    }
+
+    /**
+     * Summarize the gauges of every pool sampled so far.
+     *
+     * @return the gauges by service client name
+     */
+    public Map<String, Summary> summarize() {
+        Map<String, Summary> result = new TreeMap<>();
+        gauges.forEach(
+                (name, clientGauges) -> {
+                    Summary summary = clientGauges.summarize();
+                    if (summary != null) {
+                        result.put(name, summary);
+                    }
+                });
+        return result;
+    }
+
+    @Override
+    public void start() {
+        ScheduledExecutorService scheduler =
+                Executors.newSingleThreadScheduledExecutor(
+                        Thread.ofPlatform().name("connection-pool-sampler").daemon().factory());
+        long millis = interval.toMillis();
+        scheduler.scheduleAtFixedRate(this::sampleQuietly, millis, millis, TimeUnit.MILLISECONDS);
+        executor = scheduler;
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService scheduler = executor;
+        executor = null;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return executor != null;
+    }
+
+    private void sampleQuietly() {
+        try {
+            sample();
+        } catch (RuntimeException e) {
+            // A failed sample must not cancel the schedule
+            logger.warn("Failed to sample connection pools", e);
+        }
+    }
+
+    /**
+     * The gauges of one pool.
+     *
+     * @param current the latest sample
+     * @param samples the number of samples taken
+     * @param peakLeased the most connections leased at once
+     * @param peakPending the most exchanges waiting for a connection at once
+     * @param pendingRatio the fraction of samples with at least one exchange waiting
+     * @param openedPerSecond connections opened per second over the last interval
+     */
+    public record Summary(
+            ConnectionPoolStats current,
+            long samples,
+            int peakLeased,
+            int peakPending,
+            double pendingRatio,
+            double openedPerSecond) {}
+
+    private static final class Gauges {
+
+        private @Nullable ConnectionPoolStats current;
+        private long samples;
+        private long pendingSamples;
+        private int peakLeased = ConnectionPoolStats.UNKNOWN;
+        private int peakPending = ConnectionPoolStats.UNKNOWN;
+        private long lastNanos;
+        private double openedPerSecond;
+
+        synchronized void record(ConnectionPoolStats stats, long nanos) {
+            ConnectionPoolStats previous = current;
+            if (previous != null && stats.opened() >= previous.opened() && nanos > lastNanos) {
+                openedPerSecond =
+                        RequestMetrics.round(
+                                (stats.opened() - previous.opened())
+                                        * 1_000_000_000.0
+                                        / (nanos - lastNanos));
+            }
+            current = stats;
+            lastNanos = nanos;
+            samples++;
+            if (stats.pending() > 0) {
+                pendingSamples++;
+            }
+            peakLeased = Math.max(peakLeased, stats.leased());
+            peakPending = Math.max(peakPending, stats.pending());
+        }
+
+        synchronized @Nullable Summary summarize() {
+            ConnectionPoolStats stats = current;
+            if (stats == null) {
+                return null;
+            }
+            return new Summary(
+                    stats,
+                    samples,
+                    peakLeased,
+                    peakPending,
+                    RequestMetrics.round((double) pendingSamples / samples),
+                    openedPerSecond);
+        }
+    }
+}
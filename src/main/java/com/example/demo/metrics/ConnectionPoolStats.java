@@ -0,0 +1,36 @@
+package com.example.demo.metrics;
+
+/**
+ * A point-in-time view of the connection pool behind one service client. Values a transport cannot
+ * report are {@link #UNKNOWN}.
+ *
+ * @param transport the transport the pool belongs to ("http-components", "jetty", "reactor", "jdk")
+ * @param leased connections currently in use by an exchange
+ * @param available idle connections ready to be leased
+ * @param pending exchanges waiting for a connection
+ * @param maxPerRoute the connection limit per route (host and port)
+ * @param opened connections opened since the pool was created
+ * @param closed connections closed since the pool was created
+ */
+public record ConnectionPoolStats(
+        String transport,
+        int leased,
+        int available,
+        int pending,
+        int maxPerRoute,
+        long opened,
+        long closed) {
+
+    public static final int UNKNOWN = -1;
+
+    /**
+     * Create stats for a transport that exposes nothing about its pool.
+     *
+     * @param transport the transport name
+     * @return stats with every value unknown
+     */
+    public static ConnectionPoolStats unknown(String transport) {
+        return new ConnectionPoolStats(
+                transport, UNKNOWN, UNKNOWN, UNKNOWN, UNKNOWN, UNKNOWN, UNKNOWN);
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.demo.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * File download counters for one service client: downloads written straight to a file or channel,
+ * how many resumed a partial file, their bytes and throughput, and the progress of the downloads
+ * still running.
+ *
+ * <p>Throughput is the bytes written over the time spent writing them, from the response headers to
+ * the end of the body, so it measures the transfer and not the upstream's time to first byte.
+ */
+public class DownloadMetrics {
+
+    private final LongAdder downloads = new LongAdder();
+    private final LongAdder resumed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+    private final Set<Progress> running = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Record the start of a download.
+     *
+     * @param target the file or channel written to, for the running downloads
+     * @param offset the bytes already present, if the download resumes
+     * @param expectedBytes the bytes to write, or -1 if unknown
+     * @return the progress to advance as bytes are written
+     */
+    public Progress start(String target, long offset, long expectedBytes) {
+        Progress progress = new Progress(target, offset, expectedBytes);
+        running.add(progress);
+        return progress;
+    }
+
+    /**
+     * Summarize the recorded downloads.
+     *
+     * @return the summary
+     */
+    public Summary summarize() {
+        long bytes = this.bytes.sum();
+        long nanos = this.nanos.sum();
+        List<Running> running = new ArrayList<>();
+        for (Progress progress : this.running) {
+            running.add(progress.summarize());
+        }
+        return new Summary(
+                downloads.sum(),
+                resumed.sum(),
+                failed.sum(),
+                bytes,
+                RequestMetrics.round(nanos / 1e6),
+                (nanos > 0) ? RequestMetrics.round(bytes / (1024.0 * 1024.0) / (nanos / 1e9)) : 0,
+                running);
+    }
+
+    /** The progress of one running download. */
+    public final class Progress {
+
+        private final String target;
+        private final long offset;
+        private final long expectedBytes;
+        private final long startNanos = System.nanoTime();
+        private volatile long written;
+
+        private Progress(String target, long offset, long expectedBytes) {
+            this.target = target;
+            this.offset = offset;
+            this.expectedBytes = expectedBytes;
+        }
+
+        /**
+         * Record bytes written. Called by the downloading thread only.
+         *
+         * @param count the bytes written since the last call
+         */
+        public void advance(long count) {
+            written += count;
+        }
+
+        /**
+         * Record the end of the download.
+         *
+         * @param completed whether the whole body was written
+         */
+        public void finish(boolean completed) {
+            if (!running.remove(this)) {
+                return;
+            }
+            downloads.increment();
+            if (offset > 0) {
+                resumed.increment();
+            }
+            if (!completed) {
+                failed.increment();
+            }
+            bytes.add(written);
+            nanos.add(System.nanoTime() - startNanos);
+        }
+
+        Running summarize() {
+            long written = this.written;
+            return new Running(
+                    target,
+                    offset,
+                    written,
+                    expectedBytes,
+                    (expectedBytes > 0) ? RequestMetrics.round(100.0 * written / expectedBytes) : 0,
+                    RequestMetrics.round((System.nanoTime() - startNanos) / 1e6));
+        }
+    }
+
+    /**
+     * A point-in-time summary of a client's downloads.
+     *
+     * @param downloads the finished downloads
+     * @param resumed the finished downloads that continued a partial file with a range request
+     * @param failed the finished downloads that ended before the whole body was written
+     * @param bytes the bytes written by finished downloads
+     * @param transferMs the time finished downloads spent writing, in milliseconds
+     * @param megabytesPerSecond {@code bytes} over {@code transferMs}
+     * @param running the downloads still running
+     */
+    public record Summary(
+            long downloads,
+            long resumed,
+            long failed,
+            long bytes,
+            double transferMs,
+            double megabytesPerSecond,
+            List<Running> running) {}
+
+    /**
+     * The progress of a running download.
+     *
+     * @param target the file or channel written to
+     * @param offset the bytes already present when the download started
+     * @param bytes the bytes written so far
+     * @param expectedBytes the bytes to write, or -1 if the response has no length
+     * @param percent {@code bytes} over {@code expectedBytes}, or 0 if unknown
+     * @param elapsedMs the time since the response headers arrived, in milliseconds
+     */
+    public record Running(
+            String target,
+            long offset,
+            long bytes,
+            long expectedBytes,
+            double percent,
+            double elapsedMs) {}
+}
@@ -0,0 +1,26 @@
+package com.example.demo.metrics;
+
+/**
+ * The phases of one HTTP exchange. Only a request that opens a new connection has {@link #DNS},
+ * {@link #CONNECT} and {@link #TLS} time; on a reused connection they do not occur.
+ */
+public enum ExchangePhase {
+
+    /** Resolving the host name. */
+    DNS,
+
+    /** Opening a new connection (TCP connect), without waiting for a free pool slot. */
+    CONNECT,
+
+    /** The TLS handshake of a new connection. */
+    TLS,
+
+    /**
+     * Everything else until the response headers arrive: waiting for a pooled connection, sending
+     * the request and the server's processing time.
+     */
+    TTFB,
+
+    /** Reading the response body, from the headers until the body is consumed or closed. */
+    BODY
+}
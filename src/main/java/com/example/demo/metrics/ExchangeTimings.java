@@ -0,0 +1,217 @@
+package com.example.demo.metrics;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * The per-phase timings of one HTTP exchange.
+ *
+ * <p>{@link MeteredClientHttpRequest} binds the timings to the calling thread while the transport
+ * executes the request, so transport hooks that run on that thread (DNS resolver, connect, TLS
+ * handshake) can add to them through {@link #current()}. The timings are attached to the response
+ * and can be read with {@link #of(ClientHttpResponse)}, e.g. in an interceptor or in {@code
+ * RestClient.exchange(...)}.
+ *
+ * <p>Each exchange gets its own instance, so timings read from a response stay valid after later
+ * exchanges on the same thread.
+ */
+public final class ExchangeTimings {
+
+    private static final ExchangePhase[] PHASES = ExchangePhase.values();
+
+    private static final ThreadLocal<@Nullable ExchangeTimings> CURRENT = new ThreadLocal<>();
+
+    private final AtomicLongArray nanos = new AtomicLongArray(PHASES.length);
+    private final long startNanos;
+
+    private volatile long connectStartNanos;
+    private volatile long connectOverlapNanos;
+    private volatile long connectionOpenedNanos = -1;
+    private volatile long poolWaitNanos = -1;
+
+    ExchangeTimings(long startNanos) {
+        this.startNanos = startNanos;
+        for (int i = 0; i < PHASES.length; i++) {
+            nanos.set(i, -1);
+        }
+    }
+
+    /**
+     * Get the timings of the exchange the current thread is executing.
+     *
+     * @return the timings, or null outside of a metered exchange
+     */
+    public static @Nullable ExchangeTimings current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Get the timings attached to a response.
+     *
+     * @param response a response returned by a metered service client, also as wrapped by {@code
+     *     RestClient}
+     * @return the timings, or null if the response was not metered
+     */
+    public static @Nullable ExchangeTimings of(ClientHttpResponse response) {
+        if (response instanceof Source source) {
+            return source.exchangeTimings();
+        }
+        // RestClient hands its own wrapper to exchange(); that one still returns our body stream
+        try {
+            return (response.getBody() instanceof Source source) ? source.exchangeTimings() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @Nullable ExchangeTimings bind() {
+        ExchangeTimings previous = CURRENT.get();
+        CURRENT.set(this);
+        return previous;
+    }
+
+    static void restore(@Nullable ExchangeTimings previous) {
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * Add time to a phase.
+     *
+     * @param phase the phase
+     * @param phaseNanos the time spent, in nanoseconds
+     */
+    public void add(ExchangePhase phase, long phaseNanos) {
+        int index = phase.ordinal();
+        long current;
+        do {
+            current = nanos.get(index);
+        } while (!nanos.compareAndSet(index, current, Math.max(current, 0) + phaseNanos));
+        if ((phase == ExchangePhase.DNS || phase == ExchangePhase.TLS)
+                && connectionOpenedNanos < 0) {
+            connectionOpenedNanos = System.nanoTime() - phaseNanos;
+        }
+    }
+
+    /**
+     * Mark that a new connection is being opened, for transports that report opening a connection
+     * but not its DNS and TLS steps. The time since {@link #connectStarted()} is pool wait.
+     */
+    public void connectionOpening() {
+        if (connectionOpenedNanos < 0) {
+            connectionOpenedNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Mark the start of connection acquisition. Together with {@link #connectFinished()} this
+     * measures {@link ExchangePhase#CONNECT} and the pool wait for transports that have no
+     * dedicated connect hook.
+     */
+    public void connectStarted() {
+        connectOverlapNanos = sum(ExchangePhase.DNS, ExchangePhase.TLS);
+        connectionOpenedNanos = -1;
+        connectStartNanos = System.nanoTime();
+    }
+
+    /**
+     * Mark the end of connection acquisition. The time until the first DNS or TLS step is the pool
+     * wait. If a new connection was opened, the rest minus DNS and TLS time counts as {@link
+     * ExchangePhase#CONNECT}; otherwise all of it was pool wait. Pool wait is part of {@link
+     * ExchangePhase#TTFB}.
+     */
+    public void connectFinished() {
+        long now = System.nanoTime();
+        long elapsed = now - connectStartNanos;
+        long openedNanos = connectionOpenedNanos;
+        if (openedNanos < 0) {
+            poolWaitNanos = elapsed;
+            return;
+        }
+        long poolWait = Math.max(openedNanos - connectStartNanos, 0);
+        long overlap = sum(ExchangePhase.DNS, ExchangePhase.TLS) - connectOverlapNanos;
+        poolWaitNanos = poolWait;
+        add(ExchangePhase.CONNECT, Math.max(elapsed - poolWait - overlap, 0));
+    }
+
+    /**
+     * Get the time spent waiting for a pooled connection, or for a pool slot before opening a new
+     * one.
+     *
+     * @return the time in nanoseconds, or -1 if the transport does not report it
+     */
+    public long getPoolWaitNanos() {
+        return poolWaitNanos;
+    }
+
+    void headersReceived(long headersNanos) {
+        long connection = sum(ExchangePhase.DNS, ExchangePhase.CONNECT, ExchangePhase.TLS);
+        add(ExchangePhase.TTFB, Math.max(headersNanos - startNanos - connection, 0));
+    }
+
+    private long sum(ExchangePhase... phases) {
+        long total = 0;
+        for (ExchangePhase phase : phases) {
+            total += Math.max(nanos.get(phase.ordinal()), 0);
+        }
+        return total;
+    }
+
+    /**
+     * Get the time spent in a phase.
+     *
+     * @param phase the phase
+     * @return the time in nanoseconds, or -1 if the phase did not occur or was not observed
+     */
+    public long get(ExchangePhase phase) {
+        return nanos.get(phase.ordinal());
+    }
+
+    /**
+     * Get the observed phases.
+     *
+     * @return the time spent per phase, in phase order
+     */
+    public Map<ExchangePhase, Duration> asMap() {
+        Map<ExchangePhase, Duration> result = new EnumMap<>(ExchangePhase.class);
+        for (ExchangePhase phase : PHASES) {
+            long phaseNanos = get(phase);
+            if (phaseNanos >= 0) {
+                result.put(phase, Duration.ofNanos(phaseNanos));
+            }
+        }
+        return result;
+    }
+
+    void recordTo(ClientMetrics metrics) {
+        for (ExchangePhase phase : PHASES) {
+            long phaseNanos = get(phase);
+            if (phaseNanos >= 0) {
+                metrics.recordPhase(phase, phaseNanos);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ExchangeTimings" + asMap();
+    }
+
+    /**
+     * Implemented by the metered responses and their body streams to expose the timings, and by
+     * responses that wrap them to pass the timings on.
+     */
+    public interface Source {
+
+        @Nullable ExchangeTimings exchangeTimings();
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.demo.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A JFR event for one outgoing HTTP service client exchange, from sending the request until the
+ * response body is consumed or closed. Emitted by {@link HttpExchangeEventInterceptor}.
+ *
+ * <p>Record with e.g. {@code jcmd <pid> JFR.start settings=profile} and look for {@value #NAME}
+ * next to GC and thread park events.
+ */
+@Name(HttpExchangeEvent.NAME)
+@Label("HTTP Exchange")
+@Category({"Application", "HTTP Service Clients"})
+@Description("An outgoing HTTP exchange of a service client")
+@StackTrace(false)
+public class HttpExchangeEvent extends jdk.jfr.Event {
+
+    public static final String NAME = "com.example.demo.HttpExchange";
+
+    @Label("Group")
+    @Description("Service client or @ImportHttpServices group name")
+    String group;
+
+    @Label("Service Method")
+    @Description("Interface method of the HTTP service client, if any")
+    String serviceMethod;
+
+    @Label("HTTP Method")
+    String httpMethod;
+
+    @Label("URI Template")
+    String uriTemplate;
+
+    @Label("Status")
+    @Description("Response status code, 0 if no response was received")
+    int status;
+
+    @Label("Bytes Out")
+    @DataAmount
+    long bytesOut;
+
+    @Label("Bytes In")
+    @DataAmount
+    long bytesIn;
+
+    @Label("Pool Wait")
+    @Description("Time waiting for a pooled connection, -1 if the transport does not report it")
+    @Timespan
+    long poolWait;
+
+    @Label("Error")
+    String error;
+}
@@ -0,0 +1,212 @@
+package com.example.demo.metrics;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.example.demo.config.restclient.ServiceMethodProcessor;
+import com.example.demo.config.restclient.StreamingRequestInterceptor;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Emits a {@link HttpExchangeEvent} per exchange. When the event is not enabled in a running
+ * recording the interceptor only checks that and passes the request on.
+ *
+ * <p>Add it first, so the event also covers the interceptors after it (e.g. OAuth2 token lookup).
+ * The event is committed when the response body has been read or the response is closed.
+ */
+public class HttpExchangeEventInterceptor implements StreamingRequestInterceptor {
+
+    private final String group;
+
+    public HttpExchangeEventInterceptor(String group) {
+        this.group = group;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(
+            HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        if (StreamingRequestInterceptor.isStreamed(request)) {
+            return StreamingRequestInterceptor.super.intercept(request, body, execution);
+        }
+        HttpExchangeEvent event = begin(request);
+        if (event == null) {
+            return execution.execute(request, body);
+        }
+        event.bytesOut = body.length;
+        return complete(event, () -> execution.execute(request, body));
+    }
+
+    // A streamed upload is counted as it is written, which ends before the response arrives
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, Execution execution)
+            throws IOException {
+        HttpExchangeEvent event = begin(request);
+        if (event == null) {
+            return execution.execute(request);
+        }
+        return complete(
+                event,
+                () ->
+                        execution.execute(
+                                request,
+                                body ->
+                                        new FilterOutputStream(body) {
+                                            @Override
+                                            public void write(int b) throws IOException {
+                                                out.write(b);
+                                                event.bytesOut++;
+                                            }
+
+                                            @Override
+                                            public void write(byte[] b, int off, int len)
+                                                    throws IOException {
+                                                out.write(b, off, len);
+                                                event.bytesOut += len;
+                                            }
+                                        }));
+    }
+
+    private @Nullable HttpExchangeEvent begin(HttpRequest request) {
+        HttpExchangeEvent event = new HttpExchangeEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        event.group = group;
+        event.serviceMethod = ServiceMethodProcessor.get(request);
+        event.httpMethod = request.getMethod().name();
+        event.uriTemplate =
+                (request.getAttributes().get(MeteredClientHttpRequest.URI_TEMPLATE_ATTRIBUTE)
+                                instanceof String template)
+                        ? template
+                        : ClientMetrics.NO_URI_TEMPLATE;
+        event.poolWait = -1;
+        return event;
+    }
+
+    private ClientHttpResponse complete(HttpExchangeEvent event, Exchange exchange)
+            throws IOException {
+        ClientHttpResponse response;
+        try {
+            response = exchange.execute();
+            event.status = response.getStatusCode().value();
+        } catch (IOException | RuntimeException e) {
+            event.error = e.toString();
+            event.commit();
+            throw e;
+        }
+        return new EventClientHttpResponse(response, event);
+    }
+
+    @FunctionalInterface
+    private interface Exchange {
+
+        ClientHttpResponse execute() throws IOException;
+    }
+
+    private static final class EventClientHttpResponse
+            implements ClientHttpResponse, ExchangeTimings.Source {
+
+        private final ClientHttpResponse delegate;
+        private final HttpExchangeEvent event;
+
+        private @Nullable InputStream body;
+        private boolean committed;
+
+        EventClientHttpResponse(ClientHttpResponse delegate, HttpExchangeEvent event) {
+            this.delegate = delegate;
+            this.event = event;
+        }
+
+        @Override
+        public @Nullable ExchangeTimings exchangeTimings() {
+            return ExchangeTimings.of(delegate);
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            InputStream current = body;
+            if (current == null) {
+                current = new CountingInputStream(delegate.getBody());
+                body = current;
+            }
+            return current;
+        }
+
+        @Override
+        public void close() {
+            commit();
+            delegate.close();
+        }
+
+        private void commit() {
+            if (!committed) {
+                committed = true;
+                ExchangeTimings timings = exchangeTimings();
+                if (timings != null) {
+                    event.poolWait = timings.getPoolWaitNanos();
+                }
+                event.commit();
+            }
+        }
+
+        private final class CountingInputStream extends FilterInputStream
+                implements ExchangeTimings.Source {
+
+            CountingInputStream(InputStream in) {
+                super(in);
+            }
+
+            @Override
+            public @Nullable ExchangeTimings exchangeTimings() {
+                return EventClientHttpResponse.this.exchangeTimings();
+            }
+
+            @Override
+            public int read() throws IOException {
+                int read = super.read();
+                if (read < 0) {
+                    commit();
+                } else {
+                    event.bytesIn++;
+                }
+                return read;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int read = super.read(b, off, len);
+                if (read < 0) {
+                    commit();
+                } else {
+                    event.bytesIn += read;
+                }
+                return read;
+            }
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.demo.metrics;
+
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A concurrent log-linear latency histogram in the style of HdrHistogram.
+ *
+ * <p>Values are recorded in microseconds into 64 linear sub-buckets per power of two, so every
+ * reported value is within 1/64 (about 1.6%) of the recorded one, from 1 µs up to one hour.
+ * Recording is a few shifts plus atomic increments on preallocated arrays: it never allocates and
+ * never locks, so it can sit on the request path of every client.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_HALF_COUNT_MAGNITUDE = 6;
+    private static final int SUB_BUCKET_HALF_COUNT = 1 << SUB_BUCKET_HALF_COUNT_MAGNITUDE;
+    private static final int SUB_BUCKET_COUNT = SUB_BUCKET_HALF_COUNT << 1;
+    private static final long SUB_BUCKET_MASK = SUB_BUCKET_COUNT - 1;
+    private static final int LEADING_ZERO_COUNT_BASE = 64 - SUB_BUCKET_HALF_COUNT_MAGNITUDE - 1;
+
+    /** Highest trackable value; larger values are recorded as this value. */
+    public static final long HIGHEST_TRACKABLE_MICROS = 3_600_000_000L;
+
+    private static final int COUNTS_LENGTH = countsIndex(HIGHEST_TRACKABLE_MICROS) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(COUNTS_LENGTH);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    /**
+     * Record a latency.
+     *
+     * @param nanos the latency in nanoseconds
+     */
+    public void recordNanos(long nanos) {
+        long micros = Math.min(Math.max(nanos / 1_000, 0), HIGHEST_TRACKABLE_MICROS);
+        counts.incrementAndGet(countsIndex(micros));
+        totalCount.incrementAndGet();
+        totalMicros.addAndGet(micros);
+        long max = maxMicros.get();
+        while (micros > max && !maxMicros.compareAndSet(max, micros)) {
+            max = maxMicros.get();
+        }
+    }
+
+    /**
+     * Take a consistent-enough copy for reporting. Concurrent recordings may or may not be
+     * included.
+     *
+     * @return the snapshot
+     */
+    public Snapshot snapshot() {
+        long[] copy = new long[COUNTS_LENGTH];
+        long count = 0;
+        for (int i = 0; i < COUNTS_LENGTH; i++) {
+            copy[i] = counts.get(i);
+            count += copy[i];
+        }
+        return new Snapshot(copy, count, totalMicros.get(), maxMicros.get());
+    }
+
+    private static int countsIndex(long value) {
+        int bucketIndex =
+                LEADING_ZERO_COUNT_BASE - Long.numberOfLeadingZeros(value | SUB_BUCKET_MASK);
+        int subBucketIndex = (int) (value >>> bucketIndex);
+        int bucketBaseIndex = (bucketIndex + 1) << SUB_BUCKET_HALF_COUNT_MAGNITUDE;
+        return bucketBaseIndex + subBucketIndex - SUB_BUCKET_HALF_COUNT;
+    }
+
+    private static long highestEquivalentValue(int index) {
+        int bucketIndex = (index >> SUB_BUCKET_HALF_COUNT_MAGNITUDE) - 1;
+        int subBucketIndex = (index & (SUB_BUCKET_HALF_COUNT - 1)) + SUB_BUCKET_HALF_COUNT;
+        if (bucketIndex < 0) {
+            subBucketIndex -= SUB_BUCKET_HALF_COUNT;
+            bucketIndex = 0;
+        }
+        long lowest = (long) subBucketIndex << bucketIndex;
+        return lowest + (1L << bucketIndex) - 1;
+    }
+
+    /** A point-in-time copy of a {@link LatencyHistogram}, in microseconds. */
+    public static final class Snapshot {
+
+        private final long[] counts;
+        private final long count;
+        private final long totalMicros;
+        private final long maxMicros;
+
+        private Snapshot(long[] counts, long count, long totalMicros, long maxMicros) {
+            this.counts = counts;
+            this.count = count;
+            this.totalMicros = totalMicros;
+            this.maxMicros = maxMicros;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMaxMicros() {
+            return maxMicros;
+        }
+
+        public double getMeanMicros() {
+            return (count > 0) ? (double) totalMicros / count : 0;
+        }
+
+        /**
+         * Get the value at a percentile.
+         *
+         * @param percentile the percentile, from 0 to 100 (e.g., 99.9)
+         * @return the value in microseconds, or 0 if nothing was recorded
+         */
+        public long getValueAtPercentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= target) {
+                    return Math.min(highestEquivalentValue(i), maxMicros);
+                }
+            }
+            return maxMicros;
+        }
+
+        /**
+         * Write the percentile distribution in the text format of HdrHistogram's {@code
+         * outputPercentileDistribution}, so {@code .hgrm} plotting tools can read it. Percentile
+         * levels halve the distance to 100% every 5 rows, as in HdrHistogram.
+         *
+         * @param out the stream to write to
+         * @param scalingRatio the divisor applied to microsecond values, e.g. 1000 for milliseconds
+         */
+        public void outputPercentileDistribution(PrintStream out, double scalingRatio) {
+            out.format(
+                    Locale.ROOT,
+                    "%12s %14s %10s %14s%n%n",
+                    "Value",
+                    "Percentile",
+                    "TotalCount",
+                    "1/(1-Percentile)");
+            long seen = 0;
+            double level = 0;
+            for (int i = 0; i < counts.length && seen < count; i++) {
+                if (counts[i] == 0) {
+                    continue;
+                }
+                seen += counts[i];
+                double reached = 100.0 * seen / count;
+                double value = Math.min(highestEquivalentValue(i), maxMicros) / scalingRatio;
+                while (level <= reached && seen < count) {
+                    out.format(
+                            Locale.ROOT,
+                            "%12.3f %2.12f %10d %14.2f%n",
+                            value,
+                            level / 100,
+                            seen,
+                            1 / (1 - level / 100));
+                    long ticks = 5L << ((int) (Math.log(100 / (100 - level)) / Math.log(2)) + 1);
+                    level += 100.0 / ticks;
+                }
+            }
+            if (count > 0) {
+                out.format(
+                        Locale.ROOT, "%12.3f %2.12f %10d%n", maxMicros / scalingRatio, 1.0, count);
+            }
+            out.format(
+                    Locale.ROOT,
+                    "#[Mean    = %12.3f, StdDeviation   = %12.3f]%n",
+                    getMeanMicros() / scalingRatio,
+                    getStdDeviationMicros() / scalingRatio);
+            out.format(
+                    Locale.ROOT,
+                    "#[Max     = %12.3f, Total count    = %12d]%n",
+                    maxMicros / scalingRatio,
+                    count);
+            out.format(
+                    Locale.ROOT,
+                    "#[Buckets = %12d, SubBuckets     = %12d]%n",
+                    (counts.length >> SUB_BUCKET_HALF_COUNT_MAGNITUDE) - 1,
+                    SUB_BUCKET_COUNT);
+        }
+
+        private double getStdDeviationMicros() {
+            if (count == 0) {
+                return 0;
+            }
+            double mean = getMeanMicros();
+            double squares = 0;
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) {
+                    double deviation = highestEquivalentValue(i) - mean;
+                    squares += deviation * deviation * counts[i];
+                }
+            }
+            return Math.sqrt(squares / count);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.demo.metrics;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * A {@link ClientHttpResponse} that carries the {@link ExchangeTimings} of its exchange and
+ * measures {@link ExchangePhase#BODY} until the body is read to the end or the response is closed.
+ * The timings are recorded in the {@link ClientMetrics} at that point.
+ */
+class MeteredClientHttpResponse implements ClientHttpResponse, ExchangeTimings.Source {
+
+    private final ClientHttpResponse delegate;
+    private final ExchangeTimings timings;
+    private final ClientMetrics metrics;
+    private final long headersNanos;
+
+    private @Nullable InputStream body;
+    private boolean completed;
+
+    MeteredClientHttpResponse(
+            ClientHttpResponse delegate,
+            ExchangeTimings timings,
+            ClientMetrics metrics,
+            long headersNanos) {
+        this.delegate = delegate;
+        this.timings = timings;
+        this.metrics = metrics;
+        this.headersNanos = headersNanos;
+    }
+
+    @Override
+    public ExchangeTimings exchangeTimings() {
+        return timings;
+    }
+
+    @Override
+    public HttpStatusCode getStatusCode() throws IOException {
+        return delegate.getStatusCode();
+    }
+
+    @Override
+    public String getStatusText() throws IOException {
+        return delegate.getStatusText();
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return delegate.getHeaders();
+    }
+
+    @Override
+    public InputStream getBody() throws IOException {
+        InputStream current = body;
+        if (current == null) {
+            current = new BodyInputStream(delegate.getBody());
+            body = current;
+        }
+        return current;
+    }
+
+    @Override
+    public void close() {
+        complete();
+        delegate.close();
+    }
+
+    private void complete() {
+        if (!completed) {
+            completed = true;
+            timings.add(ExchangePhase.BODY, System.nanoTime() - headersNanos);
+            timings.recordTo(metrics);
+        }
+    }
+
+    private final class BodyInputStream extends FilterInputStream
+            implements ExchangeTimings.Source {
+
+        BodyInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public ExchangeTimings exchangeTimings() {
+            return timings;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int read = super.read();
+            if (read < 0) {
+                complete();
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read < 0) {
+                complete();
+            }
+            return read;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.demo.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and outcome counters for one client, HTTP method and URI template.
+ *
+ * <p>Outcomes are counted by status class; a request that fails with an I/O error before a status
+ * arrives counts as {@code ioError}. The error rate is {@code 5xx} plus {@code ioError} over all
+ * requests. Responses aborted for exceeding the client's maximum response size are counted
+ * separately, in addition to their status class.
+ *
+ * <p>{@link #record(long, int)} only updates preallocated counters and histogram buckets, so it
+ * allocates nothing; {@link #summarize()} allocates the summary. The request rate is the average
+ * since the first request, not a recent rate.
+ */
+public class RequestMetrics {
+
+    static final int IO_ERROR = 0;
+
+    private static final String[] STATUS_CLASS_NAMES = {
+        "ioError", "1xx", "2xx", "3xx", "4xx", "5xx"
+    };
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final AtomicLongArray statusClasses = new AtomicLongArray(STATUS_CLASS_NAMES.length);
+    private final LongAdder responsesTooLarge = new LongAdder();
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * Record one request.
+     *
+     * @param nanos the time from sending the request to receiving the response status
+     * @param statusCode the response status code, or 0 for an I/O error
+     */
+    public void record(long nanos, int statusCode) {
+        latency.recordNanos(nanos);
+        int statusClass = statusCode / 100;
+        statusClasses.incrementAndGet(
+                (statusClass >= 1 && statusClass <= 5) ? statusClass : IO_ERROR);
+    }
+
+    /** Record a response aborted because it exceeded the maximum response size. */
+    public void recordResponseTooLarge() {
+        responsesTooLarge.increment();
+    }
+
+    /**
+     * Summarize the recorded requests.
+     *
+     * @return the summary, with latencies in milliseconds
+     */
+    public Summary summarize() {
+        LatencyHistogram.Snapshot snapshot = latency.snapshot();
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int i = 1; i < STATUS_CLASS_NAMES.length; i++) {
+            counts.put(STATUS_CLASS_NAMES[i], statusClasses.get(i));
+        }
+        counts.put(STATUS_CLASS_NAMES[IO_ERROR], statusClasses.get(IO_ERROR));
+
+        long count = snapshot.getCount();
+        long errors = statusClasses.get(5) + statusClasses.get(IO_ERROR);
+        double elapsedSeconds = Math.max(System.nanoTime() - startNanos, 1) / 1e9;
+        return new Summary(
+                count,
+                round(count / elapsedSeconds),
+                (count > 0) ? round((double) errors / count) : 0,
+                millis(snapshot.getValueAtPercentile(50)),
+                millis(snapshot.getValueAtPercentile(90)),
+                millis(snapshot.getValueAtPercentile(99)),
+                millis(snapshot.getValueAtPercentile(99.9)),
+                millis(snapshot.getMaxMicros()),
+                round(snapshot.getMeanMicros() / 1000),
+                counts,
+                responsesTooLarge.sum());
+    }
+
+    static double millis(long micros) {
+        return round(micros / 1000.0);
+    }
+
+    static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+
+    /**
+     * A point-in-time summary.
+     *
+     * @param count the number of requests
+     * @param averageRatePerSecond the average request rate since the first request
+     * @param errorRate the fraction of requests that got a 5xx or an I/O error
+     * @param statusClasses the request count per status class
+     * @param responsesTooLarge the responses aborted for exceeding the maximum response size
+     */
+    public record Summary(
+            long count,
+            double averageRatePerSecond,
+            double errorRate,
+            double p50Ms,
+            double p90Ms,
+            double p99Ms,
+            double p999Ms,
+            double maxMs,
+            double meanMs,
+            Map<String, Long> statusClasses,
+            long responsesTooLarge) {}
+}
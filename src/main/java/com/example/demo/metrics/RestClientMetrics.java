@@ -0,0 +1,69 @@
+package com.example.demo.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Request metrics of every service client, by client name. The container clients and the
+ * {@code @ImportHttpServices} group clients with the same name share one request factory, so they
+ * also share one {@link ClientMetrics}.
+ */
+public class RestClientMetrics {
+
+    private final Map<String, ClientMetrics> clients = new ConcurrentHashMap<>();
+
+    /**
+     * Get the metrics of a service client, creating them on first use.
+     *
+     * @param name the service client name (e.g., "jph", "ara")
+     * @return the metrics of that client
+     */
+    public ClientMetrics forClient(String name) {
+        return clients.computeIfAbsent(name, n -> new ClientMetrics());
+    }
+
+    /**
+     * Summarize every client.
+     *
+     * @return the summaries by client name, then by "{method} {uriTemplate}"
+     */
+    public Map<String, Map<String, RequestMetrics.Summary>> summarize() {
+        Map<String, Map<String, RequestMetrics.Summary>> result = new TreeMap<>();
+        clients.forEach((name, metrics) -> result.put(name, metrics.summarize()));
+        return result;
+    }
+
+    /**
+     * Summarize the phase timings of every client.
+     *
+     * @return the summaries by client name, then by phase
+     */
+    public Map<String, Map<String, ClientMetrics.PhaseSummary>> summarizePhases() {
+        Map<String, Map<String, ClientMetrics.PhaseSummary>> result = new TreeMap<>();
+        clients.forEach((name, metrics) -> result.put(name, metrics.summarizePhases()));
+        return result;
+    }
+
+    /**
+     * Summarize the request and response compression of every client.
+     *
+     * @return the summaries by client name
+     */
+    public Map<String, CompressionMetrics.Summary> summarizeCompression() {
+        Map<String, CompressionMetrics.Summary> result = new TreeMap<>();
+        clients.forEach((name, metrics) -> result.put(name, metrics.compression().summarize()));
+        return result;
+    }
+
+    /**
+     * Summarize the file downloads of every client.
+     *
+     * @return the summaries by client name
+     */
+    public Map<String, DownloadMetrics.Summary> summarizeDownloads() {
+        Map<String, DownloadMetrics.Summary> result = new TreeMap<>();
+        clients.forEach((name, metrics) -> result.put(name, metrics.downloads().summarize()));
+        return result;
+    }
+}
@@ -2,11 +2,19 @@ package com.example.demo.model;
 
 import java.util.Map;
 
+import com.example.demo.annotation.JsonCodec;
+
 import com.fasterxml.jackson.annotation.JsonProperty;
+import tools.jackson.databind.annotation.JsonDeserialize;
 
+/**
+ * An object of the restful-api.dev API. {@code data} is read as a {@link LazyJsonObject}, which
+ * decodes a value only when it is accessed and copies itself into a map when first changed.
+ */
+@JsonCodec
 public record ApiObject(
         String id,
         String name,
-        Map<String, Object> data,
+        @JsonDeserialize(using = LazyJsonObject.Deserializer.class) Map<String, Object> data,
         @JsonProperty("createdAt") String createdAt,
         @JsonProperty("updatedAt") String updatedAt) {}
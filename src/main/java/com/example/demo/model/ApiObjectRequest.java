@@ -2,4 +2,7 @@ package com.example.demo.model;
 
 import java.util.Map;
 
+import com.example.demo.annotation.JsonCodec;
+
+@JsonCodec
 public record ApiObjectRequest(String name, Map<String, Object> data) {}
@@ -1,4 +1,7 @@
 package com.example.demo.model;
 
+import com.example.demo.annotation.JsonCodec;
+
 /** Response model for HTTP Basic Authentication test endpoint. */
+@JsonCodec
 public record BasicAuthResponse(boolean authenticated, String user) {}
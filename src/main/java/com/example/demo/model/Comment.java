@@ -1,3 +1,6 @@
 package com.example.demo.model;
 
+import com.example.demo.annotation.JsonCodec;
+
+@JsonCodec
 public record Comment(Long id, Long postId, String name, String email, String body) {}
@@ -1,3 +1,6 @@
 package com.example.demo.model;
 
+import com.example.demo.annotation.JsonCodec;
+
+@JsonCodec
 public record GithubUser(String login, int id, String name) {}
@@ -0,0 +1,429 @@
+package com.example.demo.model;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.io.Serial;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.core.ObjectWriteContext;
+import tools.jackson.core.SerializableString;
+import tools.jackson.core.io.SerializedString;
+import tools.jackson.core.json.JsonGeneratorBase;
+import tools.jackson.databind.DeserializationContext;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.ObjectReader;
+import tools.jackson.databind.SerializationContext;
+import tools.jackson.databind.ValueDeserializer;
+import tools.jackson.databind.ValueSerializer;
+import tools.jackson.databind.annotation.JsonSerialize;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * A JSON object that keeps its raw JSON bytes and decodes a value only when its key is read.
+ * Listing thousands of {@link ApiObject}s then holds one byte array per {@code data} instead of a
+ * tree of maps and boxed values, and writing an object back, e.g. as the data of an {@link
+ * ApiObjectRequest}, copies the bytes to a JSON generator untouched.
+ *
+ * <p>Decoded values are cached. Iterating, {@code equals}, {@code hashCode} and {@code toString}
+ * decode the whole object once. Values decode as untyped JSON, into maps, lists, strings, numbers
+ * and booleans, with the mapper that read the enclosing object if it was set up with {@link
+ * #decodeWith(JsonMapper)}, so with its modules and features, and with a default JsonMapper
+ * otherwise.
+ *
+ * <p>The object is modifiable: the first change decodes the whole object into a map, which is then
+ * written instead of the bytes. Its iterators, like those of a synchronized map, must not be used
+ * by several threads at once.
+ */
+@JsonSerialize(using = LazyJsonObject.Serializer.class)
+public final class LazyJsonObject extends AbstractMap<String, Object> {
+
+    private static final String READER_ATTRIBUTE = LazyJsonObject.class.getName() + ".reader";
+
+    private static final JsonMapper DEFAULT_MAPPER = JsonMapper.builder().build();
+
+    private static final ObjectReader DEFAULT_READER = valueReader(DEFAULT_MAPPER);
+
+    private static final Object ABSENT = new Object();
+
+    // A decoded JSON null, so it is not taken for a value not decoded yet
+    private static final Object NULL = new Object();
+
+    private final byte[] json;
+    // Reads one value out of the middle of the object
+    private final ObjectReader reader;
+    private Map<String, Object> decoded;
+    private List<String> keys;
+    private Map<String, Object> map;
+    private boolean modified;
+    private Set<Entry<String, Object>> entrySet;
+
+    private LazyJsonObject(byte[] json, ObjectReader reader) {
+        this.json = json;
+        this.reader = reader;
+    }
+
+    /**
+     * Wrap the bytes of a JSON object, whose values decode with a default JsonMapper.
+     *
+     * @param json the UTF-8 encoded JSON object, which must not be modified afterwards
+     * @return the lazy object
+     */
+    public static LazyJsonObject of(byte[] json) {
+        return new LazyJsonObject(json, DEFAULT_READER);
+    }
+
+    /**
+     * Copy a mapper so that the lazy objects it reads decode their values with it.
+     *
+     * @param mapper the mapper
+     * @return a mapper with the same configuration that the lazy objects it reads refer to
+     */
+    public static JsonMapper decodeWith(JsonMapper mapper) {
+        JsonMapper.Builder builder = mapper.rebuild();
+        return builder.defaultAttributes(
+                        builder.defaultAttributes()
+                                .withSharedAttribute(READER_ATTRIBUTE, valueReader(mapper)))
+                .build();
+    }
+
+    private static ObjectReader valueReader(JsonMapper mapper) {
+        return mapper.readerFor(Object.class)
+                .without(DeserializationFeature.FAIL_ON_TRAILING_TOKENS);
+    }
+
+    /**
+     * The raw JSON bytes as read, without a copy. They no longer match the object once it is
+     * modified.
+     *
+     * @return the UTF-8 encoded JSON object
+     */
+    public byte[] json() {
+        return json;
+    }
+
+    @Override
+    public synchronized Object get(Object key) {
+        if (map != null) {
+            return map.get(key);
+        }
+        if (decoded == null) {
+            decoded = new HashMap<>();
+        }
+        Object value = decoded.get(key);
+        if (value == null && key instanceof String name) {
+            value = decode(name);
+            decoded.put(name, value);
+        }
+        return (value != ABSENT && value != NULL) ? value : null;
+    }
+
+    @Override
+    public synchronized boolean containsKey(Object key) {
+        return (map != null) ? map.containsKey(key) : keys().contains(key);
+    }
+
+    @Override
+    public synchronized int size() {
+        return (map != null) ? map.size() : keys().size();
+    }
+
+    @Override
+    public synchronized Object put(String key, Object value) {
+        modified = true;
+        return map().put(key, value);
+    }
+
+    @Override
+    public synchronized Object remove(Object key) {
+        if (!containsKey(key)) {
+            return null;
+        }
+        modified = true;
+        return map().remove(key);
+    }
+
+    @Override
+    public synchronized Set<Entry<String, Object>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    private synchronized Map<String, Object> map() {
+        if (map == null) {
+            map = reader.forType(LinkedHashMap.class).readValue(json);
+            decoded = null;
+        }
+        return map;
+    }
+
+    private synchronized void modified() {
+        modified = true;
+    }
+
+    // The decoded map once modified, or null while the bytes are current
+    private synchronized Map<String, Object> modifiedMap() {
+        return modified ? map : null;
+    }
+
+    private synchronized List<String> keys() {
+        if (keys == null) {
+            List<String> names = new ArrayList<>();
+            try (JsonParser parser = reader.createParser(json)) {
+                parser.nextToken();
+                for (String name = parser.nextName(); name != null; name = parser.nextName()) {
+                    names.add(name);
+                    parser.nextToken();
+                    parser.skipChildren();
+                }
+            }
+            keys = names;
+        }
+        return keys;
+    }
+
+    private Object decode(String key) {
+        try (JsonParser parser = reader.createParser(json)) {
+            parser.nextToken();
+            for (String name = parser.nextName(); name != null; name = parser.nextName()) {
+                JsonToken token = parser.nextToken();
+                if (name.equals(key)) {
+                    return (token == JsonToken.VALUE_NULL) ? NULL : reader.readValue(parser);
+                }
+                parser.skipChildren();
+            }
+        }
+        return ABSENT;
+    }
+
+    /** The entries of the decoded map, which mark the object modified when changed. */
+    private final class EntrySet extends AbstractSet<Entry<String, Object>> {
+
+        @Override
+        public Iterator<Entry<String, Object>> iterator() {
+            Iterator<Entry<String, Object>> entries = map().entrySet().iterator();
+            return new Iterator<>() {
+
+                @Override
+                public boolean hasNext() {
+                    return entries.hasNext();
+                }
+
+                @Override
+                public Entry<String, Object> next() {
+                    return new ModifiableEntry(entries.next());
+                }
+
+                @Override
+                public void remove() {
+                    modified();
+                    entries.remove();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return LazyJsonObject.this.size();
+        }
+    }
+
+    /** An entry of the decoded map that marks the object modified when its value is set. */
+    private final class ModifiableEntry extends SimpleEntry<String, Object> {
+
+        @Serial private static final long serialVersionUID = 1L;
+
+        private final transient Entry<String, Object> entry;
+
+        ModifiableEntry(Entry<String, Object> entry) {
+            super(entry);
+            this.entry = entry;
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            modified();
+            entry.setValue(value);
+            return super.setValue(value);
+        }
+    }
+
+    /**
+     * Reads a JSON object into a {@link LazyJsonObject} by copying its tokens to bytes; used with
+     * {@code @JsonDeserialize(using = ...)} on {@code Map<String, Object>} properties.
+     */
+    public static final class Deserializer extends ValueDeserializer<Map<String, Object>> {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map<String, Object> deserialize(JsonParser p, DeserializationContext ctxt) {
+            if (!p.isExpectedStartObjectToken()) {
+                return (Map<String, Object>) ctxt.handleUnexpectedToken(Map.class, p);
+            }
+            BytesOutputStream out = new BytesOutputStream();
+            try (JsonGenerator generator =
+                    DEFAULT_MAPPER
+                            .tokenStreamFactory()
+                            .createGenerator(ObjectWriteContext.empty(), out)) {
+                generator.copyCurrentStructureExact(p);
+            }
+            ObjectReader reader = (ObjectReader) ctxt.getAttribute(READER_ATTRIBUTE);
+            return new LazyJsonObject(
+                    out.toByteArray(), (reader != null) ? reader : DEFAULT_READER);
+        }
+    }
+
+    /**
+     * Writes the raw bytes to JSON generators, and copies their tokens to any other generator, such
+     * as CBOR, Smile or a token buffer, with numbers typed as if the object had been decoded.
+     */
+    public static final class Serializer extends ValueSerializer<LazyJsonObject> {
+
+        @Override
+        public void serialize(LazyJsonObject value, JsonGenerator gen, SerializationContext ctxt) {
+            Map<String, Object> modified = value.modifiedMap();
+            if (modified != null) {
+                ctxt.writeValue(gen, modified);
+                return;
+            }
+            if (gen instanceof JsonGeneratorBase) {
+                gen.writeRawValue(new RawUtf8(value.json));
+                return;
+            }
+            try (JsonParser parser = value.reader.createParser(value.json)) {
+                parser.nextToken();
+                gen.copyCurrentStructure(parser);
+            }
+        }
+    }
+
+    /**
+     * Collects what a generator flushes into a buffer that doubles as it fills, and trims it to an
+     * exactly sized array once at the end.
+     */
+    private static final class BytesOutputStream extends OutputStream {
+
+        private byte[] buffer = new byte[256];
+        private int count;
+
+        @Override
+        public void write(int b) {
+            ensureCapacity(count + 1);
+            buffer[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            ensureCapacity(count + length);
+            System.arraycopy(bytes, offset, buffer, count, length);
+            count += length;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(capacity, buffer.length * 2));
+            }
+        }
+
+        byte[] toByteArray() {
+            return (count == buffer.length) ? buffer : Arrays.copyOf(buffer, count);
+        }
+    }
+
+    /** Raw UTF-8 bytes as the unquoted form of a {@link SerializableString}. */
+    private record RawUtf8(byte[] bytes) implements SerializableString {
+
+        @Override
+        public String getValue() {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public int charLength() {
+            return getValue().length();
+        }
+
+        @Override
+        public byte[] asUnquotedUTF8() {
+            return bytes;
+        }
+
+        @Override
+        public int appendUnquotedUTF8(byte[] buffer, int offset) {
+            if (offset + bytes.length > buffer.length) {
+                return -1;
+            }
+            System.arraycopy(bytes, 0, buffer, offset, bytes.length);
+            return bytes.length;
+        }
+
+        @Override
+        public int appendUnquoted(char[] buffer, int offset) {
+            return quoted().appendUnquoted(buffer, offset);
+        }
+
+        @Override
+        public int writeUnquotedUTF8(OutputStream out) throws IOException {
+            out.write(bytes);
+            return bytes.length;
+        }
+
+        @Override
+        public int putUnquotedUTF8(ByteBuffer buffer) {
+            if (bytes.length > buffer.remaining()) {
+                return -1;
+            }
+            buffer.put(bytes);
+            return bytes.length;
+        }
+
+        @Override
+        public char[] asQuotedChars() {
+            return quoted().asQuotedChars();
+        }
+
+        @Override
+        public byte[] asQuotedUTF8() {
+            return quoted().asQuotedUTF8();
+        }
+
+        @Override
+        public int appendQuotedUTF8(byte[] buffer, int offset) {
+            return quoted().appendQuotedUTF8(buffer, offset);
+        }
+
+        @Override
+        public int appendQuoted(char[] buffer, int offset) {
+            return quoted().appendQuoted(buffer, offset);
+        }
+
+        @Override
+        public int writeQuotedUTF8(OutputStream out) throws IOException {
+            return quoted().writeQuotedUTF8(out);
+        }
+
+        @Override
+        public int putQuotedUTF8(ByteBuffer buffer) throws IOException {
+            return quoted().putQuotedUTF8(buffer);
+        }
+
+        private SerializedString quoted() {
+            return new SerializedString(getValue());
+        }
+    }
+}
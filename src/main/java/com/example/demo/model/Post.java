@@ -1,3 +1,6 @@
 package com.example.demo.model;
 
+import com.example.demo.annotation.JsonCodec;
+
+@JsonCodec
 public record Post(Long id, Long userId, String title, String body) {}
@@ -0,0 +1,7 @@
+package com.example.demo.model;
+
+import com.example.demo.annotation.JsonCodec;
+
+/** A projection of {@link Post} for listings that show titles only. */
+@JsonCodec
+public record PostSummary(Long id, String title) {}
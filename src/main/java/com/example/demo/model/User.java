@@ -1,5 +1,8 @@
 package com.example.demo.model;
 
+import com.example.demo.annotation.JsonCodec;
+
+@JsonCodec
 public record User(
         Long id,
         String name,
@@ -9,9 +12,12 @@ public record User(
         String phone,
         String website,
         Company company) {
+    @JsonCodec
     public record Address(String street, String suite, String city, String zipcode, Geo geo) {
+        @JsonCodec
         public record Geo(String lat, String lng) {}
     }
 
+    @JsonCodec
     public record Company(String name, String catchPhrase, String bs) {}
 }
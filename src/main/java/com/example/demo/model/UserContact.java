@@ -0,0 +1,7 @@
+package com.example.demo.model;
+
+import com.example.demo.annotation.JsonCodec;
+
+/** A projection of {@link User} without its address and company. */
+@JsonCodec
+public record UserContact(Long id, String name, String username, String email) {}
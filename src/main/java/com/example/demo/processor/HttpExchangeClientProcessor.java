@@ -0,0 +1,887 @@
+package com.example.demo.processor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.RecordComponentElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.StandardLocation;
+
+/**
+ * Generates a concrete implementation for every {@code @HttpExchange} interface at compile time.
+ *
+ * <p>For {@code com.example.demo.client.jph.JsonPlaceholderClient} the processor writes {@code
+ * com.example.demo.client.jph.GeneratedJsonPlaceholderClient} with a static {@code
+ * create(RestClient)} method. The returned client calls the {@code RestClient} fluent API directly:
+ * the URI template, HTTP method, headers, media types, API version and the order in which arguments
+ * bind to template variables are all resolved here, so a call does no annotation lookup, argument
+ * resolver dispatch or proxy invocation at runtime.
+ *
+ * <p>The implementation is a non-static inner class on purpose. {@code @ImportHttpServices}
+ * scanning also matches classes that implement a type-level {@code @HttpExchange} interface, but
+ * skips inner classes, so the generated code never shows up as a second HTTP service bean.
+ *
+ * <p>Supported method arguments are {@code @PathVariable}, {@code @RequestParam}, {@code
+ * {@literal @}RequestHeader}, {@code @RequestBody} and a {@code Path} or {@code
+ * WritableByteChannel} to download the body to; supported return types are bodies (including
+ * generic types), {@code void}, {@code ResponseEntity}, {@code HttpHeaders} and {@code Optional}.
+ * An interface using anything else is skipped with a compiler note and keeps using the runtime
+ * proxy. A {@code @ResponseFields} method sets its fields as a request attribute, resolved here.
+ *
+ * <p>The processor also writes {@code META-INF/http-services.index}, the binary names of all
+ * {@code @HttpExchange} interfaces in the compilation, one per line. {@code MyHttpServiceRegistrar}
+ * reads it instead of scanning the classpath at startup. Like Spring's {@code
+ * CandidateComponentsIndexer}, an incremental build merges the entries of the existing index, minus
+ * the types compiled again without {@code @HttpExchange} and the types that no longer exist.
+ *
+ * <p>The processor is compiled in its own execution before the main compilation; see the {@code
+ * maven-compiler-plugin} configuration in {@code pom.xml}. It shares no code with the application:
+ * generated methods refer to the request attribute constants of {@code HttpExchangeClients}, and
+ * {@code @ResponseFields} is matched by name.
+ */
+@SupportedAnnotationTypes({
+    HttpExchangeClientProcessor.ANNOTATION_PACKAGE + "HttpExchange",
+    HttpExchangeClientProcessor.ANNOTATION_PACKAGE + "GetExchange",
+    HttpExchangeClientProcessor.ANNOTATION_PACKAGE + "PostExchange",
+    HttpExchangeClientProcessor.ANNOTATION_PACKAGE + "PutExchange",
+    HttpExchangeClientProcessor.ANNOTATION_PACKAGE + "PatchExchange",
+    HttpExchangeClientProcessor.ANNOTATION_PACKAGE + "DeleteExchange"
+})
+public class HttpExchangeClientProcessor extends AbstractProcessor {
+
+    static final String ANNOTATION_PACKAGE = "org.springframework.web.service.annotation.";
+
+    // Read by HttpExchangeClients, which looks up Generated<Interface> by name
+    private static final String GENERATED_PREFIX = "Generated";
+
+    // Read by HttpServiceIndex
+    private static final String INDEX_LOCATION = "META-INF/http-services.index";
+
+    // The request attribute constants that generated methods set
+    private static final String ATTRIBUTES_CLASS =
+            "com.example.demo.config.restclient.HttpExchangeClients.";
+
+    private static final String BIND_PACKAGE = "org.springframework.web.bind.annotation.";
+
+    private static final String RUNTIME_ANNOTATION_PACKAGE = "com.example.demo.annotation.";
+
+    private static final String JACKSON_ANNOTATION_PACKAGE = "com.fasterxml.jackson.annotation.";
+
+    private static final Map<String, String> EXCHANGE_METHODS =
+            Map.of(
+                    "GetExchange", "GET",
+                    "PostExchange", "POST",
+                    "PutExchange", "PUT",
+                    "PatchExchange", "PATCH",
+                    "DeleteExchange", "DELETE",
+                    "HttpExchange", "");
+
+    private static final Set<String> ASYNC_TYPES =
+            Set.of(
+                    "reactor.core.publisher.Mono",
+                    "reactor.core.publisher.Flux",
+                    "org.reactivestreams.Publisher",
+                    "java.util.concurrent.Future",
+                    "java.util.concurrent.CompletableFuture",
+                    "java.util.concurrent.CompletionStage");
+
+    private static final Pattern URI_VARIABLE = Pattern.compile("\\{([^}:/]+)(?::[^}]*)?}");
+
+    private static final Set<String> GENERATED_LOCALS = Set.of("request", "uriBuilder");
+
+    private final Set<String> processed = new HashSet<>();
+    private final Set<String> indexed = new TreeSet<>();
+    private final Set<String> compiled = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeIndex();
+            return false;
+        }
+        for (Element element : roundEnv.getRootElements()) {
+            collectTypeNames(element);
+        }
+
+        Set<TypeElement> interfaces = new LinkedHashSet<>();
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                Element type =
+                        (element.getKind() == ElementKind.METHOD)
+                                ? element.getEnclosingElement()
+                                : element;
+                if (type.getKind() == ElementKind.INTERFACE) {
+                    interfaces.add((TypeElement) type);
+                }
+            }
+        }
+
+        for (TypeElement type : interfaces) {
+            if (!processed.add(type.getQualifiedName().toString())) {
+                continue;
+            }
+            indexed.add(processingEnv.getElementUtils().getBinaryName(type).toString());
+            try {
+                writeSource(type, generate(type));
+            } catch (UnsupportedClientException e) {
+                processingEnv
+                        .getMessager()
+                        .printMessage(
+                                Diagnostic.Kind.NOTE,
+                                "No generated implementation for "
+                                        + type.getQualifiedName()
+                                        + " (runtime proxy is used instead): "
+                                        + e.getMessage(),
+                                type);
+            }
+        }
+        return false;
+    }
+
+    /** Returns the simple name of the generated class for an interface. */
+    static String generatedSimpleName(TypeElement type) {
+        StringBuilder name = new StringBuilder(type.getSimpleName());
+        Element enclosing = type.getEnclosingElement();
+        while (enclosing instanceof TypeElement outer) {
+            name.insert(0, outer.getSimpleName() + "_");
+            enclosing = outer.getEnclosingElement();
+        }
+        return GENERATED_PREFIX + name;
+    }
+
+    private void collectTypeNames(Element element) {
+        if (element instanceof TypeElement type) {
+            compiled.add(processingEnv.getElementUtils().getBinaryName(type).toString());
+            for (Element enclosed : type.getEnclosedElements()) {
+                collectTypeNames(enclosed);
+            }
+        }
+    }
+
+    private void writeIndex() {
+        Set<String> typeNames = new TreeSet<>(indexed);
+        for (String typeName : readIndex()) {
+            // Keep the interfaces of an earlier build that were not compiled again and still exist
+            if (!compiled.contains(typeName)
+                    && processingEnv.getElementUtils().getTypeElement(typeName.replace('$', '.'))
+                            != null) {
+                typeNames.add(typeName);
+            }
+        }
+        if (typeNames.isEmpty()) {
+            return;
+        }
+        try (Writer writer =
+                processingEnv
+                        .getFiler()
+                        .createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_LOCATION)
+                        .openWriter()) {
+            writer.write("# @HttpExchange interfaces, generated by " + getClass().getName() + "\n");
+            for (String typeName : typeNames) {
+                writer.write(typeName + "\n");
+            }
+        } catch (IOException e) {
+            processingEnv
+                    .getMessager()
+                    .printMessage(
+                            Diagnostic.Kind.ERROR,
+                            "Failed to write " + INDEX_LOCATION + ": " + e.getMessage());
+        }
+    }
+
+    private Set<String> readIndex() {
+        Set<String> typeNames = new TreeSet<>();
+        try (Reader reader =
+                        processingEnv
+                                .getFiler()
+                                .getResource(StandardLocation.CLASS_OUTPUT, "", INDEX_LOCATION)
+                                .openReader(true);
+                BufferedReader lines = new BufferedReader(reader)) {
+            String line;
+            while ((line = lines.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    typeNames.add(line);
+                }
+            }
+        } catch (IOException e) {
+            // No index from an earlier build
+        }
+        return typeNames;
+    }
+
+    private void writeSource(TypeElement type, String source) {
+        String packageName = packageOf(type).getQualifiedName().toString();
+        String className = generatedSimpleName(type);
+        String qualifiedName = packageName.isEmpty() ? className : packageName + "." + className;
+        try (Writer writer =
+                processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter()) {
+            writer.write(source);
+        } catch (IOException e) {
+            processingEnv
+                    .getMessager()
+                    .printMessage(
+                            Diagnostic.Kind.ERROR,
+                            "Failed to write " + qualifiedName + ": " + e.getMessage(),
+                            type);
+        }
+    }
+
+    private String generate(TypeElement type) {
+        if (!type.getTypeParameters().isEmpty()) {
+            throw new UnsupportedClientException("generic interfaces are not supported");
+        }
+
+        String packageName = packageOf(type).getQualifiedName().toString();
+        String className = generatedSimpleName(type);
+        List<String> constants = new ArrayList<>();
+        StringBuilder methods = new StringBuilder();
+
+        for (Element member : processingEnv.getElementUtils().getAllMembers(type)) {
+            if (member.getKind() != ElementKind.METHOD
+                    || member.getEnclosingElement().getKind() != ElementKind.INTERFACE
+                    || !member.getModifiers().contains(Modifier.ABSTRACT)) {
+                continue;
+            }
+            methods.append(generateMethod((ExecutableElement) member, constants));
+        }
+
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("/** Compile-time implementation of {@link ")
+                .append(type.getQualifiedName())
+                .append("}. */\n")
+                .append("@javax.annotation.processing.Generated(\"")
+                .append(HttpExchangeClientProcessor.class.getName())
+                .append("\")\n")
+                .append("public final class ")
+                .append(className)
+                .append(" {\n\n");
+        for (String constant : constants) {
+            source.append("    ").append(constant).append("\n");
+        }
+        if (!constants.isEmpty()) {
+            source.append("\n");
+        }
+        source.append("    private final org.springframework.web.client.RestClient restClient;\n\n")
+                .append("    private ")
+                .append(className)
+                .append("(org.springframework.web.client.RestClient restClient) {\n")
+                .append("        this.restClient = restClient;\n")
+                .append("    }\n\n")
+                .append("    public static ")
+                .append(type.getQualifiedName())
+                .append(" create(org.springframework.web.client.RestClient restClient) {\n")
+                .append("        return new ")
+                .append(className)
+                .append("(restClient).new Client();\n")
+                .append("    }\n\n")
+                .append("    final class Client implements ")
+                .append(type.getQualifiedName())
+                .append(" {\n")
+                .append(methods.toString().replace("\n", "\n    ").replace("\n    \n", "\n\n"))
+                .append("}\n")
+                .append("}\n");
+        return source.toString();
+    }
+
+    private String generateMethod(ExecutableElement method, List<String> constants) {
+        TypeElement declaringType = (TypeElement) method.getEnclosingElement();
+        AnnotationMirror typeExchange =
+                findAnnotation(declaringType, ANNOTATION_PACKAGE, "HttpExchange");
+        AnnotationMirror methodExchange = null;
+        String httpMethod = null;
+        for (Map.Entry<String, String> entry : EXCHANGE_METHODS.entrySet()) {
+            AnnotationMirror mirror = findAnnotation(method, ANNOTATION_PACKAGE, entry.getKey());
+            if (mirror != null) {
+                methodExchange = mirror;
+                httpMethod = entry.getValue();
+            }
+        }
+        if (methodExchange == null) {
+            throw new UnsupportedClientException(
+                    method.getSimpleName() + "() has no exchange annotation");
+        }
+        if (httpMethod.isEmpty()) {
+            httpMethod = stringValue(methodExchange, "method");
+            if (httpMethod.isEmpty() && typeExchange != null) {
+                httpMethod = stringValue(typeExchange, "method");
+            }
+            if (httpMethod.isEmpty()) {
+                throw new UnsupportedClientException(
+                        method.getSimpleName() + "() does not declare an HTTP method");
+            }
+        }
+
+        String uriTemplate =
+                joinUrl((typeExchange != null) ? url(typeExchange) : "", url(methodExchange));
+        String contentType = firstNonEmpty(methodExchange, typeExchange, "contentType");
+        List<String> accept = arrayValue(methodExchange, "accept");
+        if (accept.isEmpty() && typeExchange != null) {
+            accept = arrayValue(typeExchange, "accept");
+        }
+        List<String> headers = new ArrayList<>();
+        if (typeExchange != null) {
+            headers.addAll(arrayValue(typeExchange, "headers"));
+        }
+        headers.addAll(arrayValue(methodExchange, "headers"));
+        String version = firstNonEmpty(methodExchange, typeExchange, "version");
+
+        // Bind arguments
+        Map<String, String> pathVariables = new LinkedHashMap<>();
+        List<String> requiredChecks = new ArrayList<>();
+        List<String> queryParams = new ArrayList<>();
+        List<String> headerArguments = new ArrayList<>();
+        String body = null;
+        boolean bodyOptional = false;
+        String downloadTarget = null;
+        StringBuilder parameters = new StringBuilder();
+
+        for (VariableElement parameter : method.getParameters()) {
+            String parameterName = parameter.getSimpleName().toString();
+            // Keep arguments from shadowing the locals of the generated method body
+            String name =
+                    GENERATED_LOCALS.contains(parameterName)
+                            ? parameterName + "Arg"
+                            : parameterName;
+            if (parameters.length() > 0) {
+                parameters.append(", ");
+            }
+            parameters.append(parameter.asType()).append(' ').append(name);
+            boolean nullable = !parameter.asType().getKind().isPrimitive();
+
+            AnnotationMirror pathVariable = findAnnotation(parameter, BIND_PACKAGE, "PathVariable");
+            AnnotationMirror requestParam = findAnnotation(parameter, BIND_PACKAGE, "RequestParam");
+            AnnotationMirror requestHeader =
+                    findAnnotation(parameter, BIND_PACKAGE, "RequestHeader");
+            AnnotationMirror requestBody = findAnnotation(parameter, BIND_PACKAGE, "RequestBody");
+
+            if (pathVariable != null) {
+                String variable = argumentName(pathVariable, parameterName);
+                pathVariables.put(variable, name);
+                if (nullable && booleanValue(pathVariable, "required")) {
+                    requiredChecks.add(
+                            requireNonNull(name, "Missing path variable '" + variable + "'"));
+                }
+            } else if (requestParam != null) {
+                checkNoDefaultValue(method, requestParam);
+                String param = argumentName(requestParam, parameterName);
+                if (isMap(parameter.asType())) {
+                    throw new UnsupportedClientException(
+                            method.getSimpleName() + "() uses a @RequestParam Map");
+                }
+                String value = isArray(parameter.asType()) ? "(Object[]) " + name : name;
+                String add = "uriBuilder.queryParam(\"" + escape(param) + "\", " + value + ");";
+                queryParams.add(
+                        nullable
+                                ? "if ("
+                                        + name
+                                        + " != null) {\n                        "
+                                        + add
+                                        + "\n                    }"
+                                : add);
+                if (nullable && booleanValue(requestParam, "required")) {
+                    requiredChecks.add(
+                            requireNonNull(name, "Missing request parameter '" + param + "'"));
+                }
+            } else if (requestHeader != null) {
+                checkNoDefaultValue(method, requestHeader);
+                if (isCollection(parameter.asType())
+                        || isArray(parameter.asType())
+                        || isMap(parameter.asType())) {
+                    throw new UnsupportedClientException(
+                            method.getSimpleName() + "() uses a multi-value @RequestHeader");
+                }
+                String header = argumentName(requestHeader, parameterName);
+                String add =
+                        "request.header(\"" + escape(header) + "\", String.valueOf(" + name + "));";
+                headerArguments.add(
+                        nullable
+                                ? "if (" + name + " != null) {\n            " + add + "\n        }"
+                                : add);
+                if (nullable && booleanValue(requestHeader, "required")) {
+                    requiredChecks.add(
+                            requireNonNull(name, "Missing request header '" + header + "'"));
+                }
+            } else if (requestBody != null && body == null) {
+                body = name;
+                bodyOptional = nullable && !booleanValue(requestBody, "required");
+                if (nullable && !bodyOptional) {
+                    // The same check and message as Spring's RequestBodyArgumentResolver
+                    requiredChecks.add(requireNonNull(name, "RequestBody is required"));
+                }
+            } else if (downloadTarget == null
+                    && (isType(parameter.asType(), "java.nio.file.Path")
+                            || isAssignable(
+                                    parameter.asType(), "java.nio.channels.WritableByteChannel"))) {
+                downloadTarget = name;
+                requiredChecks.add(
+                        requireNonNull(name, "Missing download target '" + parameterName + "'"));
+            } else {
+                throw new UnsupportedClientException(
+                        method.getSimpleName() + "() argument '" + name + "' is not supported");
+            }
+        }
+
+        // Resolve the order in which arguments bind to the URI template
+        List<String> templateVariables = new ArrayList<>();
+        Matcher matcher = URI_VARIABLE.matcher(uriTemplate);
+        while (matcher.find()) {
+            templateVariables.add(matcher.group(1));
+        }
+        if (!pathVariables.keySet().containsAll(templateVariables)
+                || !templateVariables.containsAll(pathVariables.keySet())
+                || new HashSet<>(templateVariables).size() != templateVariables.size()) {
+            throw new UnsupportedClientException(
+                    method.getSimpleName()
+                            + "() path variables do not match URI template '"
+                            + uriTemplate
+                            + "'");
+        }
+        StringBuilder uriArguments = new StringBuilder();
+        for (String variable : templateVariables) {
+            uriArguments.append(", ").append(pathVariables.get(variable));
+        }
+
+        String returnStatement = returnStatement(method, constants);
+
+        StringBuilder code = new StringBuilder("\n    @Override\n    public ");
+        code.append(method.getReturnType())
+                .append(' ')
+                .append(method.getSimpleName())
+                .append('(')
+                .append(parameters)
+                .append(") {\n");
+        for (String check : requiredChecks) {
+            code.append("        ").append(check).append('\n');
+        }
+        code.append("        org.springframework.web.client.RestClient.RequestBodySpec request =\n")
+                .append("                restClient.method(")
+                .append(httpMethodExpression(httpMethod.toUpperCase()))
+                .append(")");
+        if (queryParams.isEmpty()) {
+            code.append("\n                        .uri(\"")
+                    .append(escape(uriTemplate))
+                    .append('"')
+                    .append(uriArguments)
+                    .append(");\n");
+        } else {
+            // The template overload keeps the URI template request attribute for metrics
+            code.append("\n                        .uri(\"")
+                    .append(escape(uriTemplate))
+                    .append("\", uriBuilder -> {\n");
+            for (String queryParam : queryParams) {
+                code.append("                    ").append(queryParam).append('\n');
+            }
+            code.append("                    return uriBuilder.build(")
+                    .append(uriArguments.length() > 0 ? uriArguments.substring(2) : "")
+                    .append(");\n                });\n");
+        }
+        code.append("        request.attribute(")
+                .append(ATTRIBUTES_CLASS)
+                .append("SERVICE_METHOD_ATTRIBUTE, \"")
+                .append(method.getEnclosingElement().getSimpleName())
+                .append('.')
+                .append(method.getSimpleName())
+                .append("\");\n");
+        String responseFields = responseFields(method);
+        if (responseFields != null) {
+            code.append("        request.attribute(")
+                    .append(ATTRIBUTES_CLASS)
+                    .append("RESPONSE_FIELDS_ATTRIBUTE, \"")
+                    .append(escape(responseFields))
+                    .append("\");\n");
+        }
+        if (downloadTarget != null) {
+            code.append("        request.attribute(")
+                    .append(ATTRIBUTES_CLASS)
+                    .append("DOWNLOAD_TARGET_ATTRIBUTE, ")
+                    .append(downloadTarget)
+                    .append(");\n");
+        }
+        for (String header : headers) {
+            int separator = header.indexOf('=');
+            String name = (separator > 0) ? header.substring(0, separator).trim() : header.trim();
+            String value = (separator > 0) ? header.substring(separator + 1).trim() : "";
+            code.append("        request.header(\"")
+                    .append(escape(name))
+                    .append("\", \"")
+                    .append(escape(value))
+                    .append("\");\n");
+        }
+        for (String header : headerArguments) {
+            code.append("        ").append(header).append('\n');
+        }
+        if (!contentType.isEmpty()) {
+            String constant = "CONTENT_TYPE_" + constants.size();
+            constants.add(
+                    "private static final org.springframework.http.MediaType "
+                            + constant
+                            + " = org.springframework.http.MediaType.valueOf(\""
+                            + escape(contentType)
+                            + "\");");
+            code.append("        request.contentType(").append(constant).append(");\n");
+        }
+        if (!accept.isEmpty()) {
+            String constant = "ACCEPT_" + constants.size();
+            StringBuilder mediaTypes = new StringBuilder();
+            for (String mediaType : accept) {
+                mediaTypes
+                        .append(mediaTypes.length() > 0 ? ", " : "")
+                        .append("org.springframework.http.MediaType.valueOf(\"")
+                        .append(escape(mediaType))
+                        .append("\")");
+            }
+            constants.add(
+                    "private static final org.springframework.http.MediaType[] "
+                            + constant
+                            + " = {"
+                            + mediaTypes
+                            + "};");
+            code.append("        request.accept(").append(constant).append(");\n");
+        }
+        if (!version.isEmpty()) {
+            code.append("        request.apiVersion(\"").append(escape(version)).append("\");\n");
+        }
+        if (body != null && !bodyOptional) {
+            code.append("        request.body(").append(body).append(");\n");
+        } else if (body != null) {
+            code.append("        if (")
+                    .append(body)
+                    .append(" != null) {\n            request.body(")
+                    .append(body)
+                    .append(");\n        }\n");
+        }
+        code.append("        ").append(returnStatement).append("\n    }\n");
+        return code.toString();
+    }
+
+    private String returnStatement(ExecutableElement method, List<String> constants) {
+        TypeMirror returnType = method.getReturnType();
+        String retrieve = "request.retrieve()";
+
+        if (returnType.getKind() == TypeKind.VOID || isType(returnType, "java.lang.Void")) {
+            return retrieve + ".toBodilessEntity();";
+        }
+        if (returnType.getKind().isPrimitive()) {
+            TypeElement boxed =
+                    processingEnv
+                            .getTypeUtils()
+                            .boxedClass((javax.lang.model.type.PrimitiveType) returnType);
+            return "return " + retrieve + ".body(" + boxed.getQualifiedName() + ".class);";
+        }
+        if (ASYNC_TYPES.contains(erasure(returnType))) {
+            throw new UnsupportedClientException(
+                    method.getSimpleName() + "() returns an asynchronous type");
+        }
+        if (isType(returnType, "org.springframework.http.HttpHeaders")) {
+            return "return " + retrieve + ".toBodilessEntity().getHeaders();";
+        }
+        if (isType(returnType, "org.springframework.http.ResponseEntity")) {
+            TypeMirror bodyType = typeArgument(method, returnType);
+            if (isType(bodyType, "java.lang.Void")) {
+                return "return " + retrieve + ".toBodilessEntity();";
+            }
+            return "return "
+                    + retrieve
+                    + ".toEntity("
+                    + typeReference(method, bodyType, constants)
+                    + ");";
+        }
+        if (isType(returnType, "java.util.Optional")) {
+            TypeMirror bodyType = typeArgument(method, returnType);
+            return "return java.util.Optional.ofNullable("
+                    + retrieve
+                    + ".body("
+                    + typeReference(method, bodyType, constants)
+                    + "));";
+        }
+        return "return "
+                + retrieve
+                + ".body("
+                + typeReference(method, returnType, constants)
+                + ");";
+    }
+
+    /** The comma-separated fields of a {@code @ResponseFields} method, or null without one. */
+    private String responseFields(ExecutableElement method) {
+        AnnotationMirror annotation =
+                findAnnotation(method, RUNTIME_ANNOTATION_PACKAGE, "ResponseFields");
+        if (annotation == null) {
+            return null;
+        }
+        List<String> fields = arrayValue(annotation, "value");
+        if (fields.isEmpty()) {
+            TypeElement projection = projectionType(method.getReturnType());
+            if (projection == null) {
+                processingEnv
+                        .getMessager()
+                        .printMessage(
+                                Diagnostic.Kind.ERROR,
+                                "@ResponseFields without fields needs a record return type",
+                                method);
+                return null;
+            }
+            for (RecordComponentElement component : projection.getRecordComponents()) {
+                String field = component.getSimpleName().toString();
+                // @JsonProperty is propagated to the accessor, not kept on the component
+                for (Element element : List.of(component, component.getAccessor())) {
+                    AnnotationMirror property =
+                            findAnnotation(element, JACKSON_ANNOTATION_PACKAGE, "JsonProperty");
+                    if (property != null && !stringValue(property, "value").isEmpty()) {
+                        field = stringValue(property, "value");
+                    }
+                }
+                fields.add(field);
+            }
+        }
+        return String.join(",", fields);
+    }
+
+    /** The record a method returns, directly or as the element of a container, or null. */
+    private TypeElement projectionType(TypeMirror type) {
+        if (isArray(type)) {
+            return projectionType(((javax.lang.model.type.ArrayType) type).getComponentType());
+        }
+        if (type instanceof DeclaredType declared
+                && declared.getTypeArguments().size() == 1
+                && (isCollection(type)
+                        || isType(type, "java.util.Optional")
+                        || isType(type, "org.springframework.http.ResponseEntity"))) {
+            return projectionType(declared.getTypeArguments().get(0));
+        }
+        if (type instanceof DeclaredType declared
+                && declared.asElement().getKind() == ElementKind.RECORD) {
+            return (TypeElement) declared.asElement();
+        }
+        return null;
+    }
+
+    private String typeReference(
+            ExecutableElement method, TypeMirror type, List<String> constants) {
+        if (type.getKind() == TypeKind.TYPEVAR || type.getKind() == TypeKind.WILDCARD) {
+            throw new UnsupportedClientException(
+                    method.getSimpleName() + "() returns an unresolved type " + type);
+        }
+        if (type instanceof DeclaredType declared && !declared.getTypeArguments().isEmpty()) {
+            String declaration =
+                    "org.springframework.core.ParameterizedTypeReference<" + type + "> ";
+            // Methods returning the same generic type share one type reference
+            for (String existing : constants) {
+                if (existing.startsWith("private static final " + declaration)) {
+                    return existing.substring(
+                            ("private static final " + declaration).length(),
+                            existing.indexOf(" =", declaration.length()));
+                }
+            }
+            String constant = "TYPE_" + constants.size();
+            constants.add(
+                    "private static final "
+                            + declaration
+                            + constant
+                            + " =\n            new org.springframework.core.ParameterizedTypeReference<>() {};");
+            return constant;
+        }
+        return erasure(type) + ".class";
+    }
+
+    private static String httpMethodExpression(String httpMethod) {
+        return switch (httpMethod) {
+            case "GET", "HEAD", "POST", "PUT", "PATCH", "DELETE", "OPTIONS", "TRACE" ->
+                    "org.springframework.http.HttpMethod." + httpMethod;
+            default ->
+                    "org.springframework.http.HttpMethod.valueOf(\"" + escape(httpMethod) + "\")";
+        };
+    }
+
+    private TypeMirror typeArgument(ExecutableElement method, TypeMirror type) {
+        List<? extends TypeMirror> arguments = ((DeclaredType) type).getTypeArguments();
+        if (arguments.size() != 1) {
+            throw new UnsupportedClientException(
+                    method.getSimpleName() + "() returns a raw " + erasure(type));
+        }
+        return arguments.get(0);
+    }
+
+    private void checkNoDefaultValue(ExecutableElement method, AnnotationMirror annotation) {
+        // ValueConstants.DEFAULT_NONE marks "no default value"
+        if (!stringValue(annotation, "defaultValue").startsWith("\n\t\t\n")) {
+            throw new UnsupportedClientException(
+                    method.getSimpleName() + "() uses an argument defaultValue");
+        }
+    }
+
+    private String requireNonNull(String name, String message) {
+        return "org.springframework.util.Assert.notNull("
+                + name
+                + ", \""
+                + escape(message)
+                + "\");";
+    }
+
+    private boolean isType(TypeMirror type, String qualifiedName) {
+        return type.getKind() == TypeKind.DECLARED && erasure(type).equals(qualifiedName);
+    }
+
+    private boolean isArray(TypeMirror type) {
+        return type.getKind() == TypeKind.ARRAY;
+    }
+
+    private boolean isCollection(TypeMirror type) {
+        return isAssignable(type, "java.util.Collection");
+    }
+
+    private boolean isMap(TypeMirror type) {
+        return isAssignable(type, "java.util.Map");
+    }
+
+    private boolean isAssignable(TypeMirror type, String qualifiedName) {
+        TypeElement target = processingEnv.getElementUtils().getTypeElement(qualifiedName);
+        return type.getKind() == TypeKind.DECLARED
+                && processingEnv
+                        .getTypeUtils()
+                        .isAssignable(
+                                processingEnv.getTypeUtils().erasure(type),
+                                processingEnv.getTypeUtils().erasure(target.asType()));
+    }
+
+    private String erasure(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    private PackageElement packageOf(Element element) {
+        return processingEnv.getElementUtils().getPackageOf(element);
+    }
+
+    private static String joinUrl(String typeUrl, String methodUrl) {
+        if (typeUrl.isEmpty() || methodUrl.isEmpty()) {
+            return typeUrl + methodUrl;
+        }
+        if (!typeUrl.endsWith("/") && !methodUrl.startsWith("/")) {
+            return typeUrl + "/" + methodUrl;
+        }
+        return typeUrl + methodUrl;
+    }
+
+    private String url(AnnotationMirror exchange) {
+        String value = stringValue(exchange, "value");
+        return value.isEmpty() ? stringValue(exchange, "url") : value;
+    }
+
+    private String firstNonEmpty(
+            AnnotationMirror primary, AnnotationMirror fallback, String attribute) {
+        String value = stringValue(primary, attribute);
+        if (value.isEmpty() && fallback != null) {
+            value = stringValue(fallback, attribute);
+        }
+        return value;
+    }
+
+    private String argumentName(AnnotationMirror annotation, String parameterName) {
+        String value = stringValue(annotation, "value");
+        if (value.isEmpty()) {
+            value = stringValue(annotation, "name");
+        }
+        return value.isEmpty() ? parameterName : value;
+    }
+
+    private static AnnotationMirror findAnnotation(
+            Element element, String packageName, String name) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+            if (annotationType.getQualifiedName().contentEquals(packageName + name)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private AnnotationValue attribute(AnnotationMirror mirror, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry :
+                processingEnv.getElementUtils().getElementValuesWithDefaults(mirror).entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private String stringValue(AnnotationMirror mirror, String name) {
+        AnnotationValue value = attribute(mirror, name);
+        return (value != null && value.getValue() instanceof String string) ? string : "";
+    }
+
+    private boolean booleanValue(AnnotationMirror mirror, String name) {
+        AnnotationValue value = attribute(mirror, name);
+        return value != null && Boolean.TRUE.equals(value.getValue());
+    }
+
+    private List<String> arrayValue(AnnotationMirror mirror, String name) {
+        List<String> values = new ArrayList<>();
+        AnnotationValue value = attribute(mirror, name);
+        if (value != null && value.getValue() instanceof List<?> list) {
+            for (Object item : list) {
+                String string = String.valueOf(((AnnotationValue) item).getValue());
+                if (!string.isEmpty()) {
+                    values.add(string);
+                }
+            }
+        }
+        return values;
+    }
+
+    private static String escape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"' -> escaped.append("\\\"");
+                case '\\' -> escaped.append("\\\\");
+                case '\n' -> escaped.append("\\n");
+                case '\t' -> escaped.append("\\t");
+                default -> escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static class UnsupportedClientException extends RuntimeException {
+        UnsupportedClientException(String message) {
+            super(message);
+        }
+    }
+}
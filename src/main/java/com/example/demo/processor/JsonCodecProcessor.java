@@ -0,0 +1,1003 @@
+package com.example.demo.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.RecordComponentElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates a Jackson serializer and deserializer for every {@code @JsonCodec} record at compile
+ * time.
+ *
+ * <p>For {@code com.example.demo.model.Post} the processor writes {@code
+ * com.example.demo.model.GeneratedPostJsonCodec} with static {@code DESERIALIZER} and {@code
+ * SERIALIZER} instances, and for every package a {@code GeneratedJsonCodecs} class whose {@code
+ * module()} registers the codecs of the package. The deserializer switches on the property name and
+ * calls the canonical constructor: strings, numbers and booleans are read straight from the parser
+ * and nested {@code @JsonCodec} records call their own deserializer, so Jackson does no creator
+ * discovery, reflection or per-property dispatch for them. Other component types, such as maps and
+ * lists, are read and written through the Jackson context. If a module replaces Jackson's {@code
+ * String} deserializer, e.g. to canonicalize values, string components are read with that one. The
+ * serializer honors the mapper's property inclusion for ALWAYS and NON_NULL and hands any other
+ * inclusion to Jackson's bean serializer.
+ *
+ * <p>Property names are the component names, or the {@code @JsonProperty} value. A component with
+ * {@code @JsonDeserialize(using = ...)} is read by a static instance of that deserializer. A record
+ * using any other Jackson annotation is skipped with a compiler note and keeps using Jackson's
+ * reflective binding.
+ *
+ * <p>The processor is compiled in its own execution before the main compilation; see the {@code
+ * maven-compiler-plugin} configuration in {@code pom.xml}.
+ */
+@SupportedAnnotationTypes(JsonCodecProcessor.ANNOTATION)
+public class JsonCodecProcessor extends AbstractProcessor {
+
+    static final String ANNOTATION = "com.example.demo.annotation.JsonCodec";
+
+    /** Suffix of the generated codec class name, e.g. GeneratedPostJsonCodec. */
+    public static final String CODEC_SUFFIX = "JsonCodec";
+
+    /** Simple name of the generated class with the module of a package. */
+    public static final String MODULE_CLASS_NAME = "GeneratedJsonCodecs";
+
+    private static final String JACKSON_ANNOTATION_PACKAGE = "com.fasterxml.jackson.annotation.";
+
+    private static final String JACKSON_DATABIND_PACKAGE = "tools.jackson.databind.";
+
+    private static final String JSON_PROPERTY = JACKSON_ANNOTATION_PACKAGE + "JsonProperty";
+
+    private static final String JSON_DESERIALIZE =
+            JACKSON_DATABIND_PACKAGE + "annotation.JsonDeserialize";
+
+    private static final String TOKEN = "tools.jackson.core.JsonToken.";
+
+    private static final String STRING_DESERIALIZER_LOOKUP = "stringDeserializer(ctxt)";
+
+    // Null for Jackson's own, which p.getString() is equivalent to
+    private static final String STRING_DESERIALIZER_METHOD =
+            """
+                    // The mapper's String deserializer if a module replaced Jackson's own
+                    private static tools.jackson.databind.ValueDeserializer<?> stringDeserializer(
+                            tools.jackson.databind.DeserializationContext ctxt) {
+                        tools.jackson.databind.ValueDeserializer<?> deserializer =
+                                ctxt.findContextualValueDeserializer(
+                                        ctxt.constructType(java.lang.String.class), null);
+                        return tools.jackson.databind.util.ClassUtil.isJacksonStdImpl(deserializer)
+                                ? null
+                                : deserializer;
+                    }
+
+            """;
+
+    private final Set<String> modulePackages = new HashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            return false;
+        }
+
+        List<TypeElement> records = new ArrayList<>();
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() == ElementKind.RECORD) {
+                    records.add((TypeElement) element);
+                } else {
+                    processingEnv
+                            .getMessager()
+                            .printMessage(
+                                    Diagnostic.Kind.ERROR,
+                                    "@JsonCodec is only supported on records",
+                                    element);
+                }
+            }
+        }
+
+        // A codec calls the codec of a nested record directly only if that one is generated too
+        Set<String> supported = new HashSet<>();
+        for (TypeElement record : records) {
+            try {
+                generate(record, Set.of());
+                supported.add(record.getQualifiedName().toString());
+            } catch (UnsupportedCodecException e) {
+                processingEnv
+                        .getMessager()
+                        .printMessage(
+                                Diagnostic.Kind.NOTE,
+                                "No generated JSON codec for "
+                                        + record.getQualifiedName()
+                                        + " (reflective binding is used instead): "
+                                        + e.getMessage(),
+                                record);
+            }
+        }
+
+        Map<String, List<TypeElement>> packages = new LinkedHashMap<>();
+        for (TypeElement record : records) {
+            if (supported.contains(record.getQualifiedName().toString())) {
+                writeSource(qualifiedCodecName(record), generate(record, supported), record);
+                packages.computeIfAbsent(packageName(record), p -> new ArrayList<>()).add(record);
+            }
+        }
+        packages.forEach(
+                (packageName, codecs) -> {
+                    if (modulePackages.add(packageName)) {
+                        writeSource(
+                                qualifiedName(packageName, MODULE_CLASS_NAME),
+                                generateModule(packageName, codecs),
+                                codecs.toArray(new Element[0]));
+                    } else {
+                        processingEnv
+                                .getMessager()
+                                .printMessage(
+                                        Diagnostic.Kind.ERROR,
+                                        "@JsonCodec records of "
+                                                + packageName
+                                                + " must be compiled in one round",
+                                        codecs.getFirst());
+                    }
+                });
+        return false;
+    }
+
+    /** Returns the simple name of the generated codec class for a record. */
+    static String codecSimpleName(TypeElement record) {
+        return HttpExchangeClientProcessor.generatedSimpleName(record) + CODEC_SUFFIX;
+    }
+
+    private String qualifiedCodecName(TypeElement record) {
+        return qualifiedName(packageName(record), codecSimpleName(record));
+    }
+
+    private void writeSource(String qualifiedName, String source, Element... originatingElements) {
+        try (Writer writer =
+                processingEnv
+                        .getFiler()
+                        .createSourceFile(qualifiedName, originatingElements)
+                        .openWriter()) {
+            writer.write(source);
+        } catch (IOException e) {
+            processingEnv
+                    .getMessager()
+                    .printMessage(
+                            Diagnostic.Kind.ERROR,
+                            "Failed to write " + qualifiedName + ": " + e.getMessage(),
+                            originatingElements[0]);
+        }
+    }
+
+    private String generateModule(String packageName, List<TypeElement> records) {
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("/** Registers the compile-time JSON codecs of this package. */\n")
+                .append("@javax.annotation.processing.Generated(\"")
+                .append(JsonCodecProcessor.class.getName())
+                .append("\")\n")
+                .append("public final class ")
+                .append(MODULE_CLASS_NAME)
+                .append(" {\n\n")
+                .append("    private ")
+                .append(MODULE_CLASS_NAME)
+                .append("() {}\n\n")
+                .append("    public static tools.jackson.databind.JacksonModule module() {\n")
+                .append("        tools.jackson.databind.module.SimpleModule module =\n")
+                .append("                new tools.jackson.databind.module.SimpleModule(\"")
+                .append(qualifiedName(packageName, MODULE_CLASS_NAME))
+                .append("\");\n");
+        for (TypeElement record : records) {
+            String codec = codecSimpleName(record);
+            source.append("        module.addDeserializer(")
+                    .append(record.getQualifiedName())
+                    .append(".class, ")
+                    .append(codec)
+                    .append(".DESERIALIZER);\n")
+                    .append("        module.addSerializer(")
+                    .append(record.getQualifiedName())
+                    .append(".class, ")
+                    .append(codec)
+                    .append(".SERIALIZER);\n");
+        }
+        source.append("        return module;\n").append("    }\n").append("}\n");
+        return source.toString();
+    }
+
+    private String generate(TypeElement record, Set<String> supported) {
+        if (!record.getTypeParameters().isEmpty()) {
+            throw new UnsupportedCodecException("generic records are not supported");
+        }
+        if (!checkJacksonAnnotations(record, record.getSimpleName().toString()).isEmpty()) {
+            throw new UnsupportedCodecException("type-level Jackson annotations are not supported");
+        }
+
+        String recordName = record.getQualifiedName().toString();
+        String className = codecSimpleName(record);
+        List<String> constants = new ArrayList<>();
+        List<String> lookups = new ArrayList<>();
+        List<String> serializerLookups = new ArrayList<>();
+        StringBuilder componentTypes = new StringBuilder();
+        Set<String> propertyNames = new HashSet<>();
+        StringBuilder locals = new StringBuilder();
+        StringBuilder cases = new StringBuilder();
+        StringBuilder arguments = new StringBuilder();
+        StringBuilder writes = new StringBuilder();
+
+        List<? extends RecordComponentElement> components = record.getRecordComponents();
+        for (int i = 0; i < components.size(); i++) {
+            RecordComponentElement component = components.get(i);
+            TypeMirror type = component.asType();
+            String local = "_" + component.getSimpleName();
+            if (type.getKind() == TypeKind.TYPEVAR
+                    || type.getKind() == TypeKind.WILDCARD
+                    || type.getKind() == TypeKind.ERROR) {
+                throw new UnsupportedCodecException(
+                        component.getSimpleName() + " has the unsupported type " + type);
+            }
+
+            String propertyName = component.getSimpleName().toString();
+            TypeMirror deserializer = null;
+            for (Element element : annotatedElements(record, component)) {
+                for (AnnotationMirror mirror :
+                        checkJacksonAnnotations(element, component.getSimpleName().toString())) {
+                    if (!annotationName(mirror).equals(JSON_PROPERTY)) {
+                        deserializer = (TypeMirror) attribute(mirror, "using").getValue();
+                    } else if (!stringValue(mirror, "value").isEmpty()) {
+                        propertyName = stringValue(mirror, "value");
+                    }
+                }
+            }
+            if (deserializer != null && type.getKind().isPrimitive()) {
+                throw new UnsupportedCodecException(
+                        component.getSimpleName() + " uses @JsonDeserialize on a primitive");
+            }
+            if (!propertyNames.add(propertyName)) {
+                throw new UnsupportedCodecException(
+                        "property '" + propertyName + "' is declared twice");
+            }
+            String nameConstant = "NAME_" + i;
+            constants.add(
+                    "private static final tools.jackson.core.io.SerializedString "
+                            + nameConstant
+                            + " =\n            new tools.jackson.core.io.SerializedString(\""
+                            + escape(propertyName)
+                            + "\");");
+
+            locals.append("            ")
+                    .append(type)
+                    .append(' ')
+                    .append(local)
+                    .append(" = ")
+                    .append(defaultValue(type))
+                    .append(";\n");
+            cases.append("                    case \"")
+                    .append(escape(propertyName))
+                    .append("\" -> ")
+                    .append(local)
+                    .append(" = ")
+                    .append(
+                            (deserializer != null)
+                                    ? usingExpression(type, deserializer, constants)
+                                    : readExpression(record, type, constants, lookups, supported))
+                    .append(";\n");
+            arguments.append((i > 0) ? ", " : "").append(local);
+            componentTypes.append((i > 0) ? ", " : "").append(erasure(type)).append(".class");
+            writes.append(
+                    writeStatements(
+                            record, component, type, i, local, serializerLookups, supported));
+        }
+
+        String packageName = packageName(record);
+        StringBuilder source = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("/** Compile-time JSON serializer and deserializer for {@link ")
+                .append(recordName)
+                .append("}. */\n")
+                .append("@javax.annotation.processing.Generated(\"")
+                .append(JsonCodecProcessor.class.getName())
+                .append("\")\n")
+                .append("public final class ")
+                .append(className)
+                .append(" {\n\n")
+                .append("    public static final tools.jackson.databind.ValueDeserializer<")
+                .append(recordName)
+                .append(">\n            DESERIALIZER = new Deserializer();\n\n")
+                .append("    public static final tools.jackson.databind.ValueSerializer<")
+                .append(recordName)
+                .append(">\n            SERIALIZER = new Serializer();\n\n")
+                .append("    private static final java.lang.Class<?>[] COMPONENT_TYPES = {")
+                .append(componentTypes)
+                .append("};\n\n");
+        for (String constant : constants) {
+            source.append("    ").append(constant).append("\n");
+        }
+        if (!constants.isEmpty()) {
+            source.append("\n");
+        }
+        source.append("    private ")
+                .append(className)
+                .append("() {}\n\n")
+                .append("    static final class Deserializer\n")
+                .append("            extends tools.jackson.databind.ValueDeserializer<")
+                .append(recordName)
+                .append("> {\n\n")
+                .append(contextualMembers(recordName, lookups))
+                .append("        @Override\n")
+                .append(lookups.isEmpty() ? "" : "        @SuppressWarnings(\"unchecked\")\n")
+                .append("        public ")
+                .append(recordName)
+                .append(" deserialize(\n")
+                .append("                tools.jackson.core.JsonParser p,\n")
+                .append("                tools.jackson.databind.DeserializationContext ctxt) {\n")
+                .append("            java.lang.String name;\n")
+                .append("            if (p.isExpectedStartObjectToken()) {\n")
+                .append("                name = p.nextName();\n")
+                .append("            } else if (p.currentToken() == ")
+                .append(TOKEN)
+                .append("PROPERTY_NAME) {\n")
+                .append("                name = p.currentName();\n")
+                .append("            } else {\n")
+                .append("                return (")
+                .append(recordName)
+                .append(") ctxt.handleUnexpectedToken(")
+                .append(recordName)
+                .append(".class, p);\n")
+                .append("            }\n")
+                .append(locals)
+                .append("            for (; name != null; name = p.nextName()) {\n")
+                .append("                tools.jackson.core.JsonToken token = p.nextToken();\n")
+                .append("                switch (name) {\n")
+                .append(cases)
+                .append("                    default -> ctxt.handleUnknownProperty(p, this, ")
+                .append(recordName)
+                .append(".class, name);\n")
+                .append("                }\n")
+                .append("            }\n")
+                .append("            return new ")
+                .append(recordName)
+                .append("(")
+                .append(arguments)
+                .append(");\n")
+                .append("        }\n")
+                .append("    }\n\n")
+                .append("    static final class Serializer\n")
+                .append("            extends tools.jackson.databind.ValueSerializer<")
+                .append(recordName)
+                .append("> {\n\n")
+                .append(serializerMembers(recordName, components.size(), serializerLookups))
+                .append("        @Override\n")
+                .append("        public void serialize(\n")
+                .append("                ")
+                .append(recordName)
+                .append(" value,\n")
+                .append("                tools.jackson.core.JsonGenerator gen,\n")
+                .append("                tools.jackson.databind.SerializationContext ctxt) {\n")
+                .append("            gen.writeStartObject(value, ")
+                .append(components.size())
+                .append(");\n")
+                .append(writes)
+                .append("            gen.writeEndObject();\n")
+                .append("        }\n")
+                .append("    }\n")
+                .append("}\n");
+        return source.toString();
+    }
+
+    /**
+     * Members that look up the deserializers of JDK component types, nested records and a custom
+     * {@code String} deserializer once per mapper rather than once per value. Types that may refer
+     * back to the record are still looked up per value, so recursive records cannot recurse in
+     * {@code createContextual}. A mapper that renames properties or matches them ignoring case gets
+     * Jackson's bean deserializer for the record, since the generated code matches the declared
+     * names exactly.
+     */
+    private static String contextualMembers(String recordName, List<String> lookups) {
+        String type = "tools.jackson.databind.ValueDeserializer<?>";
+        StringBuilder fields = new StringBuilder();
+        StringBuilder parameters = new StringBuilder();
+        StringBuilder assignments = new StringBuilder();
+        StringBuilder nulls = new StringBuilder();
+        StringBuilder lookupArguments = new StringBuilder();
+        for (int i = 0; i < lookups.size(); i++) {
+            String separator = (i > 0) ? ", " : "";
+            fields.append("        private final ")
+                    .append(type)
+                    .append(" deserializer")
+                    .append(i)
+                    .append(";\n");
+            parameters.append(separator).append(type).append(" deserializer").append(i);
+            assignments
+                    .append("            this.deserializer")
+                    .append(i)
+                    .append(" = deserializer")
+                    .append(i)
+                    .append(";\n");
+            nulls.append(separator).append("null");
+            lookupArguments
+                    .append((i > 0) ? ",\n" : "")
+                    .append("                    ")
+                    .append(lookups.get(i));
+        }
+        String constructors =
+                lookups.isEmpty()
+                        ? ""
+                        : "        // Resolved by createContextual; null if the static instance is called directly\n"
+                                + fields
+                                + "\n        Deserializer() {\n"
+                                + "            this("
+                                + nulls
+                                + ");\n"
+                                + "        }\n\n"
+                                + "        private Deserializer("
+                                + parameters
+                                + ") {\n"
+                                + assignments
+                                + "        }\n\n";
+        String contextual =
+                lookups.isEmpty()
+                        ? "            return this;\n"
+                        : "            return new Deserializer(\n" + lookupArguments + ");\n";
+        return constructors
+                + "        @Override\n"
+                + "        public tools.jackson.databind.ValueDeserializer<?> createContextual(\n"
+                + "                tools.jackson.databind.DeserializationContext ctxt,\n"
+                + "                tools.jackson.databind.BeanProperty property) {\n"
+                + "            if (ctxt.getConfig().getPropertyNamingStrategy() != null\n"
+                + "                    || ctxt.getConfig().isEnabled(\n"
+                + "                            tools.jackson.databind.MapperFeature.ACCEPT_CASE_INSENSITIVE_PROPERTIES)) {\n"
+                + "                return beanDeserializer(ctxt, property);\n"
+                + "            }\n"
+                + contextual
+                + "        }\n\n"
+                + "        private static tools.jackson.databind.ValueDeserializer<?> beanDeserializer(\n"
+                + "                tools.jackson.databind.DeserializationContext ctxt,\n"
+                + "                tools.jackson.databind.BeanProperty property) {\n"
+                + "            tools.jackson.databind.JavaType type = ctxt.constructType("
+                + recordName
+                + ".class);\n"
+                + "            // Builds the bean deserializer without asking the modules, which would return this\n"
+                + "            tools.jackson.databind.ValueDeserializer<java.lang.Object> deserializer =\n"
+                + "                    tools.jackson.databind.deser.BeanDeserializerFactory.instance\n"
+                + "                            .buildBeanDeserializer(\n"
+                + "                                    ctxt, type, ctxt.lazyIntrospectBeanDescriptionForCreation(type));\n"
+                + "            deserializer.resolve(ctxt);\n"
+                + "            return deserializer.createContextual(ctxt, property);\n"
+                + "        }\n\n"
+                + (lookups.contains(STRING_DESERIALIZER_LOOKUP) ? STRING_DESERIALIZER_METHOD : "");
+    }
+
+    /** The index of the field holding a lookup's result, adding the lookup if it is new. */
+    private static int lookup(List<String> lookups, String lookup) {
+        int index = lookups.indexOf(lookup);
+        if (index < 0) {
+            index = lookups.size();
+            lookups.add(lookup);
+        }
+        return index;
+    }
+
+    /** The value read by a component's {@code @JsonDeserialize(using = ...)} deserializer. */
+    private String usingExpression(
+            TypeMirror type, TypeMirror deserializer, List<String> constants) {
+        String constant = "USING_" + constants.size();
+        constants.add(
+                "private static final "
+                        + deserializer
+                        + " "
+                        + constant
+                        + " =\n            new "
+                        + deserializer
+                        + "();");
+        return tokenIs("VALUE_NULL")
+                + " ? null : ("
+                + type
+                + ") "
+                + constant
+                + ".deserialize(p, ctxt)";
+    }
+
+    /** The value read for a component, with the parser on the value's first token. */
+    private String readExpression(
+            TypeElement record,
+            TypeMirror type,
+            List<String> constants,
+            List<String> lookups,
+            Set<String> supported) {
+        String number =
+                "(" + tokenIs("VALUE_NUMBER_FLOAT") + " || " + tokenIs("VALUE_NUMBER_INT") + ")";
+        String bool = "(" + tokenIs("VALUE_TRUE") + " || " + tokenIs("VALUE_FALSE") + ")";
+        if (type.getKind().isPrimitive()) {
+            // The primitive deserializer turns null into the default, or fails if so configured
+            String fallback = "ctxt.readValue(p, " + type + ".class)";
+            return switch (type.getKind()) {
+                case LONG -> tokenIs("VALUE_NUMBER_INT") + " ? p.getLongValue() : " + fallback;
+                case INT -> tokenIs("VALUE_NUMBER_INT") + " ? p.getIntValue() : " + fallback;
+                case DOUBLE -> number + " ? p.getDoubleValue() : " + fallback;
+                case BOOLEAN -> bool + " ? " + tokenIs("VALUE_TRUE") + " : " + fallback;
+                default -> fallback;
+            };
+        }
+
+        String orNull = tokenIs("VALUE_NULL") + " ? null : ";
+        if (isType(type, "java.lang.String")) {
+            String deserializer = "deserializer" + lookup(lookups, STRING_DESERIALIZER_LOOKUP);
+            return tokenIs("VALUE_STRING")
+                    + " ? (("
+                    + deserializer
+                    + " == null) ? p.getString() : (java.lang.String) "
+                    + deserializer
+                    + ".deserialize(p, ctxt)) : "
+                    + orNull
+                    + "ctxt.readValue(p, java.lang.String.class)";
+        }
+        if (isType(type, "java.lang.Long")) {
+            return tokenIs("VALUE_NUMBER_INT")
+                    + " ? java.lang.Long.valueOf(p.getLongValue()) : "
+                    + orNull
+                    + "ctxt.readValue(p, java.lang.Long.class)";
+        }
+        if (isType(type, "java.lang.Integer")) {
+            return tokenIs("VALUE_NUMBER_INT")
+                    + " ? java.lang.Integer.valueOf(p.getIntValue()) : "
+                    + orNull
+                    + "ctxt.readValue(p, java.lang.Integer.class)";
+        }
+        if (isType(type, "java.lang.Double")) {
+            return number
+                    + " ? java.lang.Double.valueOf(p.getDoubleValue()) : "
+                    + orNull
+                    + "ctxt.readValue(p, java.lang.Double.class)";
+        }
+        if (isType(type, "java.lang.Boolean")) {
+            return bool
+                    + " ? java.lang.Boolean.valueOf"
+                    + tokenIs("VALUE_TRUE")
+                    + " : "
+                    + orNull
+                    + "ctxt.readValue(p, java.lang.Boolean.class)";
+        }
+        String codec = nestedCodec(type, supported);
+        if (codec != null) {
+            String direct = codec + ".DESERIALIZER.deserialize(p, ctxt)";
+            if (!nestedRecordsEnd(
+                    (TypeElement) ((DeclaredType) type).asElement(), record, supported)) {
+                return orNull + direct;
+            }
+            String deserializer =
+                    "deserializer"
+                            + lookup(lookups, codec + ".DESERIALIZER.createContextual(ctxt, null)");
+            return orNull
+                    + "("
+                    + deserializer
+                    + " != null) ? ("
+                    + type
+                    + ") "
+                    + deserializer
+                    + ".deserialize(p, ctxt) : "
+                    + direct;
+        }
+        String typeReference = typeReference(type, constants);
+        if (!isJdkType(type)) {
+            return orNull + "ctxt.readValue(p, " + typeReference + ")";
+        }
+        String deserializer =
+                "deserializer"
+                        + lookup(
+                                lookups,
+                                "ctxt.findContextualValueDeserializer("
+                                        + (typeReference.endsWith(".class")
+                                                ? "ctxt.constructType(" + typeReference + ")"
+                                                : "ctxt.getTypeFactory().constructType("
+                                                        + typeReference
+                                                        + ")")
+                                        + ", null)");
+        return orNull
+                + "("
+                + deserializer
+                + " != null) ? ("
+                + type
+                + ") "
+                + deserializer
+                + ".deserialize(p, ctxt) : ctxt.readValue(p, "
+                + typeReference
+                + ")";
+    }
+
+    /**
+     * Whether following the nested records of a nested record never leads back to the outer record
+     * or around a loop, so their {@code createContextual} calls terminate.
+     */
+    private boolean nestedRecordsEnd(TypeElement nested, TypeElement outer, Set<String> supported) {
+        return nestedRecordsEnd(
+                nested, new HashSet<>(Set.of(outer.getQualifiedName().toString())), supported);
+    }
+
+    private boolean nestedRecordsEnd(TypeElement record, Set<String> path, Set<String> supported) {
+        if (!path.add(record.getQualifiedName().toString())) {
+            return false;
+        }
+        for (RecordComponentElement component : record.getRecordComponents()) {
+            TypeMirror type = component.asType();
+            if (nestedCodec(type, supported) != null
+                    && !nestedRecordsEnd(
+                            (TypeElement) ((DeclaredType) type).asElement(), path, supported)) {
+                return false;
+            }
+        }
+        path.remove(record.getQualifiedName().toString());
+        return true;
+    }
+
+    /** Whether a type and its type arguments are all JDK types, which never refer to a record. */
+    private boolean isJdkType(TypeMirror type) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            return isJdkType(((javax.lang.model.type.ArrayType) type).getComponentType());
+        }
+        if (type.getKind().isPrimitive()) {
+            return true;
+        }
+        if (type.getKind() != TypeKind.DECLARED || !erasure(type).startsWith("java.")) {
+            return false;
+        }
+        for (TypeMirror argument : ((DeclaredType) type).getTypeArguments()) {
+            if (!isJdkType(argument)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String writeStatements(
+            TypeElement record,
+            RecordComponentElement component,
+            TypeMirror type,
+            int index,
+            String local,
+            List<String> serializerLookups,
+            Set<String> supported) {
+        String accessor = "value." + component.getSimpleName() + "()";
+        String writeName = "gen.writeName(NAME_" + index + ");";
+        if (type.getKind().isPrimitive()) {
+            return "            "
+                    + writeName
+                    + "\n            "
+                    + switch (type.getKind()) {
+                        case BOOLEAN -> "gen.writeBoolean(" + accessor + ");\n";
+                        case LONG, INT, SHORT, DOUBLE, FLOAT ->
+                                "gen.writeNumber(" + accessor + ");\n";
+                        default -> "ctxt.writeValue(gen, " + accessor + ");\n";
+                    };
+        }
+
+        String write;
+        String codec = nestedCodec(type, supported);
+        if (isType(type, "java.lang.String")) {
+            write = "gen.writeString(" + local + ");";
+        } else if (isType(type, "java.lang.Long")
+                || isType(type, "java.lang.Integer")
+                || isType(type, "java.lang.Double")) {
+            write = "gen.writeNumber(" + local + ");";
+        } else if (isType(type, "java.lang.Boolean")) {
+            write = "gen.writeBoolean(" + local + ");";
+        } else if (codec != null
+                && nestedRecordsEnd(
+                        (TypeElement) ((DeclaredType) type).asElement(), record, supported)) {
+            String serializer =
+                    "serializer"
+                            + lookup(
+                                    serializerLookups,
+                                    "ctxt.findTypedValueSerializer("
+                                            + erasure(type)
+                                            + ".class, true)");
+            write =
+                    "if ("
+                            + serializer
+                            + " != null) {\n"
+                            + "                    "
+                            + serializer
+                            + ".serialize("
+                            + local
+                            + ", gen, ctxt);\n"
+                            + "                } else {\n"
+                            + "                    "
+                            + codec
+                            + ".SERIALIZER.serialize("
+                            + local
+                            + ", gen, ctxt);\n"
+                            + "                }";
+        } else {
+            // Other types, and nested records that may lead back here, go through the context
+            write = "ctxt.writeValue(gen, " + local + ");";
+        }
+        return "            "
+                + type
+                + " "
+                + local
+                + " = "
+                + accessor
+                + ";\n"
+                + "            if ("
+                + local
+                + " != null) {\n"
+                + "                "
+                + writeName
+                + "\n"
+                + "                "
+                + write
+                + "\n"
+                + "            } else if (!skipNulls["
+                + index
+                + "]) {\n"
+                + "                "
+                + writeName
+                + "\n"
+                + "                gen.writeNull();\n"
+                + "            }\n";
+    }
+
+    /**
+     * Members that apply the mapper's property inclusion: ALWAYS and NON_NULL are written by the
+     * generated code, any other inclusion or a property naming strategy falls back to Jackson's
+     * bean serializer for the record. Nested records that cannot lead back to the record are looked
+     * up once per mapper.
+     */
+    private static String serializerMembers(
+            String recordName, int componentCount, List<String> serializerLookups) {
+        String type = "tools.jackson.databind.ValueSerializer<java.lang.Object>";
+        StringBuilder fields = new StringBuilder("        private final boolean[] skipNulls;\n");
+        StringBuilder parameters = new StringBuilder("boolean[] skipNulls");
+        StringBuilder assignments = new StringBuilder("            this.skipNulls = skipNulls;\n");
+        StringBuilder nulls = new StringBuilder("new boolean[" + componentCount + "]");
+        StringBuilder lookupArguments = new StringBuilder("skipNulls");
+        for (int i = 0; i < serializerLookups.size(); i++) {
+            fields.append("        private final ")
+                    .append(type)
+                    .append(" serializer")
+                    .append(i)
+                    .append(";\n");
+            parameters.append(", ").append(type).append(" serializer").append(i);
+            assignments
+                    .append("            this.serializer")
+                    .append(i)
+                    .append(" = serializer")
+                    .append(i)
+                    .append(";\n");
+            nulls.append(", null");
+            lookupArguments.append(",\n                    ").append(serializerLookups.get(i));
+        }
+        return "        // Resolved by createContextual; the static instance writes every null\n"
+                + fields
+                + "\n        Serializer() {\n"
+                + "            this("
+                + nulls
+                + ");\n"
+                + "        }\n\n"
+                + "        private Serializer("
+                + parameters
+                + ") {\n"
+                + assignments
+                + "        }\n\n"
+                + "        @Override\n"
+                + "        public tools.jackson.databind.ValueSerializer<?> createContextual(\n"
+                + "                tools.jackson.databind.SerializationContext ctxt,\n"
+                + "                tools.jackson.databind.BeanProperty property) {\n"
+                + "            if (ctxt.getConfig().getPropertyNamingStrategy() != null) {\n"
+                + "                return beanSerializer(ctxt, property);\n"
+                + "            }\n"
+                + "            boolean[] skipNulls = new boolean[COMPONENT_TYPES.length];\n"
+                + "            for (int i = 0; i < COMPONENT_TYPES.length; i++) {\n"
+                + "                switch (ctxt.getConfig()\n"
+                + "                        .getDefaultInclusion("
+                + recordName
+                + ".class, COMPONENT_TYPES[i])\n"
+                + "                        .getValueInclusion()) {\n"
+                + "                    case ALWAYS, USE_DEFAULTS -> {}\n"
+                + "                    case NON_NULL -> skipNulls[i] = true;\n"
+                + "                    default -> {\n"
+                + "                        return beanSerializer(ctxt, property);\n"
+                + "                    }\n"
+                + "                }\n"
+                + "            }\n"
+                + "            return new Serializer(\n"
+                + "                    "
+                + lookupArguments
+                + ");\n"
+                + "        }\n\n"
+                + "        private static tools.jackson.databind.ValueSerializer<?> beanSerializer(\n"
+                + "                tools.jackson.databind.SerializationContext ctxt,\n"
+                + "                tools.jackson.databind.BeanProperty property) {\n"
+                + "            tools.jackson.databind.JavaType type = ctxt.constructType("
+                + recordName
+                + ".class);\n"
+                + "            tools.jackson.databind.ValueSerializer<java.lang.Object> serializer =\n"
+                + "                    tools.jackson.databind.ser.BeanSerializerFactory.instance\n"
+                + "                            .createSerializer(\n"
+                + "                                    ctxt, type, ctxt.lazyIntrospectBeanDescription(type), null);\n"
+                + "            serializer.resolve(ctxt);\n"
+                + "            return serializer.createContextual(ctxt, property);\n"
+                + "        }\n\n";
+    }
+
+    private String nestedCodec(TypeMirror type, Set<String> supported) {
+        if (type.getKind() != TypeKind.DECLARED
+                || !supported.contains(erasure(type))
+                || !(((DeclaredType) type).asElement() instanceof TypeElement record)) {
+            return null;
+        }
+        return qualifiedCodecName(record);
+    }
+
+    private String typeReference(TypeMirror type, List<String> constants) {
+        String erasure = erasure(type);
+        if (erasure.equals(type.toString())) {
+            return erasure + ".class";
+        }
+        String declaration = "tools.jackson.core.type.TypeReference<" + type + "> ";
+        // Components of the same generic type share one type reference
+        for (String existing : constants) {
+            if (existing.startsWith("private static final " + declaration)) {
+                return existing.substring(
+                        ("private static final " + declaration).length(),
+                        existing.indexOf(" =", declaration.length()));
+            }
+        }
+        String constant = "TYPE_" + constants.size();
+        constants.add(
+                "private static final "
+                        + declaration
+                        + constant
+                        + " =\n            new tools.jackson.core.type.TypeReference<>() {};");
+        return constant;
+    }
+
+    private String tokenIs(String token) {
+        return "(token == " + TOKEN + token + ")";
+    }
+
+    private static String defaultValue(TypeMirror type) {
+        return switch (type.getKind()) {
+            case BOOLEAN -> "false";
+            case LONG -> "0L";
+            case FLOAT -> "0F";
+            case DOUBLE -> "0D";
+            case CHAR -> "'\\0'";
+            case BYTE, SHORT, INT -> "0";
+            default -> "null";
+        };
+    }
+
+    /** The elements a component's annotations are propagated to. */
+    private List<Element> annotatedElements(TypeElement record, RecordComponentElement component) {
+        List<Element> elements = new ArrayList<>();
+        elements.add(component);
+        if (component.getAccessor() != null) {
+            elements.add(component.getAccessor());
+        }
+        for (Element member : record.getEnclosedElements()) {
+            if (member.getKind() == ElementKind.FIELD
+                    && member.getSimpleName().contentEquals(component.getSimpleName())) {
+                elements.add(member);
+            }
+            if (member.getKind() == ElementKind.CONSTRUCTOR
+                    && ((ExecutableElement) member).getParameters().size()
+                            == record.getRecordComponents().size()) {
+                for (Element parameter : ((ExecutableElement) member).getParameters()) {
+                    if (parameter.getSimpleName().contentEquals(component.getSimpleName())) {
+                        elements.add(parameter);
+                    }
+                }
+            }
+        }
+        return elements;
+    }
+
+    /**
+     * Fails on Jackson annotations the generated code would not honor.
+     *
+     * @return the {@code @JsonProperty} and {@code @JsonDeserialize(using = ...)} annotations
+     */
+    private List<AnnotationMirror> checkJacksonAnnotations(Element element, String name) {
+        List<AnnotationMirror> supported = new ArrayList<>();
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            String annotationName = annotationName(mirror);
+            if (annotationName.equals(JSON_PROPERTY)
+                    || (annotationName.equals(JSON_DESERIALIZE) && onlyUsing(mirror))) {
+                supported.add(mirror);
+            } else if (annotationName.startsWith(JACKSON_ANNOTATION_PACKAGE)
+                    || annotationName.startsWith(JACKSON_DATABIND_PACKAGE)) {
+                throw new UnsupportedCodecException(
+                        name + " uses @" + mirror.getAnnotationType().asElement().getSimpleName());
+            }
+        }
+        return supported;
+    }
+
+    private static boolean onlyUsing(AnnotationMirror mirror) {
+        Map<? extends ExecutableElement, ? extends AnnotationValue> values =
+                mirror.getElementValues();
+        return values.size() == 1
+                && values.keySet().iterator().next().getSimpleName().contentEquals("using");
+    }
+
+    private static String annotationName(AnnotationMirror mirror) {
+        return ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString();
+    }
+
+    private boolean isType(TypeMirror type, String qualifiedName) {
+        return type.getKind() == TypeKind.DECLARED && erasure(type).equals(qualifiedName);
+    }
+
+    private String erasure(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    private String packageName(Element element) {
+        return processingEnv.getElementUtils().getPackageOf(element).getQualifiedName().toString();
+    }
+
+    private static String qualifiedName(String packageName, String simpleName) {
+        return packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+    }
+
+    private AnnotationValue attribute(AnnotationMirror mirror, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry :
+                processingEnv.getElementUtils().getElementValuesWithDefaults(mirror).entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private String stringValue(AnnotationMirror mirror, String name) {
+        AnnotationValue value = attribute(mirror, name);
+        return (value != null && value.getValue() instanceof String string) ? string : "";
+    }
+
+    private static String escape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"' -> escaped.append("\\\"");
+                case '\\' -> escaped.append("\\\\");
+                case '\n' -> escaped.append("\\n");
+                case '\t' -> escaped.append("\\t");
+                default -> escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static class UnsupportedCodecException extends RuntimeException {
+        UnsupportedCodecException(String message) {
+            super(message);
+        }
+    }
+}
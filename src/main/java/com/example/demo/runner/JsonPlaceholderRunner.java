@@ -5,7 +5,9 @@ import java.util.List;
 import com.example.demo.client.jph.JsonPlaceholderClient;
 import com.example.demo.model.Comment;
 import com.example.demo.model.Post;
+import com.example.demo.model.PostSummary;
 import com.example.demo.model.User;
+import com.example.demo.model.UserContact;
 
 import org.springframework.boot.CommandLineRunner;
 
@@ -100,6 +102,24 @@ public class JsonPlaceholderRunner implements CommandLineRunner {
             System.out.println("   Message: " + e.getMessage());
         }
 
+        // Test 11: Get post summaries (projection)
+        System.out.println("\n11. Fetching post summaries (id and title only, first 5):");
+        List<PostSummary> summaries = jsonPlaceholderClient.getPostSummaries();
+        summaries.stream()
+                .limit(5)
+                .forEach(
+                        summary ->
+                                System.out.println(
+                                        "   - Post #" + summary.id() + ": " + summary.title()));
+
+        // Test 12: Get user contacts (projection)
+        System.out.println("\n12. Fetching user contacts (no address or company):");
+        List<UserContact> contacts = jsonPlaceholderClient.getUserContacts();
+        contacts.forEach(
+                contact ->
+                        System.out.println(
+                                "   - " + contact.name() + " <" + contact.email() + ">"));
+
         System.out.println("\n=== All JSONPlaceholder tests completed! ===\n");
     }
 }
@@ -0,0 +1,201 @@
+package com.example.demo.runner;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import com.example.demo.metrics.LatencyHistogram;
+
+import org.jspecify.annotations.Nullable;
+import org.springframework.web.client.RestClientResponseException;
+
+/**
+ * Open-loop load generator: requests start on a fixed schedule at the target rate, each on its own
+ * virtual thread, whether or not earlier ones have finished. Latency is measured from the scheduled
+ * start, not the actual one, so a stalled upstream shows up as the queueing delay real callers
+ * would see instead of silently lowering the request rate (coordinated omission).
+ *
+ * <p>Each scheduled request picks an operation by weight. Requests due while {@code maxInFlight}
+ * are still running are dropped and counted, which bounds memory when the upstream stops answering.
+ */
+public class LoadGenerator {
+
+    private final List<Operation> operations;
+    private final int totalWeight;
+    private final double rate;
+    private final int maxInFlight;
+
+    /**
+     * Create a generator.
+     *
+     * @param operations the mix to draw from, with weights greater than 0
+     * @param rate the target requests per second over the whole mix
+     * @param maxInFlight the most requests running at once
+     */
+    public LoadGenerator(List<Operation> operations, double rate, int maxInFlight) {
+        if (operations.isEmpty()) {
+            throw new IllegalArgumentException("At least one operation is required");
+        }
+        if (rate <= 0) {
+            throw new IllegalArgumentException("rate must be greater than 0: " + rate);
+        }
+        this.operations = List.copyOf(operations);
+        this.totalWeight = operations.stream().mapToInt(Operation::weight).sum();
+        this.rate = rate;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Run the schedule and wait for the last request to finish.
+     *
+     * @param warmup the time to run before recording
+     * @param duration the time to run while recording
+     * @return the results of the recorded phase
+     */
+    public Result run(Duration warmup, Duration duration) {
+        Map<String, Recorder> recorders = new ConcurrentHashMap<>();
+        operations.forEach(operation -> recorders.put(operation.name(), new Recorder()));
+        AtomicInteger inFlight = new AtomicInteger();
+        long dropped = 0;
+
+        double intervalNanos = 1_000_000_000 / rate;
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long scheduled = start + (long) (i * intervalNanos);
+                if (scheduled >= end) {
+                    break;
+                }
+                long wait;
+                while ((wait = scheduled - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                boolean measured = scheduled >= measureFrom;
+                Operation operation = pick();
+                if (inFlight.get() >= maxInFlight) {
+                    dropped += measured ? 1 : 0;
+                    continue;
+                }
+                inFlight.incrementAndGet();
+                Recorder recorder = measured ? recorders.get(operation.name()) : null;
+                executor.execute(() -> execute(operation, scheduled, recorder, inFlight));
+            }
+        }
+        long elapsedNanos = System.nanoTime() - measureFrom;
+
+        List<OperationResult> results = new ArrayList<>();
+        for (Operation operation : operations) {
+            results.add(recorders.get(operation.name()).result(operation.name()));
+        }
+        return new Result(Duration.ofNanos(elapsedNanos), dropped, results);
+    }
+
+    private static void execute(
+            Operation operation,
+            long scheduled,
+            @Nullable Recorder recorder,
+            AtomicInteger inFlight) {
+        try {
+            operation.call().run();
+            if (recorder != null) {
+                recorder.latency.recordNanos(System.nanoTime() - scheduled);
+                recorder.succeeded.increment();
+            }
+        } catch (RuntimeException e) {
+            if (recorder != null) {
+                recorder.errors.computeIfAbsent(errorType(e), type -> new LongAdder()).increment();
+            }
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private Operation pick() {
+        if (operations.size() == 1) {
+            return operations.getFirst();
+        }
+        int ticket = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Operation operation : operations) {
+            ticket -= operation.weight();
+            if (ticket < 0) {
+                return operation;
+            }
+        }
+        return operations.getLast();
+    }
+
+    private static String errorType(RuntimeException e) {
+        if (e instanceof RestClientResponseException responseException) {
+            return "HTTP " + responseException.getStatusCode().value();
+        }
+        return e.getClass().getSimpleName();
+    }
+
+    /**
+     * One entry of the mix.
+     *
+     * @param name the name reported for it, e.g. {@code jph.getPostById}
+     * @param weight its share of the requests relative to the other operations
+     * @param call the request to make
+     */
+    public record Operation(String name, int weight, Runnable call) {
+
+        public Operation {
+            if (weight <= 0) {
+                throw new IllegalArgumentException("weight of " + name + " must be greater than 0");
+            }
+        }
+    }
+
+    /**
+     * Results of the recorded phase.
+     *
+     * @param elapsed the time from the start of recording until the last request finished
+     * @param dropped requests not sent because {@code maxInFlight} were running
+     * @param operations the results per operation, in mix order
+     */
+    public record Result(Duration elapsed, long dropped, List<OperationResult> operations) {}
+
+    /**
+     * Results of one operation.
+     *
+     * @param name the operation name
+     * @param succeeded requests that completed without an exception
+     * @param errors failed requests by HTTP status or exception type
+     * @param latency latency of the successful requests from their scheduled start
+     */
+    public record OperationResult(
+            String name,
+            long succeeded,
+            Map<String, Long> errors,
+            LatencyHistogram.Snapshot latency) {
+
+        public long getErrorCount() {
+            return errors.values().stream().mapToLong(Long::longValue).sum();
+        }
+    }
+
+    private static final class Recorder {
+
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder succeeded = new LongAdder();
+        private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+        OperationResult result(String name) {
+            Map<String, Long> errorCounts = new TreeMap<>();
+            errors.forEach((type, count) -> errorCounts.put(type, count.sum()));
+            return new OperationResult(name, succeeded.sum(), errorCounts, latency.snapshot());
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.demo.runner;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/** Settings of {@link LoadGeneratorRunner}, active with the {@code loadgen} profile. */
+@ConfigurationProperties(prefix = "loadgen")
+public class LoadGeneratorProperties {
+
+    private double rate = 50; // target requests per second over the whole mix
+    private Duration warmup = Duration.ofSeconds(5); // run at the target rate but not recorded
+    private Duration duration = Duration.ofSeconds(30); // recorded phase
+    private int maxInFlight = 1000; // requests due beyond this are dropped and counted
+    private Path reportDir = Path.of("target/loadgen"); // summary.csv and one .hgrm per operation
+    private Map<String, Integer> mix = new LinkedHashMap<>(); // weight per operation; empty = all
+
+    public double getRate() {
+        return rate;
+    }
+
+    public void setRate(double rate) {
+        this.rate = rate;
+    }
+
+    public Duration getWarmup() {
+        return warmup;
+    }
+
+    public void setWarmup(Duration warmup) {
+        this.warmup = warmup;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public void setDuration(Duration duration) {
+        this.duration = duration;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public Path getReportDir() {
+        return reportDir;
+    }
+
+    public void setReportDir(Path reportDir) {
+        this.reportDir = reportDir;
+    }
+
+    public Map<String, Integer> getMix() {
+        return mix;
+    }
+
+    public void setMix(Map<String, Integer> mix) {
+        this.mix = mix;
+    }
+}
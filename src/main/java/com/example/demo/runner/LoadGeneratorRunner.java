@@ -0,0 +1,189 @@
+package com.example.demo.runner;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.example.demo.client.ara.RestfulApiClient;
+import com.example.demo.client.jph.JsonPlaceholderClient;
+import com.example.demo.metrics.LatencyHistogram;
+import com.example.demo.model.ApiObjectRequest;
+import com.example.demo.model.Post;
+
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drives a weighted mix of service client methods at {@code loadgen.rate} requests per second with
+ * {@link LoadGenerator}, then prints throughput, errors and latency percentiles per method and
+ * writes them to {@code loadgen.report-dir}: {@code summary.csv} plus one HdrHistogram-format
+ * {@code <method>.hgrm} per method.
+ *
+ * <p>Only active with the {@code loadgen} profile, whose properties point the jph and ara groups at
+ * the upstream stub on {@code localhost:1080} rather than the public services.
+ */
+@Component
+@Profile("loadgen")
+@EnableConfigurationProperties(LoadGeneratorProperties.class)
+public class LoadGeneratorRunner implements CommandLineRunner {
+
+    private final Map<String, Runnable> catalog = new LinkedHashMap<>();
+    private final LoadGeneratorProperties properties;
+
+    public LoadGeneratorRunner(
+            JsonPlaceholderClient jsonPlaceholderClient,
+            RestfulApiClient restfulApiClient,
+            LoadGeneratorProperties properties) {
+        this.properties = properties;
+        catalog.put("jph.getAllPosts", jsonPlaceholderClient::getAllPosts);
+        catalog.put("jph.getPostSummaries", jsonPlaceholderClient::getPostSummaries);
+        catalog.put("jph.getPostById", () -> jsonPlaceholderClient.getPostById(1L));
+        catalog.put("jph.getCommentsByPostId", () -> jsonPlaceholderClient.getCommentsByPostId(1L));
+        catalog.put("jph.getUserContacts", jsonPlaceholderClient::getUserContacts);
+        catalog.put("jph.getUserById", () -> jsonPlaceholderClient.getUserById(1L));
+        catalog.put("jph.getPostsByUserId", () -> jsonPlaceholderClient.getPostsByUserId(1L));
+        catalog.put(
+                "jph.createPost",
+                () -> jsonPlaceholderClient.createPost(new Post(null, 1L, "Load", "Generated")));
+        catalog.put("ara.getAllObjects", restfulApiClient::getAllObjects);
+        catalog.put("ara.getObjectById", () -> restfulApiClient.getObjectById("7"));
+        catalog.put(
+                "ara.getObjectsByIds", () -> restfulApiClient.getObjectsByIds(List.of("1", "3")));
+        catalog.put(
+                "ara.createObject",
+                () -> restfulApiClient.createObject(new ApiObjectRequest("Load", Map.of("n", 1))));
+    }
+
+    @Override
+    public void run(String... args) throws IOException {
+        List<LoadGenerator.Operation> operations = operations();
+        System.out.println(
+                "\n=== Load generator: "
+                        + properties.getRate()
+                        + " req/s for "
+                        + properties.getDuration().toSeconds()
+                        + " s after "
+                        + properties.getWarmup().toSeconds()
+                        + " s warm-up ===\n");
+        operations.forEach(
+                operation ->
+                        System.out.println(
+                                "   " + operation.name() + " weight " + operation.weight()));
+
+        LoadGenerator.Result result =
+                new LoadGenerator(operations, properties.getRate(), properties.getMaxInFlight())
+                        .run(properties.getWarmup(), properties.getDuration());
+
+        double seconds = result.elapsed().toNanos() / 1e9;
+        System.out.println();
+        System.out.println(
+                String.format(
+                        Locale.ROOT,
+                        "%-26s %8s %8s %8s %8s %8s %8s %8s %8s",
+                        "method",
+                        "ok",
+                        "errors",
+                        "req/s",
+                        "p50 ms",
+                        "p90 ms",
+                        "p99 ms",
+                        "p999 ms",
+                        "max ms"));
+        List<String> csv = new ArrayList<>();
+        csv.add("method,ok,errors,req_per_s,p50_ms,p90_ms,p99_ms,p999_ms,max_ms,error_types");
+        for (LoadGenerator.OperationResult operation : result.operations()) {
+            LatencyHistogram.Snapshot latency = operation.latency();
+            double throughput = (operation.succeeded() + operation.getErrorCount()) / seconds;
+            System.out.println(
+                    String.format(
+                            Locale.ROOT,
+                            "%-26s %8d %8d %8.1f %8.2f %8.2f %8.2f %8.2f %8.2f%s",
+                            operation.name(),
+                            operation.succeeded(),
+                            operation.getErrorCount(),
+                            throughput,
+                            millis(latency.getValueAtPercentile(50)),
+                            millis(latency.getValueAtPercentile(90)),
+                            millis(latency.getValueAtPercentile(99)),
+                            millis(latency.getValueAtPercentile(99.9)),
+                            millis(latency.getMaxMicros()),
+                            operation.errors().isEmpty() ? "" : "  " + operation.errors()));
+            csv.add(
+                    String.format(
+                            Locale.ROOT,
+                            "%s,%d,%d,%.1f,%.3f,%.3f,%.3f,%.3f,%.3f,\"%s\"",
+                            operation.name(),
+                            operation.succeeded(),
+                            operation.getErrorCount(),
+                            throughput,
+                            millis(latency.getValueAtPercentile(50)),
+                            millis(latency.getValueAtPercentile(90)),
+                            millis(latency.getValueAtPercentile(99)),
+                            millis(latency.getValueAtPercentile(99.9)),
+                            millis(latency.getMaxMicros()),
+                            operation.errors()));
+        }
+        if (result.dropped() > 0) {
+            System.out.println(
+                    "\n   dropped "
+                            + result.dropped()
+                            + " requests with "
+                            + properties.getMaxInFlight()
+                            + " in flight");
+        }
+
+        writeReport(result, csv);
+        System.out.println(
+                "\n=== Load generator finished, report in " + properties.getReportDir() + " ===\n");
+    }
+
+    private List<LoadGenerator.Operation> operations() {
+        Map<String, Integer> mix = properties.getMix();
+        if (mix.isEmpty()) {
+            return catalog.entrySet().stream()
+                    .map(entry -> new LoadGenerator.Operation(entry.getKey(), 1, entry.getValue()))
+                    .toList();
+        }
+        List<LoadGenerator.Operation> operations = new ArrayList<>();
+        mix.forEach(
+                (name, weight) -> {
+                    Runnable call = catalog.get(name);
+                    if (call == null) {
+                        throw new IllegalArgumentException(
+                                "Unknown loadgen.mix operation: "
+                                        + name
+                                        + ", expected one of "
+                                        + catalog.keySet());
+                    }
+                    operations.add(new LoadGenerator.Operation(name, weight, call));
+                });
+        return operations;
+    }
+
+    private void writeReport(LoadGenerator.Result result, List<String> csv) throws IOException {
+        Files.createDirectories(properties.getReportDir());
+        Files.write(properties.getReportDir().resolve("summary.csv"), csv);
+        for (LoadGenerator.OperationResult operation : result.operations()) {
+            try (PrintStream out =
+                    new PrintStream(
+                            Files.newOutputStream(
+                                    properties
+                                            .getReportDir()
+                                            .resolve(operation.name() + ".hgrm")))) {
+                // Milliseconds, the unit HdrHistogram plotters assume by default
+                operation.latency().outputPercentileDistribution(out, 1_000);
+            }
+        }
+    }
+
+    private static double millis(long micros) {
+        return micros / 1_000.0;
+    }
+}
@@ -1,11 +1,35 @@
 package com.example.demo;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.demo.config.restclient.ServiceClientJsonMappers;
+import com.example.demo.model.GeneratedJsonCodecs;
+
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import tools.jackson.databind.JacksonModule;
+import tools.jackson.databind.json.JsonMapper;
+
 @SpringBootTest
 class DemoApplicationTests {
 
+    @Autowired private JsonMapper jsonMapper;
+
+    @Autowired private ServiceClientJsonMappers serviceClientJsonMappers;
+
     @Test
     void contextLoads() {}
+
+    @Test
+    void jsonMapper_shouldUseTheGeneratedJsonCodecsForServiceClientsOnly() {
+        Object generated = GeneratedJsonCodecs.module().getRegistrationId();
+        assertThat(serviceClientJsonMappers.get("jph").registeredModules())
+                .extracting(JacksonModule::getRegistrationId)
+                .contains(generated);
+        assertThat(jsonMapper.registeredModules())
+                .extracting(JacksonModule::getRegistrationId)
+                .doesNotContain(generated);
+    }
 }
@@ -0,0 +1,42 @@
+package com.example.demo.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.example.demo.client.jph.JsonPlaceholderClient;
+import com.example.demo.model.LazyJsonObject;
+import com.example.demo.model.Post;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+class HttpServiceClientRuntimeHintsTest {
+
+    @Test
+    void registerHints_shouldCoverClientsAndModels() {
+        // Given
+        RuntimeHints hints = new RuntimeHints();
+
+        // When
+        new HttpServiceClientRuntimeHints().registerHints(hints, getClass().getClassLoader());
+
+        // Then
+        assertThat(
+                        RuntimeHintsPredicates.proxies()
+                                .forInterfaces(
+                                        AopProxyUtils.completeJdkProxyInterfaces(
+                                                JsonPlaceholderClient.class)))
+                .accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(Post.class)).accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onType(LazyJsonObject.Serializer.class))
+                .accepts(hints);
+        assertThat(
+                        RuntimeHintsPredicates.reflection()
+                                .onType(
+                                        TypeReference.of(
+                                                "com.example.demo.client.jph.GeneratedJsonPlaceholderClient")))
+                .accepts(hints);
+    }
+}
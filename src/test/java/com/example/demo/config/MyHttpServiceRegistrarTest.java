@@ -0,0 +1,203 @@
+package com.example.demo.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import com.example.demo.processor.HttpExchangeClientProcessor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.mock.env.MockEnvironment;
+
+class MyHttpServiceRegistrarTest {
+
+    private static final int SYNTHETIC_INTERFACES = 300;
+    private static final int SYNTHETIC_PACKAGES = 30;
+
+    @Test
+    void registerHttpServices_indexShouldRegisterSameServicesAsScanning() {
+        // Given
+        ClassLoader classLoader = getClass().getClassLoader();
+
+        // When
+        Set<String> indexed = register(new MyHttpServiceRegistrar(), classLoader, true);
+        Set<String> scanned = register(new MyHttpServiceRegistrar(), classLoader, false);
+
+        // Then
+        assertThat(indexed)
+                .contains(
+                        "ara#com.example.demo.client.ara.RestfulApiClient",
+                        "github#com.example.demo.client.github.GithubUserService",
+                        "httpbin#com.example.demo.client.httpbin.HttpBinClient",
+                        "jph#com.example.demo.client.jph.JsonPlaceholderClient",
+                        "otc#com.example.demo.client.otc.SecondGithubUserService")
+                .isEqualTo(scanned);
+    }
+
+    @Test
+    void registerHttpServices_indexShouldMatchScanningWithSyntheticInterfaces(@TempDir Path tempDir)
+            throws IOException {
+        // Given
+        Path classes = compileSyntheticInterfaces(tempDir);
+        Map<String, String> groups = Map.of("synthetic", "bench.synthetic");
+
+        try (URLClassLoader classLoader =
+                new URLClassLoader(
+                        new URL[] {classes.toUri().toURL()}, getClass().getClassLoader())) {
+            // When
+            Set<String> scanned = register(new MyHttpServiceRegistrar(groups), classLoader, false);
+            Set<String> indexed = register(new MyHttpServiceRegistrar(groups), classLoader, true);
+
+            // Then
+            assertThat(indexed)
+                    .hasSizeGreaterThanOrEqualTo(SYNTHETIC_INTERFACES)
+                    .isEqualTo(scanned);
+        }
+    }
+
+    @Test
+    void process_incrementalBuildShouldMergeTheExistingIndex(@TempDir Path tempDir)
+            throws IOException {
+        // Given
+        Path classes = compileSyntheticInterfaces(tempDir);
+        Path source =
+                writeSyntheticInterface(
+                        Files.createDirectories(tempDir.resolve("incremental")),
+                        "bench.synthetic.p0",
+                        SYNTHETIC_INTERFACES);
+
+        // When
+        compile(List.of(source), classes);
+
+        // Then
+        List<String> typeNames =
+                Files.readAllLines(classes.resolve(HttpServiceIndex.INDEX_LOCATION));
+        assertThat(typeNames)
+                .contains(
+                        "bench.synthetic.p0.Service0Client",
+                        "bench.synthetic.p0.Service" + SYNTHETIC_INTERFACES + "Client")
+                .hasSize(SYNTHETIC_INTERFACES + 2);
+    }
+
+    @Test
+    void registerHttpServices_shouldScanPackagesWithStaleIndexEntries(@TempDir Path tempDir)
+            throws IOException {
+        // Given
+        Path classes = compileSyntheticInterfaces(tempDir);
+        Files.delete(classes.resolve("bench/synthetic/p0/Service0Client.class"));
+        Map<String, String> groups = Map.of("synthetic", "bench.synthetic");
+
+        try (URLClassLoader classLoader =
+                new URLClassLoader(
+                        new URL[] {classes.toUri().toURL()}, getClass().getClassLoader())) {
+            // When
+            Set<String> indexed = register(new MyHttpServiceRegistrar(groups), classLoader, true);
+
+            // Then
+            assertThat(indexed)
+                    .doesNotContain("synthetic#bench.synthetic.p0.Service0Client")
+                    .contains("synthetic#bench.synthetic.p0.Service30Client");
+        }
+    }
+
+    private static Set<String> register(
+            MyHttpServiceRegistrar registrar, ClassLoader classLoader, boolean indexEnabled) {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.setBeanClassLoader(classLoader);
+        registrar.setEnvironment(
+                new MockEnvironment()
+                        .withProperty(
+                                MyHttpServiceRegistrar.INDEX_ENABLED_PROPERTY,
+                                String.valueOf(indexEnabled)));
+        registrar.setResourceLoader(new DefaultResourceLoader(classLoader));
+        registrar.setBeanClassLoader(classLoader);
+        registrar.setBeanFactory(beanFactory);
+        registrar.registerBeanDefinitions(
+                AnnotationMetadata.introspect(HttpClientConfig.class), beanFactory);
+        return new TreeSet<>(List.of(beanFactory.getBeanDefinitionNames()));
+    }
+
+    private static Path compileSyntheticInterfaces(Path tempDir) throws IOException {
+        Path sources = Files.createDirectories(tempDir.resolve("src"));
+        Path classes = Files.createDirectories(tempDir.resolve("classes"));
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < SYNTHETIC_INTERFACES; i++) {
+            files.add(
+                    writeSyntheticInterface(
+                            sources, "bench.synthetic.p" + (i % SYNTHETIC_PACKAGES), i));
+        }
+        compile(files, classes);
+        return classes;
+    }
+
+    private static Path writeSyntheticInterface(Path sources, String packageName, int i)
+            throws IOException {
+        Path dir = Files.createDirectories(sources.resolve(packageName.replace('.', '/')));
+        Path file = dir.resolve("Service" + i + "Client.java");
+        Files.writeString(
+                file,
+                """
+                package %s;
+
+                import org.springframework.web.bind.annotation.PathVariable;
+                import org.springframework.web.service.annotation.GetExchange;
+                import org.springframework.web.service.annotation.HttpExchange;
+
+                @HttpExchange("/service%d")
+                public interface Service%dClient {
+
+                    @GetExchange("/items/{id}")
+                    String getItem(@PathVariable String id);
+
+                    @GetExchange("/items")
+                    String getItems();
+                }
+                """
+                        .formatted(packageName, i, i));
+        return file;
+    }
+
+    private static void compile(List<Path> files, Path classes) throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager =
+                compiler.getStandardFileManager(null, null, null)) {
+            Iterable<? extends JavaFileObject> units =
+                    fileManager.getJavaFileObjectsFromPaths(files);
+            JavaCompiler.CompilationTask task =
+                    compiler.getTask(
+                            null,
+                            fileManager,
+                            null,
+                            List.of(
+                                    "-d",
+                                    classes.toString(),
+                                    "-classpath",
+                                    classes
+                                            + File.pathSeparator
+                                            + System.getProperty("java.class.path")),
+                            null,
+                            units);
+            task.setProcessors(List.of(new HttpExchangeClientProcessor()));
+            assertThat(task.call()).as("synthetic interfaces compile").isTrue();
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.demo.config.restclient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Properties;
+
+import com.example.demo.client.jph.JsonPlaceholderClient;
+import com.example.demo.model.Post;
+import com.example.demo.stub.UpstreamStubServer;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.http.client.autoconfigure.HttpClientAutoConfiguration;
+import org.springframework.boot.http.client.autoconfigure.imperative.ImperativeHttpClientAutoConfiguration;
+import org.springframework.boot.http.converter.autoconfigure.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.jackson.autoconfigure.JacksonAutoConfiguration;
+import org.springframework.boot.restclient.autoconfigure.RestClientAutoConfiguration;
+import org.springframework.boot.restclient.autoconfigure.service.HttpServiceClientAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.client.support.RestClientAdapter;
+import org.springframework.web.service.invoker.HttpServiceProxyFactory;
+import org.springframework.web.service.registry.ImportHttpServices;
+
+/**
+ * Bytes allocated on the calling thread per request through the container clients, checked against
+ * the budgets in {@code allocation-budgets.properties}. The container comes from {@link
+ * RestClientContainerAutoConfiguration} with the application's properties (metrics, JFR
+ * interceptor, API version header, default headers, bearer token, pooled http-components transport)
+ * except HttpComponents debug logging, and the jph client calls an {@link UpstreamStubServer},
+ * whose own allocations happen on its event loop and are not counted.
+ *
+ * <p>Allocation counts depend on the JVM and JIT, so the test is tagged {@code allocation} and left
+ * out of the default build; run it with {@code mvn -Pallocation-budgets test}. Each scenario is
+ * warmed up first so JIT compilation settles, then measured in a few rounds; the lowest round
+ * counts. The budgets leave room for JVM differences and catch regressions of several KB, and the
+ * generated client must allocate less than a proxy on the same RestClient.
+ */
+@Tag("allocation")
+@SpringBootTest(
+        classes = AllocationBudgetTest.Config.class,
+        // The application's HttpComponents wire logging would dominate the counts
+        properties = {
+            "logging.level.org.apache.hc.client5.http=INFO",
+            "logging.level.org.apache.hc.client5.http.wire=INFO"
+        },
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class AllocationBudgetTest {
+
+    private static final int WARMUP_CALLS = 2_000;
+    private static final int MEASURED_CALLS = 200;
+    private static final int ROUNDS = 3;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static UpstreamStubServer server;
+    private static Properties budgets;
+
+    @Autowired private RestClientContainer container;
+
+    @DynamicPropertySource
+    static void stubProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.http.serviceclient.jph.base-url", () -> server.baseUrl());
+    }
+
+    @BeforeAll
+    static void setUp() throws IOException {
+        server = UpstreamStubServer.start();
+        budgets = new Properties();
+        try (InputStream in =
+                AllocationBudgetTest.class.getResourceAsStream("/allocation-budgets.properties")) {
+            budgets.load(in);
+        }
+    }
+
+    @AfterAll
+    static void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void containerLookup() {
+        assertWithinBudget("container.get", () -> container.get("jph"));
+    }
+
+    @Test
+    void containerRestClientGet() {
+        assertWithinBudget(
+                "container.rest-client.get-post",
+                () ->
+                        container
+                                .get("jph")
+                                .get()
+                                .uri("/posts/{id}", 1L)
+                                .retrieve()
+                                .body(Post.class));
+    }
+
+    @Test
+    void proxyGet() {
+        JsonPlaceholderClient client = createProxy();
+        assertWithinBudget("proxy.get-post-by-id", () -> client.getPostById(1L));
+    }
+
+    @Test
+    void proxyPost() {
+        JsonPlaceholderClient client = createProxy();
+        Post post = new Post(null, 1L, "Budget", "Allocation budget test");
+        assertWithinBudget("proxy.create-post", () -> client.createPost(post));
+    }
+
+    @Test
+    void generatedClientGet() {
+        JsonPlaceholderClient client =
+                container.getHttpExchangeClient("jph", JsonPlaceholderClient.class);
+        assertWithinBudget("generated.get-post-by-id", () -> client.getPostById(1L));
+    }
+
+    @Test
+    void generatedClientGet_shouldAllocateLessThanTheProxy() {
+        // Given: both on the container's jph RestClient
+        JsonPlaceholderClient generated =
+                container.getHttpExchangeClient("jph", JsonPlaceholderClient.class);
+        JsonPlaceholderClient proxy = createProxy();
+
+        // When
+        long generatedBytes = measure(() -> generated.getPostById(1L));
+        long proxyBytes = measure(() -> proxy.getPostById(1L));
+
+        // Then
+        assertThat(generatedBytes)
+                .as("bytes per call of the generated client vs. %d of the proxy", proxyBytes)
+                .isLessThan(proxyBytes);
+    }
+
+    private JsonPlaceholderClient createProxy() {
+        return HttpServiceProxyFactory.builderFor(RestClientAdapter.create(container.get("jph")))
+                .httpRequestValuesProcessor(ServiceMethodProcessor.INSTANCE)
+                .build()
+                .createClient(JsonPlaceholderClient.class);
+    }
+
+    private static void assertWithinBudget(String scenario, Runnable call) {
+        String budget = budgets.getProperty(scenario);
+        assertThat(budget)
+                .as("budget for %s in allocation-budgets.properties", scenario)
+                .isNotNull();
+
+        long bytesPerCall = measure(call);
+        assertThat(bytesPerCall)
+                .as("bytes allocated per call for %s", scenario)
+                .isLessThanOrEqualTo(Long.parseLong(budget));
+    }
+
+    private static long measure(Runnable call) {
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            call.run();
+        }
+        long threadId = Thread.currentThread().threadId();
+        long lowest = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long before = THREADS.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < MEASURED_CALLS; i++) {
+                call.run();
+            }
+            long allocated = THREADS.getThreadAllocatedBytes(threadId) - before;
+            lowest = Math.min(lowest, allocated / MEASURED_CALLS);
+        }
+        return lowest;
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ImportAutoConfiguration({
+        JacksonAutoConfiguration.class,
+        HttpMessageConvertersAutoConfiguration.class,
+        HttpClientAutoConfiguration.class,
+        ImperativeHttpClientAutoConfiguration.class,
+        RestClientAutoConfiguration.class,
+        HttpServiceClientAutoConfiguration.class
+    })
+    @Import(RestClientContainerAutoConfiguration.class)
+    @ImportHttpServices(group = "jph", types = JsonPlaceholderClient.class)
+    static class Config {
+
+        // Required by the OAuth2 github client, which the scenarios never call
+        @Bean
+        OAuth2AuthorizedClientManager authorizedClientManager() {
+            return request -> null;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.demo.config.restclient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.example.demo.model.Post;
+import com.example.demo.model.User;
+import com.example.demo.stub.UpstreamStubServer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestClient;
+
+import com.sun.net.httpserver.HttpServer;
+
+class BinaryFormatNegotiationTest {
+
+    private UpstreamStubServer server;
+
+    @BeforeEach
+    void setUp() {
+        server = UpstreamStubServer.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void apply_shouldReadCborFromAnUpstreamThatSpeaksIt() {
+        // Given
+        RestClient restClient = restClient(server.baseUrl(), "cbor");
+
+        // When
+        ResponseEntity<List<Post>> posts =
+                restClient
+                        .get()
+                        .uri("/posts")
+                        .retrieve()
+                        .toEntity(new ParameterizedTypeReference<>() {});
+
+        // Then
+        assertThat(posts.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_CBOR);
+        assertThat(posts.getBody()).hasSize(3);
+        assertThat(posts.getBody().getFirst().id()).isEqualTo(1L);
+    }
+
+    @Test
+    void apply_shouldReadSmileFromAnUpstreamThatSpeaksIt() {
+        // Given
+        RestClient restClient = restClient(server.baseUrl(), "smile");
+
+        // When
+        ResponseEntity<Post> post =
+                restClient.get().uri("/posts/1").retrieve().toEntity(Post.class);
+
+        // Then
+        assertThat(post.getHeaders().getContentType())
+                .isEqualTo(MediaType.parseMediaType("application/x-jackson-smile"));
+        assertThat(post.getBody().id()).isEqualTo(1L);
+    }
+
+    @Test
+    void apply_shouldReadThroughTheClientsStringCache() {
+        // Given
+        ClientAuthProperties authProps = new ClientAuthProperties();
+        authProps.setBinaryFormat("cbor");
+        StringCanonicalizer stringCache = new StringCanonicalizer(1024, 64);
+        RestClient.Builder builder = RestClient.builder().baseUrl(server.baseUrl());
+        BinaryFormatNegotiation.forClient("jph", authProps).apply(builder, stringCache);
+        RestClient restClient = builder.build();
+
+        // When
+        ResponseEntity<List<User>> first =
+                restClient
+                        .get()
+                        .uri("/users")
+                        .retrieve()
+                        .toEntity(new ParameterizedTypeReference<>() {});
+        List<User> second =
+                restClient
+                        .get()
+                        .uri("/users")
+                        .retrieve()
+                        .body(new ParameterizedTypeReference<>() {});
+
+        // Then
+        assertThat(first.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_CBOR);
+        assertThat(second.getFirst().company().name())
+                .isSameAs(first.getBody().getFirst().company().name());
+        assertThat(stringCache.summarize().hits()).isPositive();
+    }
+
+    @Test
+    void apply_shouldFallBackToJson() throws IOException {
+        // Given: an upstream that answers in JSON whatever is asked for
+        AtomicReference<String> accept = new AtomicReference<>();
+        HttpServer jsonOnly = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        jsonOnly.createContext(
+                "/",
+                exchange -> {
+                    accept.set(exchange.getRequestHeaders().getFirst("Accept"));
+                    byte[] body =
+                            "{\"id\":1,\"userId\":1,\"title\":\"t\",\"body\":\"b\"}"
+                                    .getBytes(StandardCharsets.UTF_8);
+                    exchange.getResponseHeaders().add("Content-Type", "application/json");
+                    exchange.sendResponseHeaders(200, body.length);
+                    exchange.getResponseBody().write(body);
+                    exchange.close();
+                });
+        jsonOnly.start();
+        try {
+            RestClient restClient =
+                    restClient("http://localhost:" + jsonOnly.getAddress().getPort(), "cbor");
+
+            // When
+            Post post = restClient.get().uri("/posts/1").retrieve().body(Post.class);
+
+            // Then
+            assertThat(post.id()).isEqualTo(1L);
+            assertThat(accept.get()).isEqualTo("application/cbor, application/json;q=0.9");
+        } finally {
+            jsonOnly.stop(0);
+        }
+    }
+
+    @Test
+    void forClient_shouldRejectUnsupportedFormats() {
+        // Given
+        ClientAuthProperties authProps = new ClientAuthProperties();
+        authProps.setBinaryFormat("msgpack");
+
+        // When / Then
+        assertThatIllegalStateException()
+                .isThrownBy(() -> BinaryFormatNegotiation.forClient("jph", authProps))
+                .withMessage("Unsupported binary format 'msgpack' for service client: jph");
+        assertThat(BinaryFormatNegotiation.forClient("jph", new ClientAuthProperties())).isNull();
+    }
+
+    private static RestClient restClient(String baseUrl, String binaryFormat) {
+        ClientAuthProperties authProps = new ClientAuthProperties();
+        authProps.setBinaryFormat(binaryFormat);
+        RestClient.Builder builder = RestClient.builder().baseUrl(baseUrl);
+        BinaryFormatNegotiation.forClient("jph", authProps).apply(builder, null);
+        return builder.build();
+    }
+}
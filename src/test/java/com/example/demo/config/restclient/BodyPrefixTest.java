@@ -0,0 +1,130 @@
+package com.example.demo.config.restclient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import com.example.demo.metrics.RestClientMetrics;
+import com.example.demo.model.Post;
+import com.example.demo.stub.Faults;
+import com.example.demo.stub.UpstreamStubServer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.http.client.ClientHttpRequestFactoryBuilder;
+import org.springframework.boot.http.client.HttpClientSettings;
+import org.springframework.boot.http.client.autoconfigure.HttpClientProperties;
+import org.springframework.boot.http.client.autoconfigure.service.HttpServiceClientProperties;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.RestClient;
+
+class BodyPrefixTest {
+
+    private UpstreamStubServer server;
+    private ServiceClientRequestFactories requestFactories;
+    private RestClient restClient;
+
+    @BeforeEach
+    void setUp() {
+        server = UpstreamStubServer.start();
+        HttpClientProperties clientProps = new HttpClientProperties();
+        clientProps.setBaseUrl(server.baseUrl());
+        HttpServiceClientProperties httpServiceClientProperties = new HttpServiceClientProperties();
+        httpServiceClientProperties.put("jph", clientProps);
+
+        // Pooled http-components transport with the metrics wrappers around each response
+        requestFactories =
+                new ServiceClientRequestFactories(
+                        ClientHttpRequestFactoryBuilder.httpComponents(),
+                        HttpClientSettings.defaults(),
+                        httpServiceClientProperties,
+                        new ServiceClientAuthProperties(),
+                        new RestClientMetrics());
+        restClient =
+                RestClient.builder()
+                        .baseUrl(server.baseUrl())
+                        .requestFactory(requestFactories.get("jph"))
+                        .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        requestFactories.destroy();
+        server.close();
+    }
+
+    @Test
+    void read_shouldReadAtMostMaxBytes() {
+        // When
+        BodyPrefix posts = restClient.get().uri("/posts").exchange(BodyPrefix.read(64));
+        BodyPrefix post = restClient.get().uri("/posts/1").exchange(BodyPrefix.read(4096));
+
+        // Then
+        assertThat(posts.status()).isEqualTo(HttpStatus.OK);
+        assertThat(posts.text()).hasSize(64).startsWith("[");
+        assertThat(posts.truncated()).isTrue();
+        assertThat(posts.getAbbreviatedText()).hasSize(67).endsWith("...");
+        assertThat(post.text()).contains("\"id\"").endsWith("}");
+        assertThat(post.truncated()).isFalse();
+        assertThat(post.getAbbreviatedText()).isEqualTo(post.text());
+    }
+
+    @Test
+    void read_shouldAcceptTheLargestLimit() {
+        // When
+        BodyPrefix post =
+                restClient.get().uri("/posts/1").exchange(BodyPrefix.read(Integer.MAX_VALUE));
+
+        // Then
+        assertThat(post.text()).contains("\"id\"").endsWith("}");
+        assertThat(post.truncated()).isFalse();
+    }
+
+    @Test
+    void read_shouldReportErrorStatusesWithoutThrowing() {
+        // Given
+        server.setFaults(Faults.NONE.withErrors(1, 503));
+
+        // When
+        BodyPrefix prefix = restClient.get().uri("/posts/1").exchange(BodyPrefix.read(64));
+
+        // Then
+        assertThat(prefix.status()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(prefix.truncated()).isFalse();
+    }
+
+    @Test
+    void read_shouldAbortInsteadOfDrainingALargeRemainder() {
+        // Given: a body sent in 8 chunks, 200 ms apart
+        server.setFaults(Faults.NONE.withSlowBody(1, Duration.ofMillis(200)));
+        restClient.get().uri("/posts").exchange(BodyPrefix.read(64)); // classes loaded
+
+        // When
+        long start = System.nanoTime();
+        BodyPrefix prefix = restClient.get().uri("/posts").exchange(BodyPrefix.read(64));
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        server.clearFaults();
+        Post post = restClient.get().uri("/posts/1").retrieve().body(Post.class);
+
+        // Then: the first chunk only, not all 1.6 s, and the pool still works
+        assertThat(prefix.truncated()).isTrue();
+        assertThat(elapsedMillis).isLessThan(1_000);
+        assertThat(post.id()).isEqualTo(1L);
+        assertThat(requestFactories.getConnectionPoolStats().get("jph").opened()).isEqualTo(3);
+    }
+
+    @Test
+    void read_shouldKeepTheConnectionWhenTheWholeBodyWasRead() {
+        // When
+        restClient.get().uri("/posts/1").exchange(BodyPrefix.read(4096));
+        restClient.get().uri("/posts/1").exchange(BodyPrefix.read(4096));
+        long openedBeforeTruncating = requestFactories.getConnectionPoolStats().get("jph").opened();
+        restClient.get().uri("/posts/1").exchange(BodyPrefix.read(16));
+        restClient.get().uri("/posts/1").exchange(BodyPrefix.read(4096));
+
+        // Then: only the truncated read gave up its connection
+        assertThat(openedBeforeTruncating).isEqualTo(1);
+        assertThat(requestFactories.getConnectionPoolStats().get("jph").opened()).isEqualTo(2);
+    }
+}
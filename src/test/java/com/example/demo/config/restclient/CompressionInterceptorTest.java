@@ -0,0 +1,183 @@
+package com.example.demo.config.restclient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.example.demo.metrics.CompressionMetrics;
+import com.example.demo.metrics.RestClientMetrics;
+import com.example.demo.model.Post;
+import com.example.demo.stub.UpstreamStubServer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.http.client.ClientHttpRequestFactoryBuilder;
+import org.springframework.boot.http.client.HttpClientSettings;
+import org.springframework.boot.http.client.autoconfigure.HttpClientProperties;
+import org.springframework.boot.http.client.autoconfigure.service.HttpServiceClientProperties;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+class CompressionInterceptorTest {
+
+    private UpstreamStubServer server;
+    private RestClientMetrics metrics;
+    private final List<ServiceClientRequestFactories> requestFactories = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        server = UpstreamStubServer.start();
+        server.setCompressResponses(true);
+        metrics = new RestClientMetrics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        requestFactories.forEach(ServiceClientRequestFactories::destroy);
+        server.close();
+    }
+
+    @Test
+    void intercept_shouldDecodeGzipResponsesOnEveryTransport() {
+        // Given
+        Map<String, ClientHttpRequestFactoryBuilder<?>> transports = new LinkedHashMap<>();
+        transports.put("http-components", ClientHttpRequestFactoryBuilder.httpComponents());
+        transports.put("jdk", ClientHttpRequestFactoryBuilder.jdk());
+        transports.put("jetty", ClientHttpRequestFactoryBuilder.jetty());
+        transports.put("reactor", ClientHttpRequestFactoryBuilder.reactor());
+
+        transports.forEach(
+                (name, builder) -> {
+                    // When
+                    ResponseEntity<List<Post>> posts =
+                            restClient(name, builder, null, null)
+                                    .get()
+                                    .uri("/posts")
+                                    .retrieve()
+                                    .toEntity(new ParameterizedTypeReference<>() {});
+
+                    // Then: decoded here rather than in the transport, so it could be measured
+                    assertThat(posts.getBody()).as(name).hasSize(3);
+                    assertThat(posts.getHeaders().containsHeader(HttpHeaders.CONTENT_ENCODING))
+                            .as(name)
+                            .isFalse();
+                    CompressionMetrics.CodingSummary responses = compression(name).responses();
+                    assertThat(responses.count()).as(name).isEqualTo(1);
+                    assertThat(responses.ratio()).as(name).isGreaterThan(1.5);
+                    assertThat(responses.savedBytes()).as(name).isPositive();
+                });
+    }
+
+    @Test
+    void intercept_shouldCountResponsesTheUpstreamDidNotEncode() {
+        // Given
+        server.setCompressResponses(false);
+        RestClient restClient =
+                restClient("jph", ClientHttpRequestFactoryBuilder.httpComponents(), null, null);
+
+        // When
+        Post post = restClient.get().uri("/posts/1").retrieve().body(Post.class);
+
+        // Then
+        assertThat(post.id()).isEqualTo(1L);
+        assertThat(compression("jph").identityResponses()).isEqualTo(1);
+        assertThat(compression("jph").responses().count()).isZero();
+    }
+
+    @Test
+    void intercept_shouldCompressRequestBodiesFromTheThreshold() {
+        // Given
+        RestClient restClient =
+                restClient(
+                        "jph",
+                        ClientHttpRequestFactoryBuilder.httpComponents(),
+                        DataSize.ofKilobytes(1),
+                        null);
+        Post small = new Post(null, 1L, "title", "body");
+        Post large = new Post(null, 1L, "title", "lorem ipsum ".repeat(500));
+
+        // When
+        ResponseEntity<Post> smallCreated =
+                restClient.post().uri("/posts").body(small).retrieve().toEntity(Post.class);
+        ResponseEntity<Post> largeCreated =
+                restClient.post().uri("/posts").body(large).retrieve().toEntity(Post.class);
+
+        // Then: only the large body went out gzip-encoded, and the stub decoded it
+        assertThat(smallCreated.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(largeCreated.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(largeCreated.getBody().body()).isEqualTo(large.body());
+        CompressionMetrics.CodingSummary requests = compression("jph").requests();
+        assertThat(requests.count()).isEqualTo(1);
+        assertThat(requests.bytes()).isGreaterThan(6_000);
+        assertThat(requests.wireBytes()).isLessThan(requests.bytes() / 10);
+    }
+
+    @Test
+    void intercept_shouldLetTheSizeLimitCountDecodedBytes() {
+        // Given: the posts list is about 420 bytes on the wire and 785 decoded
+        RestClient restClient =
+                restClient(
+                        "jph",
+                        ClientHttpRequestFactoryBuilder.httpComponents(),
+                        null,
+                        DataSize.ofBytes(600));
+
+        // When / Then
+        assertThatExceptionOfType(RestClientException.class)
+                .isThrownBy(() -> restClient.get().uri("/posts").retrieve().body(String.class))
+                .withRootCauseInstanceOf(ResponseTooLargeException.class);
+    }
+
+    private RestClient restClient(
+            String name,
+            ClientHttpRequestFactoryBuilder<?> builder,
+            DataSize requestThreshold,
+            DataSize maxResponseBytes) {
+        HttpClientProperties clientProps = new HttpClientProperties();
+        clientProps.setBaseUrl(server.baseUrl());
+        HttpServiceClientProperties httpServiceClientProperties = new HttpServiceClientProperties();
+        httpServiceClientProperties.put(name, clientProps);
+        ClientAuthProperties.Compression compression = new ClientAuthProperties.Compression();
+        compression.setEnabled(true);
+        compression.setRequestThreshold(requestThreshold);
+        ClientAuthProperties authProps = new ClientAuthProperties();
+        authProps.setCompression(compression);
+        authProps.setMaxResponseBytes(maxResponseBytes);
+        ServiceClientAuthProperties authProperties = new ServiceClientAuthProperties();
+        authProperties.put(name, authProps);
+        ServiceClientRequestFactories factories =
+                new ServiceClientRequestFactories(
+                        builder,
+                        HttpClientSettings.defaults(),
+                        httpServiceClientProperties,
+                        authProperties,
+                        metrics);
+        requestFactories.add(factories);
+
+        // In the order RestClientContainerAutoConfiguration adds them
+        RestClient.Builder restClient =
+                RestClient.builder().baseUrl(server.baseUrl()).requestFactory(factories.get(name));
+        ResponseSizeLimitInterceptor sizeLimit =
+                ResponseSizeLimitInterceptor.forClient(name, authProps, metrics);
+        if (sizeLimit != null) {
+            restClient.requestInterceptor(sizeLimit);
+        }
+        return restClient
+                .requestInterceptor(CompressionInterceptor.forClient(name, authProps, metrics))
+                .build();
+    }
+
+    private CompressionMetrics.Summary compression(String name) {
+        return metrics.forClient(name).compression().summarize();
+    }
+}
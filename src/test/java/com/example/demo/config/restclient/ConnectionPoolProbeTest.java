@@ -0,0 +1,181 @@
+package com.example.demo.config.restclient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import com.example.demo.metrics.ConnectionPoolStats;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.http.client.ClientHttpRequestFactoryBuilder;
+import org.springframework.boot.http.client.HttpClientSettings;
+import org.springframework.boot.http.client.autoconfigure.HttpClientProperties;
+import org.springframework.boot.http.client.autoconfigure.service.HttpServiceClientProperties;
+import org.springframework.web.client.RestClient;
+
+import com.sun.net.httpserver.HttpServer;
+
+class ConnectionPoolProbeTest {
+
+    private HttpServer server;
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext(
+                "/ping",
+                exchange -> {
+                    byte[] body = "pong".getBytes(StandardCharsets.UTF_8);
+                    exchange.sendResponseHeaders(200, body.length);
+                    exchange.getResponseBody().write(body);
+                    exchange.close();
+                });
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void httpComponents_shouldReportPoolTotalsAndOpenedConnections() {
+        // Given
+        ServiceClientRequestFactories requestFactories =
+                createRequestFactories(ClientHttpRequestFactoryBuilder.httpComponents());
+
+        try {
+            // When
+            RestClient restClient = createRestClient(requestFactories);
+            ping(restClient);
+            ping(restClient);
+            ConnectionPoolStats stats = requestFactories.getConnectionPoolStats().get("stub");
+
+            // Then
+            assertThat(stats)
+                    .isEqualTo(new ConnectionPoolStats("http-components", 0, 1, 0, 5, 1, 0));
+        } finally {
+            requestFactories.destroy();
+        }
+    }
+
+    @Test
+    void httpComponents_shouldReportTheCustomizedConnectionManager() {
+        // Given
+        ServiceClientRequestFactories requestFactories =
+                createRequestFactories(
+                        ClientHttpRequestFactoryBuilder.httpComponents()
+                                .withConnectionManagerCustomizer(
+                                        connectionManager ->
+                                                connectionManager.setMaxConnPerRoute(7)));
+
+        try {
+            // When
+            ping(createRestClient(requestFactories));
+            ConnectionPoolStats stats = requestFactories.getConnectionPoolStats().get("stub");
+
+            // Then
+            assertThat(stats)
+                    .isEqualTo(new ConnectionPoolStats("http-components", 0, 1, 0, 7, 1, 0));
+        } finally {
+            requestFactories.destroy();
+        }
+    }
+
+    @Test
+    void jetty_shouldReportDestinationPoolsAndConnectionChurn() {
+        // Given
+        ServiceClientRequestFactories requestFactories =
+                createRequestFactories(ClientHttpRequestFactoryBuilder.jetty());
+
+        try {
+            // When
+            ping(createRestClient(requestFactories));
+            ConnectionPoolStats stats = requestFactories.getConnectionPoolStats().get("stub");
+
+            // Then
+            assertThat(stats.transport()).isEqualTo("jetty");
+            assertThat(stats.leased() + stats.available()).isEqualTo(1);
+            assertThat(stats.pending()).isZero();
+            assertThat(stats.maxPerRoute()).isPositive();
+            assertThat(stats.opened()).isEqualTo(1);
+            assertThat(stats.closed()).isZero();
+        } finally {
+            requestFactories.destroy();
+        }
+    }
+
+    @Test
+    void reactorAndJdk_shouldReportWhatTheSharedOrHiddenPoolExposes() {
+        // Given
+        ServiceClientRequestFactories reactor =
+                createRequestFactories(ClientHttpRequestFactoryBuilder.reactor());
+        ServiceClientRequestFactories jdk =
+                createRequestFactories(ClientHttpRequestFactoryBuilder.jdk());
+
+        try {
+            // When
+            ping(createRestClient(reactor));
+            ping(createRestClient(jdk));
+            ConnectionPoolStats reactorStats = reactor.getConnectionPoolStats().get("stub");
+            ConnectionPoolStats jdkStats = jdk.getConnectionPoolStats().get("stub");
+
+            // Then
+            assertThat(reactorStats.transport()).isEqualTo("reactor");
+            assertThat(reactorStats.leased()).isEqualTo(ConnectionPoolStats.UNKNOWN);
+            assertThat(reactorStats.opened()).isEqualTo(1);
+            assertThat(jdkStats).isEqualTo(ConnectionPoolStats.unknown("jdk"));
+        } finally {
+            reactor.destroy();
+            jdk.destroy();
+        }
+    }
+
+    @Test
+    void getConnectionPoolStats_shouldSkipClientsWithoutOpenTransport() {
+        // Given
+        ServiceClientRequestFactories requestFactories =
+                createRequestFactories(ClientHttpRequestFactoryBuilder.httpComponents());
+
+        try {
+            // When
+            requestFactories.get("stub");
+            requestFactories.stop();
+
+            // Then
+            assertThat(requestFactories.getConnectionPoolStats()).isEmpty();
+        } finally {
+            requestFactories.destroy();
+        }
+    }
+
+    private RestClient createRestClient(ServiceClientRequestFactories requestFactories) {
+        return RestClient.builder()
+                .baseUrl(baseUrl)
+                .requestFactory(requestFactories.get("stub"))
+                .build();
+    }
+
+    private static void ping(RestClient restClient) {
+        assertThat(restClient.get().uri("/ping").retrieve().body(String.class)).isEqualTo("pong");
+    }
+
+    private ServiceClientRequestFactories createRequestFactories(
+            ClientHttpRequestFactoryBuilder<?> builder) {
+        HttpClientProperties clientProps = new HttpClientProperties();
+        clientProps.setBaseUrl(baseUrl);
+        HttpServiceClientProperties httpServiceClientProperties = new HttpServiceClientProperties();
+        httpServiceClientProperties.put("stub", clientProps);
+        return new ServiceClientRequestFactories(
+                builder,
+                HttpClientSettings.defaults(),
+                httpServiceClientProperties,
+                new ServiceClientAuthProperties());
+    }
+}
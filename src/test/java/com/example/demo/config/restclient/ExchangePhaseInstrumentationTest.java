@@ -0,0 +1,230 @@
+package com.example.demo.config.restclient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.example.demo.metrics.ClientMetrics;
+import com.example.demo.metrics.ExchangePhase;
+import com.example.demo.metrics.ExchangeTimings;
+import com.example.demo.metrics.RestClientMetrics;
+
+import org.apache.hc.client5.http.DnsResolver;
+import org.apache.hc.client5.http.SystemDefaultDnsResolver;
+import org.eclipse.jetty.util.SocketAddressResolver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.http.client.ClientHttpRequestFactoryBuilder;
+import org.springframework.boot.http.client.HttpClientSettings;
+import org.springframework.boot.http.client.autoconfigure.HttpClientProperties;
+import org.springframework.boot.http.client.autoconfigure.service.HttpServiceClientProperties;
+import org.springframework.web.client.RestClient;
+
+import com.sun.net.httpserver.HttpServer;
+
+class ExchangePhaseInstrumentationTest {
+
+    private HttpServer server;
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext(
+                "/ping",
+                exchange -> {
+                    byte[] body = "pong".getBytes(StandardCharsets.UTF_8);
+                    exchange.sendResponseHeaders(200, body.length);
+                    exchange.getResponseBody().write(body);
+                    exchange.close();
+                });
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void httpComponents_shouldAttachConnectionPhasesOnlyForNewConnections() {
+        // Given
+        RestClientMetrics metrics = new RestClientMetrics();
+        ServiceClientRequestFactories requestFactories =
+                createRequestFactories(ClientHttpRequestFactoryBuilder.httpComponents(), metrics);
+        RestClient restClient =
+                RestClient.builder()
+                        .baseUrl(baseUrl)
+                        .requestFactory(requestFactories.get("stub"))
+                        .build();
+
+        try {
+            // When
+            ExchangeTimings first = exchange(restClient);
+            ExchangeTimings second = exchange(restClient);
+
+            // Then
+            // DNS and TLS are part of CONNECT with http-components
+            assertThat(first.get(ExchangePhase.CONNECT)).isGreaterThanOrEqualTo(0);
+            assertThat(first.get(ExchangePhase.DNS)).isEqualTo(-1);
+            assertThat(second.get(ExchangePhase.CONNECT)).isEqualTo(-1);
+            assertThat(second.asMap()).containsOnlyKeys(ExchangePhase.TTFB, ExchangePhase.BODY);
+
+            Map<String, ClientMetrics.PhaseSummary> phases = metrics.summarizePhases().get("stub");
+            assertThat(phases.get("connect").count()).isEqualTo(1);
+            assertThat(phases.get("ttfb").count()).isEqualTo(2);
+            assertThat(phases.get("body").count()).isEqualTo(2);
+        } finally {
+            requestFactories.destroy();
+        }
+    }
+
+    @Test
+    void httpComponents_shouldKeepTheConfiguredDnsResolver() {
+        // Given
+        AtomicInteger resolved = new AtomicInteger();
+        DnsResolver dnsResolver =
+                new DnsResolver() {
+                    @Override
+                    public InetAddress[] resolve(String host) throws UnknownHostException {
+                        resolved.incrementAndGet();
+                        return SystemDefaultDnsResolver.INSTANCE.resolve(host);
+                    }
+
+                    @Override
+                    public String resolveCanonicalHostname(String host)
+                            throws UnknownHostException {
+                        return SystemDefaultDnsResolver.INSTANCE.resolveCanonicalHostname(host);
+                    }
+                };
+        RestClientMetrics metrics = new RestClientMetrics();
+        ServiceClientRequestFactories requestFactories =
+                createRequestFactories(
+                        ClientHttpRequestFactoryBuilder.httpComponents()
+                                .withConnectionManagerCustomizer(
+                                        connectionManager ->
+                                                connectionManager.setDnsResolver(dnsResolver)),
+                        metrics);
+        RestClient restClient =
+                RestClient.builder()
+                        .baseUrl(baseUrl)
+                        .requestFactory(requestFactories.get("stub"))
+                        .build();
+
+        try {
+            // When
+            ExchangeTimings timings = exchange(restClient);
+
+            // Then
+            assertThat(resolved).hasValue(1);
+            assertThat(timings.get(ExchangePhase.CONNECT)).isGreaterThanOrEqualTo(0);
+        } finally {
+            requestFactories.destroy();
+        }
+    }
+
+    @Test
+    void jetty_shouldTimeTheConfiguredSocketAddressResolver() {
+        // Given
+        AtomicInteger resolved = new AtomicInteger();
+        SocketAddressResolver sync = new SocketAddressResolver.Sync();
+        SocketAddressResolver resolver =
+                (host, port, context, promise) -> {
+                    resolved.incrementAndGet();
+                    sync.resolve(host, port, context, promise);
+                };
+        RestClientMetrics metrics = new RestClientMetrics();
+        ServiceClientRequestFactories requestFactories =
+                createRequestFactories(
+                        ClientHttpRequestFactoryBuilder.jetty()
+                                .withHttpClientCustomizer(
+                                        client -> client.setSocketAddressResolver(resolver)),
+                        metrics);
+        RestClient restClient =
+                RestClient.builder()
+                        .baseUrl(baseUrl)
+                        .requestFactory(requestFactories.get("stub"))
+                        .build();
+
+        try {
+            // When
+            exchange(restClient);
+
+            // Then
+            assertThat(resolved).hasValue(1);
+            assertThat(metrics.summarizePhases().get("stub").get("dns").count()).isEqualTo(1);
+        } finally {
+            requestFactories.destroy();
+        }
+    }
+
+    @Test
+    void jettyReactorAndJdk_shouldRecordPhasesPerClient() {
+        assertPhasesRecorded(ClientHttpRequestFactoryBuilder.jetty(), "dns", "connect");
+        assertPhasesRecorded(ClientHttpRequestFactoryBuilder.reactor(), "dns", "connect");
+        assertPhasesRecorded(ClientHttpRequestFactoryBuilder.jdk());
+    }
+
+    private void assertPhasesRecorded(
+            ClientHttpRequestFactoryBuilder<?> builder, String... connectionPhases) {
+        // Given
+        RestClientMetrics metrics = new RestClientMetrics();
+        ServiceClientRequestFactories requestFactories = createRequestFactories(builder, metrics);
+        RestClient restClient =
+                RestClient.builder()
+                        .baseUrl(baseUrl)
+                        .requestFactory(requestFactories.get("stub"))
+                        .build();
+
+        try {
+            // When
+            ExchangeTimings timings = exchange(restClient);
+            exchange(restClient);
+
+            // Then
+            assertThat(timings.get(ExchangePhase.TTFB)).isGreaterThanOrEqualTo(0);
+            Map<String, ClientMetrics.PhaseSummary> phases = metrics.summarizePhases().get("stub");
+            assertThat(phases.get("ttfb").count()).as(builder + " ttfb").isEqualTo(2);
+            assertThat(phases.get("body").count()).as(builder + " body").isEqualTo(2);
+            for (String phase : connectionPhases) {
+                // A connection may still be on its way back to the pool for the second request
+                assertThat(phases.get(phase).count()).as(builder + " " + phase).isBetween(1L, 2L);
+            }
+        } finally {
+            requestFactories.destroy();
+        }
+    }
+
+    private static ExchangeTimings exchange(RestClient restClient) {
+        return restClient
+                .get()
+                .uri("/ping")
+                .exchange(
+                        (request, response) -> {
+                            response.getBody().readAllBytes();
+                            return ExchangeTimings.of(response);
+                        });
+    }
+
+    private ServiceClientRequestFactories createRequestFactories(
+            ClientHttpRequestFactoryBuilder<?> builder, RestClientMetrics metrics) {
+        HttpClientProperties clientProps = new HttpClientProperties();
+        clientProps.setBaseUrl(baseUrl);
+        HttpServiceClientProperties httpServiceClientProperties = new HttpServiceClientProperties();
+        httpServiceClientProperties.put("stub", clientProps);
+        return new ServiceClientRequestFactories(
+                builder,
+                HttpClientSettings.defaults(),
+                httpServiceClientProperties,
+                new ServiceClientAuthProperties(),
+                metrics);
+    }
+}
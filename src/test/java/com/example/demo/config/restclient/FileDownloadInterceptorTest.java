@@ -0,0 +1,220 @@
+package com.example.demo.config.restclient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.example.demo.client.httpbin.HttpBinClient;
+import com.example.demo.metrics.DownloadMetrics;
+import com.example.demo.metrics.RestClientMetrics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.support.RestClientAdapter;
+import org.springframework.web.service.invoker.HttpServiceProxyFactory;
+
+import com.sun.net.httpserver.HttpServer;
+
+class FileDownloadInterceptorTest {
+
+    private static final int SIZE = 1_000_000;
+    private static final byte[] CONTENT = content(SIZE);
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d+)-");
+
+    @TempDir Path directory;
+
+    private HttpServer server;
+    private final List<String> ranges = new CopyOnWriteArrayList<>();
+    private final List<String> ifRanges = new CopyOnWriteArrayList<>();
+    private volatile String etag = "\"v1\"";
+    private RestClientMetrics metrics;
+    private RestClient restClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        // Serves /range/{n} and /bytes/{n} as httpbin does, with byte range and If-Range support
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext(
+                "/",
+                exchange -> {
+                    String range = exchange.getRequestHeaders().getFirst("Range");
+                    String ifRange = exchange.getRequestHeaders().getFirst("If-Range");
+                    ranges.add(String.valueOf(range));
+                    ifRanges.add(String.valueOf(ifRange));
+                    if (ifRange != null && !ifRange.equals(etag)) {
+                        range = null;
+                    }
+                    exchange.getResponseHeaders().set("ETag", etag);
+                    Matcher matcher = RANGE.matcher((range != null) ? range : "");
+                    int start = matcher.matches() ? Integer.parseInt(matcher.group(1)) : 0;
+                    if (start >= SIZE) {
+                        exchange.getResponseHeaders().set("Content-Range", "bytes */" + SIZE);
+                        exchange.sendResponseHeaders(416, -1);
+                    } else if (matcher.matches()) {
+                        exchange.getResponseHeaders()
+                                .set(
+                                        "Content-Range",
+                                        "bytes " + start + "-" + (SIZE - 1) + "/" + SIZE);
+                        exchange.sendResponseHeaders(206, SIZE - start);
+                    } else {
+                        exchange.sendResponseHeaders(200, SIZE);
+                    }
+                    try (OutputStream body = exchange.getResponseBody()) {
+                        if (start < SIZE) {
+                            body.write(CONTENT, start, SIZE - start);
+                        }
+                    }
+                });
+        server.start();
+        metrics = new RestClientMetrics();
+        restClient =
+                RestClient.builder()
+                        .baseUrl("http://localhost:" + server.getAddress().getPort())
+                        .requestInterceptor(FileDownloadInterceptor.forClient("httpbin", metrics))
+                        .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void downloadRange_shouldWriteTheBodyToTheFile() throws IOException {
+        // Given
+        HttpBinClient client = HttpExchangeClients.create(restClient, HttpBinClient.class);
+        Path target = directory.resolve("artifact.bin");
+
+        // When
+        ResponseEntity<Void> response = client.downloadRange(SIZE, target);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(Files.readAllBytes(target)).isEqualTo(CONTENT);
+        assertThat(ranges).containsExactly("null");
+        assertThat(FileDownloadInterceptor.validatorFile(target)).hasContent("\"v1\"");
+        DownloadMetrics.Summary summary = metrics.summarizeDownloads().get("httpbin");
+        assertThat(summary.downloads()).isEqualTo(1);
+        assertThat(summary.resumed()).isZero();
+        assertThat(summary.failed()).isZero();
+        assertThat(summary.bytes()).isEqualTo(SIZE);
+        assertThat(summary.running()).isEmpty();
+    }
+
+    @Test
+    void downloadRange_shouldResumeAPartialFile() throws IOException {
+        // Given: an interrupted download
+        HttpBinClient client = HttpExchangeClients.create(restClient, HttpBinClient.class);
+        Path target = directory.resolve("artifact.bin");
+        Files.write(target, Arrays.copyOf(CONTENT, 300_000));
+        Files.writeString(FileDownloadInterceptor.validatorFile(target), "\"v1\"");
+
+        // When
+        ResponseEntity<Void> response = client.downloadRange(SIZE, target);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+        assertThat(ranges).containsExactly("bytes=300000-");
+        assertThat(ifRanges).containsExactly("\"v1\"");
+        assertThat(Files.readAllBytes(target)).isEqualTo(CONTENT);
+        DownloadMetrics.Summary summary = metrics.summarizeDownloads().get("httpbin");
+        assertThat(summary.resumed()).isEqualTo(1);
+        assertThat(summary.bytes()).isEqualTo(SIZE - 300_000);
+    }
+
+    @Test
+    void downloadRange_shouldReportACompleteFileAsOk() throws IOException {
+        // Given
+        HttpBinClient client = HttpExchangeClients.create(restClient, HttpBinClient.class);
+        Path target = directory.resolve("artifact.bin");
+        Files.write(target, CONTENT);
+        Files.writeString(FileDownloadInterceptor.validatorFile(target), "\"v1\"");
+
+        // When: the upstream answers 416 Range Not Satisfiable
+        ResponseEntity<Void> response = client.downloadRange(SIZE, target);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(ranges).containsExactly("bytes=" + SIZE + "-");
+        assertThat(Files.readAllBytes(target)).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void downloadRange_shouldRestartWhenTheUpstreamCopyChanged() throws IOException {
+        // Given: a partial file of an earlier version
+        HttpBinClient client = HttpExchangeClients.create(restClient, HttpBinClient.class);
+        Path target = directory.resolve("artifact.bin");
+        Files.write(target, new byte[300_000]);
+        Files.writeString(FileDownloadInterceptor.validatorFile(target), "\"v1\"");
+        etag = "\"v2\"";
+
+        // When: the upstream ignores the range and answers 200
+        ResponseEntity<Void> response = client.downloadRange(SIZE, target);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(ifRanges).containsExactly("\"v1\"");
+        assertThat(Files.readAllBytes(target)).isEqualTo(CONTENT);
+        assertThat(FileDownloadInterceptor.validatorFile(target)).hasContent("\"v2\"");
+        assertThat(metrics.summarizeDownloads().get("httpbin").resumed()).isZero();
+    }
+
+    @Test
+    void downloadRange_shouldNotResumeAFileWithoutValidator() throws IOException {
+        // Given
+        HttpBinClient client = HttpExchangeClients.create(restClient, HttpBinClient.class);
+        Path target = directory.resolve("artifact.bin");
+        Files.write(target, new byte[300_000]);
+
+        // When
+        ResponseEntity<Void> response = client.downloadRange(SIZE, target);
+
+        // Then
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(ranges).containsExactly("null");
+        assertThat(Files.readAllBytes(target)).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void streamBytes_shouldWriteToAChannelThroughTheProxy() {
+        // Given
+        HttpBinClient client =
+                HttpServiceProxyFactory.builderFor(RestClientAdapter.create(restClient))
+                        .httpRequestValuesProcessor(ServiceMethodProcessor.INSTANCE)
+                        .customArgumentResolver(DownloadTargetArgumentResolver.INSTANCE)
+                        .build()
+                        .createClient(HttpBinClient.class);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        client.streamBytes(SIZE, Channels.newChannel(out));
+
+        // Then
+        assertThat(out.toByteArray()).isEqualTo(CONTENT);
+        assertThat(metrics.summarizeDownloads().get("httpbin").bytes()).isEqualTo(SIZE);
+    }
+
+    private static byte[] content(int size) {
+        byte[] content = new byte[size];
+        for (int i = 0; i < size; i++) {
+            content[i] = (byte) (i % 251);
+        }
+        return content;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.demo.config.restclient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.example.demo.client.jph.JsonPlaceholderClient;
+import com.example.demo.model.Post;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.ApiVersionInserter;
+import org.springframework.web.client.support.RestClientHttpServiceGroupConfigurer;
+import org.springframework.web.service.registry.ImportHttpServices;
+
+class GeneratedHttpServiceClientsTest {
+
+    private static final AtomicReference<MockRestServiceServer> server = new AtomicReference<>();
+
+    @Test
+    void httpServiceBean_shouldBeTheGeneratedClientOnTheGroupsRestClient() {
+        try (AnnotationConfigApplicationContext context =
+                new AnnotationConfigApplicationContext(Config.class)) {
+            // Given
+            JsonPlaceholderClient client = context.getBean(JsonPlaceholderClient.class);
+            server.get()
+                    .expect(requestTo("/posts/1"))
+                    .andExpect(header("X-API-VERSION", "2.0.0"))
+                    .andRespond(
+                            withSuccess(
+                                    """
+                                    {"id": 1, "userId": 1, "title": "Test Post", "body": "Test"}
+                                    """,
+                                    MediaType.APPLICATION_JSON));
+
+            // When
+            Post post = client.getPostById(1L);
+
+            // Then
+            assertThat(Proxy.isProxyClass(client.getClass())).isFalse();
+            assertThat(client.getClass().getEnclosingClass().getName())
+                    .isEqualTo(HttpExchangeClients.generatedClassName(JsonPlaceholderClient.class));
+            assertThat(post.title()).isEqualTo("Test Post");
+            server.get().verify();
+        }
+    }
+
+    @Configuration
+    @ImportHttpServices(group = "jph", types = JsonPlaceholderClient.class)
+    static class Config {
+
+        @Bean
+        static GeneratedHttpServiceClients generatedHttpServiceClients() {
+            return new GeneratedHttpServiceClients();
+        }
+
+        @Bean
+        RestClientHttpServiceGroupConfigurer mockServerConfigurer() {
+            return groups ->
+                    groups.forEachClient(
+                            (group, builder) -> {
+                                builder.apiVersionInserter(
+                                        ApiVersionInserter.useHeader("X-API-VERSION"));
+                                server.set(MockRestServiceServer.bindTo(builder).build());
+                            });
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.demo.config.restclient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withNoContent;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+
+import com.example.demo.client.ara.RestfulApiClient;
+import com.example.demo.client.github.GithubUserService;
+import com.example.demo.client.jph.JsonPlaceholderClient;
+import com.example.demo.model.ApiObject;
+import com.example.demo.model.ApiObjectRequest;
+import com.example.demo.model.GithubUser;
+import com.example.demo.model.Post;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.ApiVersionInserter;
+import org.springframework.web.client.RestClient;
+
+class HttpExchangeClientsTest {
+
+    private RestClient restClient;
+    private MockRestServiceServer server;
+
+    @BeforeEach
+    void setUp() {
+        RestClient.Builder builder = RestClient.builder();
+        server = MockRestServiceServer.bindTo(builder).build();
+        restClient =
+                builder.apiVersionInserter(ApiVersionInserter.useHeader("X-API-VERSION")).build();
+    }
+
+    @Test
+    void create_shouldReturnGeneratedImplementation() {
+        // When
+        JsonPlaceholderClient client =
+                HttpExchangeClients.create(restClient, JsonPlaceholderClient.class);
+
+        // Then
+        assertThat(HttpExchangeClients.isGenerated(JsonPlaceholderClient.class)).isTrue();
+        assertThat(Proxy.isProxyClass(client.getClass())).isFalse();
+    }
+
+    @Test
+    void getPostById_shouldBindPathVariableAndVersion() {
+        // Given
+        JsonPlaceholderClient client =
+                HttpExchangeClients.create(restClient, JsonPlaceholderClient.class);
+        server.expect(requestTo("/posts/1"))
+                .andExpect(method(HttpMethod.GET))
+                .andExpect(header("X-API-VERSION", "2.0.0"))
+                .andExpect(
+                        request ->
+                                assertThat(request.getAttributes())
+                                        .containsEntry(
+                                                HttpExchangeClients.SERVICE_METHOD_ATTRIBUTE,
+                                                "JsonPlaceholderClient.getPostById"))
+                .andRespond(
+                        withSuccess(
+                                """
+                                {"id": 1, "userId": 1, "title": "Test Post", "body": "Test body"}
+                                """,
+                                MediaType.APPLICATION_JSON));
+
+        // When
+        Post post = client.getPostById(1L);
+
+        // Then
+        assertThat(post.title()).isEqualTo("Test Post");
+        server.verify();
+    }
+
+    @Test
+    void getObjectsByIds_shouldExpandCollectionQueryParam() {
+        // Given
+        RestfulApiClient client = HttpExchangeClients.create(restClient, RestfulApiClient.class);
+        server.expect(requestTo("/objects?id=1&id=2"))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(
+                        withSuccess(
+                                """
+                                [{"id": "1", "name": "One"}, {"id": "2", "name": "Two"}]
+                                """,
+                                MediaType.APPLICATION_JSON));
+
+        // When
+        List<ApiObject> objects = client.getObjectsByIds(List.of("1", "2"));
+
+        // Then
+        assertThat(objects).extracting(ApiObject::id).containsExactly("1", "2");
+        server.verify();
+    }
+
+    @Test
+    void createObject_shouldWriteRequestBody() {
+        // Given
+        RestfulApiClient client = HttpExchangeClients.create(restClient, RestfulApiClient.class);
+        server.expect(requestTo("/objects"))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(content().json("{\"name\": \"Phone\", \"data\": {\"year\": 2024}}"))
+                .andRespond(
+                        withSuccess(
+                                """
+                                {"id": "42", "name": "Phone", "data": {"year": 2024}}
+                                """,
+                                MediaType.APPLICATION_JSON));
+
+        // When
+        ApiObject created =
+                client.createObject(new ApiObjectRequest("Phone", Map.of("year", 2024)));
+
+        // Then
+        assertThat(created.id()).isEqualTo("42");
+        server.verify();
+    }
+
+    @Test
+    void createObject_shouldRejectMissingRequiredBody() {
+        // Given
+        RestfulApiClient client = HttpExchangeClients.create(restClient, RestfulApiClient.class);
+
+        // When / Then
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> client.createObject(null))
+                .withMessage("RequestBody is required");
+        server.verify();
+    }
+
+    @Test
+    void deleteObject_shouldReturnWithoutBody() {
+        // Given
+        RestfulApiClient client = HttpExchangeClients.create(restClient, RestfulApiClient.class);
+        server.expect(requestTo("/objects/42"))
+                .andExpect(method(HttpMethod.DELETE))
+                .andRespond(withNoContent());
+
+        // When
+        client.deleteObject("42");
+
+        // Then
+        server.verify();
+    }
+
+    @Test
+    void getAuthenticatedUser_shouldUseTypeLevelUrl() {
+        // Given
+        GithubUserService client = HttpExchangeClients.create(restClient, GithubUserService.class);
+        server.expect(requestTo("/user"))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(
+                        withSuccess(
+                                """
+                                {"login": "octocat", "id": 1, "name": "The Octocat"}
+                                """,
+                                MediaType.APPLICATION_JSON));
+
+        // When
+        GithubUser user = client.getAuthenticatedUser();
+
+        // Then
+        assertThat(user.login()).isEqualTo("octocat");
+        server.verify();
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.demo.config.restclient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import com.example.demo.client.jph.JsonPlaceholderClient;
+import com.example.demo.model.PostSummary;
+import com.example.demo.model.UserContact;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.support.RestClientAdapter;
+import org.springframework.web.service.invoker.HttpServiceProxyFactory;
+
+class PartialResponseInterceptorTest {
+
+    private RestClient restClient;
+    private MockRestServiceServer server;
+
+    @BeforeEach
+    void setUp() {
+        ClientAuthProperties authProps = new ClientAuthProperties();
+        authProps.setFieldsParameter("fields");
+        RestClient.Builder builder =
+                RestClient.builder()
+                        .requestInterceptor(PartialResponseInterceptor.forClient(authProps));
+        server = MockRestServiceServer.bindTo(builder).build();
+        restClient = builder.build();
+    }
+
+    @Test
+    void proxy_shouldAskForTheProjectionsPropertiesAndSkipTheRest() throws IOException {
+        // Given
+        JsonPlaceholderClient client =
+                HttpServiceProxyFactory.builderFor(RestClientAdapter.create(restClient))
+                        .httpRequestValuesProcessor(ServiceMethodProcessor.INSTANCE)
+                        .build()
+                        .createClient(JsonPlaceholderClient.class);
+        server.expect(requestTo("/users?fields=id,name,username,email"))
+                .andRespond(withSuccess(fixture("users.json"), MediaType.APPLICATION_JSON));
+
+        // When: the upstream ignores the parameter and sends whole users
+        List<UserContact> contacts = client.getUserContacts();
+
+        // Then
+        assertThat(contacts)
+                .hasSize(2)
+                .first()
+                .isEqualTo(new UserContact(1L, "Leanne Graham", "Bret", "Sincere@april.biz"));
+        server.verify();
+    }
+
+    @Test
+    void generatedClient_shouldSetTheFieldsResolvedAtCompileTime() throws IOException {
+        // Given
+        JsonPlaceholderClient client =
+                HttpExchangeClients.create(restClient, JsonPlaceholderClient.class);
+        server.expect(requestTo("/posts?fields=id,title"))
+                .andExpect(
+                        request ->
+                                assertThat(request.getAttributes())
+                                        .containsEntry(
+                                                HttpExchangeClients.RESPONSE_FIELDS_ATTRIBUTE,
+                                                "id,title"))
+                .andRespond(withSuccess(fixture("posts.json"), MediaType.APPLICATION_JSON));
+
+        // When
+        List<PostSummary> posts = client.getPostSummaries();
+
+        // Then
+        assertThat(posts.getFirst().id()).isEqualTo(1L);
+        assertThat(posts.getFirst().title()).startsWith("sunt aut facere");
+        server.verify();
+    }
+
+    @Test
+    void intercept_shouldLeaveOtherRequestsUnchanged() {
+        // Given
+        JsonPlaceholderClient client =
+                HttpExchangeClients.create(restClient, JsonPlaceholderClient.class);
+        server.expect(requestTo("/users/1"))
+                .andRespond(withSuccess("{\"id\": 1}", MediaType.APPLICATION_JSON));
+
+        // When
+        client.getUserById(1L);
+
+        // Then
+        server.verify();
+        assertThat(PartialResponseInterceptor.forClient(new ClientAuthProperties())).isNull();
+    }
+
+    private byte[] fixture(String name) throws IOException {
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("stub/jph/" + name)) {
+            return in.readAllBytes();
+        }
+    }
+}
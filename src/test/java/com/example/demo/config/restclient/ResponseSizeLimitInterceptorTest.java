@@ -0,0 +1,174 @@
+package com.example.demo.config.restclient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.Map;
+
+import com.example.demo.metrics.RequestMetrics;
+import com.example.demo.metrics.RestClientMetrics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.http.client.ClientHttpRequestFactoryBuilder;
+import org.springframework.boot.http.client.HttpClientSettings;
+import org.springframework.boot.http.client.autoconfigure.HttpClientProperties;
+import org.springframework.boot.http.client.autoconfigure.service.HttpServiceClientProperties;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.support.RestClientAdapter;
+import org.springframework.web.service.annotation.GetExchange;
+import org.springframework.web.service.invoker.HttpServiceProxyFactory;
+
+import com.sun.net.httpserver.HttpServer;
+
+class ResponseSizeLimitInterceptorTest {
+
+    private static final byte[] LARGE = filled(100_000);
+    private static final byte[] SMALL = filled(2_000);
+
+    private HttpServer server;
+    private RestClientMetrics metrics;
+    private ServiceClientRequestFactories requestFactories;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext(
+                "/sized",
+                exchange -> {
+                    exchange.sendResponseHeaders(200, LARGE.length);
+                    write(exchange.getResponseBody(), LARGE);
+                    exchange.close();
+                });
+        server.createContext(
+                "/chunked",
+                exchange -> {
+                    exchange.sendResponseHeaders(200, 0);
+                    write(exchange.getResponseBody(), LARGE);
+                    exchange.close();
+                });
+        server.createContext(
+                "/small",
+                exchange -> {
+                    exchange.sendResponseHeaders(200, 0);
+                    write(exchange.getResponseBody(), SMALL);
+                    exchange.close();
+                });
+        server.start();
+
+        HttpClientProperties clientProps = new HttpClientProperties();
+        clientProps.setBaseUrl("http://localhost:" + server.getAddress().getPort());
+        HttpServiceClientProperties httpServiceClientProperties = new HttpServiceClientProperties();
+        httpServiceClientProperties.put("stub", clientProps);
+        metrics = new RestClientMetrics();
+        requestFactories =
+                new ServiceClientRequestFactories(
+                        ClientHttpRequestFactoryBuilder.httpComponents(),
+                        HttpClientSettings.defaults(),
+                        httpServiceClientProperties,
+                        new ServiceClientAuthProperties(),
+                        metrics);
+    }
+
+    @AfterEach
+    void tearDown() {
+        requestFactories.destroy();
+        server.stop(0);
+    }
+
+    @Test
+    void intercept_shouldRejectAContentLengthOverTheLimitBeforeReading() {
+        // Given
+        RestClient restClient = restClient(DataSize.ofKilobytes(10), Map.of());
+
+        // When / Then
+        assertThatExceptionOfType(ResourceAccessException.class)
+                .isThrownBy(() -> restClient.get().uri("/sized").retrieve().body(String.class))
+                .havingCause()
+                .isInstanceOf(ResponseTooLargeException.class)
+                .withMessageContaining("Content-Length 100000")
+                .withMessageContaining("maximum of 10240 bytes");
+        assertThat(responsesTooLarge("GET /sized")).isEqualTo(1);
+    }
+
+    @Test
+    void intercept_shouldRejectAStreamedBodyOnceItPassesTheLimit() {
+        // Given
+        RestClient restClient = restClient(DataSize.ofKilobytes(10), Map.of());
+
+        // When / Then
+        assertThatExceptionOfType(RestClientException.class)
+                .isThrownBy(() -> restClient.get().uri("/chunked").retrieve().body(String.class))
+                .withRootCauseInstanceOf(ResponseTooLargeException.class);
+        assertThat(responsesTooLarge("GET /chunked")).isEqualTo(1);
+        // The aborted connection was discarded, not returned to the pool
+        assertThat(restClient.get().uri("/small").retrieve().body(byte[].class)).isEqualTo(SMALL);
+        assertThat(requestFactories.getConnectionPoolStats().get("stub").opened()).isEqualTo(2);
+    }
+
+    @Test
+    void intercept_shouldApplyPerMethodOverrides() {
+        // Given: 1 KB by default, 1 MB for ItemClient.all
+        ItemClient client =
+                HttpServiceProxyFactory.builderFor(
+                                RestClientAdapter.create(
+                                        restClient(
+                                                DataSize.ofKilobytes(1),
+                                                Map.of("ItemClient.all", DataSize.ofMegabytes(1)))))
+                        .httpRequestValuesProcessor(ServiceMethodProcessor.INSTANCE)
+                        .build()
+                        .createClient(ItemClient.class);
+
+        // When / Then
+        assertThat(client.all()).hasSize(LARGE.length);
+        assertThatExceptionOfType(RestClientException.class)
+                .isThrownBy(client::one)
+                .withRootCauseInstanceOf(ResponseTooLargeException.class);
+    }
+
+    interface ItemClient {
+
+        @GetExchange("/chunked")
+        byte[] all();
+
+        @GetExchange("/small")
+        byte[] one();
+    }
+
+    private RestClient restClient(DataSize maxResponseBytes, Map<String, DataSize> perMethod) {
+        return RestClient.builder()
+                .baseUrl("http://localhost:" + server.getAddress().getPort())
+                .requestFactory(requestFactories.get("stub"))
+                .requestInterceptor(
+                        new ResponseSizeLimitInterceptor(
+                                maxResponseBytes, perMethod, metrics.forClient("stub")))
+                .build();
+    }
+
+    private long responsesTooLarge(String key) {
+        RequestMetrics.Summary summary = metrics.forClient("stub").summarize().get(key);
+        return summary.responsesTooLarge();
+    }
+
+    private static void write(OutputStream out, byte[] body) throws IOException {
+        try {
+            out.write(body);
+        } catch (IOException e) {
+            // The client aborted the exchange
+        }
+    }
+
+    private static byte[] filled(int length) {
+        byte[] bytes = new byte[length];
+        Arrays.fill(bytes, (byte) 'x');
+        return bytes;
+    }
+}
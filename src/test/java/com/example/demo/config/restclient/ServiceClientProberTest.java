@@ -0,0 +1,150 @@
+package com.example.demo.config.restclient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import com.example.demo.stub.Faults;
+import com.example.demo.stub.UpstreamStubServer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+class ServiceClientProberTest {
+
+    private UpstreamStubServer server;
+    private JdkClientHttpRequestFactory requestFactory;
+    private DefaultRestClientContainer container;
+    private ServiceClientAuthProperties authProperties;
+
+    @BeforeEach
+    void setUp() {
+        server = UpstreamStubServer.start();
+        // JDK client: no retries, so the timings are those of a single request
+        requestFactory = new JdkClientHttpRequestFactory();
+        container = new DefaultRestClientContainer();
+        authProperties = new ServiceClientAuthProperties();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void probeAll_shouldReadAtMostMaxBodyBytes() throws InterruptedException {
+        // Given
+        register("jph", "/posts");
+        register("ara", "/objects/7");
+
+        // When
+        ServiceClientProber.ProbeReport report = prober().probeAll(Duration.ofSeconds(5), 64);
+
+        // Then
+        assertThat(report.up()).isTrue();
+        ServiceClientProber.ProbeResult jph = report.clients().get("jph");
+        assertThat(jph.status()).isEqualTo(200);
+        assertThat(jph.body()).hasSize(64).startsWith("[");
+        assertThat(jph.truncated()).isTrue();
+        assertThat(report.clients().get("ara").body()).contains("\"id\"");
+    }
+
+    @Test
+    void probeAll_shouldReportClientsPastTheDeadlineAsTimeout() throws InterruptedException {
+        // Given
+        register("jph", "/posts/1");
+        register("ara", "/objects");
+        server.setFaults(
+                "/objects", Faults.NONE.withLatency(Faults.Latency.fixed(Duration.ofSeconds(5))));
+
+        // When
+        ServiceClientProber.ProbeReport report = prober().probeAll(Duration.ofMillis(500), 512);
+
+        // Then
+        assertThat(report.up()).isFalse();
+        assertThat(report.elapsedMillis()).isLessThan(2_000);
+        assertThat(report.clients().get("jph").outcome()).isEqualTo("up");
+        assertThat(report.clients().get("ara").outcome()).isEqualTo("timeout");
+        assertThat(report.clients().get("ara").status()).isNull();
+    }
+
+    @Test
+    void probeAll_shouldProbeClientsConcurrently() throws InterruptedException {
+        // Given: three clients that each take 300 ms
+        register("jph", "/posts/1");
+        register("ara", "/objects/7");
+        register("httpbin", "/uuid");
+        prober().probeAll(Duration.ofSeconds(5), 512); // connections and classes loaded
+        server.setFaults(Faults.NONE.withLatency(Faults.Latency.fixed(Duration.ofMillis(300))));
+
+        // When
+        ServiceClientProber.ProbeReport report = prober().probeAll(Duration.ofSeconds(5), 512);
+
+        // Then: about as long as one probe, not the 900 ms sum
+        assertThat(report.clients()).hasSize(3);
+        assertThat(report.clients().values())
+                .allSatisfy(
+                        result -> assertThat(result.latencyMillis()).isGreaterThanOrEqualTo(300));
+        assertThat(report.elapsedMillis()).isLessThan(800);
+    }
+
+    @Test
+    void probeAll_shouldReportServerErrorsAsDown() throws InterruptedException {
+        // Given
+        register("jph", "/posts/1");
+        server.setFaults(Faults.NONE.withErrors(1, 503));
+
+        // When
+        ServiceClientProber.ProbeReport report = prober().probeAll(Duration.ofSeconds(5), 512);
+
+        // Then
+        ServiceClientProber.ProbeResult jph = report.clients().get("jph");
+        assertThat(report.up()).isFalse();
+        assertThat(jph.outcome()).isEqualTo("down");
+        assertThat(jph.status()).isEqualTo(503);
+    }
+
+    @Test
+    void probeAllWithin_shouldCapTheRequestAtTheConfiguredLimits() throws InterruptedException {
+        // Given
+        register("jph", "/posts");
+        RestClientContainerProperties containerProperties = new RestClientContainerProperties();
+        containerProperties.getProbe().setMaxBodyBytes(16);
+        containerProperties.getProbe().setTimeout(Duration.ofSeconds(2));
+        ServiceClientProber prober =
+                new ServiceClientProber(container, authProperties, containerProperties);
+
+        // When
+        ServiceClientProber.ProbeReport capped =
+                prober.probeAllWithin(Duration.ofDays(1), Integer.MAX_VALUE - 1);
+        ServiceClientProber.ProbeReport smaller = prober.probeAllWithin(Duration.ofSeconds(1), 8);
+
+        // Then
+        assertThat(capped.timeoutMillis()).isEqualTo(2_000);
+        assertThat(capped.clients().get("jph").body()).hasSize(16);
+        assertThat(smaller.timeoutMillis()).isEqualTo(1_000);
+        assertThat(smaller.clients().get("jph").body()).hasSize(8);
+    }
+
+    private void register(String name, String path) {
+        container.register(
+                name,
+                RestClient.builder()
+                        .baseUrl(server.baseUrl())
+                        .requestFactory(requestFactory)
+                        .build());
+        ClientAuthProperties.Probe probe = new ClientAuthProperties.Probe();
+        probe.setPath(path);
+        ClientAuthProperties authProps = new ClientAuthProperties();
+        authProps.setProbe(probe);
+        authProperties.put(name, authProps);
+    }
+
+    private ServiceClientProber prober() {
+        return new ServiceClientProber(
+                container, authProperties, new RestClientContainerProperties());
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.demo.config.restclient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.example.demo.metrics.RequestMetrics;
+import com.example.demo.metrics.RestClientMetrics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.http.client.ClientHttpRequestFactoryBuilder;
+import org.springframework.boot.http.client.HttpClientSettings;
+import org.springframework.boot.http.client.autoconfigure.HttpClientProperties;
+import org.springframework.boot.http.client.autoconfigure.service.HttpServiceClientProperties;
+import org.springframework.boot.ssl.DefaultSslBundleRegistry;
+import org.springframework.boot.ssl.SslBundle;
+import org.springframework.boot.ssl.SslStoreBundle;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+
+import com.sun.net.httpserver.HttpServer;
+
+class ServiceClientRequestFactoriesTest {
+
+    private HttpServer server;
+    private RestClientMetrics metrics;
+    private ServiceClientRequestFactories requestFactories;
+    private RestClient restClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext(
+                "/ping",
+                exchange -> {
+                    byte[] body = "pong".getBytes(StandardCharsets.UTF_8);
+                    exchange.sendResponseHeaders(200, body.length);
+                    exchange.getResponseBody().write(body);
+                    exchange.close();
+                });
+        server.start();
+
+        String baseUrl = "http://localhost:" + server.getAddress().getPort();
+        HttpClientProperties clientProps = new HttpClientProperties();
+        clientProps.setBaseUrl(baseUrl);
+        HttpServiceClientProperties httpServiceClientProperties = new HttpServiceClientProperties();
+        httpServiceClientProperties.put("stub", clientProps);
+
+        metrics = new RestClientMetrics();
+        requestFactories =
+                new ServiceClientRequestFactories(
+                        ClientHttpRequestFactoryBuilder.httpComponents(),
+                        HttpClientSettings.defaults(),
+                        httpServiceClientProperties,
+                        new ServiceClientAuthProperties(),
+                        metrics);
+        requestFactories.start();
+        restClient =
+                RestClient.builder()
+                        .baseUrl(baseUrl)
+                        .requestFactory(requestFactories.get("stub"))
+                        .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        requestFactories.destroy();
+        server.stop(0);
+    }
+
+    @Test
+    void get_shouldReturnSameFactoryForSameName() {
+        // When / Then
+        assertThat(requestFactories.get("stub")).isSameAs(requestFactories.get("stub"));
+        assertThatIllegalArgumentException().isThrownBy(() -> requestFactories.get("unknown"));
+    }
+
+    @Test
+    void stopAndStart_shouldReopenPoolForExistingClients() {
+        // Given
+        assertThat(restClient.get().uri("/ping").retrieve().body(String.class)).isEqualTo("pong");
+
+        // When (what a CRaC checkpoint and restore do)
+        requestFactories.stop();
+        assertThat(requestFactories.isRunning()).isFalse();
+        requestFactories.start();
+
+        // Then
+        assertThat(requestFactories.isRunning()).isTrue();
+        assertThat(restClient.get().uri("/ping").retrieve().body(String.class)).isEqualTo("pong");
+    }
+
+    @Test
+    void createRequest_shouldRecordMetricsPerMethodAndUriTemplate() {
+        // When
+        restClient.get().uri("/{path}", "ping").retrieve().body(String.class);
+        restClient.get().uri("/{path}", "ping").retrieve().body(String.class);
+        assertThatExceptionOfType(HttpClientErrorException.class)
+                .isThrownBy(() -> restClient.get().uri("/missing").retrieve().body(String.class));
+
+        // Then
+        Map<String, RequestMetrics.Summary> summaries = metrics.summarize().get("stub");
+        assertThat(summaries).containsOnlyKeys("GET /{path}", "GET /missing");
+
+        RequestMetrics.Summary ping = summaries.get("GET /{path}");
+        assertThat(ping.count()).isEqualTo(2);
+        assertThat(ping.statusClasses()).containsEntry("2xx", 2L);
+        assertThat(ping.errorRate()).isZero();
+        assertThat(ping.averageRatePerSecond()).isPositive();
+        assertThat(ping.p50Ms()).isPositive().isLessThanOrEqualTo(ping.maxMs());
+
+        RequestMetrics.Summary missing = summaries.get("GET /missing");
+        assertThat(missing.count()).isEqualTo(1);
+        assertThat(missing.statusClasses()).containsEntry("4xx", 1L);
+    }
+
+    @Test
+    void get_shouldApplyThePerClientSslBundle() {
+        // Given
+        SslBundle bundle = SslBundle.of(SslStoreBundle.NONE);
+        DefaultSslBundleRegistry sslBundles = new DefaultSslBundleRegistry("client", bundle);
+        HttpClientProperties clientProps = new HttpClientProperties();
+        clientProps.setBaseUrl("https://localhost");
+        clientProps.getSsl().setBundle("client");
+        HttpServiceClientProperties httpServiceClientProperties = new HttpServiceClientProperties();
+        httpServiceClientProperties.put("secure", clientProps);
+        AtomicReference<HttpClientSettings> built = new AtomicReference<>();
+        ServiceClientRequestFactories factories =
+                new ServiceClientRequestFactories(
+                        settings -> {
+                            built.set(settings);
+                            return new SimpleClientHttpRequestFactory();
+                        },
+                        HttpClientSettings.defaults(),
+                        httpServiceClientProperties,
+                        new ServiceClientAuthProperties(),
+                        null,
+                        sslBundles);
+
+        // When
+        try {
+            factories.get("secure");
+        } finally {
+            factories.destroy();
+        }
+
+        // Then
+        assertThat(built.get().sslBundle()).isSameAs(bundle);
+    }
+}
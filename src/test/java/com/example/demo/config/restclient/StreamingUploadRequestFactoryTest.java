@@ -0,0 +1,205 @@
+package com.example.demo.config.restclient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.example.demo.client.httpbin.HttpBinClient;
+import com.example.demo.metrics.HttpExchangeEventInterceptor;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestClient;
+
+import com.sun.net.httpserver.HttpServer;
+
+class StreamingUploadRequestFactoryTest {
+
+    private static final int SIZE = 4_000_000;
+
+    @TempDir Path directory;
+
+    private HttpServer server;
+    private final List<byte[]> received = new CopyOnWriteArrayList<>();
+    private final List<HttpHeaders> receivedHeaders = new CopyOnWriteArrayList<>();
+    private final List<Integer> interceptedBodies = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean intercepted = new AtomicBoolean();
+    private RestClient.Builder builder;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext(
+                "/",
+                exchange -> {
+                    HttpHeaders headers = new HttpHeaders();
+                    exchange.getRequestHeaders().forEach(headers::addAll);
+                    receivedHeaders.add(headers);
+                    try (InputStream body = exchange.getRequestBody()) {
+                        received.add(body.readAllBytes());
+                    }
+                    exchange.sendResponseHeaders(200, -1);
+                    exchange.close();
+                });
+        server.start();
+
+        // A plain interceptor that sets a header, as OAuth2's does
+        ClientHttpRequestInterceptor bearer =
+                (request, body, execution) -> {
+                    interceptedBodies.add(body.length);
+                    intercepted.set(true);
+                    request.getHeaders().setBearerAuth("token");
+                    return execution.execute(request, body);
+                };
+        ClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory();
+        builder =
+                RestClient.builder()
+                        .baseUrl("http://localhost:" + server.getAddress().getPort())
+                        .requestInterceptor(new HttpExchangeEventInterceptor("httpbin"))
+                        .requestInterceptor(bearer);
+        StreamingUploadRequestFactory.apply(builder, requestFactory);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void upload_shouldStreamTheFileAfterTheInterceptorsRan() throws IOException {
+        // Given
+        HttpBinClient client = HttpExchangeClients.create(builder.build(), HttpBinClient.class);
+        Path file = directory.resolve("artifact.bin");
+        Files.write(file, content(SIZE));
+
+        // When
+        ResponseEntity<Void> response = client.upload(file);
+
+        // Then: the interceptor saw no body, and the upstream all of it
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(interceptedBodies).containsExactly(0);
+        assertThat(received).singleElement().isEqualTo(content(SIZE));
+        HttpHeaders headers = receivedHeaders.getFirst();
+        assertThat(headers.getFirst(HttpHeaders.AUTHORIZATION)).isEqualTo("Bearer token");
+        assertThat(headers.getContentLength()).isEqualTo(SIZE);
+    }
+
+    @Test
+    void uploadForm_shouldStreamMultipartParts() throws IOException {
+        // Given
+        HttpBinClient client = HttpExchangeClients.create(builder.build(), HttpBinClient.class);
+        Path file = directory.resolve("artifact.bin");
+        Files.write(file, content(SIZE));
+        MultiValueMap<String, Object> parts = new LinkedMultiValueMap<>();
+        parts.add("description", "nightly build");
+        parts.add("file", new FileSystemResource(file));
+
+        // When
+        client.uploadForm(parts);
+
+        // Then
+        assertThat(interceptedBodies).containsExactly(0);
+        byte[] body = received.getFirst();
+        assertThat(body.length).isGreaterThan(SIZE);
+        assertThat(new String(body, 0, 1024, StandardCharsets.ISO_8859_1))
+                .contains("nightly build")
+                .contains("filename=\"artifact.bin\"");
+        assertThat(receivedHeaders.getFirst().getFirst(HttpHeaders.CONTENT_TYPE))
+                .startsWith("multipart/form-data");
+    }
+
+    @Test
+    void body_shouldBeReadOnlyOnceTheRequestIsSent() {
+        // Given: a stream that is never held in memory as a whole
+        AtomicBoolean readBeforeInterception = new AtomicBoolean();
+        InputStream upload =
+                new InputStream() {
+                    private int position;
+
+                    @Override
+                    public int read() {
+                        if (!intercepted.get()) {
+                            readBeforeInterception.set(true);
+                        }
+                        return (position < SIZE) ? (position++ % 251) : -1;
+                    }
+                };
+
+        // When
+        builder.build().post().uri("/anything").body(upload).retrieve().toBodilessEntity();
+
+        // Then
+        assertThat(readBeforeInterception).isFalse();
+        assertThat(received).singleElement().isEqualTo(content(SIZE));
+        assertThat(receivedHeaders.getFirst().getFirst(HttpHeaders.CONTENT_TYPE))
+                .isEqualTo("application/octet-stream");
+    }
+
+    @Test
+    void upload_shouldFailIfAnInterceptorReplacesTheBody() throws IOException {
+        // Given
+        RestClient.Builder signing =
+                RestClient.builder()
+                        .baseUrl("http://localhost:" + server.getAddress().getPort())
+                        .requestInterceptor(
+                                (request, body, execution) ->
+                                        execution.execute(request, "signed".getBytes()));
+        StreamingUploadRequestFactory.apply(signing, new JdkClientHttpRequestFactory());
+        HttpBinClient client = HttpExchangeClients.create(signing.build(), HttpBinClient.class);
+        Path file = directory.resolve("artifact.bin");
+        Files.write(file, content(1024));
+
+        // When / Then
+        assertThatIllegalStateException()
+                .isThrownBy(() -> client.upload(file))
+                .withMessageContaining("replaced the streamed body");
+        assertThat(received).isEmpty();
+    }
+
+    @Test
+    void post_shouldStillBufferOtherBodies() {
+        // When
+        builder.build()
+                .post()
+                .uri("/anything")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of("title", "foo"))
+                .retrieve()
+                .toBodilessEntity();
+
+        // Then
+        assertThat(interceptedBodies).containsExactly(15);
+        assertThat(new String(received.getFirst(), StandardCharsets.UTF_8))
+                .isEqualTo("{\"title\":\"foo\"}");
+    }
+
+    private static byte[] content(int size) {
+        byte[] content = new byte[size];
+        for (int i = 0; i < size; i++) {
+            content[i] = (byte) (i % 251);
+        }
+        return content;
+    }
+}
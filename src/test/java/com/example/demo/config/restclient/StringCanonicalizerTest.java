@@ -0,0 +1,174 @@
+package com.example.demo.config.restclient;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.example.demo.model.ApiObject;
+import com.example.demo.model.GeneratedJsonCodecs;
+import com.example.demo.model.User;
+import com.example.demo.stub.UpstreamStubServer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.web.client.RestClient;
+
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.json.JsonMapper;
+
+class StringCanonicalizerTest {
+
+    @Test
+    void canonicalize_shouldReturnTheCachedInstanceOfEqualValues() {
+        // Given
+        StringCanonicalizer canonicalizer = new StringCanonicalizer(16, 64);
+        char[] buffer = "xxGwenboroughxx".toCharArray();
+
+        // When
+        String first = canonicalizer.canonicalize(buffer, 2, 11);
+        String second = canonicalizer.canonicalize("Gwenborough".toCharArray(), 0, 11);
+
+        // Then
+        assertThat(first).isEqualTo("Gwenborough");
+        assertThat(second).isSameAs(first);
+        assertThat(canonicalizer.summarize())
+                .isEqualTo(new StringCanonicalizer.Summary(16, 1, 2, 1, 0.5, 24 + 32));
+    }
+
+    @Test
+    void canonicalize_shouldStayBoundedAndSkipLongValues() {
+        // Given
+        StringCanonicalizer canonicalizer = new StringCanonicalizer(3, 8);
+
+        // When
+        for (int i = 0; i < 100; i++) {
+            canonicalizer.canonicalize(("v" + i).toCharArray(), 0, ("v" + i).length());
+        }
+        String longValue = "a value longer than eight";
+        String read = canonicalizer.canonicalize(longValue.toCharArray(), 0, longValue.length());
+
+        // Then
+        assertThat(read).isEqualTo(longValue);
+        StringCanonicalizer.Summary summary = canonicalizer.summarize();
+        assertThat(summary.maxEntries()).isEqualTo(4);
+        assertThat(summary.entries()).isEqualTo(4);
+        assertThat(summary.lookups()).isEqualTo(100);
+        assertThat(summary.hits()).isZero();
+    }
+
+    @Test
+    void module_shouldShareRepeatedValuesWithReflectiveAndGeneratedBinding() throws IOException {
+        // Given: the fixture users three times over, and an untyped map
+        JsonMapper reflective = JsonMapper.builder().build();
+        List<User> users;
+        try (InputStream fixture =
+                getClass().getClassLoader().getResourceAsStream("stub/jph/users.json")) {
+            users = reflective.readValue(fixture, new TypeReference<List<User>>() {});
+        }
+        List<User> repeated = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            repeated.addAll(users);
+        }
+        byte[] json = reflective.writeValueAsBytes(repeated);
+        int size = users.size();
+
+        for (JsonMapper mapper :
+                List.of(
+                        reflective,
+                        reflective.rebuild().addModule(GeneratedJsonCodecs.module()).build())) {
+            StringCanonicalizer canonicalizer = new StringCanonicalizer(256, 64);
+            JsonMapper canonicalizing = mapper.rebuild().addModule(canonicalizer.module()).build();
+
+            // When
+            List<User> read = canonicalizing.readValue(json, new TypeReference<List<User>>() {});
+            List<Map<String, Object>> maps =
+                    canonicalizing.readValue(
+                            json, new TypeReference<List<Map<String, Object>>>() {});
+
+            // Then
+            assertThat(read).isEqualTo(repeated);
+            assertThat(read.get(2 * size).company().name())
+                    .isSameAs(read.getFirst().company().name());
+            assertThat(read.get(size).address().city()).isSameAs(read.getFirst().address().city());
+            assertThat(maps.get(size).get("email")).isSameAs(read.getFirst().email());
+            // Five of six reads repeat a value, less the values that collide in the table
+            assertThat(canonicalizer.summarize().hitRatio()).isGreaterThan(0.6);
+        }
+    }
+
+    @Test
+    void apply_shouldShareValuesAcrossResponsesOfOneClient() {
+        // Given
+        ClientAuthProperties authProps = new ClientAuthProperties();
+        authProps.setStringCache(new ClientAuthProperties.StringCache());
+        authProps.getStringCache().setEnabled(true);
+        ServiceClientAuthProperties authProperties = new ServiceClientAuthProperties();
+        authProperties.put("jph", authProps);
+        authProperties.put("ara", new ClientAuthProperties());
+        ServiceClientStringCaches stringCaches = new ServiceClientStringCaches(authProperties);
+        ServiceClientJsonMappers jsonMappers =
+                new ServiceClientJsonMappers(
+                        () -> JsonMapper.builder().build(), List.of(), stringCaches);
+
+        try (UpstreamStubServer server = UpstreamStubServer.start()) {
+            RestClient.Builder builder = RestClient.builder().baseUrl(server.baseUrl());
+            jsonMappers.apply("jph", builder);
+            RestClient restClient = builder.build();
+
+            // When
+            List<User> first =
+                    restClient
+                            .get()
+                            .uri("/users")
+                            .retrieve()
+                            .body(new ParameterizedTypeReference<>() {});
+            List<User> second =
+                    restClient
+                            .get()
+                            .uri("/users")
+                            .retrieve()
+                            .body(new ParameterizedTypeReference<>() {});
+
+            // Then
+            assertThat(second.getFirst().company().name())
+                    .isEqualTo("Romaguera-Crona")
+                    .isSameAs(first.getFirst().company().name());
+            assertThat(stringCaches.get("ara")).isNull();
+            assertThat(stringCaches.summarize()).containsOnlyKeys("jph");
+            assertThat(stringCaches.summarize().get("jph").hits()).isPositive();
+            assertThat(stringCaches.summarize().get("jph").savedBytes()).isPositive();
+        }
+    }
+
+    @Test
+    void jsonMapper_shouldShareTheValuesOfLazilyDecodedData() {
+        // Given
+        ClientAuthProperties authProps = new ClientAuthProperties();
+        authProps.setStringCache(new ClientAuthProperties.StringCache());
+        authProps.getStringCache().setEnabled(true);
+        ServiceClientAuthProperties authProperties = new ServiceClientAuthProperties();
+        authProperties.put("ara", authProps);
+        ServiceClientStringCaches stringCaches = new ServiceClientStringCaches(authProperties);
+        JsonMapper mapper =
+                new ServiceClientJsonMappers(
+                                () -> JsonMapper.builder().build(), List.of(), stringCaches)
+                        .get("ara");
+        String json =
+                """
+                {"id": "%s", "name": "MacBook", "data": {"CPU model": "Intel Core i9"}}""";
+
+        // When
+        ApiObject first = mapper.readValue(json.formatted("1"), ApiObject.class);
+        ApiObject second = mapper.readValue(json.formatted("2"), ApiObject.class);
+
+        // Then
+        assertThat(second.data().get("CPU model"))
+                .isEqualTo("Intel Core i9")
+                .isSameAs(first.data().get("CPU model"));
+        assertThat(stringCaches.get("ara").summarize().hits()).isPositive();
+    }
+}
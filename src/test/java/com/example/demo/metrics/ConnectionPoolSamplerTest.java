@@ -0,0 +1,59 @@
+package com.example.demo.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class ConnectionPoolSamplerTest {
+
+    @Test
+    void sample_shouldKeepLatestValuePeaksAndPendingRatio() {
+        // Given
+        Deque<ConnectionPoolStats> samples = new ArrayDeque<>();
+        samples.add(new ConnectionPoolStats("http-components", 2, 3, 0, 5, 5, 0));
+        samples.add(new ConnectionPoolStats("http-components", 5, 0, 4, 5, 5, 0));
+        samples.add(new ConnectionPoolStats("http-components", 1, 4, 0, 5, 7, 2));
+        ConnectionPoolSampler sampler =
+                new ConnectionPoolSampler(
+                        () -> Map.of("stub", samples.remove()), Duration.ofSeconds(5));
+
+        // When
+        sampler.sample();
+        sampler.sample();
+        sampler.sample();
+        ConnectionPoolSampler.Summary summary = sampler.summarize().get("stub");
+
+        // Then
+        assertThat(summary.current().leased()).isEqualTo(1);
+        assertThat(summary.samples()).isEqualTo(3);
+        assertThat(summary.peakLeased()).isEqualTo(5);
+        assertThat(summary.peakPending()).isEqualTo(4);
+        assertThat(summary.pendingRatio()).isEqualTo(0.333);
+        assertThat(summary.openedPerSecond()).isPositive();
+    }
+
+    @Test
+    void startAndStop_shouldSampleOnSchedule() throws InterruptedException {
+        // Given
+        ConnectionPoolSampler sampler =
+                new ConnectionPoolSampler(
+                        () -> Map.of("stub", ConnectionPoolStats.unknown("jdk")),
+                        Duration.ofMillis(10));
+
+        // When
+        sampler.start();
+        Thread.sleep(100);
+        sampler.stop();
+
+        // Then
+        assertThat(sampler.isRunning()).isFalse();
+        assertThat(sampler.summarize().get("stub").samples()).isPositive();
+        assertThat(sampler.summarize().get("stub").peakLeased())
+                .isEqualTo(ConnectionPoolStats.UNKNOWN);
+    }
+}
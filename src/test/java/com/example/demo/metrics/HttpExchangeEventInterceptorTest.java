@@ -0,0 +1,112 @@
+package com.example.demo.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import com.example.demo.config.restclient.ServiceClientAuthProperties;
+import com.example.demo.config.restclient.ServiceClientRequestFactories;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.http.client.ClientHttpRequestFactoryBuilder;
+import org.springframework.boot.http.client.HttpClientSettings;
+import org.springframework.boot.http.client.autoconfigure.HttpClientProperties;
+import org.springframework.boot.http.client.autoconfigure.service.HttpServiceClientProperties;
+import org.springframework.web.client.RestClient;
+
+import com.sun.net.httpserver.HttpServer;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+class HttpExchangeEventInterceptorTest {
+
+    private HttpServer server;
+    private ServiceClientRequestFactories requestFactories;
+    private RestClient restClient;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext(
+                "/ping",
+                exchange -> {
+                    exchange.getRequestBody().readAllBytes();
+                    byte[] body = "pong".getBytes(StandardCharsets.UTF_8);
+                    exchange.sendResponseHeaders(200, body.length);
+                    exchange.getResponseBody().write(body);
+                    exchange.close();
+                });
+        server.start();
+
+        String baseUrl = "http://localhost:" + server.getAddress().getPort();
+        HttpClientProperties clientProps = new HttpClientProperties();
+        clientProps.setBaseUrl(baseUrl);
+        HttpServiceClientProperties httpServiceClientProperties = new HttpServiceClientProperties();
+        httpServiceClientProperties.put("stub", clientProps);
+        requestFactories =
+                new ServiceClientRequestFactories(
+                        ClientHttpRequestFactoryBuilder.httpComponents(),
+                        HttpClientSettings.defaults(),
+                        httpServiceClientProperties,
+                        new ServiceClientAuthProperties(),
+                        new RestClientMetrics());
+        restClient =
+                RestClient.builder()
+                        .baseUrl(baseUrl)
+                        .requestFactory(requestFactories.get("stub"))
+                        .requestInterceptor(new HttpExchangeEventInterceptor("stub"))
+                        .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        requestFactories.destroy();
+        server.stop(0);
+    }
+
+    @Test
+    void intercept_shouldCommitEventPerExchangeWhileRecording(@TempDir Path tempDir)
+            throws IOException {
+        // Given
+        restClient.get().uri("/ping").retrieve().body(String.class); // not recorded
+
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable(HttpExchangeEvent.NAME);
+            recording.start();
+
+            // When
+            restClient.get().uri("/{path}", "ping").retrieve().body(String.class);
+            restClient.post().uri("/ping").body("hello").retrieve().toBodilessEntity();
+
+            recording.stop();
+            Path file = tempDir.resolve("exchanges.jfr");
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+        }
+
+        // Then
+        assertThat(events).hasSize(2);
+        RecordedEvent get = events.get(0);
+        assertThat(get.getString("group")).isEqualTo("stub");
+        assertThat(get.getString("httpMethod")).isEqualTo("GET");
+        assertThat(get.getString("uriTemplate")).endsWith("/{path}");
+        assertThat(get.getString("serviceMethod")).isNull();
+        assertThat(get.getInt("status")).isEqualTo(200);
+        assertThat(get.getLong("bytesIn")).isEqualTo(4);
+        assertThat(get.getLong("poolWait")).isGreaterThanOrEqualTo(0);
+        assertThat(get.getDuration().isNegative()).isFalse();
+
+        RecordedEvent post = events.get(1);
+        assertThat(post.getString("httpMethod")).isEqualTo("POST");
+        assertThat(post.getLong("bytesOut")).isEqualTo(5);
+    }
+}
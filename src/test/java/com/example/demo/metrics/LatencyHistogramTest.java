@@ -0,0 +1,101 @@
+package com.example.demo.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+
+class LatencyHistogramTest {
+
+    @Test
+    void getValueAtPercentile_shouldBeWithinHistogramPrecision() {
+        // Given: 1 ms to 10 s, uniformly
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1_000; micros <= 10_000_000; micros += 1_000) {
+            histogram.recordNanos(micros * 1_000);
+        }
+
+        // When
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        // Then
+        assertThat(snapshot.getCount()).isEqualTo(10_000);
+        assertThat(snapshot.getMaxMicros()).isEqualTo(10_000_000);
+        assertThat(snapshot.getValueAtPercentile(50)).isCloseTo(5_000_000L, within(80_000L));
+        assertThat(snapshot.getValueAtPercentile(99)).isCloseTo(9_900_000L, within(160_000L));
+        assertThat(snapshot.getValueAtPercentile(99.9)).isCloseTo(9_990_000L, within(160_000L));
+        assertThat(snapshot.getMeanMicros()).isCloseTo(5_000_500, within(1.0));
+    }
+
+    @Test
+    void outputPercentileDistribution_shouldWriteHdrHistogramText() {
+        // Given: 1 ms to 100 ms, uniformly
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long millis = 1; millis <= 100; millis++) {
+            histogram.recordNanos(millis * 1_000_000);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        // When
+        histogram.snapshot().outputPercentileDistribution(new PrintStream(bytes, true), 1_000);
+        List<String> lines = bytes.toString(StandardCharsets.UTF_8).lines().toList();
+
+        // Then
+        assertThat(lines.getFirst()).contains("Value", "Percentile", "TotalCount");
+        assertThat(lines.get(2)).matches(" +1\\.\\d{3} 0\\.000000000000 +1 +1\\.00");
+        assertThat(lines)
+                .anyMatch(line -> line.matches(" +50\\.\\d+ 0\\.500000000000 +50 +2\\.00"));
+        assertThat(lines).contains("     100.000 1.000000000000        100");
+        assertThat(lines.getLast()).startsWith("#[Buckets =");
+        assertThat(lines.get(lines.size() - 2))
+                .contains("Max     =      100.000", "Total count    =          100");
+    }
+
+    @Test
+    void record_shouldNotAllocate() {
+        // Given
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        ClientMetrics metrics = new ClientMetrics();
+        String uriTemplate = "/posts/{id}";
+        for (int i = 0; i < 100_000; i++) {
+            metrics.record(HttpMethod.GET, uriTemplate, i * 1_000L, 200);
+        }
+
+        // When
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < 100_000; i++) {
+            metrics.record(HttpMethod.GET, uriTemplate, i * 1_000L, (i % 10 == 0) ? 503 : 200);
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+
+        // Then (allow for the measurement itself, not for anything per request)
+        assertThat(allocated).isLessThan(1_024);
+    }
+
+    @Test
+    void record_shouldCapDistinctUriTemplates() {
+        // Given
+        ClientMetrics metrics = new ClientMetrics();
+
+        // When: a caller-built path per request
+        for (int i = 0; i < 1_000; i++) {
+            metrics.record(HttpMethod.GET, "/items/" + i, 1_000L, 200);
+        }
+
+        // Then
+        assertThat(metrics.summarize())
+                .hasSize(ClientMetrics.MAX_URI_TEMPLATES + 1)
+                .containsKey("GET /items/0")
+                .doesNotContainKey("GET /items/999");
+        assertThat(metrics.summarize().get("GET " + ClientMetrics.NO_URI_TEMPLATE).count())
+                .isEqualTo(1_000 - ClientMetrics.MAX_URI_TEMPLATES);
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.demo.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.MapperFeature;
+import tools.jackson.databind.PropertyNamingStrategies;
+import tools.jackson.databind.exc.MismatchedInputException;
+import tools.jackson.databind.exc.UnrecognizedPropertyException;
+import tools.jackson.databind.json.JsonMapper;
+
+class GeneratedJsonCodecsTest {
+
+    private final JsonMapper reflective =
+            JsonMapper.builder().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES).build();
+
+    private final JsonMapper generated =
+            reflective.rebuild().addModule(GeneratedJsonCodecs.module()).build();
+
+    @Test
+    void module_shouldReadTheFixturesLikeReflectiveBinding() throws IOException {
+        // Given
+        byte[] users = fixture("stub/jph/users.json");
+        byte[] posts = fixture("stub/jph/posts.json");
+        byte[] comments = fixture("stub/jph/comments.json");
+        byte[] objects = fixture("stub/ara/objects.json");
+        byte[] githubUser = fixture("stub/github/user.json");
+
+        // When / Then: nested records, maps, primitives and properties the records do not declare
+        assertThat(generated.readValue(users, new TypeReference<List<User>>() {}))
+                .isNotEmpty()
+                .isEqualTo(reflective.readValue(users, new TypeReference<List<User>>() {}));
+        assertThat(generated.readValue(posts, new TypeReference<List<Post>>() {}))
+                .isEqualTo(reflective.readValue(posts, new TypeReference<List<Post>>() {}));
+        assertThat(generated.readValue(comments, new TypeReference<List<Comment>>() {}))
+                .isEqualTo(reflective.readValue(comments, new TypeReference<List<Comment>>() {}));
+        assertThat(generated.readValue(objects, new TypeReference<List<ApiObject>>() {}))
+                .isEqualTo(reflective.readValue(objects, new TypeReference<List<ApiObject>>() {}));
+        assertThat(generated.readValue(githubUser, GithubUser.class))
+                .isEqualTo(reflective.readValue(githubUser, GithubUser.class));
+    }
+
+    @Test
+    void module_shouldWriteTheSameJsonAsReflectiveBinding() throws IOException {
+        // Given
+        List<User> users =
+                reflective.readValue(
+                        fixture("stub/jph/users.json"), new TypeReference<List<User>>() {});
+        User withNulls = new User(11L, "name", null, null, null, null, null, null);
+        BasicAuthResponse auth = new BasicAuthResponse(true, "user");
+
+        // When
+        String written = generated.writeValueAsString(users);
+        String nulls = generated.writeValueAsString(withNulls);
+
+        // Then
+        assertThat(written).isEqualTo(reflective.writeValueAsString(users));
+        assertThat(nulls).isEqualTo(reflective.writeValueAsString(withNulls));
+        assertThat(generated.writeValueAsString(auth))
+                .isEqualTo(reflective.writeValueAsString(auth));
+    }
+
+    @Test
+    void module_shouldApplyPropertyInclusionLikeReflectiveBinding() {
+        // Given
+        User user =
+                new User(
+                        11L,
+                        "",
+                        null,
+                        null,
+                        new User.Address(null, "", "city", null, new User.Address.Geo(null, "1")),
+                        null,
+                        null,
+                        new User.Company("", null, null));
+        GithubUser githubUser = new GithubUser("octocat", 0, null);
+
+        for (JsonInclude.Include inclusion :
+                List.of(
+                        JsonInclude.Include.NON_NULL,
+                        JsonInclude.Include.NON_EMPTY,
+                        JsonInclude.Include.NON_DEFAULT)) {
+            JsonMapper reflectiveWithInclusion =
+                    reflective.rebuild().changeDefaultPropertyInclusion(include(inclusion)).build();
+            JsonMapper generatedWithInclusion =
+                    generated.rebuild().changeDefaultPropertyInclusion(include(inclusion)).build();
+
+            // When / Then
+            assertThat(generatedWithInclusion.writeValueAsString(user))
+                    .as(inclusion.name())
+                    .isEqualTo(reflectiveWithInclusion.writeValueAsString(user));
+            assertThat(generatedWithInclusion.writeValueAsString(List.of(githubUser)))
+                    .as(inclusion.name())
+                    .isEqualTo(reflectiveWithInclusion.writeValueAsString(List.of(githubUser)));
+        }
+    }
+
+    @Test
+    void module_shouldBindLikeReflectiveBindingWithRenamedOrCaseInsensitiveProperties() {
+        // Given
+        JsonMapper reflectiveSnakeCase =
+                reflective
+                        .rebuild()
+                        .propertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE)
+                        .build();
+        JsonMapper generatedSnakeCase =
+                generated
+                        .rebuild()
+                        .propertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE)
+                        .build();
+        JsonMapper generatedCaseInsensitive =
+                generated
+                        .rebuild()
+                        .enable(MapperFeature.ACCEPT_CASE_INSENSITIVE_PROPERTIES)
+                        .build();
+        Post post = new Post(1L, 2L, "title", "body");
+
+        // When / Then
+        assertThat(generatedSnakeCase.writeValueAsString(post))
+                .isEqualTo(reflectiveSnakeCase.writeValueAsString(post))
+                .contains("\"user_id\":2");
+        assertThat(
+                        generatedSnakeCase.readValue(
+                                "{\"id\":1,\"user_id\":2,\"title\":\"title\",\"body\":\"body\"}",
+                                Post.class))
+                .isEqualTo(post);
+        assertThat(
+                        generatedCaseInsensitive.readValue(
+                                "{\"ID\":1,\"UserId\":2,\"TITLE\":\"title\",\"body\":\"body\"}",
+                                Post.class))
+                .isEqualTo(post);
+    }
+
+    private static UnaryOperator<JsonInclude.Value> include(JsonInclude.Include inclusion) {
+        return value -> value.withValueInclusion(inclusion);
+    }
+
+    @Test
+    void module_shouldHandleNullsAndCoercionsLikeReflectiveBinding() {
+        // Given
+        String json = "{\"id\": \"5\", \"userId\": null, \"title\": 42}";
+        String primitive = "{\"login\": \"octocat\", \"id\": null}";
+        JsonMapper lenient =
+                generated
+                        .rebuild()
+                        .disable(DeserializationFeature.FAIL_ON_NULL_FOR_PRIMITIVES)
+                        .build();
+
+        // When
+        Post post = generated.readValue(json, Post.class);
+        GithubUser githubUser = lenient.readValue(primitive, GithubUser.class);
+
+        // Then
+        assertThat(post).isEqualTo(new Post(5L, null, "42", null));
+        assertThat(githubUser).isEqualTo(new GithubUser("octocat", 0, null));
+        assertThatExceptionOfType(MismatchedInputException.class)
+                .isThrownBy(() -> generated.readValue(primitive, GithubUser.class));
+    }
+
+    @Test
+    void module_shouldRejectUnknownPropertiesIfConfigured() {
+        // Given
+        JsonMapper strict =
+                generated
+                        .rebuild()
+                        .enable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                        .build();
+
+        // When / Then
+        assertThatExceptionOfType(UnrecognizedPropertyException.class)
+                .isThrownBy(() -> strict.readValue("{\"id\": 1, \"likes\": 3}", Post.class))
+                .withMessageContaining("likes");
+    }
+
+    private static byte[] fixture(String location) throws IOException {
+        try (InputStream fixture =
+                GeneratedJsonCodecsTest.class.getClassLoader().getResourceAsStream(location)) {
+            return fixture.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.demo.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.DeserializationFeature;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+class LazyJsonObjectTest {
+
+    private static final String OBJECT =
+            """
+            {"id": "7", "name": "MacBook", "data": {"year": 2019, "price": 1849.990, \
+            "CPU model": "Intel Core i9", "specs": {"ram": [16, 32]}, "color": null}}""";
+
+    private final JsonMapper reflective = JsonMapper.builder().build();
+    private final JsonMapper generated =
+            reflective.rebuild().addModule(GeneratedJsonCodecs.module()).build();
+
+    @Test
+    void deserializer_shouldKeepDataAsBytesAndDecodeOnlyAccessedKeys() {
+        for (JsonMapper mapper : List.of(reflective, generated)) {
+            // When
+            ApiObject object = mapper.readValue(OBJECT, ApiObject.class);
+
+            // Then
+            assertThat(object.data()).isInstanceOf(LazyJsonObject.class);
+            assertThat(object.data().get("year")).isEqualTo(2019);
+            assertThat(object.data().get("specs")).isEqualTo(Map.of("ram", List.of(16, 32)));
+            assertThat(object.data().get("color")).isNull();
+            assertThat(object.data().get("missing")).isNull();
+            assertThat(object.data()).containsKey("color").doesNotContainKey("missing").hasSize(5);
+        }
+    }
+
+    @Test
+    void deserializer_shouldCollectLargeObjectsIntoExactlySizedBytes() {
+        // Given
+        Map<String, Object> data = new LinkedHashMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            data.put("key" + i, (i % 2 == 0) ? i : null);
+        }
+        String json = reflective.writeValueAsString(Map.of("id", "8", "data", data));
+
+        // When
+        ApiObject object = generated.readValue(json, ApiObject.class);
+
+        // Then
+        LazyJsonObject lazy = (LazyJsonObject) object.data();
+        assertThat(lazy.json()).isEqualTo(reflective.writeValueAsBytes(data));
+        assertThat(lazy.get("key9998")).isEqualTo(9998);
+        assertThat(lazy.get("key9999")).isNull();
+        assertThat(lazy.get("key9999")).isNull();
+        assertThat(lazy).isEqualTo(data);
+    }
+
+    @Test
+    void lazyJsonObject_shouldEqualTheEagerlyDecodedMap() {
+        // Given
+        Map<String, Object> eager =
+                reflective.readValue(OBJECT, new TypeReference<Map<String, Object>>() {});
+        @SuppressWarnings("unchecked")
+        Map<String, Object> eagerData = (Map<String, Object>) eager.get("data");
+
+        // When
+        Map<String, Object> lazy = generated.readValue(OBJECT, ApiObject.class).data();
+
+        // Then
+        assertThat(lazy).isEqualTo(eagerData);
+        assertThat(eagerData).isEqualTo(lazy);
+        assertThat(lazy.hashCode()).isEqualTo(eagerData.hashCode());
+        assertThat(lazy.toString()).isEqualTo(eagerData.toString());
+    }
+
+    @Test
+    void decodeWith_shouldDecodeValuesWithTheMapperThatReadTheObject() {
+        // Given
+        JsonMapper bigDecimals =
+                generated
+                        .rebuild()
+                        .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+                        .build();
+
+        // When
+        Map<String, Object> bound =
+                LazyJsonObject.decodeWith(bigDecimals).readValue(OBJECT, ApiObject.class).data();
+        Map<String, Object> unbound = bigDecimals.readValue(OBJECT, ApiObject.class).data();
+
+        // Then
+        assertThat(bound.get("price")).isEqualTo(new BigDecimal("1849.990"));
+        assertThat(bound.values()).contains(new BigDecimal("1849.990"));
+        assertThat(unbound.get("price")).isEqualTo(1849.99);
+    }
+
+    @Test
+    void lazyJsonObject_shouldCopyOnWriteAndWriteTheModifiedMap() {
+        // Given
+        Map<String, Object> data = generated.readValue(OBJECT, ApiObject.class).data();
+        String unmodified = generated.writeValueAsString(data);
+
+        // When
+        data.put("year", 2020);
+        data.remove("color");
+        data.entrySet().removeIf(entry -> entry.getKey().equals("specs"));
+        data.entrySet().stream()
+                .filter(entry -> entry.getKey().equals("CPU model"))
+                .forEach(entry -> entry.setValue("Apple M1"));
+
+        // Then
+        assertThat(unmodified).contains("\"price\":1849.990");
+        assertThat(data).hasSize(3).containsEntry("year", 2020).doesNotContainKey("color");
+        assertThat(generated.writeValueAsString(data))
+                .isEqualTo("{\"year\":2020,\"price\":1849.99,\"CPU model\":\"Apple M1\"}");
+    }
+
+    @Test
+    void serializer_shouldCopyTheBytesThroughToUpdateRequests() {
+        // Given
+        ApiObject object = generated.readValue(OBJECT, ApiObject.class);
+        String data = new String(((LazyJsonObject) object.data()).json());
+
+        // When
+        String request =
+                generated.writeValueAsString(new ApiObjectRequest("Updated", object.data()));
+
+        // Then: the number keeps its trailing zero, which decoding and re-encoding would drop
+        assertThat(data).contains("\"price\":1849.990");
+        assertThat(request).isEqualTo("{\"name\":\"Updated\",\"data\":" + data + "}");
+    }
+
+    @Test
+    void serializer_shouldCopyTokensToOtherFormats() {
+        // Given
+        ApiObject object = generated.readValue(OBJECT, ApiObject.class);
+        Map<String, Object> eager = new LinkedHashMap<>(object.data());
+        CBORMapper cbor = CBORMapper.builder().build();
+
+        // When
+        byte[] request = cbor.writeValueAsBytes(new ApiObjectRequest("Updated", object.data()));
+
+        // Then: the same values, and number types, as writing the decoded map
+        assertThat(cbor.readValue(request, ApiObjectRequest.class))
+                .isEqualTo(
+                        cbor.readValue(
+                                cbor.writeValueAsBytes(new ApiObjectRequest("Updated", eager)),
+                                ApiObjectRequest.class));
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.demo.runner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+
+class LoadGeneratorTest {
+
+    @Test
+    void run_shouldSendAtTheTargetRateSplitByWeight() {
+        // Given
+        LoadGenerator generator =
+                new LoadGenerator(
+                        List.of(
+                                new LoadGenerator.Operation("a", 3, () -> {}),
+                                new LoadGenerator.Operation("b", 1, () -> {})),
+                        200,
+                        100);
+
+        // When
+        LoadGenerator.Result result = generator.run(Duration.ZERO, Duration.ofSeconds(1));
+
+        // Then
+        long a = result.operations().get(0).succeeded();
+        long b = result.operations().get(1).succeeded();
+        assertThat(a + b).isEqualTo(200);
+        assertThat(a).isGreaterThan(b);
+        assertThat(result.dropped()).isZero();
+    }
+
+    @Test
+    void run_shouldMeasureLatencyFromTheScheduledStart() {
+        // Given: an upstream that serves one request at a time, 50 ms each, offered 100 req/s
+        ReentrantLock upstream = new ReentrantLock();
+        LoadGenerator generator =
+                new LoadGenerator(
+                        List.of(
+                                new LoadGenerator.Operation(
+                                        "serial",
+                                        1,
+                                        () -> {
+                                            upstream.lock();
+                                            try {
+                                                Thread.sleep(50);
+                                            } catch (InterruptedException e) {
+                                                Thread.currentThread().interrupt();
+                                            } finally {
+                                                upstream.unlock();
+                                            }
+                                        })),
+                        100,
+                        100);
+
+        // When
+        LoadGenerator.Result result = generator.run(Duration.ZERO, Duration.ofMillis(300));
+
+        // Then: the last of 30 requests queued behind 29 others, not just its own 50 ms
+        LoadGenerator.OperationResult serial = result.operations().getFirst();
+        assertThat(serial.succeeded()).isEqualTo(30);
+        assertThat(serial.latency().getMaxMicros()).isGreaterThan(1_000_000);
+    }
+
+    @Test
+    void run_shouldCountErrorsByStatusAndDropBeyondMaxInFlight() throws InterruptedException {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        LoadGenerator generator =
+                new LoadGenerator(
+                        List.of(
+                                new LoadGenerator.Operation(
+                                        "failing",
+                                        1,
+                                        () -> {
+                                            throw new HttpServerErrorException(
+                                                    HttpStatus.SERVICE_UNAVAILABLE);
+                                        })),
+                        100,
+                        100);
+        LoadGenerator stuck =
+                new LoadGenerator(
+                        List.of(
+                                new LoadGenerator.Operation(
+                                        "stuck",
+                                        1,
+                                        () -> {
+                                            try {
+                                                release.await();
+                                            } catch (InterruptedException e) {
+                                                Thread.currentThread().interrupt();
+                                            }
+                                        })),
+                        100,
+                        5);
+
+        // When
+        LoadGenerator.Result failing = generator.run(Duration.ZERO, Duration.ofMillis(200));
+        Thread releaser =
+                Thread.startVirtualThread(
+                        () -> {
+                            try {
+                                Thread.sleep(300);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                            release.countDown();
+                        });
+        LoadGenerator.Result dropped = stuck.run(Duration.ZERO, Duration.ofMillis(200));
+        releaser.join();
+
+        // Then
+        assertThat(failing.operations().getFirst().errors()).isEqualTo(Map.of("HTTP 503", 20L));
+        assertThat(dropped.operations().getFirst().succeeded()).isEqualTo(5);
+        assertThat(dropped.dropped()).isEqualTo(15);
+    }
+}
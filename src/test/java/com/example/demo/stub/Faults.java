@@ -0,0 +1,91 @@
+package com.example.demo.stub;
+
+import java.time.Duration;
+import java.util.random.RandomGenerator;
+
+/**
+ * Faults {@link UpstreamStubServer} injects into the requests it serves. Each rate is a probability
+ * between 0 and 1, drawn independently per request.
+ *
+ * @param latency delay before the response headers
+ * @param errorRate share of requests answered with {@code errorStatus} instead of the fixture
+ * @param errorStatus status of injected errors
+ * @param resetRate share of connections reset (RST) after the request was read
+ * @param slowBodyRate share of responses whose body is trickled out in chunks
+ * @param slowBodyDelay pause before each body chunk of a slow response
+ */
+public record Faults(
+        Latency latency,
+        double errorRate,
+        int errorStatus,
+        double resetRate,
+        double slowBodyRate,
+        Duration slowBodyDelay) {
+
+    public static final Faults NONE = new Faults(Latency.NONE, 0, 503, 0, 0, Duration.ZERO);
+
+    public Faults {
+        checkRate("errorRate", errorRate);
+        checkRate("resetRate", resetRate);
+        checkRate("slowBodyRate", slowBodyRate);
+    }
+
+    private static void checkRate(String name, double rate) {
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException(name + " must be between 0 and 1: " + rate);
+        }
+    }
+
+    public Faults withLatency(Latency latency) {
+        return new Faults(latency, errorRate, errorStatus, resetRate, slowBodyRate, slowBodyDelay);
+    }
+
+    public Faults withErrors(double rate, int status) {
+        return new Faults(latency, rate, status, resetRate, slowBodyRate, slowBodyDelay);
+    }
+
+    public Faults withResets(double rate) {
+        return new Faults(latency, errorRate, errorStatus, rate, slowBodyRate, slowBodyDelay);
+    }
+
+    public Faults withSlowBody(double rate, Duration chunkDelay) {
+        return new Faults(latency, errorRate, errorStatus, resetRate, rate, chunkDelay);
+    }
+
+    /** A distribution of upstream latency. */
+    @FunctionalInterface
+    public interface Latency {
+
+        Latency NONE = random -> Duration.ZERO;
+
+        Duration next(RandomGenerator random);
+
+        static Latency fixed(Duration latency) {
+            return random -> latency;
+        }
+
+        static Latency uniform(Duration min, Duration max) {
+            long minNanos = min.toNanos();
+            long maxNanos = max.toNanos();
+            if (maxNanos < minNanos) {
+                throw new IllegalArgumentException("max must not be less than min");
+            }
+            return random -> Duration.ofNanos(random.nextLong(minNanos, maxNanos + 1));
+        }
+
+        /**
+         * A fixed floor plus an exponential tail, the usual shape of a real upstream: most
+         * responses are close to {@code min}, a few are many times {@code mean} slower.
+         *
+         * @param min the latency no response is faster than
+         * @param mean the mean of the tail added on top of {@code min}
+         * @return the distribution
+         */
+        static Latency exponential(Duration min, Duration mean) {
+            long minNanos = min.toNanos();
+            double meanNanos = mean.toNanos();
+            return random ->
+                    Duration.ofNanos(minNanos + (long) (random.nextExponential() * meanNanos));
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package com.example.demo.stub;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.jspecify.annotations.Nullable;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.node.ObjectNode;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.smile.SmileMapper;
+
+/**
+ * The upstream contracts of the service groups, answered from the JSON fixtures under {@code stub/}
+ * on the test classpath: JSONPlaceholder (jph), restful-api.dev (ara), httpbin and the GitHub
+ * {@code /user} endpoint. Writes are echoed back the way the real services answer them but not
+ * stored, so every request sees the same fixtures. JSON answers are re-encoded as CBOR or Smile for
+ * requests that accept one of them, as an internal upstream speaking those formats would.
+ */
+final class StubFixtures {
+
+    /** Path segment an API version inserter puts in front of the path, e.g. {@code /v3/user}. */
+    private static final Pattern VERSION_SEGMENT = Pattern.compile("v?\\d+(\\.\\d+)*");
+
+    private static final String JSON = "application/json";
+    private static final String CBOR = "application/cbor";
+    private static final String SMILE = "application/x-jackson-smile";
+
+    private final JsonMapper mapper = JsonMapper.builder().build();
+    private final CBORMapper cborMapper = CBORMapper.builder().build();
+    private final SmileMapper smileMapper = SmileMapper.builder().build();
+
+    private final List<JsonNode> objects;
+    private final byte[] posts;
+    private final Map<String, byte[]> postsById;
+    private final Map<String, byte[]> postsByUserId;
+    private final Map<String, byte[]> commentsByPostId;
+    private final byte[] users;
+    private final Map<String, byte[]> usersById;
+    private final byte[] html;
+    private final byte[] githubUser;
+
+    StubFixtures() {
+        List<JsonNode> postNodes = readArray("jph/posts.json");
+        List<JsonNode> userNodes = readArray("jph/users.json");
+        this.objects = readArray("ara/objects.json");
+        this.posts = write(postNodes);
+        this.postsById = indexBy(postNodes, "id");
+        this.postsByUserId = groupBy(postNodes, "userId");
+        this.commentsByPostId = groupBy(readArray("jph/comments.json"), "postId");
+        this.users = write(userNodes);
+        this.usersById = indexBy(userNodes, "id");
+        this.html = read("httpbin/html.html");
+        this.githubUser = read("github/user.json");
+    }
+
+    /**
+     * Answer a request.
+     *
+     * @param method the request method
+     * @param path the request path without query
+     * @param query the decoded query parameters
+     * @param authorization the Authorization header, if any
+     * @param body the request body, empty if there is none
+     * @return the response
+     */
+    StubResponse handle(
+            String method,
+            String path,
+            Map<String, List<String>> query,
+            @Nullable String authorization,
+            byte[] body) {
+        List<String> segments = segments(path);
+        if (segments.isEmpty()) {
+            return StubResponse.NOT_FOUND;
+        }
+        try {
+            StubResponse response =
+                    switch (segments.getFirst()) {
+                        case "posts" -> posts(method, segments, body);
+                        case "users" -> users(method, segments);
+                        case "objects" -> objects(method, segments, query, body);
+                        case "basic-auth" -> basicAuth(segments, authorization);
+                        case "html" -> new StubResponse(200, "text/html; charset=utf-8", html);
+                        case "uuid" -> json(200, mapper.createObjectNode().put("uuid", uuid()));
+                        case "user" -> githubUser(segments, authorization);
+                        default -> null;
+                    };
+            return response != null ? response : StubResponse.NOT_FOUND;
+        } catch (JacksonException | IllegalArgumentException e) {
+            return json(400, mapper.createObjectNode().put("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Re-encode a JSON answer in the binary format the request accepts, if any.
+     *
+     * @param response the answer from {@link #handle}
+     * @param accept the Accept header, if any
+     * @return the answer in CBOR or Smile, or the given one
+     */
+    StubResponse encode(StubResponse response, @Nullable String accept) {
+        if (accept == null || !response.contentType().equals(JSON)) {
+            return response;
+        }
+        if (accept.contains(CBOR)) {
+            return new StubResponse(
+                    response.status(),
+                    CBOR,
+                    cborMapper.writeValueAsBytes(mapper.readTree(response.body())));
+        }
+        if (accept.contains(SMILE)) {
+            return new StubResponse(
+                    response.status(),
+                    SMILE,
+                    smileMapper.writeValueAsBytes(mapper.readTree(response.body())));
+        }
+        return response;
+    }
+
+    private @Nullable StubResponse posts(String method, List<String> segments, byte[] body) {
+        return switch (segments.size()) {
+            case 1 ->
+                    switch (method) {
+                        case "GET" -> new StubResponse(200, JSON, posts);
+                        case "POST" -> json(201, readObject(body).put("id", 101));
+                        default -> null;
+                    };
+            case 2 ->
+                    switch (method) {
+                        case "GET" -> found(postsById.get(segments.get(1)));
+                        case "PUT" ->
+                                json(
+                                        200,
+                                        readObject(body)
+                                                .put("id", Long.parseLong(segments.get(1))));
+                        case "DELETE" ->
+                                new StubResponse(200, JSON, "{}".getBytes(StandardCharsets.UTF_8));
+                        default -> null;
+                    };
+            case 3 ->
+                    method.equals("GET") && segments.get(2).equals("comments")
+                            ? list(commentsByPostId.get(segments.get(1)))
+                            : null;
+            default -> null;
+        };
+    }
+
+    private @Nullable StubResponse users(String method, List<String> segments) {
+        if (!method.equals("GET")) {
+            return null;
+        }
+        return switch (segments.size()) {
+            case 1 -> new StubResponse(200, JSON, users);
+            case 2 -> found(usersById.get(segments.get(1)));
+            case 3 ->
+                    segments.get(2).equals("posts")
+                            ? list(postsByUserId.get(segments.get(1)))
+                            : null;
+            default -> null;
+        };
+    }
+
+    private @Nullable StubResponse objects(
+            String method, List<String> segments, Map<String, List<String>> query, byte[] body) {
+        if (segments.size() == 1) {
+            return switch (method) {
+                case "GET" -> {
+                    List<String> ids = query.getOrDefault("id", List.of());
+                    yield json(
+                            200,
+                            mapper.createArrayNode()
+                                    .addAll(
+                                            objects.stream()
+                                                    .filter(
+                                                            object ->
+                                                                    ids.isEmpty()
+                                                                            || ids.contains(
+                                                                                    id(object)))
+                                                    .toList()));
+                }
+                case "POST" ->
+                        json(
+                                200,
+                                readObject(body)
+                                        .put("id", uuid())
+                                        .put("createdAt", Instant.now().toString()));
+                default -> null;
+            };
+        }
+        if (segments.size() != 2) {
+            return null;
+        }
+        String id = segments.get(1);
+        JsonNode object =
+                objects.stream().filter(node -> id.equals(id(node))).findFirst().orElse(null);
+        if (object == null) {
+            return json(
+                    404,
+                    mapper.createObjectNode()
+                            .put("error", "Object with id=" + id + " was not found."));
+        }
+        return switch (method) {
+            case "GET" -> json(200, object);
+            case "PUT" ->
+                    json(
+                            200,
+                            readObject(body)
+                                    .put("id", id)
+                                    .put("updatedAt", Instant.now().toString()));
+            case "PATCH" -> {
+                ObjectNode patched = (ObjectNode) object.deepCopy();
+                patched.setAll(readObject(body));
+                yield json(200, patched.put("updatedAt", Instant.now().toString()));
+            }
+            case "DELETE" ->
+                    json(
+                            200,
+                            mapper.createObjectNode()
+                                    .put(
+                                            "message",
+                                            "Object with id = " + id + " has been deleted."));
+            default -> null;
+        };
+    }
+
+    // httpbin answers 200 with the user for matching Basic credentials and an empty 401 otherwise
+    private @Nullable StubResponse basicAuth(
+            List<String> segments, @Nullable String authorization) {
+        if (segments.size() != 3) {
+            return null;
+        }
+        String user = segments.get(1);
+        String expected =
+                "Basic "
+                        + Base64.getEncoder()
+                                .encodeToString(
+                                        (user + ":" + segments.get(2))
+                                                .getBytes(StandardCharsets.UTF_8));
+        if (!expected.equals(authorization)) {
+            return new StubResponse(401, JSON, new byte[0]);
+        }
+        return json(200, mapper.createObjectNode().put("authenticated", true).put("user", user));
+    }
+
+    private StubResponse githubUser(List<String> segments, @Nullable String authorization) {
+        if (segments.size() != 1) {
+            return StubResponse.NOT_FOUND;
+        }
+        if (authorization == null
+                || !(authorization.startsWith("Bearer ") || authorization.startsWith("token "))) {
+            return json(401, mapper.createObjectNode().put("message", "Requires authentication"));
+        }
+        return new StubResponse(200, JSON, githubUser);
+    }
+
+    private static List<String> segments(String path) {
+        List<String> segments = new ArrayList<>();
+        for (String segment : path.split("/")) {
+            if (!segment.isEmpty()) {
+                segments.add(segment);
+            }
+        }
+        if (segments.size() > 1 && VERSION_SEGMENT.matcher(segments.getFirst()).matches()) {
+            segments.removeFirst();
+        }
+        return segments;
+    }
+
+    private StubResponse found(byte @Nullable [] body) {
+        return body != null ? new StubResponse(200, JSON, body) : StubResponse.NOT_FOUND;
+    }
+
+    // JSONPlaceholder answers filters without matches with an empty array
+    private StubResponse list(byte @Nullable [] body) {
+        return new StubResponse(
+                200, JSON, body != null ? body : "[]".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private StubResponse json(int status, JsonNode node) {
+        return new StubResponse(status, JSON, mapper.writeValueAsBytes(node));
+    }
+
+    private ObjectNode readObject(byte[] body) {
+        if (body.length == 0) {
+            return mapper.createObjectNode();
+        }
+        if (!(mapper.readTree(body) instanceof ObjectNode object)) {
+            throw new IllegalArgumentException("Expected a JSON object");
+        }
+        return object;
+    }
+
+    private static String id(JsonNode node) {
+        return node.get("id").asString();
+    }
+
+    private static String uuid() {
+        return UUID.randomUUID().toString();
+    }
+
+    private Map<String, byte[]> indexBy(List<JsonNode> nodes, String field) {
+        return nodes.stream()
+                .collect(
+                        Collectors.toMap(
+                                node -> node.get(field).asString(), mapper::writeValueAsBytes));
+    }
+
+    private Map<String, byte[]> groupBy(List<JsonNode> nodes, String field) {
+        return nodes.stream()
+                .collect(Collectors.groupingBy(node -> node.get(field).asString()))
+                .entrySet()
+                .stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> write(entry.getValue())));
+    }
+
+    private byte[] write(List<JsonNode> nodes) {
+        return mapper.writeValueAsBytes(nodes);
+    }
+
+    private List<JsonNode> readArray(String fixture) {
+        List<JsonNode> nodes = new ArrayList<>();
+        mapper.readTree(read(fixture)).forEach(nodes::add);
+        return nodes;
+    }
+
+    private static byte[] read(String fixture) {
+        try (InputStream in = StubFixtures.class.getResourceAsStream("/stub/" + fixture)) {
+            if (in == null) {
+                throw new IllegalStateException("Missing stub fixture: " + fixture);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read stub fixture: " + fixture, e);
+        }
+    }
+
+    /** A status, content type and body to send back. */
+    record StubResponse(int status, String contentType, byte[] body) {
+
+        static final StubResponse NOT_FOUND =
+                new StubResponse(404, JSON, "{}".getBytes(StandardCharsets.UTF_8));
+    }
+}
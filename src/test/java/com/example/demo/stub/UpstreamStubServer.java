@@ -0,0 +1,287 @@
+package com.example.demo.stub;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.random.RandomGenerator;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.example.demo.stub.StubFixtures.StubResponse;
+
+import org.jspecify.annotations.Nullable;
+import org.reactivestreams.Publisher;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.QueryStringDecoder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+/**
+ * Embedded stand-in for the upstream services on reactor-netty, so clients can be tested end to end
+ * over real sockets without network access. Serves the jph, ara, httpbin and GitHub {@code /user}
+ * contracts from {@link StubFixtures} (in JSON, or CBOR or Smile if accepted) and injects {@link
+ * Faults}: latency, error responses, slow bodies and connection resets.
+ *
+ * <p>Request bodies sent with {@code Content-Encoding: gzip} are decoded. With {@link
+ * #setCompressResponses(boolean)} on, responses are gzip-encoded for clients that accept it, as the
+ * real upstreams do.
+ *
+ * <p>Faults apply to all paths by default and can be overridden per path prefix; the longest
+ * matching prefix wins. They can be changed while the server runs.
+ *
+ * <pre>
+ * try (UpstreamStubServer server = UpstreamStubServer.start()) {
+ *     server.setFaults("/posts", Faults.NONE.withErrors(0.1, 503));
+ *     // point spring.http.serviceclient.jph.base-url at server.baseUrl()
+ * }
+ * </pre>
+ */
+public final class UpstreamStubServer implements AutoCloseable {
+
+    /** Number of chunks a slow body is split into. */
+    private static final int SLOW_BODY_CHUNKS = 8;
+
+    private final StubFixtures fixtures = new StubFixtures();
+    private final Map<String, Faults> faults = new ConcurrentHashMap<>(Map.of("", Faults.NONE));
+    private final AtomicLong requests = new AtomicLong();
+    private final DisposableServer server;
+
+    private volatile boolean compressResponses;
+
+    private UpstreamStubServer(int port) {
+        this.server =
+                HttpServer.create().host("localhost").port(port).handle(this::handle).bindNow();
+    }
+
+    /**
+     * Start a server on a free loopback port.
+     *
+     * @return the started server
+     */
+    public static UpstreamStubServer start() {
+        return start(0);
+    }
+
+    /**
+     * Start a server on the given loopback port.
+     *
+     * @param port the port, 0 for a free one
+     * @return the started server
+     */
+    public static UpstreamStubServer start(int port) {
+        return new UpstreamStubServer(port);
+    }
+
+    /**
+     * Run the stub on {@code localhost:1080}, where the httpbin group points, or on the port given
+     * as the first argument, until the process is stopped.
+     */
+    public static void main(String[] args) {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 1080;
+        UpstreamStubServer server = start(port);
+        server.setCompressResponses(true);
+        System.out.println("=== Upstream stub listening on " + server.baseUrl() + " ===");
+        server.server.onDispose().block();
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + server.port();
+    }
+
+    /** Set the faults of every path without a more specific prefix. */
+    public void setFaults(Faults faults) {
+        setFaults("", faults);
+    }
+
+    /**
+     * Set the faults of the paths starting with the given prefix.
+     *
+     * @param pathPrefix the path prefix, e.g. {@code /posts}
+     * @param faults the faults to inject
+     */
+    public void setFaults(String pathPrefix, Faults faults) {
+        this.faults.put(pathPrefix, faults);
+    }
+
+    /** Remove all faults. */
+    public void clearFaults() {
+        faults.clear();
+        faults.put("", Faults.NONE);
+    }
+
+    /** Gzip-encode responses to requests that accept it. Off by default. */
+    public void setCompressResponses(boolean compressResponses) {
+        this.compressResponses = compressResponses;
+    }
+
+    /**
+     * Get the number of requests received, including those answered with a fault.
+     *
+     * @return the request count
+     */
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+
+    private Publisher<Void> handle(HttpServerRequest request, HttpServerResponse response) {
+        requests.incrementAndGet();
+        QueryStringDecoder uri = new QueryStringDecoder(request.uri());
+        Faults faults = faultsFor(uri.path());
+        return request.receive()
+                .aggregate()
+                .asByteArray()
+                .defaultIfEmpty(new byte[0])
+                .flatMap(
+                        body -> {
+                            RandomGenerator random = ThreadLocalRandom.current();
+                            if (hit(random, faults.resetRate())) {
+                                return reset(request);
+                            }
+                            Mono<Void> delay = delay(faults.latency().next(random));
+                            if (hit(random, faults.errorRate())) {
+                                return delay.then(sendError(response, faults.errorStatus()));
+                            }
+                            HttpHeaders headers = request.requestHeaders();
+                            StubResponse stubResponse =
+                                    fixtures.encode(
+                                            fixtures.handle(
+                                                    request.method().name(),
+                                                    uri.path(),
+                                                    uri.parameters(),
+                                                    headers.get(HttpHeaderNames.AUTHORIZATION),
+                                                    isGzip(
+                                                                    headers.get(
+                                                                            HttpHeaderNames
+                                                                                    .CONTENT_ENCODING))
+                                                            ? gunzip(body)
+                                                            : body),
+                                            headers.get(HttpHeaderNames.ACCEPT));
+                            @Nullable Duration chunkDelay =
+                                    hit(random, faults.slowBodyRate())
+                                            ? faults.slowBodyDelay()
+                                            : null;
+                            boolean gzip =
+                                    compressResponses
+                                            && accepts(
+                                                    headers.get(HttpHeaderNames.ACCEPT_ENCODING));
+                            return delay.then(send(response, stubResponse, chunkDelay, gzip));
+                        });
+    }
+
+    private Faults faultsFor(String path) {
+        return faults.entrySet().stream()
+                .filter(entry -> path.startsWith(entry.getKey()))
+                .max(Comparator.comparingInt(entry -> entry.getKey().length()))
+                .map(Map.Entry::getValue)
+                .orElse(Faults.NONE);
+    }
+
+    private static boolean hit(RandomGenerator random, double rate) {
+        return rate > 0 && random.nextDouble() < rate;
+    }
+
+    private static Mono<Void> delay(Duration latency) {
+        return latency.isZero() ? Mono.empty() : Mono.delay(latency).then();
+    }
+
+    // SO_LINGER 0 makes close() send an RST instead of a FIN, as a crashing upstream or a proxy
+    // dropping the connection would
+    private static Mono<Void> reset(HttpServerRequest request) {
+        return Mono.fromRunnable(
+                () ->
+                        request.withConnection(
+                                connection -> {
+                                    connection
+                                            .channel()
+                                            .config()
+                                            .setOption(ChannelOption.SO_LINGER, 0);
+                                    connection.channel().close();
+                                }));
+    }
+
+    private static Mono<Void> sendError(HttpServerResponse response, int status) {
+        return response.status(status)
+                .header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                .sendString(Mono.just("{\"error\": \"injected fault\"}"))
+                .then();
+    }
+
+    private static Mono<Void> send(
+            HttpServerResponse response,
+            StubResponse stubResponse,
+            @Nullable Duration chunkDelay,
+            boolean gzip) {
+        byte[] body = stubResponse.body();
+        response.status(stubResponse.status())
+                .header(HttpHeaderNames.CONTENT_TYPE, stubResponse.contentType());
+        if (gzip && body.length > 0) {
+            body = gzip(body);
+            response.header(HttpHeaderNames.CONTENT_ENCODING, "gzip");
+        }
+        response.header(HttpHeaderNames.CONTENT_LENGTH, String.valueOf(body.length));
+        if (chunkDelay == null || body.length == 0) {
+            return response.sendByteArray(Mono.just(body)).then();
+        }
+        // Headers go out at once, the body trickles in after them
+        return response.sendHeaders().send(chunks(body).delayElements(chunkDelay)).then();
+    }
+
+    private static boolean isGzip(@Nullable String contentEncoding) {
+        return contentEncoding != null && contentEncoding.trim().equalsIgnoreCase("gzip");
+    }
+
+    private static boolean accepts(@Nullable String acceptEncoding) {
+        return acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] body) {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return gzip.readAllBytes();
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid gzip request body", e);
+        }
+    }
+
+    private static Flux<ByteBuf> chunks(byte[] body) {
+        int chunkSize = Math.max(1, (body.length + SLOW_BODY_CHUNKS - 1) / SLOW_BODY_CHUNKS);
+        return Flux.range(0, (body.length + chunkSize - 1) / chunkSize)
+                .map(
+                        i -> {
+                            int offset = i * chunkSize;
+                            return Unpooled.wrappedBuffer(
+                                    body, offset, Math.min(chunkSize, body.length - offset));
+                        });
+    }
+}
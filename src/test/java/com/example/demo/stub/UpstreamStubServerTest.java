@@ -0,0 +1,227 @@
+package com.example.demo.stub;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+import com.example.demo.client.ara.RestfulApiClient;
+import com.example.demo.client.github.GithubUserService;
+import com.example.demo.client.httpbin.HttpBinClient;
+import com.example.demo.client.jph.JsonPlaceholderClient;
+import com.example.demo.model.ApiObject;
+import com.example.demo.model.ApiObjectRequest;
+import com.example.demo.model.BasicAuthResponse;
+import com.example.demo.model.Post;
+import com.example.demo.model.User;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.ApiVersionInserter;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.support.RestClientAdapter;
+import org.springframework.web.service.invoker.HttpServiceProxyFactory;
+
+class UpstreamStubServerTest {
+
+    private UpstreamStubServer server;
+
+    @BeforeEach
+    void setUp() {
+        server = UpstreamStubServer.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void jph_shouldServeFixturesAndEchoWrites() {
+        // Given
+        JsonPlaceholderClient client =
+                createClient(
+                        builder().apiVersionInserter(ApiVersionInserter.useHeader("X-API-VERSION")),
+                        JsonPlaceholderClient.class);
+
+        // When
+        Post post = client.getPostById(1L);
+        Post created = client.createPost(new Post(null, 1L, "title", "body"));
+
+        // Then
+        assertThat(post.title()).startsWith("sunt aut facere");
+        assertThat(client.getCommentsByPostId(1L)).hasSize(2);
+        assertThat(client.getPostsByUserId(2L)).extracting(Post::id).containsExactly(11L);
+        assertThat(client.getUserById(1L).username()).isEqualTo("Bret");
+        assertThat(created).isEqualTo(new Post(101L, 1L, "title", "body"));
+    }
+
+    @Test
+    void ara_shouldFilterObjectsByIdAndEchoWrites() {
+        // Given
+        RestfulApiClient client = createClient(builder(), RestfulApiClient.class);
+
+        // When
+        List<ApiObject> objects = client.getObjectsByIds(List.of("1", "7"));
+        ApiObject created =
+                client.createObject(new ApiObjectRequest("Stub phone", Map.of("color", "red")));
+
+        // Then
+        assertThat(objects).extracting(ApiObject::id).containsExactly("1", "7");
+        assertThat(created.id()).isNotBlank();
+        assertThat(created.name()).isEqualTo("Stub phone");
+        assertThat(created.createdAt()).isNotBlank();
+    }
+
+    @Test
+    void httpbin_shouldCheckBasicAuthCredentials() {
+        // Given
+        HttpBinClient client =
+                createClient(
+                        builder().defaultHeaders(headers -> headers.setBasicAuth("mark", "secret")),
+                        HttpBinClient.class);
+
+        // When
+        BasicAuthResponse response = client.testBasicAuth("mark", "secret");
+
+        // Then
+        assertThat(response).isEqualTo(new BasicAuthResponse(true, "mark"));
+        assertThatThrownBy(() -> client.testBasicAuth("mark", "wrong"))
+                .isInstanceOf(HttpClientErrorException.Unauthorized.class);
+    }
+
+    @Test
+    void github_shouldRequireATokenAndAcceptAVersionSegment() {
+        // Given
+        GithubUserService client =
+                createClient(
+                        builder()
+                                .apiVersionInserter(ApiVersionInserter.usePathSegment(0))
+                                .defaultApiVersion("v3")
+                                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer token"),
+                        GithubUserService.class);
+        GithubUserService anonymous = createClient(builder(), GithubUserService.class);
+
+        // When / Then
+        assertThat(client.getAuthenticatedUser().login()).isEqualTo("octocat");
+        assertThatThrownBy(anonymous::getAuthenticatedUser)
+                .isInstanceOf(HttpClientErrorException.Unauthorized.class);
+    }
+
+    @Test
+    void errors_shouldReplaceTheFixtureWithTheConfiguredStatus() {
+        // Given
+        server.setFaults(Faults.NONE.withErrors(1, 503));
+        RestClient restClient = builder().build();
+
+        // When / Then
+        assertThatThrownBy(() -> getPost(restClient))
+                .isInstanceOf(HttpServerErrorException.ServiceUnavailable.class);
+        assertThat(server.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    void faults_shouldApplyToTheLongestMatchingPathPrefix() {
+        // Given
+        server.setFaults("/posts", Faults.NONE.withErrors(1, 500));
+        RestClient restClient = builder().build();
+
+        // When / Then
+        assertThatThrownBy(() -> getPost(restClient))
+                .isInstanceOf(HttpServerErrorException.InternalServerError.class);
+        assertThat(restClient.get().uri("/users/1").retrieve().body(User.class).username())
+                .isEqualTo("Bret");
+
+        server.clearFaults();
+        assertThat(getPost(restClient).id()).isEqualTo(1L);
+    }
+
+    @Test
+    void resets_shouldFailTheExchangeWithAnIoError() {
+        // Given
+        server.setFaults(Faults.NONE.withResets(1));
+        RestClient restClient = builder().build();
+
+        // When / Then
+        assertThatThrownBy(() -> getPost(restClient)).isInstanceOf(ResourceAccessException.class);
+    }
+
+    @Test
+    void latency_shouldDelayTheResponse() {
+        // Given
+        server.setFaults(Faults.NONE.withLatency(Faults.Latency.fixed(Duration.ofMillis(200))));
+        RestClient restClient = builder().build();
+
+        // When
+        long start = System.nanoTime();
+        Post post = getPost(restClient);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        // Then
+        assertThat(post.id()).isEqualTo(1L);
+        assertThat(elapsed).isGreaterThanOrEqualTo(Duration.ofMillis(200));
+    }
+
+    @Test
+    void slowBody_shouldTripASocketReadTimeoutAfterTheHeaders() {
+        // Given
+        server.setFaults(Faults.NONE.withSlowBody(1, Duration.ofMillis(300)));
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setReadTimeout(Duration.ofMillis(100));
+        RestClient restClient = builder().requestFactory(requestFactory).build();
+
+        // When / Then
+        assertThatThrownBy(() -> getPost(restClient))
+                .isInstanceOf(RestClientException.class)
+                .hasRootCauseInstanceOf(SocketTimeoutException.class);
+    }
+
+    @Test
+    void latencyDistributions_shouldStayWithinTheirBounds() {
+        // Given
+        Faults.Latency uniform =
+                Faults.Latency.uniform(Duration.ofMillis(10), Duration.ofMillis(20));
+        Faults.Latency exponential =
+                Faults.Latency.exponential(Duration.ofMillis(5), Duration.ofMillis(10));
+        RandomGenerator random = new SplittableRandom(42);
+
+        // When / Then
+        for (int i = 0; i < 1000; i++) {
+            assertThat(uniform.next(random))
+                    .isBetween(Duration.ofMillis(10), Duration.ofMillis(20));
+            assertThat(exponential.next(random)).isGreaterThanOrEqualTo(Duration.ofMillis(5));
+        }
+        assertThatThrownBy(() -> Faults.NONE.withErrors(1.5, 500))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private RestClient.Builder builder() {
+        // The JDK client does not retry, so every injected fault reaches the caller
+        return RestClient.builder()
+                .baseUrl(server.baseUrl())
+                .requestFactory(new JdkClientHttpRequestFactory());
+    }
+
+    private static Post getPost(RestClient restClient) {
+        return restClient.get().uri("/posts/1").retrieve().body(Post.class);
+    }
+
+    private static <T> T createClient(RestClient.Builder builder, Class<T> type) {
+        return HttpServiceProxyFactory.builderFor(RestClientAdapter.create(builder.build()))
+                .build()
+                .createClient(type);
+    }
+}